@@ -0,0 +1,98 @@
+package com.spring.mssql.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+
+/**
+ * Fill the embedded database with a synthetic dataset
+ * of rooms, speakers and talks.
+ * <br>
+ * The rows are written with plain JDBC batches, so the
+ * seeding time is not part of the measured code and
+ * Hibernate does not keep anything in memory.
+ * <br>
+ * The dataset is deterministic: the same number of talks
+ * always produce the same rows.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public final class BenchmarkDataSeeder {
+
+	/**
+	 * Number of talks held, on average, by each speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final int TALKS_PER_SPEAKER = 10;
+
+	/**
+	 * Number of rooms of the synthetic conference.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final int ROOMS = 50;
+
+	private static final int BATCH_SIZE = 5_000;
+
+	private BenchmarkDataSeeder() {
+	}
+
+
+	/**
+	 * Remove the old rows and insert a new dataset.
+	 * @param jdbcTemplate used to write the rows
+	 * @param talks number of talks to insert
+	 * @return the number of speakers inserted
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static int seed(JdbcTemplate jdbcTemplate, int talks) {
+		int speakers = Math.max(1, talks / TALKS_PER_SPEAKER);
+		SplittableRandom random = new SplittableRandom(42);
+
+		jdbcTemplate.execute("DELETE FROM talks");
+		jdbcTemplate.execute("DELETE FROM speakers");
+		jdbcTemplate.execute("DELETE FROM rooms");
+
+		List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+		for (int i = 1; i <= ROOMS; i++) {
+			rows.add(new Object[] {(long) i, "Room " + i, 50L + random.nextInt(450), i % 5});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO rooms (id, room_name, room_capacity, room_floor) VALUES (?, ?, ?, ?)", rows);
+		rows.clear();
+
+		for (int i = 1; i <= speakers; i++) {
+			rows.add(new Object[] {(long) i, "First" + (i % 500), "Last" + i, 20 + random.nextInt(50)});
+			if (rows.size() == BATCH_SIZE) {
+				jdbcTemplate.batchUpdate("INSERT INTO speakers (id, first_name, last_name, age) VALUES (?, ?, ?, ?)", rows);
+				rows.clear();
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO speakers (id, first_name, last_name, age) VALUES (?, ?, ?, ?)", rows);
+		rows.clear();
+
+		for (int i = 1; i <= talks; i++) {
+			rows.add(new Object[] {(long) i, "Talk " + i + " about topic " + random.nextInt(1_000),
+					"Description of the talk number " + i, random.nextInt(4) != 0,
+					1L + random.nextInt(ROOMS), 1L + random.nextInt(speakers)});
+			if (rows.size() == BATCH_SIZE) {
+				jdbcTemplate.batchUpdate("INSERT INTO talks (id, title, description, published, room_id, speaker_id) "
+						+ "VALUES (?, ?, ?, ?, ?, ?)", rows);
+				rows.clear();
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO talks (id, title, description, published, room_id, speaker_id) "
+				+ "VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+		// The ids have been written explicitly, so move the identity columns after them.
+		jdbcTemplate.execute("ALTER TABLE rooms ALTER COLUMN id RESTART WITH " + (ROOMS + 1));
+		jdbcTemplate.execute("ALTER TABLE speakers ALTER COLUMN id RESTART WITH " + (speakers + 1));
+		jdbcTemplate.execute("ALTER TABLE talks ALTER COLUMN id RESTART WITH " + (talks + 1));
+
+		return speakers;
+	}
+}
@@ -0,0 +1,137 @@
+package com.spring.mssql.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.models.Talk;
+
+
+/**
+ * Compare the formats of the responses, JSON, Smile and CBOR,
+ * on the rows of <i>getAllJoinDTONativeQuery</i> and on the
+ * talks of <i>/talks</i>:
+ * <ul>
+ * <li><i>write</i> methods: CPU to produce the payload, as the
+ * server does; the <i>bytes</i> counter divided by the
+ * operations is the size of the payload;</li>
+ * <li><i>read</i> methods: CPU to parse the payload, as a
+ * client does, into a tree.</li>
+ * </ul>
+ * The mappers have the modules of the application.
+ * <pre>
+ * 	mvn -P benchmark verify -Djmh.args="BinaryFormatBenchmark -prof gc"
+ * </pre>
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class BinaryFormatBenchmark {
+
+	@Param({"10000"})
+	public int rows;
+
+	@Param({"json", "smile", "cbor"})
+	public String format;
+
+	private List<SpeakerTalksDTO> joinRows;
+
+	private List<Talk> talks;
+
+	private ObjectMapper mapper;
+
+	private ObjectWriter joinWriter;
+
+	private ObjectWriter talkWriter;
+
+	private byte[] joinPayload;
+
+	private byte[] talkPayload;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		joinRows = new ArrayList<>(rows);
+		talks = new ArrayList<>(rows);
+		for (int i = 1; i <= rows; i++) {
+			int speaker = 1 + i % 1000;
+			joinRows.add(new SpeakerTalksDTO("Speaker " + speaker, "Talk " + i, "Description of the talk " + i, speaker, i));
+			Talk talk = new Talk("Talk " + i, "Description of the talk " + i, i % 2 == 0, null);
+			talk.setId(i);
+			talks.add(talk);
+		}
+
+		mapper = new ObjectMapper(factory(format)).registerModule(new AfterburnerModule());
+		joinWriter = mapper.writerFor(new TypeReference<List<SpeakerTalksDTO>>() {});
+		talkWriter = mapper.writerFor(new TypeReference<List<Talk>>() {});
+		joinPayload = payload(joinWriter, joinRows);
+		talkPayload = payload(talkWriter, talks);
+	}
+
+
+	@Benchmark
+	public void writeJoinRows(JsonSerializationBenchmark.Bytes bytes) throws IOException {
+		joinWriter.writeValue(bytes, joinRows);
+	}
+
+	@Benchmark
+	public void writeTalks(JsonSerializationBenchmark.Bytes bytes) throws IOException {
+		talkWriter.writeValue(bytes, talks);
+	}
+
+	@Benchmark
+	public JsonNode readJoinRows() throws IOException {
+		return mapper.readTree(joinPayload);
+	}
+
+	@Benchmark
+	public JsonNode readTalks() throws IOException {
+		return mapper.readTree(talkPayload);
+	}
+
+
+	private static JsonFactory factory(String format) {
+		switch (format) {
+			case "smile":
+				return new SmileFactory();
+			case "cbor":
+				return new CBORFactory();
+			default:
+				return new JsonFactory();
+		}
+	}
+
+	private static byte[] payload(ObjectWriter writer, Object value) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.writeValue(out, value);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,177 @@
+package com.spring.mssql.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.spring.mssql.controllers.RoomController;
+import com.spring.mssql.controllers.SpeakerController;
+import com.spring.mssql.controllers.TalkController;
+import com.spring.mssql.dto.BulkTalkDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+
+
+/**
+ * Compare the single-item creation endpoints with the bulk ones.
+ * <br>
+ * Each invocation inserts {@value #ROWS} rows, and JMH counts each
+ * row as an operation, so the scores are rows per second.
+ * The controllers are called directly, so the numbers do not
+ * include HTTP and JSON, but each call of a single-item endpoint
+ * gets its own entity manager, as it does inside a request.
+ * <br>
+ * The rows inserted during an iteration are deleted before
+ * the next one, so every iteration starts from the same tables.
+ * <pre>
+ * 	mvn -P benchmark verify -Djmh.args="BulkInsertBenchmark"
+ * </pre>
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class BulkInsertBenchmark {
+
+	/**
+	 * Rows inserted by each invocation.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static final int ROWS = 1_000;
+
+	/**
+	 * Talks of the dataset the benchmark starts from.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static final int SEED_TALKS = 10_000;
+
+	private SpringBenchmarkContext context;
+
+	private SpeakerController speakerController;
+
+	private TalkController talkController;
+
+	private RoomController roomController;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private int speakers;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringBenchmarkContext(SEED_TALKS);
+		speakerController = context.getBean(SpeakerController.class);
+		talkController = context.getBean(TalkController.class);
+		roomController = context.getBean(RoomController.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		speakers = context.getSpeakers();
+	}
+
+	@TearDown(Level.Iteration)
+	public void removeInsertedRows() {
+		jdbcTemplate.update("DELETE FROM talks WHERE id > ?", SEED_TALKS);
+		jdbcTemplate.update("DELETE FROM speakers WHERE id > ?", speakers);
+		jdbcTemplate.update("DELETE FROM rooms WHERE id > ?", BenchmarkDataSeeder.ROOMS);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	private long speakerOf(int i) {
+		return 1 + (i % speakers);
+	}
+
+	private long roomOf(int i) {
+		return 1 + (i % BenchmarkDataSeeder.ROOMS);
+	}
+
+
+	// Speakers
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void singleSpeakers(Blackhole bh) {
+		for (int i = 0; i < ROWS; i++) {
+			Speaker speaker = new Speaker("First" + i, "Last" + i, 30);
+			bh.consume(context.inRequest(() -> speakerController.createSpeaker(speaker)));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public Object bulkSpeakers() {
+		List<Speaker> speakers = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			speakers.add(new Speaker("First" + i, "Last" + i, 30));
+		}
+		return speakerController.createSpeakers(speakers);
+	}
+
+
+	// Rooms
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void singleRooms(Blackhole bh) {
+		for (int i = 0; i < ROWS; i++) {
+			Room room = new Room("Room" + i, 100, i % 5);
+			bh.consume(context.inRequest(() -> roomController.createRoom(room)));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public Object bulkRooms() {
+		List<Room> rooms = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			rooms.add(new Room("Room" + i, 100, i % 5));
+		}
+		return roomController.createRooms(rooms);
+	}
+
+
+	// Talks
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void singleTalks(Blackhole bh) {
+		for (int i = 0; i < ROWS; i++) {
+			Talk talk = new Talk("Title" + i, "Description" + i, i % 2 == 0, null);
+			long speakerId = speakerOf(i);
+			long roomId = roomOf(i);
+			bh.consume(context.inRequest(() -> talkController.createTalk(speakerId, roomId, talk)));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public Object bulkTalks() {
+		List<BulkTalkDTO> talks = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			talks.add(new BulkTalkDTO(speakerOf(i), roomOf(i), "Title" + i, "Description" + i, i % 2 == 0));
+		}
+		return talkController.createTalks(talks);
+	}
+}
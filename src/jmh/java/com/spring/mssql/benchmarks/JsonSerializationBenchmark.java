@@ -0,0 +1,159 @@
+package com.spring.mssql.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.models.Talk;
+
+
+/**
+ * Compare the JSON serialization of the rows returned by the
+ * join and count endpoints, and of the talks:
+ * <ul>
+ * <li><i>previous</i>: bean serializer with
+ * {@code @JsonInclude(NON_DEFAULT)} on
+ * {@link com.spring.mssql.dto.SpeakerTalksDTO SpeakerTalksDTO},
+ * and reflection for the entities;</li>
+ * <li><i>current</i>: the hand-written
+ * {@link com.spring.mssql.dto.SpeakerTalksDTOSerializer SpeakerTalksDTOSerializer}
+ * and the Afterburner module, as configured by the application.</li>
+ * </ul>
+ * The rows are written to a stream that only counts the
+ * bytes, so the <i>bytes</i> counter is the JSON written per
+ * millisecond. Run it with the GC profiler and divide the
+ * allocation per operation by <i>rows</i> to get the
+ * allocation per row:
+ * <pre>
+ * 	mvn -P benchmark verify -Djmh.args="JsonSerializationBenchmark -prof gc"
+ * </pre>
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class JsonSerializationBenchmark {
+
+	@Param({"1000", "100000"})
+	public int rows;
+
+	@Param({"previous", "current"})
+	public String serialization;
+
+	private List<SpeakerTalksDTO> joinRows;
+
+	private List<SpeakerTalksDTO> countRows;
+
+	private List<Talk> talks;
+
+	private ObjectWriter joinWriter;
+
+	private ObjectWriter talkWriter;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		joinRows = new ArrayList<>(rows);
+		countRows = new ArrayList<>(rows);
+		talks = new ArrayList<>(rows);
+		for (int i = 1; i <= rows; i++) {
+			int speaker = 1 + i % 1000;
+			joinRows.add(new SpeakerTalksDTO("Speaker " + speaker, "Talk " + i,
+					i % 10 == 0 ? null : "Description of the talk " + i, speaker, i));
+			countRows.add(new SpeakerTalksDTO("Speaker " + i, i, i % 50, i % 7));
+			Talk talk = new Talk("Talk " + i, "Description of the talk " + i, i % 2 == 0, null);
+			talk.setId(i);
+			talks.add(talk);
+		}
+
+		ObjectMapper mapper = new ObjectMapper();
+		if (serialization.equals("previous"))
+			mapper.addMixIn(SpeakerTalksDTO.class, NonDefaultBean.class);
+		else
+			mapper.registerModule(new AfterburnerModule());
+		joinWriter = mapper.writerFor(new TypeReference<List<SpeakerTalksDTO>>() {});
+		talkWriter = mapper.writerFor(new TypeReference<List<Talk>>() {});
+	}
+
+
+	@Benchmark
+	public void joinRows(Bytes bytes) throws IOException {
+		joinWriter.writeValue(bytes, joinRows);
+	}
+
+	@Benchmark
+	public void countRows(Bytes bytes) throws IOException {
+		joinWriter.writeValue(bytes, countRows);
+	}
+
+	@Benchmark
+	public void talks(Bytes bytes) throws IOException {
+		talkWriter.writeValue(bytes, talks);
+	}
+
+
+	/**
+	 * Annotations of SpeakerTalksDTO before its serializer.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+	@JsonSerialize(using = JsonSerializer.None.class)
+	abstract static class NonDefaultBean {
+	}
+
+
+	/**
+	 * Stream that discards the JSON, counting its bytes.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Bytes extends OutputStream {
+
+		public long bytes;
+
+		@Override
+		public void write(int b) {
+			bytes++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			bytes += len;
+		}
+
+		// The writer closes the stream at the end of each value
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.spring.mssql.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.TalkRepository;
+import com.spring.mssql.services.TalkQueryService;
+
+
+/**
+ * Compare the cost of reading the whole talks table:
+ * <ul>
+ * <li>inside a read-write transaction, where each talk is
+ * managed, with the snapshot of its state, and checked by
+ * the flush of the commit;</li>
+ * <li>inside the read-only transaction of the repository,
+ * where the talks are loaded read-only, without snapshots,
+ * and the flush is manual;</li>
+ * <li>through the stateless session of
+ * {@link com.spring.mssql.services.TalkQueryService TalkQueryService},
+ * without persistence context at all.</li>
+ * </ul>
+ * Each call runs inside an open entity manager, as it does
+ * through HTTP. Run it with the GC profiler: the allocation
+ * per operation divided by <i>talks</i> is the memory taken
+ * by each loaded talk.
+ * <pre>
+ * 	mvn -P benchmark verify -Djmh.args="ReadOnlyQueryBenchmark -prof gc"
+ * </pre>
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class ReadOnlyQueryBenchmark {
+
+	@Param({"10000", "100000"})
+	public int talks;
+
+	private SpringBenchmarkContext context;
+
+	private TalkRepository talkRepository;
+
+	private TalkQueryService talkQueryService;
+
+	private TransactionTemplate readWrite;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringBenchmarkContext(talks);
+		talkRepository = context.getBean(TalkRepository.class);
+		talkQueryService = context.getBean(TalkQueryService.class);
+		readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+
+	@Benchmark
+	public List<Talk> readWrite() {
+		return context.inRequest(() -> readWrite.execute(status -> talkRepository.findAll()));
+	}
+
+	@Benchmark
+	public List<Talk> readOnly() {
+		return context.inRequest(talkRepository::findAll);
+	}
+
+	@Benchmark
+	public List<Talk> stateless() {
+		return context.inRequest(talkQueryService::findAll);
+	}
+}
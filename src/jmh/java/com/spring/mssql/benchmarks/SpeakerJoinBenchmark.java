@@ -0,0 +1,127 @@
+package com.spring.mssql.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.Tuple;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.dto.SpeakerTalksView;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+/**
+ * Compare the different ways to map the join between
+ * speakers and talks inside the
+ * {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}:
+ * <ul>
+ * <li>JPQL constructor expression;</li>
+ * <li>{@code @NamedNativeQuery} with {@code @SqlResultSetMapping};</li>
+ * <li>interface projection;</li>
+ * <li>{@link javax.persistence.Tuple Tuple}.</li>
+ * </ul>
+ * The per-speaker joins pick a random speaker at each call,
+ * while the "all" joins read the whole talks table.
+ * <br>
+ * Run it with the <i>benchmark</i> Maven profile, adding the
+ * GC profiler to get the allocation per operation:
+ * <pre>
+ * 	mvn -P benchmark verify -Djmh.args="SpeakerJoinBenchmark -prof gc"
+ * </pre>
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class SpeakerJoinBenchmark {
+
+	@Param({"10000", "100000", "1000000"})
+	public int talks;
+
+	private SpringBenchmarkContext context;
+
+	private SpeakerRepository speakerRepository;
+
+	private int speakers;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringBenchmarkContext(talks);
+		speakerRepository = context.getBean(SpeakerRepository.class);
+		speakers = context.getSpeakers();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	private long randomSpeaker() {
+		return 1 + ThreadLocalRandom.current().nextInt(speakers);
+	}
+
+
+	// Join of a single speaker
+	@Benchmark
+	public List<SpeakerTalksDTO> speakerTalksJPQL() {
+		return speakerRepository.getSpeakerTalksWithJoinDTOJPQL(randomSpeaker());
+	}
+
+	@Benchmark
+	public List<SpeakerTalksDTO> speakerTalksNativeQuery() {
+		return speakerRepository.getSpeakerTalksWithJoinDTONativeQuery(randomSpeaker());
+	}
+
+	@Benchmark
+	public List<SpeakerTalksView> speakerTalksProjection() {
+		return speakerRepository.getSpeakerTalksWithJoinProjection(randomSpeaker());
+	}
+
+	@Benchmark
+	public List<Tuple> speakerTalksTuple() {
+		return speakerRepository.getSpeakerTalksWithJoinTuple(randomSpeaker());
+	}
+
+
+	// Join of all the speakers
+	@Benchmark
+	public List<SpeakerTalksDTO> allJoinNativeQuery() {
+		return speakerRepository.getAllJoinDTONativeQuery();
+	}
+
+	@Benchmark
+	public List<SpeakerTalksView> allJoinProjection() {
+		return speakerRepository.getAllJoinProjection();
+	}
+
+	@Benchmark
+	public List<Tuple> allJoinTuple() {
+		return speakerRepository.getAllJoinTuple();
+	}
+
+
+	// Aggregation
+	@Benchmark
+	public List<SpeakerTalksDTO> talksCount() {
+		return speakerRepository.getTalksCount("");
+	}
+}
@@ -0,0 +1,104 @@
+package com.spring.mssql.benchmarks;
+
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.spring.SpringBootJpaConnectionApplication;
+
+
+/**
+ * Start the application, without the web server unless
+ * requested, on the embedded database defined in the
+ * <i>benchmark</i> profile and seed it with the requested
+ * number of talks.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public final class SpringBenchmarkContext implements AutoCloseable {
+
+	private final ConfigurableApplicationContext context;
+
+	private final int speakers;
+
+
+	/**
+	 * Constructor
+	 * @param talks number of talks to seed
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpringBenchmarkContext(int talks) {
+		this(talks, WebApplicationType.NONE);
+	}
+
+	/**
+	 * Constructor
+	 * @param talks number of talks to seed
+	 * @param webApplicationType {@link org.springframework.boot.WebApplicationType#SERVLET SERVLET}
+	 * to start Tomcat on a random port
+	 * @param properties extra properties, as <i>name=value</i>
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpringBenchmarkContext(int talks, WebApplicationType webApplicationType, String... properties) {
+		this.context = new SpringApplicationBuilder(SpringBootJpaConnectionApplication.class)
+				.web(webApplicationType)
+				.profiles("benchmark")
+				.properties("server.port=0")
+				.properties(properties)
+				.run();
+		this.speakers = BenchmarkDataSeeder.seed(context.getBean(JdbcTemplate.class), talks);
+	}
+
+	public <T> T getBean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	public int getSpeakers() {
+		return speakers;
+	}
+
+	public int getPort() {
+		return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+	}
+
+	/**
+	 * Run a call as it was inside an HTTP request.
+	 * <br>
+	 * The web server is not started, so the entity manager is
+	 * bound to the thread here, as the open-in-view interceptor
+	 * does for each request: the controllers that work on the
+	 * lazy collections of the entities read by the repositories
+	 * behave as they do when called through HTTP.
+	 * @param <T> type of the result
+	 * @param call to run
+	 * @return the result of the call
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public <T> T inRequest(Supplier<T> call) {
+		EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+		EntityManager em = emf.createEntityManager();
+		TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+		try {
+			return call.get();
+		} finally {
+			TransactionSynchronizationManager.unbindResource(emf);
+			em.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		context.close();
+	}
+}
@@ -0,0 +1,130 @@
+package com.spring.mssql.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+
+/**
+ * Compare, under concurrent load, the blocking listing of the
+ * published talks with the reactive one:
+ * <ul>
+ * <li><i>/TalksApi/published</i>, on JPA, which holds a Tomcat
+ * thread for the whole query and the serialization;</li>
+ * <li><i>/TalksApi/reactive/published</i>, on R2DBC, streamed as
+ * <i>application/x-ndjson</i>, which gives the thread back
+ * while the rows are read.</li>
+ * </ul>
+ * Tomcat is started on a random port with <i>serverThreads</i>
+ * request threads, and {@value #CLIENTS} JMH threads call the
+ * endpoint through HTTP, so there are more clients than
+ * request threads; both paths have a pool of 10 connections.
+ * The concurrency can be changed with the JMH <i>-t</i> option:
+ * <pre>
+ * 	mvn -P benchmark verify -Djmh.args="TalkListingBenchmark -t 256 -p serverThreads=16"
+ * </pre>
+ * The H2 R2DBC driver runs the queries on the calling thread,
+ * so the embedded database shows the cost of the two paths
+ * rather than the gain of the non-blocking I/O: for that, point
+ * <i>spring.datasource.url</i> and <i>spring.r2dbc.url</i> of the
+ * <i>benchmark</i> profile to a SQL Server with the same data.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(TalkListingBenchmark.CLIENTS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class TalkListingBenchmark {
+
+	/**
+	 * Concurrent clients.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static final int CLIENTS = 64;
+
+	@Param({"1000", "10000"})
+	public int talks;
+
+	@Param({"8", "32"})
+	public int serverThreads;
+
+	private SpringBenchmarkContext context;
+
+	private String blockingUrl;
+
+	private String reactiveUrl;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringBenchmarkContext(talks, WebApplicationType.SERVLET,
+				"server.tomcat.threads.max=" + serverThreads,
+				"server.tomcat.threads.min-spare=" + serverThreads);
+		String base = "http://localhost:" + context.getPort() + "/TalksApi";
+		blockingUrl = base + "/published";
+		reactiveUrl = base + "/reactive/published";
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+
+	@Benchmark
+	public long blocking() throws IOException {
+		return get(blockingUrl, "application/json");
+	}
+
+	@Benchmark
+	public long reactive() throws IOException {
+		return get(reactiveUrl, "application/x-ndjson");
+	}
+
+
+	/**
+	 * Call an endpoint and read the whole body.
+	 * @param url of the endpoint
+	 * @param accept media type asked to the endpoint
+	 * @return the bytes of the body
+	 * @throws IOException if the call fails or the status is not 200
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static long get(String url, String accept) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestProperty("Accept", accept);
+		if (connection.getResponseCode() != HttpURLConnection.HTTP_OK)
+			throw new IOException(url + " returned " + connection.getResponseCode());
+		long bytes = 0;
+		byte[] buffer = new byte[8192];
+		try (InputStream in = connection.getInputStream()) {
+			for (int n; (n = in.read(buffer)) != -1;) {
+				bytes += n;
+			}
+		}
+		return bytes;
+	}
+}
@@ -4,10 +4,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.spring.mssql.models.Speaker;
 
 @SpringBootApplication
+@EnableScheduling
 public class SpringBootJpaConnectionApplication {
 
 	private static final Logger logger = LogManager.getLogger(Speaker.class.getName());
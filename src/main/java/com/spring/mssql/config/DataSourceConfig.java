@@ -0,0 +1,118 @@
+package com.spring.mssql.config;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.spring.mssql.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+
+/**
+ * JDBC data source used by JPA.
+ * <br>
+ * Spring Boot does not create the data source when an R2DBC
+ * connection factory exists, as it does since the reactive
+ * read path of the talks has been added, so it is created here
+ * from the same <i>spring.datasource.*</i> and
+ * <i>spring.datasource.hikari.*</i> properties.
+ * <br>
+ * When at least one read replica is configured, with the
+ * <i>datasource.replicas[n].*</i> properties, the read-only
+ * transactions are sent to the replicas by
+ * {@link com.spring.mssql.datasource.ReadWriteRoutingDataSource ReadWriteRoutingDataSource}.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+	/**
+	 * Hikari pool of the JDBC connections to the primary.
+	 * @param properties the <i>spring.datasource.*</i> properties
+	 * @return the data source
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+
+	/**
+	 * Routing between the primary and the read replicas, created
+	 * only when <i>datasource.replicas[0].jdbc-url</i> is set.
+	 * <br>
+	 * Each replica is a Hikari pool bound from its
+	 * <i>datasource.replicas[n].*</i> properties (jdbc-url,
+	 * username, password, maximum-pool-size...); username,
+	 * password and driver default to the ones of the primary.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty("datasource.replicas[0].jdbc-url")
+	static class ReplicasConfig {
+
+		/**
+		 * Data source used by JPA: it asks the routing data source
+		 * for a connection only at the first statement, when the
+		 * read-only flag of the transaction is known.
+		 * @param routingDataSource the routing between primary and replicas
+		 * @return the data source
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		@Bean
+		@Primary
+		public LazyConnectionDataSourceProxy readWriteDataSource(ReadWriteRoutingDataSource routingDataSource) {
+			return new LazyConnectionDataSourceProxy(routingDataSource);
+		}
+
+		/**
+		 * Routing between primary and replicas.
+		 * @param dataSource the primary
+		 * @param environment to bind the replicas from
+		 * @param balancing <i>round-robin</i> or <i>least-connections</i>
+		 * @param stickyMillis milliseconds after a write during which the reads stay on the primary
+		 * @return the routing data source
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		@Bean
+		public ReadWriteRoutingDataSource routingDataSource(HikariDataSource dataSource, Environment environment,
+				@Value("${datasource.routing.balancing:round-robin}") ReadWriteRoutingDataSource.Balancing balancing,
+				@Value("${datasource.routing.sticky-ms:2000}") long stickyMillis) {
+			List<HikariDataSource> replicas = Binder.get(environment)
+					.bind("datasource.replicas", Bindable.listOf(HikariDataSource.class))
+					.orElse(Collections.emptyList());
+			for (int i = 0; i < replicas.size(); i++) {
+				HikariDataSource replica = replicas.get(i);
+				if (replica.getUsername() == null) {
+					replica.setUsername(dataSource.getUsername());
+					replica.setPassword(dataSource.getPassword());
+				}
+				if (replica.getDriverClassName() == null)
+					replica.setDriverClassName(dataSource.getDriverClassName());
+				if (replica.getPoolName() == null)
+					replica.setPoolName("replica-" + i);
+			}
+			return new ReadWriteRoutingDataSource(dataSource, replicas, balancing, stickyMillis);
+		}
+	}
+}
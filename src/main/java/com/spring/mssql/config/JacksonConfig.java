@@ -0,0 +1,71 @@
+package com.spring.mssql.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+
+/**
+ * Modules added to the Jackson mapper of Spring Boot,
+ * which registers each {@link com.fasterxml.jackson.databind.Module Module} bean,
+ * and the converters of the binary formats.
+ * <br>
+ * Besides JSON, the endpoints without a <i>produces</i>
+ * return CBOR (<i>application/cbor</i>) or Smile
+ * (<i>application/x-jackson-smile</i>) when the client asks
+ * for them with the Accept header. The mappers of the binary
+ * formats are built by the same builder of the JSON one, so
+ * they share its modules and settings.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Configuration(proxyBeanMethods = false)
+public class JacksonConfig {
+
+	/**
+	 * Afterburner replaces the reflection of the bean
+	 * serializers, used for the entities and the other DTOs,
+	 * with accessors generated as bytecode the first time a
+	 * class is serialized.
+	 * @return the module
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Bean
+	public Module afterburnerModule() {
+		return new AfterburnerModule();
+	}
+
+
+	/**
+	 * Converter of the <i>application/cbor</i> responses.
+	 * @param builder the Jackson builder configured by Spring Boot, a new one for each bean
+	 * @return the converter
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+
+	/**
+	 * Converter of the <i>application/x-jackson-smile</i> responses.
+	 * @param builder the Jackson builder configured by Spring Boot, a new one for each bean
+	 * @return the converter
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+}
@@ -0,0 +1,25 @@
+package com.spring.mssql.config;
+
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+
+/**
+ * Split of the repositories between JPA and R2DBC.
+ * <br>
+ * Both modules scan <i>com.spring.mssql.repositories</i>, and
+ * JPA would also take the reactive repositories, as their
+ * entities are annotated with
+ * {@link javax.persistence.Entity @Entity}: here they are
+ * excluded from JPA, so they are created only by R2DBC.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Configuration(proxyBeanMethods = false)
+@EnableJpaRepositories(basePackages = "com.spring.mssql.repositories",
+		excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class RepositoriesConfig {
+}
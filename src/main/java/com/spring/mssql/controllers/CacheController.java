@@ -0,0 +1,88 @@
+package com.spring.mssql.controllers;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.spring.mssql.dto.CacheRegionStatisticsDTO;
+import com.spring.mssql.services.CacheService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+
+/**
+ * This is the controller for the Hibernate second-level
+ * cache, where its statistics are exposed.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@CrossOrigin(origins = "http://localhost:8080")
+@RestController
+@RequestMapping("/CacheApi")
+public class CacheController {
+
+	/**
+	 * Logger of the errors of the endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final Logger logger = LogManager.getLogger(CacheController.class);
+
+	/**
+	 * Service that reads the statistics of the cache.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	CacheService cacheService;
+
+
+	/**
+	 * With this constructor we will avoid the use of the
+	 * {@link org.springframework.beans.factory.annotation.Autowired @Autowired}
+	 * annotation.
+	 * @param cacheService an instance of {@link com.spring.mssql.services.CacheService CacheService}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public CacheController(CacheService cacheService) {
+		this.cacheService = cacheService;
+	}
+
+
+	/**
+	 * Method that will return hits, misses and puts of
+	 * each region of the second-level cache.
+	 * @return {@link org.springframework.lang.Nullable.HttpStatus#OK 200}
+	 * and the statistics of the regions, or
+	 * {@link org.springframework.lang.Nullable.HttpStatus#NO_CONTENT 204}
+	 * if the cache is disabled.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@GetMapping("/statistics")
+	@Operation(summary = "Statistics of the second-level cache.",
+		description = "Hits, misses and puts of each region, collected if hibernate.generate_statistics is enabled.",
+		responses = {
+				@ApiResponse(responseCode = "200", description = "Statistics of the regions."),
+				@ApiResponse(responseCode = "204", description = "The second-level cache is disabled.")})
+	public ResponseEntity<List<CacheRegionStatisticsDTO>> getStatistics() {
+		try {
+			List<CacheRegionStatisticsDTO> statistics = cacheService.getRegionStatistics();
+			if (statistics.isEmpty()) {
+				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+			}
+			return new ResponseEntity<>(statistics, HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getStatistics failed", e);
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+}
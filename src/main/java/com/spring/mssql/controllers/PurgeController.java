@@ -0,0 +1,124 @@
+package com.spring.mssql.controllers;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.spring.mssql.dto.PurgeStatusDTO;
+import com.spring.mssql.services.PurgeService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+
+/**
+ * This is the controller of the purges of the talks and
+ * speakers tables, started by
+ * {@link com.spring.mssql.controllers.TalkController#deleteAllTalks(boolean) deleteAllTalks} and
+ * {@link com.spring.mssql.controllers.SpeakerController#deleteAllSpeakers(boolean) deleteAllSpeakers},
+ * where their progress is read and where they are cancelled.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@CrossOrigin(origins = "http://localhost:8080")
+@RestController
+@RequestMapping("/PurgeApi")
+public class PurgeController {
+
+	/**
+	 * Logger of the errors of the endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final Logger logger = LogManager.getLogger(PurgeController.class);
+
+	/**
+	 * Service that runs the purges.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	PurgeService purgeService;
+
+
+	/**
+	 * With this constructor we will avoid the use of the
+	 * {@link org.springframework.beans.factory.annotation.Autowired @Autowired}
+	 * annotation.
+	 * @param purgeService an instance of {@link com.spring.mssql.services.PurgeService PurgeService}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public PurgeController(PurgeService purgeService) {
+		this.purgeService = purgeService;
+	}
+
+
+	/**
+	 * Method that will return the status of the running
+	 * and of the recently ended purges.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@GetMapping("/purges")
+	@Operation(summary = "Status of the purges.",
+		responses = {@ApiResponse(responseCode = "200", description = "Running and recently ended purges.")})
+	public ResponseEntity<List<PurgeStatusDTO>> getPurges() {
+		try {
+			return new ResponseEntity<>(purgeService.getStatuses(), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getPurges failed", e);
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+
+	/**
+	 * Method that will return the status of a purge.
+	 * @param id of the purge
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@GetMapping("/purges/{id}")
+	@Operation(summary = "Status of a purge.",
+		responses = {
+				@ApiResponse(responseCode = "200", description = "Rows deleted so far and state of the purge."),
+				@ApiResponse(responseCode = "404", description = "Purge not found.")})
+	public ResponseEntity<PurgeStatusDTO> getPurge(@PathVariable("id") String id) {
+		Optional<PurgeStatusDTO> status = purgeService.getStatus(id);
+		if (status.isPresent()) {
+			return new ResponseEntity<>(status.get(), HttpStatus.OK);
+		}
+		return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+	}
+
+
+	/**
+	 * Method that will cancel a purge: the rows already
+	 * deleted stay deleted, the others are kept.
+	 * @param id of the purge
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@DeleteMapping("/purges/{id}")
+	@Operation(summary = "Cancel a purge.",
+		responses = {
+				@ApiResponse(responseCode = "202", description = "The purge stops after the current chunk."),
+				@ApiResponse(responseCode = "404", description = "Purge not found.")})
+	public ResponseEntity<PurgeStatusDTO> cancelPurge(@PathVariable("id") String id) {
+		Optional<PurgeStatusDTO> status = purgeService.cancel(id);
+		if (status.isPresent()) {
+			return new ResponseEntity<>(status.get(), HttpStatus.ACCEPTED);
+		}
+		return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+	}
+}
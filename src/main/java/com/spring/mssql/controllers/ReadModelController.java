@@ -0,0 +1,101 @@
+package com.spring.mssql.controllers;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.spring.mssql.dto.ReadModelCheckDTO;
+import com.spring.mssql.services.JoinReadModelService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+
+/**
+ * This is the controller of the in-memory read model that
+ * answers the joins between speakers and talks, where it is
+ * compared with the database and rebuilt.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@CrossOrigin(origins = "http://localhost:8080")
+@RestController
+@RequestMapping("/ReadModelApi")
+public class ReadModelController {
+
+	/**
+	 * Logger of the errors of the endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final Logger logger = LogManager.getLogger(ReadModelController.class);
+
+	/**
+	 * Service that holds the read model.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	JoinReadModelService joinReadModelService;
+
+
+	/**
+	 * With this constructor we will avoid the use of the
+	 * {@link org.springframework.beans.factory.annotation.Autowired @Autowired}
+	 * annotation.
+	 * @param joinReadModelService an instance of {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public ReadModelController(JoinReadModelService joinReadModelService) {
+		this.joinReadModelService = joinReadModelService;
+	}
+
+
+	/**
+	 * Method that will compare the read model with the
+	 * speakers and talks tables.
+	 * @return {@link org.springframework.lang.Nullable.HttpStatus#OK 200}
+	 * and the number of speakers and talks that differ.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@GetMapping("/check")
+	@Operation(summary = "Compare the join read model with the database.",
+		description = "Reads all the speakers and talks; the rows written meanwhile can be counted as different.",
+		responses = {@ApiResponse(responseCode = "200", description = "Speakers and talks that differ.")})
+	public ResponseEntity<ReadModelCheckDTO> check() {
+		try {
+			return new ResponseEntity<>(joinReadModelService.check(), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("check failed", e);
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+
+	/**
+	 * Method that will build again the read model from
+	 * the speakers and talks tables, without waiting for
+	 * the periodic rebuild.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PostMapping("/rebuild")
+	@Operation(summary = "Rebuild the join read model.",
+		responses = {@ApiResponse(responseCode = "204", description = "The model has been rebuilt.")})
+	public ResponseEntity<Void> rebuild() {
+		try {
+			joinReadModelService.rebuild();
+			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		} catch (Exception e) {
+			logger.error("rebuild failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+}
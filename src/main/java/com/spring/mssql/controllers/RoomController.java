@@ -1,10 +1,13 @@
 package com.spring.mssql.controllers;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -13,11 +16,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.spring.mssql.dto.BulkItemResultDTO;
+import com.spring.mssql.dto.RoomTalksCountView;
+import com.spring.mssql.dto.RoomTalksDTO;
+import com.spring.mssql.dto.RoomView;
+import com.spring.mssql.etag.ETags;
 import com.spring.mssql.models.Room;
+import com.spring.mssql.pagination.KeysetCursor;
+import com.spring.mssql.pagination.KeysetPagination;
+import com.spring.mssql.pagination.KeysetSlice;
 import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.services.BulkInsertService;
+import com.spring.mssql.services.RoomService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -48,6 +64,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 @RequestMapping("/RoomsApi")
 public class RoomController {
 
+	/**
+	 * Logger of the errors of the endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final Logger logger = LogManager.getLogger(RoomController.class);
+
 	
 	
 	/**
@@ -59,6 +82,30 @@ public class RoomController {
 	 * @author fforfabio
 	 **/
 	RoomRepository roomRepository;
+	
+	
+	/**
+	 * Helper for the keyset pagination endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	KeysetPagination keysetPagination;
+	
+	
+	/**
+	 * Service for the bulk creation of rooms.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	BulkInsertService bulkInsertService;
+	
+	
+	/**
+	 * Service for the rooms with their talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	RoomService roomService;
 
 	
 	/**
@@ -66,26 +113,69 @@ public class RoomController {
 	 * {@link org.springframework.beans.factory.annotation.Autowired @Autowired} 
 	 * annotation.
 	 * @param roomRepository an instance of {@link com.spring.mssql.repositories.RoomRepository RoomRepository}
+	 * @param keysetPagination an instance of {@link com.spring.mssql.pagination.KeysetPagination KeysetPagination}
+	 * @param bulkInsertService an instance of {@link com.spring.mssql.services.BulkInsertService BulkInsertService}
+	 * @param roomService an instance of {@link com.spring.mssql.services.RoomService RoomService}
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
-	public RoomController(RoomRepository roomRepository) {
+	public RoomController(RoomRepository roomRepository, KeysetPagination keysetPagination,
+			BulkInsertService bulkInsertService, RoomService roomService) {
 		this.roomRepository = roomRepository;
+		this.keysetPagination = keysetPagination;
+		this.bulkInsertService = bulkInsertService;
+		this.roomService = roomService;
 	}
 	
 	
 	/**
 	 * Method that will return all the Rooms inside the
-	 * database.
+	 * database, without their talks.
+	 * <br>
+	 * The rooms are read with a single query through the
+	 * {@link com.spring.mssql.dto.RoomView RoomView} projection.
+	 * <br>
+	 * The response has the ETag of the rooms table: when the
+	 * client sends it back with If-None-Match and the table
+	 * has not changed, the response is a
+	 * {@link org.springframework.http.HttpStatus#NOT_MODIFIED 304}
+	 * and the rooms are not read.
+	 * @param request to check the If-None-Match header
 	 * @since 1.0.0
 	 * @author fforfabio
 	 **/
 	@GetMapping("/rooms")
-	public ResponseEntity<List<Room>> getAllRooms() {
+	public ResponseEntity<List<RoomView>> getAllRooms(WebRequest request) {
 		try {
-			List<Room> rooms = new ArrayList<Room>();
+			String etag = ETags.of("rooms", roomRepository.getTableVersion());
+			if (request.checkNotModified(etag))
+				return null;
+
+			List<RoomView> rooms = roomRepository.findAllProjectedByOrderByIdAsc();
+
+			if (rooms.isEmpty()) {
+				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+			}
 			
-			roomRepository.findAll().forEach(rooms::add);
+			return ResponseEntity.ok().eTag(etag).body(rooms);
+		} catch (Exception e) {
+			logger.error("getAllRooms failed", e);
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Method that will return all the Rooms with the
+	 * number of the talks taken in each one, counted
+	 * by a single query.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@GetMapping("/roomsWithTalksCount")
+	public ResponseEntity<List<RoomTalksCountView>> getAllRoomsWithTalksCount() {
+		try {
+			List<RoomTalksCountView> rooms = roomRepository.findAllWithTalksCount();
 
 			if (rooms.isEmpty()) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -93,25 +183,91 @@ public class RoomController {
 			
 			return new ResponseEntity<>(rooms, HttpStatus.OK);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getAllRoomsWithTalksCount failed", e);
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
 	
+	
+	/**
+	 * Method that will return all the Rooms with the
+	 * summaries of their talks, read by
+	 * {@link com.spring.mssql.services.RoomService#findAllWithTalks() findAllWithTalks}
+	 * with two queries.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@GetMapping("/roomsWithTalks")
+	public ResponseEntity<List<RoomTalksDTO>> getAllRoomsWithTalks() {
+		try {
+			List<RoomTalksDTO> rooms = roomService.findAllWithTalks();
+
+			if (rooms.isEmpty()) {
+				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+			}
+			
+			return new ResponseEntity<>(rooms, HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getAllRoomsWithTalks failed", e);
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Keyset pagination version of
+	 * {@link #getAllRooms(WebRequest) getAllRooms}.
+	 * The rooms are sorted by id.
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of rooms for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@GetMapping("/roomsKeyset")
+	public ResponseEntity<KeysetSlice<Room>> getAllRoomsWithKeyset(
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getAllRoomsWithKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<Room> slice = roomRepository.findByIdGreaterThanOrderByIdAsc(c.getId(), keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, r -> new KeysetCursor(r.getId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getAllRoomsWithKeyset failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
 
 	/**
 	 * Method that will return a Room with a specific ID.
+	 * <br>
+	 * The response has the ETag of the version of the room:
+	 * when the client sends it back with If-None-Match, only
+	 * the version is read and, if it has not changed, the
+	 * response is a
+	 * {@link org.springframework.http.HttpStatus#NOT_MODIFIED 304}.
 	 * @param id of the room to search for
+	 * @param request to check the If-None-Match header
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@GetMapping("/room/{id}")
 	// @PathVarible will retrieve the parameter from the url
-	public ResponseEntity<Room> getRoomById(@PathVariable("id") long id) {
+	public ResponseEntity<Room> getRoomById(@PathVariable("id") long id, WebRequest request) {
+		Optional<Long> version = roomRepository.findVersionById(id);
+		if (version.isPresent() && request.checkNotModified(ETags.of("room", id, version.get())))
+			return null;
+
 		Optional<Room> roomData = roomRepository.findById(id);
 
 		if (roomData.isPresent()) {
-			return new ResponseEntity<>(roomData.get(), HttpStatus.OK);
+			return ResponseEntity.ok().eTag(ETags.of("room", id, roomData.get().getVersion())).body(roomData.get());
 		} else {
 			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 		}
@@ -137,7 +293,43 @@ public class RoomController {
 			Room _room = roomRepository.save(new Room(room.getRoomName(), room.getRoomCapacity(), room.getRoomFloor()));
 			return new ResponseEntity<>(_room, HttpStatus.CREATED);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("createRoom failed", e);
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Method that will create a list of rooms inside the database,
+	 * in a single transaction.
+	 * <br>
+	 * Each item has its own result: the invalid items are
+	 * rejected, while the others are created. The response status is
+	 * {@link org.springframework.http.HttpStatus#CREATED 201} when
+	 * all the items have been created, otherwise
+	 * {@link org.springframework.http.HttpStatus#MULTI_STATUS 207}.
+	 * @param rooms a list of {@link com.spring.mssql.models.Room Room} to save
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@PostMapping("/createRooms")
+	@Operation(summary = "Create a list of rooms.",
+    	description = "Create a list of rooms in a single transaction, with a result for each room.",
+    	tags = {"Create room"},
+    	responses = {
+    			@ApiResponse(responseCode = "201", description = "All the rooms created."),
+    			@ApiResponse(responseCode = "207", description = "Some rooms rejected."),
+                @ApiResponse(responseCode = "400", description = "Too many rooms.")})
+	public ResponseEntity<List<BulkItemResultDTO>> createRooms(@RequestBody List<Room> rooms) {
+		try {
+			List<BulkItemResultDTO> results = bulkInsertService.createRooms(rooms);
+			boolean allCreated = results.stream().allMatch(r -> r.getStatus() == BulkItemResultDTO.Status.CREATED);
+			return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+		} catch (IllegalArgumentException e) {
+			logger.debug("createRooms rejected: {}", e.getMessage());
+			return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+		} catch (Exception e) {
+			logger.error("createRooms failed", e);
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -155,8 +347,16 @@ public class RoomController {
 	 * If the room is not inside the database a new
 	 * {@link org.springframework.data.rest.webmvc.ResourceNotFoundException ResourceNotFoundException}
 	 * is throw.
+	 * <br>
+	 * The room is updated only if its version has not changed
+	 * since it has been read: with the If-Match header, the
+	 * version of the header, otherwise the one read here.
+	 * If it has changed, the response is a
+	 * {@link org.springframework.http.HttpStatus#PRECONDITION_FAILED 412}.
+	 * The response has the ETag of the updated room.
 	 * @param roomId id of the Room to update
 	 * @param room the Room object with it's new attribute's values
+	 * @param ifMatch the ETag of the room read by the client, optional
 	 * @throws ResourceNotFoundException if the room is not found
 	 * @since 1.0.1
 	 * @author fforfabio 
@@ -167,15 +367,20 @@ public class RoomController {
     	responses = {
     			@ApiResponse(responseCode = "201", description = "Room updated."),
                 @ApiResponse(responseCode = "400", description = "Cannot update room.")})
-	public ResponseEntity<Room> updateRoom(@PathVariable("roomId") long roomId, @RequestBody Room room) {
+	public ResponseEntity<Room> updateRoom(@PathVariable("roomId") long roomId, @RequestBody Room room,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		try {
-			if(roomRepository.findById(roomId).isPresent()) {
-				roomRepository.updateRoom(roomId, room.getRoomName(), room.getRoomCapacity(), room.getRoomFloor());
-				return new ResponseEntity<>(HttpStatus.OK);
+			Optional<Long> current = roomRepository.findVersionById(roomId);
+			if(current.isPresent()) {
+				long version = ETags.version(ifMatch, "room", roomId).orElse(current.get());
+				if(version != current.get() || roomRepository.updateRoom(roomId, room.getRoomName(),
+						room.getRoomCapacity(), room.getRoomFloor(), version) == 0)
+					return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+				return ResponseEntity.ok().eTag(ETags.of("room", roomId, version + 1)).build();
 			}
 			throw new ResourceNotFoundException("Room " + roomId + " not found.");
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("updateRoom failed", e);
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -1,26 +1,58 @@
 package com.spring.mssql.controllers;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import com.spring.mssql.dto.BulkItemResultDTO;
+import com.spring.mssql.dto.PurgeStatusDTO;
+import com.spring.mssql.dto.SpeakerProfileDTO;
+import com.spring.mssql.dto.SpeakerTalksColumnsDTO;
 import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.dto.SpeakerView;
+import com.spring.mssql.etag.ETags;
 import com.spring.mssql.models.Speaker;
-import com.spring.mssql.models.Talk;
+import com.spring.mssql.pagination.KeysetCursor;
+import com.spring.mssql.pagination.KeysetPagination;
+import com.spring.mssql.pagination.KeysetSlice;
 import com.spring.mssql.repositories.SpeakerRepository;
 import com.spring.mssql.repositories.TalkRepository;
+import com.spring.mssql.services.BulkInsertService;
+import com.spring.mssql.services.JoinReadModelService;
+import com.spring.mssql.services.PartialUpdateService;
+import com.spring.mssql.services.PurgeService;
+import com.spring.mssql.services.SpeakerProfileService;
+import com.spring.mssql.services.SpeakerService;
+import com.spring.mssql.services.TalkCounterService;
 
 import io.swagger.v3.oas.annotations.*;
 import io.swagger.v3.oas.annotations.responses.*;
@@ -51,6 +83,13 @@ import io.swagger.v3.oas.annotations.responses.*;
 @RequestMapping("/SpeakersApi")
 public class SpeakerController {
 
+	/**
+	 * Logger of the errors of the endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final Logger logger = LogManager.getLogger(SpeakerController.class);
+
 	/**
 	 * To perform a call to a query declared inside 
 	 * the {@link com.spring.mssql.repositories.TalkRepository TalkRepository} 
@@ -71,6 +110,85 @@ public class SpeakerController {
 	 * @author fforfabio
 	 **/
 	SpeakerRepository speakerRepository;
+	
+	
+	/**
+	 * Service with the transactional operations on the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerService speakerService;
+	
+	
+	/**
+	 * Service for the bulk creation of speakers.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	BulkInsertService bulkInsertService;
+	
+	
+	/**
+	 * Service with the counters of the talks of each speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkCounterService talkCounterService;
+	
+	
+	/**
+	 * Service that reads the parts of the profile
+	 * of a speaker in parallel.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerProfileService speakerProfileService;
+	
+	
+	/**
+	 * Writer used by the streaming endpoints.
+	 * It does not flush after each row, so the rows are
+	 * sent to the client each time the response buffer is full.
+	 * It is bound to the type of the rows, so their serializer
+	 * is looked up once for each response instead of for each row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	ObjectWriter streamWriter;
+	
+	
+	/**
+	 * Helper for the keyset pagination endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	KeysetPagination keysetPagination;
+	
+	
+	/**
+	 * Service for the partial updates of the speakers.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	PartialUpdateService partialUpdateService;
+	
+	
+	/**
+	 * Service for the deletion of all the speakers.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	PurgeService purgeService;
+	
+	
+	/**
+	 * Service with the read model that answers
+	 * the joins between speakers and talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	JoinReadModelService joinReadModelService;
 
 	
 	/**
@@ -79,34 +197,67 @@ public class SpeakerController {
 	 * annotation.
 	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
 	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @param speakerService an instance of {@link com.spring.mssql.services.SpeakerService SpeakerService}
+	 * @param objectMapper the Jackson mapper configured by Spring Boot
+	 * @param keysetPagination an instance of {@link com.spring.mssql.pagination.KeysetPagination KeysetPagination}
+	 * @param bulkInsertService an instance of {@link com.spring.mssql.services.BulkInsertService BulkInsertService}
+	 * @param talkCounterService an instance of {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+	 * @param speakerProfileService an instance of {@link com.spring.mssql.services.SpeakerProfileService SpeakerProfileService}
+	 * @param partialUpdateService an instance of {@link com.spring.mssql.services.PartialUpdateService PartialUpdateService}
+	 * @param purgeService an instance of {@link com.spring.mssql.services.PurgeService PurgeService}
+	 * @param joinReadModelService an instance of {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
-	public SpeakerController(TalkRepository talkRepository, SpeakerRepository speakerRepository) {
+	public SpeakerController(TalkRepository talkRepository, SpeakerRepository speakerRepository,
+			SpeakerService speakerService, ObjectMapper objectMapper, KeysetPagination keysetPagination,
+			BulkInsertService bulkInsertService, TalkCounterService talkCounterService,
+			SpeakerProfileService speakerProfileService, PartialUpdateService partialUpdateService,
+			PurgeService purgeService, JoinReadModelService joinReadModelService) {
 		this.talkRepository = talkRepository;
 		this.speakerRepository = speakerRepository;
+		this.speakerService = speakerService;
+		this.bulkInsertService = bulkInsertService;
+		this.talkCounterService = talkCounterService;
+		this.speakerProfileService = speakerProfileService;
+		this.streamWriter = objectMapper.writerFor(SpeakerTalksDTO.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.keysetPagination = keysetPagination;
+		this.partialUpdateService = partialUpdateService;
+		this.purgeService = purgeService;
+		this.joinReadModelService = joinReadModelService;
 	}
 	
 	
 	/**
 	 * Retrieve all the speakers inside the speakers table.
+	 * <br>
+	 * The response has the ETag of the speakers and talks
+	 * tables, as each speaker is returned with its talks: when
+	 * the client sends it back with If-None-Match and neither
+	 * table has changed, the response is a
+	 * {@link org.springframework.http.HttpStatus#NOT_MODIFIED 304}
+	 * and the speakers are not read.
+	 * @param request to check the If-None-Match header
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@GetMapping("/speakers")
-	public ResponseEntity<List<Speaker>> getAllSpeakers() {
+	public ResponseEntity<List<Speaker>> getAllSpeakers(WebRequest request) {
 		try {
-			List<Speaker> speakers = new ArrayList<Speaker>();
+			String etag = ETags.of("speakers", speakerRepository.getTableVersion(), talkRepository.getTableVersion());
+			if (request.checkNotModified(etag))
+				return null;
 
-			speakerRepository.findAll().forEach(speakers::add);
+			List<Speaker> speakers = speakerService.findAllWithTalks();
 
 			if (speakers.isEmpty()) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 			}
 			
-			return new ResponseEntity<>(speakers, HttpStatus.OK);
+			return ResponseEntity.ok().eTag(etag).body(speakers);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getAllSpeakers failed", e);
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -114,23 +265,80 @@ public class SpeakerController {
 	
 	/**
 	 * Method that will retrieve a specific speaker.
+	 * <br>
+	 * The response has the ETag of the version of the speaker
+	 * and of the state of its talks, as they are returned with
+	 * it: when the client sends it back with If-None-Match, only
+	 * the version and the count of the talks are read and, if
+	 * neither has changed, the response is a
+	 * {@link org.springframework.http.HttpStatus#NOT_MODIFIED 304}.
+	 * The version inside the tag is the one checked by the
+	 * If-Match header of {@link #patchSpeaker patchSpeaker}.
 	 * @param id of the speaker to search for
+	 * @param request to check the If-None-Match header
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@GetMapping("/speakers/{id}")
 	// @PathVarible will retrieve the parameter from the url
-	public ResponseEntity<Speaker> getSpeakerById(@PathVariable("id") long id) {
-		Optional<Speaker> speakerData = speakerRepository.findById(id);
+	public ResponseEntity<Speaker> getSpeakerById(@PathVariable("id") long id, WebRequest request) {
+		Optional<Long> version = speakerRepository.findVersionById(id);
+		if (!version.isPresent())
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		// Read before the speaker, so a write in between makes the tag older than the body, never newer
+		String etag = ETags.of("speaker", id, version.get(), talkRepository.getSpeakerTalksVersion(id));
+		if (request.checkNotModified(etag))
+			return null;
+
+		Optional<Speaker> speakerData = speakerService.findByIdWithTalks(id);
 
 		if (speakerData.isPresent()) {
-			return new ResponseEntity<>(speakerData.get(), HttpStatus.OK);
+			return ResponseEntity.ok().eTag(etag).body(speakerData.get());
 		} else {
 			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 		}
 	}
 	
 	
+	/**
+	 * Method that will retrieve the profile of a speaker: its data,
+	 * its talks, the counters of its talks and the rooms where it spoke.
+	 * <br>
+	 * The parts are read in parallel by
+	 * {@link com.spring.mssql.services.SpeakerProfileService SpeakerProfileService},
+	 * so the response takes about as long as the slowest of them.
+	 * The response status is
+	 * {@link org.springframework.http.HttpStatus#OK 200} when
+	 * all the parts have been read, otherwise
+	 * {@link org.springframework.http.HttpStatus#MULTI_STATUS 207}
+	 * with the missing parts inside <i>errors</i>.
+	 * @param id of the speaker
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/speakers/{id}/profile")
+	@Operation(summary = "Retrieve the profile of a speaker.",
+    	description = "Retrieve the speaker, its talks, the counters of its talks and its rooms, read in parallel.",
+    	tags = {"Speaker profile"},
+    	responses = {
+    			@ApiResponse(responseCode = "200", description = "Complete profile."),
+    			@ApiResponse(responseCode = "207", description = "Some parts are missing, see errors."),
+                @ApiResponse(responseCode = "404", description = "Speaker not found.")})
+	public ResponseEntity<SpeakerProfileDTO> getSpeakerProfile(@PathVariable("id") long id) {
+		try {
+			Optional<SpeakerProfileDTO> profile = speakerProfileService.getProfile(id);
+			if (!profile.isPresent()) {
+				return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+			}
+			return new ResponseEntity<>(profile.get(),
+					profile.get().isComplete() ? HttpStatus.OK : HttpStatus.MULTI_STATUS);
+		} catch (Exception e) {
+			logger.error("getSpeakerProfile failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
 	/**
 	 * Method that will create a new speaker.
 	 * @param speaker an instance of {@link com.spring.mssql.models.Speaker Speaker}
@@ -151,7 +359,43 @@ public class SpeakerController {
 					new Speaker(speaker.getFirstName(), speaker.getLastName(), speaker.getAge()));
 			return new ResponseEntity<>(_speaker, HttpStatus.CREATED);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("createSpeaker failed", e);
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Method that will create a list of speakers inside the database,
+	 * in a single transaction.
+	 * <br>
+	 * Each item has its own result: the invalid items are
+	 * rejected, while the others are created. The response status is
+	 * {@link org.springframework.http.HttpStatus#CREATED 201} when
+	 * all the items have been created, otherwise
+	 * {@link org.springframework.http.HttpStatus#MULTI_STATUS 207}.
+	 * @param speakers a list of {@link com.spring.mssql.models.Speaker Speaker} to save
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@PostMapping("/createSpeakers")
+	@Operation(summary = "Create a list of speakers.",
+    	description = "Create a list of speakers in a single transaction, with a result for each speaker.",
+    	tags = {"Create speaker"},
+    	responses = {
+    			@ApiResponse(responseCode = "201", description = "All the speakers created."),
+    			@ApiResponse(responseCode = "207", description = "Some speakers rejected."),
+                @ApiResponse(responseCode = "400", description = "Too many speakers.")})
+	public ResponseEntity<List<BulkItemResultDTO>> createSpeakers(@RequestBody List<Speaker> speakers) {
+		try {
+			List<BulkItemResultDTO> results = bulkInsertService.createSpeakers(speakers);
+			boolean allCreated = results.stream().allMatch(r -> r.getStatus() == BulkItemResultDTO.Status.CREATED);
+			return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+		} catch (IllegalArgumentException e) {
+			logger.debug("createSpeakers rejected: {}", e.getMessage());
+			return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+		} catch (Exception e) {
+			logger.error("createSpeakers failed", e);
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -159,6 +403,11 @@ public class SpeakerController {
 	
 	/**
 	 * Method that will update a speaker.
+	 * <br>
+	 * If the speaker does not exist the response is a
+	 * {@link org.springframework.http.HttpStatus#NOT_FOUND 404}:
+	 * the speakers are created by
+	 * {@link #createSpeaker(Speaker) createSpeaker}.
 	 * @param id of the speaker to update
 	 * @param speaker an instance of {@link com.spring.mssql.models.Speaker Speaker}
 	 * @since 1.0.2
@@ -169,47 +418,95 @@ public class SpeakerController {
 	// @RequestBody will retrieve the parameter from the body of the request
 	public ResponseEntity<Speaker> updateSpeaker(@PathVariable("id") long id, @RequestBody Speaker speaker) {
 		
-		ResponseEntity<Speaker> update = speakerRepository.findById(id)
+		ResponseEntity<Speaker> update = speakerService.updateSpeaker(id, speaker)
 				.map(s -> {
-					s.setFirstName(speaker.getFirstName());
-					s.setLastName(speaker.getLastName());
-					s.setAge(speaker.getAge());
-					return new ResponseEntity<Speaker>(speakerRepository.save(s), HttpStatus.OK);
+					return new ResponseEntity<Speaker>(s, HttpStatus.OK);
 				})
 				.orElseGet(() -> {
-					return new ResponseEntity<Speaker>(speakerRepository.save(speaker), HttpStatus.OK);
+					return new ResponseEntity<Speaker>(HttpStatus.NOT_FOUND);
 				});
 		return update;
 		
 	}
+	
+	
+	/**
+	 * Method that will change only some attributes of a speaker.
+	 * <br>
+	 * The body has only the attributes to change, among
+	 * firstName, lastName and age, and they are written by a
+	 * single UPDATE, without reading the speaker, see
+	 * {@link com.spring.mssql.services.PartialUpdateService#patchSpeaker(long, Map, OptionalLong) patchSpeaker}.
+	 * With the If-Match header the speaker is updated only if
+	 * it still has that ETag, otherwise the response is a
+	 * {@link org.springframework.http.HttpStatus#PRECONDITION_FAILED 412},
+	 * and the response has the ETag of the updated speaker.
+	 * @param id of the speaker to update
+	 * @param changes the attributes to change, with their new values
+	 * @param ifMatch the ETag of the speaker read by the client, optional
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@PatchMapping("/speakers/{id}")
+	@Operation(summary = "Change some attributes of a speaker.",
+		responses = {
+				@ApiResponse(responseCode = "204", description = "Speaker updated."),
+				@ApiResponse(responseCode = "400", description = "Attribute that can not be changed."),
+				@ApiResponse(responseCode = "404", description = "Speaker not found."),
+				@ApiResponse(responseCode = "412", description = "The speaker has been changed.")})
+	public ResponseEntity<Void> patchSpeaker(@PathVariable("id") long id, @RequestBody Map<String, Object> changes,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		try {
+			OptionalLong version = partialUpdateService.patchSpeaker(id, changes, ETags.version(ifMatch, "speaker", id));
+			if (version.isPresent())
+				return ResponseEntity.noContent().eTag(ETags.of("speaker", id, version.getAsLong())).build();
+			return ResponseEntity.noContent().build();
+		} catch (IllegalArgumentException e) {
+			logger.debug("patchSpeaker rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		} catch (ResourceNotFoundException e) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		} catch (OptimisticLockingFailureException e) {
+			logger.debug("patchSpeaker rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+		} catch (Exception e) {
+			logger.error("patchSpeaker failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
 
 
 	/**
 	 * Method that will delete a speaker.
+	 * <br>
+	 * The talks of the speaker are not deleted: they are
+	 * left without a speaker or, if newSpeakerId is passed,
+	 * moved to that speaker. Neither the speaker nor its
+	 * talks are loaded, see
+	 * {@link com.spring.mssql.services.SpeakerService#deleteSpeaker(long, Long) deleteSpeaker}.
 	 * @param id of the speaker to delete.
+	 * @param newSpeakerId id of the speaker that will have the talks, optional.
+	 * @return {@link org.springframework.lang.Nullable.HttpStatus#OK 200} if the speaker
+	 * has been deleted, {@link org.springframework.lang.Nullable.HttpStatus#NOT_FOUND 404}
+	 * if it does not exist and {@link org.springframework.lang.Nullable.HttpStatus#BAD_REQUEST 400}
+	 * if the new speaker does not exist.
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@DeleteMapping("/speakers/{id}")
 	// @PathVarible will retrieve the parameter from the url
-	public ResponseEntity<HttpStatus> deleteSpeaker(@PathVariable("id") long id) {
+	public ResponseEntity<HttpStatus> deleteSpeaker(@PathVariable("id") long id,
+			@RequestParam(required = false) Long newSpeakerId) {
 		try {
-			if(speakerRepository.findById(id).isPresent()){
-				if(speakerRepository.findById(id).get().getSpeakerTalks().isEmpty()) {
-					speakerRepository.deleteById(id);
-				}
-				else {
-					List<Talk> sTut = speakerRepository.findById(id).get().getSpeakerTalks();
-					for(Talk tut : sTut) {
-						talkRepository.save(tut);
-					}
-					speakerRepository.deleteById(id);
-				}
+			if(speakerService.deleteSpeaker(id, newSpeakerId)) {
 				return new ResponseEntity<>(HttpStatus.OK);
 			}
 			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		} catch (IllegalArgumentException e) {
+			logger.debug("deleteSpeaker rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("deleteSpeaker failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -217,21 +514,40 @@ public class SpeakerController {
 	
 	/**
 	 * Method that will delete all the speakers.
+	 * <br>
+	 * Whether there is a speaker is checked reading a single
+	 * id. The speakers are not loaded: their talks are detached
+	 * and they are deleted in chunks, each in its own
+	 * transaction, by
+	 * {@link com.spring.mssql.services.PurgeService PurgeService}.
+	 * With background set to true the purge is only started,
+	 * and the response is a
+	 * {@link org.springframework.http.HttpStatus#ACCEPTED 202}
+	 * with its status, that can be followed, or cancelled,
+	 * at the location of the response.
+	 * @param background true to purge the speakers in the background
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@DeleteMapping("/speakers")
-	public ResponseEntity<HttpStatus> deleteAllSpeakers() {
+	public ResponseEntity<PurgeStatusDTO> deleteAllSpeakers(@RequestParam(defaultValue = "false") boolean background) {
 		try {
-			if(speakerRepository.findAll().isEmpty()) {
+			if(purgeService.isEmpty(PurgeService.Table.SPEAKERS)) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 			}
+			else if(background) {
+				PurgeStatusDTO status = purgeService.start(PurgeService.Table.SPEAKERS);
+				return ResponseEntity.accepted().location(URI.create("/PurgeApi/purges/" + status.getId())).body(status);
+			}
 			else {
-				speakerRepository.deleteAll();
+				purgeService.purge(PurgeService.Table.SPEAKERS);
 				return new ResponseEntity<>(HttpStatus.OK);
 			}
+		} catch (IllegalStateException e) {
+			logger.debug("deleteAllSpeakers rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.CONFLICT);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("deleteAllSpeakers failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -255,7 +571,7 @@ public class SpeakerController {
 			}
 			return new ResponseEntity<>(speaker.stream().collect(Collectors.toMap(Speaker::getId, s -> s)), HttpStatus.OK);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getSpeakersByFirstName failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -270,6 +586,9 @@ public class SpeakerController {
 	 * getSpeakerTalksWithJoinDTOJPQL}
 	 * query inside the
 	 * {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * only until the read model of
+	 * {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * is loaded: then the rows are taken from the model, without queries.
 	 * @param speakerId id of the speaker to search for
 	 * @since 1.0.0
 	 * @author fforfabio 
@@ -278,13 +597,13 @@ public class SpeakerController {
 	// @RequestBody will retrieve the parameter from the body of the request
 	public ResponseEntity<List<SpeakerTalksDTO>> getSpeakerTalksWithJoinDTOJPQL(@RequestBody String speakerId) {
 		try {
-			List<SpeakerTalksDTO> dto = speakerRepository.getSpeakerTalksWithJoinDTOJPQL(Long.parseLong(speakerId));
+			List<SpeakerTalksDTO> dto = joinReadModelService.getSpeakerTalks(Long.parseLong(speakerId));
 			if (dto.isEmpty()) {
 				return new ResponseEntity<>(dto, HttpStatus.NO_CONTENT);
 			}
 			return new ResponseEntity<>(dto, HttpStatus.OK);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getSpeakerTalksWithJoinDTOJPQL failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -299,6 +618,9 @@ public class SpeakerController {
 	 * getSpeakerTalksWithJoinDTONativeQuery}
 	 * query inside the
 	 * {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * only until the read model of
+	 * {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * is loaded: then the rows are taken from the model, without queries.
 	 * @param speakerId id of the speaker to search for
 	 * @since 1.0.0
 	 * @author fforfabio 
@@ -307,7 +629,7 @@ public class SpeakerController {
 	// @RequestBody will retrieve the parameter from the body of the request
 	public ResponseEntity<Map<Long, SpeakerTalksDTO>> getSpeakerTalksWithJoinDTONativeQuery(@RequestBody String speakerId) {
 		try {
-			List<SpeakerTalksDTO> dto = speakerRepository.getSpeakerTalksWithJoinDTONativeQuery(Long.parseLong(speakerId));
+			List<SpeakerTalksDTO> dto = joinReadModelService.getSpeakerTalks(Long.parseLong(speakerId));
 			if (dto.isEmpty()) {
 				return new ResponseEntity<>(new HashMap<Long, SpeakerTalksDTO>(), HttpStatus.NO_CONTENT);
 			}
@@ -315,7 +637,35 @@ public class SpeakerController {
 					Function.identity(), (o1, o2) -> o1, TreeMap::new)),
 					HttpStatus.OK);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getSpeakerTalksWithJoinDTONativeQuery failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Columnar version of
+	 * {@link #getSpeakerTalksWithJoinDTONativeQuery(String) getSpeakerTalksWithJoinDTONativeQuery}.
+	 * <br>
+	 * The talks, sorted by id, are returned as a
+	 * {@link com.spring.mssql.dto.SpeakerTalksColumnsDTO SpeakerTalksColumnsDTO},
+	 * with one JSON array for each column, instead of a map
+	 * with an object for each talk.
+	 * @param speakerId id of the speaker to search for
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/speakerTalksJoinExampleDTONativeQuery/columns")
+	// @RequestBody will retrieve the parameter from the body of the request
+	public ResponseEntity<SpeakerTalksColumnsDTO> getSpeakerTalksWithJoinColumns(@RequestBody String speakerId) {
+		try {
+			SpeakerTalksColumnsDTO dto = joinReadModelService.getSpeakerTalksColumns(Long.parseLong(speakerId));
+			if (dto.isEmpty()) {
+				return new ResponseEntity<>(dto, HttpStatus.NO_CONTENT);
+			}
+			return new ResponseEntity<>(dto, HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getSpeakerTalksWithJoinColumns failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -330,24 +680,100 @@ public class SpeakerController {
 	 * getAllJoinDTONativeQuery}
 	 * query inside the
 	 * {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * only until the read model of
+	 * {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * is loaded: then the rows are taken from the model, without queries,
+	 * sorted by speaker and talk.
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@GetMapping("/getAllJoinDTONativeQuery")
 	public ResponseEntity<List<SpeakerTalksDTO>> getAllJoinDTONativeQuery() {
 		try {
-			List<SpeakerTalksDTO> dto = speakerRepository.getAllJoinDTONativeQuery();
+			List<SpeakerTalksDTO> dto = joinReadModelService.getAllJoin();
+			if (dto.isEmpty()) {
+				return new ResponseEntity<>(dto, HttpStatus.NO_CONTENT);
+			}
+			return new ResponseEntity<>(dto, HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getAllJoinDTONativeQuery failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Columnar version of
+	 * {@link #getAllJoinDTONativeQuery() getAllJoinDTONativeQuery}.
+	 * <br>
+	 * The rows are returned as a
+	 * {@link com.spring.mssql.dto.SpeakerTalksColumnsDTO SpeakerTalksColumnsDTO},
+	 * with the ids inside primitive arrays and the strings
+	 * dictionary-encoded, so no object is built for each row,
+	 * neither while the rows are read nor while they are written.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/getAllJoinDTONativeQuery/columns")
+	public ResponseEntity<SpeakerTalksColumnsDTO> getAllJoinColumns() {
+		try {
+			SpeakerTalksColumnsDTO dto = joinReadModelService.getAllJoinColumns();
 			if (dto.isEmpty()) {
 				return new ResponseEntity<>(dto, HttpStatus.NO_CONTENT);
 			}
 			return new ResponseEntity<>(dto, HttpStatus.OK);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getAllJoinColumns failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
 	
 	
+	/**
+	 * Streaming version of
+	 * {@link #getAllJoinDTONativeQuery() getAllJoinDTONativeQuery}.
+	 * <br>
+	 * The rows are written to the response while they are read
+	 * from the database through the
+	 * {@link com.spring.mssql.repositories.SpeakerRepositoryCustom#streamAllJoinDTONativeQuery 
+	 * streamAllJoinDTONativeQuery}
+	 * cursor, so the memory used does not depend on the number of rows.
+	 * <br>
+	 * The format depends on the Accept header:
+	 * <ul>
+	 * <li><i>application/json</i> a JSON array, sent in chunks;</li>
+	 * <li>otherwise NDJSON, one JSON object for each line.</li>
+	 * </ul>
+	 * @param accept the Accept header of the request
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping(value = "/getAllJoinDTONativeQuery/stream", 
+			produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+	public ResponseEntity<StreamingResponseBody> streamAllJoinDTONativeQuery(
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+		boolean jsonArray = accept != null && accept.contains(MediaType.APPLICATION_JSON_VALUE)
+				&& !accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+		
+		StreamingResponseBody body = out -> {
+			try (SequenceWriter rows = jsonArray
+					? streamWriter.writeValuesAsArray(out)
+					: streamWriter.withRootValueSeparator("\n").writeValues(out)) {
+				speakerService.forEachJoinRow(dto -> {
+					try {
+						rows.write(dto);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok()
+				.contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+				.body(body);
+	}
+	
+	
 	/**
 	 * Method that will perform a join between
 	 * speakers and talks table.
@@ -357,6 +783,10 @@ public class SpeakerController {
 	 * getTalksCount}
 	 * query inside the
 	 * {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * <br>
+	 * Without a title, the numbers are taken from the counters of
+	 * {@link com.spring.mssql.services.TalkCounterService TalkCounterService},
+	 * reading only the speakers table.
 	 * @param titleLike substring of the title of the talk to search for
 	 * @since 1.0.0
 	 * @author fforfabio 
@@ -364,15 +794,15 @@ public class SpeakerController {
 	@GetMapping("/getTalksCount")
 	public ResponseEntity<List<SpeakerTalksDTO>> getTalksCount(@RequestBody(required=false) String titleLike) {
 		try {
-			if(titleLike == null)
-				titleLike = "";
-			List<SpeakerTalksDTO> dto = speakerRepository.getTalksCount(titleLike);
+			List<SpeakerTalksDTO> dto = (titleLike == null || titleLike.isEmpty())
+					? talkCounterService.getTalksCount()
+					: speakerRepository.getTalksCount(titleLike);
 			if (dto.isEmpty()) {
 				return new ResponseEntity<>(dto, HttpStatus.NO_CONTENT);
 			}
 			return new ResponseEntity<>(dto, HttpStatus.OK);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getTalksCount failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -397,7 +827,7 @@ public class SpeakerController {
 		 * in the JpaRepository<T, ID>. 
 		 * NOTE that JpaRepository extends PagingAndSortingRepository.
 		 */
-        Page<Speaker> p = speakerRepository.findAll(pr);        
+        Page<Speaker> p = speakerService.findAllWithTalks(pr);        
         return p;
 	}
 	
@@ -422,7 +852,7 @@ public class SpeakerController {
 		 * in the JpaRepository<T, ID>. 
 		 * NOTE that JpaRepository extends PagingAndSortingRepository.
 		 */ 
-        Page<Speaker> p = speakerRepository.findAll(pr);        
+        Page<Speaker> p = speakerService.findAllWithTalks(pr);        
         return p;
 	}
 	
@@ -443,7 +873,201 @@ public class SpeakerController {
          * It override the Iterable<T> findAll(Sort sort); method defined in the
          * PagingAndSortingRepository<T, ID> interface.
          */
-        List<Speaker> p = speakerRepository.findAll(Sort.by("firstName").and(Sort.by("lastName")).descending());
+        List<Speaker> p = speakerService.findAllWithTalks(Sort.by("firstName").and(Sort.by("lastName")).descending());
         return p;
 	}
+	
+	
+	/**
+	 * Method that will return the speakers, sorted by id,
+	 * with keyset pagination.
+	 * <br>
+	 * Unlike {@link #getAllSpeakersWithPagination(int, int) getAllSpeakersWithPagination}
+	 * no COUNT query is executed and the database does not skip
+	 * the rows of the previous pages, so every slice costs the same.
+	 * The speakers are returned without their talks, see
+	 * {@link com.spring.mssql.dto.SpeakerView SpeakerView}.
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of speakers for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/speakersKeyset")
+	public ResponseEntity<KeysetSlice<SpeakerView>> getAllSpeakersWithKeyset(
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getAllSpeakersWithKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<SpeakerView> slice = speakerRepository.findByIdGreaterThanOrderByIdAsc(c.getId(), keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, s -> new KeysetCursor(s.getId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getAllSpeakersWithKeyset failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Method that will return the speakers, sorted by
+	 * lastName, with keyset pagination.
+	 * <br>
+	 * It is the keyset version of 
+	 * {@link #getAllSpeakersWithPaginationAndSorting(int, int) getAllSpeakersWithPaginationAndSorting},
+	 * without the talks of the speakers.
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of speakers for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/speakersKeysetSorting")
+	public ResponseEntity<KeysetSlice<SpeakerView>> getAllSpeakersWithKeysetAndSorting(
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getAllSpeakersWithKeysetAndSorting rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<SpeakerView> slice = speakerRepository.findByLastNameAfter(c.getKey(), c.getId(), keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, 
+					s -> new KeysetCursor(s.getLastName(), s.getId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getAllSpeakersWithKeysetAndSorting failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Keyset pagination version of
+	 * {@link #getSpeakersByFirstName(String) getSpeakersByFirstName}.
+	 * @param firstName first name of the speakers to search for.
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of speakers for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/speakersByFirstKeyset")
+	public ResponseEntity<KeysetSlice<Speaker>> getSpeakersByFirstNameWithKeyset(@RequestParam String firstName,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getSpeakersByFirstNameWithKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<Speaker> slice = speakerRepository.getSpeakersByFirstNameAfter(firstName, c.getId(), keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, s -> new KeysetCursor(s.getId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getSpeakersByFirstNameWithKeyset failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Keyset pagination version of
+	 * {@link #getSpeakerTalksWithJoinDTOJPQL(String) getSpeakerTalksWithJoinDTOJPQL}
+	 * and {@link #getSpeakerTalksWithJoinDTONativeQuery(String) getSpeakerTalksWithJoinDTONativeQuery}.
+	 * The talks are sorted by id.
+	 * @param speakerId id of the speaker to search for
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of talks for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/speakerTalksJoinKeyset")
+	public ResponseEntity<KeysetSlice<SpeakerTalksDTO>> getSpeakerTalksWithJoinKeyset(@RequestParam long speakerId,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getSpeakerTalksWithJoinKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<SpeakerTalksDTO> slice = speakerRepository.getSpeakerTalksWithJoinDTOJPQLAfter(speakerId, c.getId(), 
+					keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, d -> new KeysetCursor(d.getTalkId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getSpeakerTalksWithJoinKeyset failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Keyset pagination version of
+	 * {@link #getAllJoinDTONativeQuery() getAllJoinDTONativeQuery}.
+	 * The rows are sorted by the id of the talk.
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of rows for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/getAllJoinDTONativeQueryKeyset")
+	public ResponseEntity<KeysetSlice<SpeakerTalksDTO>> getAllJoinDTONativeQueryWithKeyset(
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getAllJoinDTONativeQueryWithKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<SpeakerTalksDTO> slice = speakerRepository.getAllJoinDTONativeQueryAfter(c.getId(), keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, d -> new KeysetCursor(d.getTalkId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getAllJoinDTONativeQueryWithKeyset failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Keyset pagination version of
+	 * {@link #getTalksCount(String) getTalksCount}.
+	 * The rows are sorted by the id of the speaker.
+	 * @param titleLike initial part of the title of the talks to count
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of rows for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/getTalksCountKeyset")
+	public ResponseEntity<KeysetSlice<SpeakerTalksDTO>> getTalksCountWithKeyset(
+			@RequestParam(required = false, defaultValue = "") String titleLike,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getTalksCountWithKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<SpeakerTalksDTO> slice = speakerRepository.getTalksCountAfter(titleLike, c.getId(), keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, d -> new KeysetCursor(d.getSpeakerId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getTalksCountWithKeyset failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
 }
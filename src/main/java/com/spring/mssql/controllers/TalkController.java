@@ -1,31 +1,59 @@
 package com.spring.mssql.controllers;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.spring.mssql.models.Room;
+import com.spring.mssql.dto.BulkItemResultDTO;
+import com.spring.mssql.dto.BulkTalkDTO;
+import com.spring.mssql.dto.PurgeStatusDTO;
+import com.spring.mssql.etag.ETags;
 import com.spring.mssql.models.Talk;
+import com.spring.mssql.pagination.KeysetCursor;
+import com.spring.mssql.pagination.KeysetPagination;
+import com.spring.mssql.pagination.KeysetSlice;
 import com.spring.mssql.repositories.RoomRepository;
 import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkReactiveRepository;
 import com.spring.mssql.repositories.TalkRepository;
+import com.spring.mssql.services.BulkInsertService;
+import com.spring.mssql.services.PartialUpdateService;
+import com.spring.mssql.services.PurgeService;
+import com.spring.mssql.services.TalkQueryService;
+import com.spring.mssql.services.TalkService;
+import com.spring.mssql.services.TalkTitleIndexService;
 
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import reactor.core.publisher.Flux;
 
 
 /**
@@ -52,6 +80,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 @RestController
 @RequestMapping("/TalksApi")
 public class TalkController {
+
+	/**
+	 * Logger of the errors of the endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final Logger logger = LogManager.getLogger(TalkController.class);
 	
 	/**
 	 * To perform a call to a query declared inside 
@@ -64,6 +99,15 @@ public class TalkController {
 	TalkRepository talkRepository;
 	
 	
+	/**
+	 * Non-blocking repository used by the reactive
+	 * read endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkReactiveRepository talkReactiveRepository;
+	
+	
 	/**
 	 * To perform a call to a query declared inside 
 	 * the {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository} 
@@ -85,6 +129,63 @@ public class TalkController {
 	 **/
 	RoomRepository roomRepository;
 	
+	
+	/**
+	 * Helper for the keyset pagination endpoints.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	KeysetPagination keysetPagination;
+	
+	
+	/**
+	 * Service for the bulk creation of talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	BulkInsertService bulkInsertService;
+	
+	
+	
+	/**
+	 * Service for the creation and the update of talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkService talkService;
+	
+	
+	/**
+	 * Service for the search of the talks by title.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkTitleIndexService talkTitleIndexService;
+	
+	
+	/**
+	 * Service for the read-only bulk reads of the talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkQueryService talkQueryService;
+	
+	
+	/**
+	 * Service for the partial updates of the talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	PartialUpdateService partialUpdateService;
+	
+	
+	/**
+	 * Service for the deletion of all the talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	PurgeService purgeService;
+	
 	/**
 	 * With this constructor we will avoid the use of the
 	 * {@link org.springframework.beans.factory.annotation.Autowired @Autowired} 
@@ -92,13 +193,32 @@ public class TalkController {
 	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
 	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
 	 * @param roomRepository an instance of {@link com.spring.mssql.repositories.RoomRepository RoomRepository}
+	 * @param keysetPagination an instance of {@link com.spring.mssql.pagination.KeysetPagination KeysetPagination}
+	 * @param bulkInsertService an instance of {@link com.spring.mssql.services.BulkInsertService BulkInsertService}
+	 * @param talkService an instance of {@link com.spring.mssql.services.TalkService TalkService}
+	 * @param talkTitleIndexService an instance of {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService}
+	 * @param talkReactiveRepository an instance of {@link com.spring.mssql.repositories.TalkReactiveRepository TalkReactiveRepository}
+	 * @param talkQueryService an instance of {@link com.spring.mssql.services.TalkQueryService TalkQueryService}
+	 * @param partialUpdateService an instance of {@link com.spring.mssql.services.PartialUpdateService PartialUpdateService}
+	 * @param purgeService an instance of {@link com.spring.mssql.services.PurgeService PurgeService}
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
-	public TalkController(TalkRepository talkRepository, SpeakerRepository speakerRepository, RoomRepository roomRepository) {
+	public TalkController(TalkRepository talkRepository, SpeakerRepository speakerRepository, RoomRepository roomRepository,
+			KeysetPagination keysetPagination, BulkInsertService bulkInsertService, TalkService talkService,
+			TalkTitleIndexService talkTitleIndexService, TalkReactiveRepository talkReactiveRepository,
+			TalkQueryService talkQueryService, PartialUpdateService partialUpdateService, PurgeService purgeService) {
 		this.talkRepository = talkRepository;
 		this.speakerRepository = speakerRepository;
 		this.roomRepository = roomRepository;
+		this.keysetPagination = keysetPagination;
+		this.bulkInsertService = bulkInsertService;
+		this.talkService = talkService;
+		this.talkTitleIndexService = talkTitleIndexService;
+		this.talkReactiveRepository = talkReactiveRepository;
+		this.talkQueryService = talkQueryService;
+		this.partialUpdateService = partialUpdateService;
+		this.purgeService = purgeService;
 	}	
 	
 
@@ -107,31 +227,46 @@ public class TalkController {
 	 * <br>
 	 * If the title parameter is not null it will
 	 * search for all the talks with a specific
-	 * title (also a substring is allowed).
+	 * title (also a substring is allowed), through the
+	 * in-memory index of
+	 * {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService}.
 	 * <br>
 	 * If the title parameter is null it will return
-	 * all the talks inside the database.
+	 * all the talks inside the database, read by
+	 * {@link com.spring.mssql.services.TalkQueryService TalkQueryService}
+	 * without loading them into the persistence context.
+	 * <br>
+	 * The response has the ETag of the talks table: when the
+	 * client sends it back with If-None-Match and the table
+	 * has not changed, the response is a
+	 * {@link org.springframework.http.HttpStatus#NOT_MODIFIED 304}
+	 * and the talks are not read.
 	 * @param title string (or substring) representing the title of the talk.
 	 * It is non required.
+	 * @param request to check the If-None-Match header
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@GetMapping("/talks")
-	public ResponseEntity<List<Talk>> getAllTalks(@RequestParam(required = false) String title) {
+	public ResponseEntity<List<Talk>> getAllTalks(@RequestParam(required = false) String title, WebRequest request) {
 		try {
+			String etag = ETags.of("talks", talkRepository.getTableVersion());
+			if (request.checkNotModified(etag))
+				return null;
+
 			List<Talk> talks = new ArrayList<Talk>();
 
 			if (title == null)
-				talkRepository.findAll().forEach(talks::add);
+				talkQueryService.findAll().forEach(talks::add);
 			else
-				talkRepository.findByTitleContaining(title).forEach(talks::add);
+				talkTitleIndexService.findByTitleContaining(title).forEach(talks::add);
 
 			if (talks.isEmpty()) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 			}
-			return new ResponseEntity<>(talks, HttpStatus.OK);
+			return ResponseEntity.ok().eTag(etag).body(talks);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getAllTalks failed", e);
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -144,19 +279,31 @@ public class TalkController {
 	 * @return {@link org.springframework.lang.Nullable.HttpStatus#CREATED 201}
 	 * and the talk if its identifier is present into the database. Otherwise
 	 * {@link org.springframework.lang.Nullable.HttpStatus#NO_CONTENT 204}
+	 * <br>
+	 * The response has the ETag of the version of the talk:
+	 * when the client sends it back with If-None-Match, only
+	 * the version is read and, if it has not changed, the
+	 * response is a
+	 * {@link org.springframework.http.HttpStatus#NOT_MODIFIED 304}.
+	 * @param request to check the If-None-Match header
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@GetMapping("/talks/{id}")
 	// @PathVarible will retrieve the parameter from the url
-	public ResponseEntity<Talk> getTalkById(@PathVariable("id") long id) {
+	public ResponseEntity<Talk> getTalkById(@PathVariable("id") long id, WebRequest request) {
+		
+		// Read only the version, to answer 304 without loading the talk
+		Optional<Long> version = talkRepository.findVersionById(id);
+		if (version.isPresent() && request.checkNotModified(ETags.of("talk", id, version.get())))
+			return null;
 		
 		// Call the findById query
 		Optional<Talk> talkData = talkRepository.findById(id);
 
 		if (talkData.isPresent()) {
 			// Return the talk
-			return new ResponseEntity<>(talkData.get(), HttpStatus.OK);
+			return ResponseEntity.ok().eTag(ETags.of("talk", id, talkData.get().getVersion())).body(talkData.get());
 		} else {
 			// Return 204 if no talk is found
 			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -167,6 +314,9 @@ public class TalkController {
 	/**
 	 * Method that will create a new 
 	 * {@link com.spring.mssql.models.Talk Talk}.
+	 * <br>
+	 * The talk is created in a single transaction, see
+	 * {@link com.spring.mssql.services.TalkService#createTalk(long, long, Talk) createTalk}.
 	 * @param speakerId Id of the Speaker who held the talk.
 	 * @param roomId Id of the room where the talk has been taken.
 	 * @param talk to save into the database as a 
@@ -184,35 +334,65 @@ public class TalkController {
 	public ResponseEntity<Talk> createTalk(@PathVariable(value = "speakerId") Long speakerId,
 			@PathVariable(value = "roomId") Long roomId, @RequestBody Talk talk) {
 		try {
-			if(speakerRepository.findById(speakerId).isPresent()) {
-				if(roomRepository.findById(roomId).isPresent()) {
-					Room r = roomRepository.findById(roomId).get();
-
-					speakerRepository.findById(speakerId).get().getSpeakerTalks().add(talk);
-					talk.setRoom(r);
-
-					talkRepository.save(talk);
-
-					return new ResponseEntity<>(talk, HttpStatus.CREATED);
-				}
-				else
-					throw new ResourceNotFoundException("Not found Room with id = " + roomId);
-			}
-			else
-				throw new ResourceNotFoundException("Not found Speaker with id = " + speakerId);
+			return new ResponseEntity<>(talkService.createTalk(speakerId, roomId, talk), HttpStatus.CREATED);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("createTalk failed", e);
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
 
 	
+	/**
+	 * Method that will create a list of talks inside the database,
+	 * in a single transaction.
+	 * <br>
+	 * Each item has its own result: the invalid items are
+	 * rejected, while the others are created. The response status is
+	 * {@link org.springframework.http.HttpStatus#CREATED 201} when
+	 * all the items have been created, otherwise
+	 * {@link org.springframework.http.HttpStatus#MULTI_STATUS 207}.
+	 * @param talks a list of {@link com.spring.mssql.dto.BulkTalkDTO BulkTalkDTO}, each one with its speaker and its room to save
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@PostMapping("/createTalks")
+	@Operation(summary = "Create a list of talks.",
+    	description = "Create a list of talks in a single transaction, with a result for each talk.",
+    	responses = {
+    			@ApiResponse(responseCode = "201", description = "All the talks created."),
+    			@ApiResponse(responseCode = "207", description = "Some talks rejected."),
+                @ApiResponse(responseCode = "400", description = "Too many talks.")})
+	public ResponseEntity<List<BulkItemResultDTO>> createTalks(@RequestBody List<BulkTalkDTO> talks) {
+		try {
+			List<BulkItemResultDTO> results = bulkInsertService.createTalks(talks);
+			boolean allCreated = results.stream().allMatch(r -> r.getStatus() == BulkItemResultDTO.Status.CREATED);
+			return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+		} catch (IllegalArgumentException e) {
+			logger.debug("createTalks rejected: {}", e.getMessage());
+			return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+		} catch (Exception e) {
+			logger.error("createTalks failed", e);
+			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
 	/**
 	 * Method that will update a specific talk.
+	 * <br>
+	 * The talk is updated in a single transaction, see
+	 * {@link com.spring.mssql.services.TalkService#updateTalk(long, Optional, Optional, Talk, OptionalLong) updateTalk}.
+	 * <br>
+	 * With the If-Match header, the talk is updated only if it
+	 * still has the ETag of the header, otherwise the response is a
+	 * {@link org.springframework.http.HttpStatus#PRECONDITION_FAILED 412};
+	 * without it, only a concurrent update of the talk gives a 412.
+	 * The response has the ETag of the updated talk.
 	 * @param talkId id of the talk to update.
 	 * @param roomId optional id of the room where the talk has been taken.
 	 * @param speakerId optional id of the speaker of the talk.
 	 * @param talk an instance of {@link com.spring.mssql.models.Talk Talk}.
+	 * @param ifMatch the ETag of the talk read by the client, optional
 	 * @since 1.0.1
 	 * @author fforfabio 
 	 **/
@@ -223,60 +403,76 @@ public class TalkController {
 	public ResponseEntity<Talk> updateTalk(@PathVariable("talkId") long talkId, 
 			@PathVariable(required = false, name = "roomId") Optional<Long> roomId,
 			@PathVariable(required = false, name = "speakerId") Optional<Long> speakerId,
-			@RequestBody Talk talk) {
+			@RequestBody Talk talk, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		try {
-			Optional<Talk> talkData = talkRepository.findById(talkId);
-			
-			if (talkData.isPresent()) {
-				Talk _talk = talkData.get();
-				
-				// Update the Talk
-				_talk.setTitle(talk.getTitle());
-				_talk.setDescription(talk.getDescription());
-				_talk.setPublished(talk.isPublished());
-				
-				/*
-				 * To update the fk inside the Talk entity you can
-				 * use two ways.
-				 * The first one is the one used for the room_id, where
-				 * an updateTalk(_talk) method is call.
-				 * The updateTalk method will remove the talk from the list
-				 * of talks taken in that room and will add it to the list
-				 * of the new room.
-				 * The second one is the one used for the speaker_id, where
-				 * are used the .remove() and the .add() method on the list
-				 * of talks retrieve via a getter method getSpeakerTalks()
-				 */
-				// Update the foreign key room_id
-				if(roomId.isPresent())
-					if(roomRepository.findById(roomId.get()).isPresent())
-						roomRepository.findById(roomId.get()).get().updateTalk(_talk);
-				
-				// Update the foreign_key speaker_id
-				if(speakerId.isPresent()) {
-					if(speakerRepository.findById(speakerId.get()).isPresent()) {
-						// Retrieve the old speaker_id value of the talk to update.
-						long sId = talkRepository.retrieveSpeakerId(talkId);
-						// Remove the talk from the list of the old speaker.
-						speakerRepository.findById(sId).get().getSpeakerTalks().remove(_talk);
-						// Add the talk to the list of the new speaker.
-						speakerRepository.findById(speakerId.get()).get().getSpeakerTalks().add(_talk);
-					}
-				}
-				return new ResponseEntity<>(talkRepository.save(_talk), HttpStatus.OK);
-			} else {
-				throw new ResourceNotFoundException("Not found Talk with id = " + talkId);
-			}
+			Talk updated = talkService.updateTalk(talkId, roomId, speakerId, talk, ETags.version(ifMatch, "talk", talkId));
+			return ResponseEntity.ok().eTag(ETags.of("talk", talkId, updated.getVersion())).body(updated);
+		} catch (OptimisticLockingFailureException e) {
+			logger.debug("updateTalk rejected: {}", e.getMessage());
+			return new ResponseEntity<>(null, HttpStatus.PRECONDITION_FAILED);
 		}catch(Exception e) {
-			System.out.println(e);
+			logger.error("updateTalk failed", e);
 			return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
+	
+	
+	/**
+	 * Method that will change only some attributes of a talk.
+	 * <br>
+	 * The body has only the attributes to change, among
+	 * title, description and published, and they are written
+	 * by a single UPDATE, without reading the talk, see
+	 * {@link com.spring.mssql.services.PartialUpdateService#patchTalk(long, Map, OptionalLong) patchTalk}.
+	 * With the If-Match header the talk is updated only if it
+	 * still has that ETag, otherwise the response is a
+	 * {@link org.springframework.http.HttpStatus#PRECONDITION_FAILED 412},
+	 * and the response has the ETag of the updated talk.
+	 * @param talkId id of the talk to update.
+	 * @param changes the attributes to change, with their new values.
+	 * @param ifMatch the ETag of the talk read by the client, optional
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@PatchMapping("/talks/{talkId}")
+	@Operation(summary = "Change some attributes of a talk.",
+		responses = {
+				@ApiResponse(responseCode = "204", description = "Talk updated."),
+				@ApiResponse(responseCode = "400", description = "Attribute that can not be changed."),
+				@ApiResponse(responseCode = "404", description = "Talk not found."),
+				@ApiResponse(responseCode = "412", description = "The talk has been changed.")})
+	public ResponseEntity<Void> patchTalk(@PathVariable("talkId") long talkId, @RequestBody Map<String, Object> changes,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		try {
+			OptionalLong version = partialUpdateService.patchTalk(talkId, changes, ETags.version(ifMatch, "talk", talkId));
+			if (version.isPresent())
+				return ResponseEntity.noContent().eTag(ETags.of("talk", talkId, version.getAsLong())).build();
+			return ResponseEntity.noContent().build();
+		} catch (IllegalArgumentException e) {
+			logger.debug("patchTalk rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		} catch (ResourceNotFoundException e) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		} catch (OptimisticLockingFailureException e) {
+			logger.debug("patchTalk rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+		} catch (Exception e) {
+			logger.error("patchTalk failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
 
 	
 	/**
 	 * Method that will delete a specific talk.
+	 * <br>
+	 * The talk is read and deleted in a single transaction, see
+	 * {@link com.spring.mssql.services.TalkService#deleteTalk(long) deleteTalk}.
 	 * @param id of the talk to delete.
+	 * @return {@link org.springframework.http.HttpStatus#OK 200} if the talk
+	 * has been deleted, {@link org.springframework.http.HttpStatus#NOT_FOUND 404}
+	 * if it does not exist and {@link org.springframework.http.HttpStatus#CONFLICT 409}
+	 * if it has been changed meanwhile.
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
@@ -285,10 +481,15 @@ public class TalkController {
 	public ResponseEntity<HttpStatus> deleteTalk(
 			@Parameter(description = "The id of the talk to delete", required = true)@PathVariable("id") long id) {
 		try {
-			talkRepository.deleteById(id);
-			return new ResponseEntity<>(HttpStatus.OK);
+			if (talkService.deleteTalk(id)) {
+				return new ResponseEntity<>(HttpStatus.OK);
+			}
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		} catch (OptimisticLockingFailureException e) {
+			logger.debug("deleteTalk rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.CONFLICT);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("deleteTalk failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -296,16 +497,33 @@ public class TalkController {
 	
 	/**
 	 * Method that will delete all the talks.
+	 * <br>
+	 * The talks are not loaded: they are deleted in chunks,
+	 * each in its own transaction, by
+	 * {@link com.spring.mssql.services.PurgeService PurgeService}.
+	 * With background set to true the purge is only started,
+	 * and the response is a
+	 * {@link org.springframework.http.HttpStatus#ACCEPTED 202}
+	 * with its status, that can be followed, or cancelled,
+	 * at the location of the response.
+	 * @param background true to purge the talks in the background
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@DeleteMapping("/talks")
-	public ResponseEntity<HttpStatus> deleteAllTalks() {
+	public ResponseEntity<PurgeStatusDTO> deleteAllTalks(@RequestParam(defaultValue = "false") boolean background) {
 		try {
-			talkRepository.deleteAll();
+			if (background) {
+				PurgeStatusDTO status = purgeService.start(PurgeService.Table.TALKS);
+				return ResponseEntity.accepted().location(URI.create("/PurgeApi/purges/" + status.getId())).body(status);
+			}
+			purgeService.purge(PurgeService.Table.TALKS);
 			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		} catch (IllegalStateException e) {
+			logger.debug("deleteAllTalks rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.CONFLICT);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("deleteAllTalks failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 
@@ -317,21 +535,22 @@ public class TalkController {
 	 * the Talks that are not been published yet, based on
 	 * the parameter of the
 	 * {@link com.spring.mssql.repositories.TalkRepository#findByPublished(boolean) findByPublished}
-	 * method.
+	 * method, read-only through
+	 * {@link com.spring.mssql.services.TalkQueryService TalkQueryService}.
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@GetMapping("/published")
 	public ResponseEntity<List<Talk>> findByPublished() {
 		try {
-			List<Talk> talks = talkRepository.findByPublished(true);
+			List<Talk> talks = talkQueryService.findByPublished(true);
 
 			if (talks.isEmpty()) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 			}
 			return new ResponseEntity<>(talks, HttpStatus.OK);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("findByPublished failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
@@ -339,21 +558,167 @@ public class TalkController {
 	
 	/**
 	 * Method that will return all the Talks inside
-	 * the database with a user defined function.
+	 * the database with a user defined function,
+	 * read-only through
+	 * {@link com.spring.mssql.services.TalkQueryService TalkQueryService}.
 	 * @since 1.0.0
 	 * @author fforfabio 
 	 **/
 	@GetMapping("/talkFunction")
 	public ResponseEntity<List<Talk>> getAllTalks() {
 		try {
-			List<Talk> talks = talkRepository.getAllTalksWithFunction();
+			List<Talk> talks = talkQueryService.getAllTalksWithFunction();
 
 			if (talks.isEmpty()) {
 				return new ResponseEntity<>(talks, HttpStatus.NO_CONTENT);
 			}
 			return new ResponseEntity<>(talks, HttpStatus.OK);
 		} catch (Exception e) {
-			System.out.println(e);
+			logger.error("getAllTalks failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Reactive version of {@link #getAllTalks(String, WebRequest) getAllTalks},
+	 * without the search by title.
+	 * <br>
+	 * The talks are read through R2DBC by
+	 * {@link com.spring.mssql.repositories.TalkReactiveRepository TalkReactiveRepository},
+	 * so no Tomcat thread is held while the query runs.
+	 * With <i>Accept: application/x-ndjson</i> each talk is written as soon
+	 * as it is read, and the next one is asked to the driver only when
+	 * the previous one has been written; with <i>application/json</i>
+	 * the talks are sent as a single array once all of them are read.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping(value = "/reactive/talks", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+	public Flux<Talk> getAllTalksReactive() {
+		return talkReactiveRepository.findAllTalks()
+				.doOnError(e -> logger.error("getAllTalksReactive failed", e));
+	}
+	
+	
+	/**
+	 * Reactive version of {@link #findByPublished() findByPublished},
+	 * see {@link #getAllTalksReactive() getAllTalksReactive}.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping(value = "/reactive/published", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+	public Flux<Talk> findByPublishedReactive() {
+		return talkReactiveRepository.findByPublished(true)
+				.doOnError(e -> logger.error("findByPublishedReactive failed", e));
+	}
+	
+	
+	/**
+	 * Reactive version of {@link #getAllTalks() getAllTalks}, with the
+	 * user defined function, see {@link #getAllTalksReactive() getAllTalksReactive}.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping(value = "/reactive/talkFunction", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+	public Flux<Talk> getAllTalksWithFunctionReactive() {
+		return talkReactiveRepository.getAllTalksWithFunction()
+				.doOnError(e -> logger.error("getAllTalksWithFunctionReactive failed", e));
+	}
+	
+	
+	/**
+	 * Keyset pagination version of
+	 * {@link #getAllTalks(String, WebRequest) getAllTalks}.
+	 * The talks are sorted by id.
+	 * @param title string (or substring) representing the title of the talk.
+	 * It is non required.
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of talks for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/talksKeyset")
+	public ResponseEntity<KeysetSlice<Talk>> getAllTalksWithKeyset(@RequestParam(required = false) String title,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getAllTalksWithKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Pageable limit = keysetPagination.limit(size);
+			Slice<Talk> slice;
+			if (title == null)
+				slice = talkRepository.findByIdGreaterThanOrderByIdAsc(c.getId(), limit);
+			else
+				slice = talkRepository.findByTitleContainingAndIdGreaterThanOrderByIdAsc(title, c.getId(), limit);
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, t -> new KeysetCursor(t.getId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getAllTalksWithKeyset failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Keyset pagination version of
+	 * {@link #findByPublished() findByPublished}.
+	 * The talks are sorted by id.
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of talks for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/publishedKeyset")
+	public ResponseEntity<KeysetSlice<Talk>> findByPublishedWithKeyset(
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("findByPublishedWithKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<Talk> slice = talkRepository.findByPublishedAndIdGreaterThanOrderByIdAsc(true, c.getId(), keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, t -> new KeysetCursor(t.getId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("findByPublishedWithKeyset failed", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	
+	/**
+	 * Keyset pagination version of
+	 * {@link #getAllTalks() getAllTalks} with the user defined function.
+	 * The talks are sorted by id.
+	 * @param cursor token returned as nextCursor by the previous slice,
+	 * null for the first one.
+	 * @param size number of talks for each slice, capped by the server.
+	 * @since 1.0.3
+	 * @author fforfabio 
+	 **/
+	@GetMapping("/talkFunctionKeyset")
+	public ResponseEntity<KeysetSlice<Talk>> getAllTalksWithFunctionAndKeyset(
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+		KeysetCursor c;
+		try {
+			c = KeysetCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			logger.debug("getAllTalksWithFunctionAndKeyset rejected: {}", e.getMessage());
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		try {
+			Slice<Talk> slice = talkRepository.getAllTalksWithFunctionAfter(c.getId(), keysetPagination.limit(size));
+			return new ResponseEntity<>(keysetPagination.toKeysetSlice(slice, t -> new KeysetCursor(t.getId())), HttpStatus.OK);
+		} catch (Exception e) {
+			logger.error("getAllTalksWithFunctionAndKeyset failed", e);
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
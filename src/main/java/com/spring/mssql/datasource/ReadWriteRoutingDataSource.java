@@ -0,0 +1,335 @@
+package com.spring.mssql.datasource;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Data source that sends the read-only transactions to
+ * the replicas and all the other work to the primary.
+ * <br>
+ * The read-only flag of a transaction is known only after
+ * its connection has been asked for, so this data source
+ * must be wrapped inside a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy LazyConnectionDataSourceProxy},
+ * which asks for the real connection at the first statement.
+ * <br>
+ * The replica of each read-only transaction is chosen among
+ * the healthy ones with the {@link Balancing balancing} policy.
+ * A replica that does not give a connection is marked as down
+ * and the transaction goes to the primary; the replicas are
+ * checked again by {@link #checkReplicas() checkReplicas}.
+ * <br>
+ * For <i>stickyMillis</i> after the commit of a write
+ * transaction, the read-only transactions go to the primary
+ * too, so they see the write even if the replicas are late.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+	private static final Logger logger = LogManager.getLogger(ReadWriteRoutingDataSource.class);
+
+	/**
+	 * Lookup key of the primary.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final String PRIMARY = "primary";
+
+	/**
+	 * How a replica is chosen among the healthy ones.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public enum Balancing {
+		/** Each replica in turn. */
+		ROUND_ROBIN,
+		/** The replica with the fewest connections in use. */
+		LEAST_CONNECTIONS
+	}
+
+	private final DataSource primary;
+
+	private final List<Replica> replicas;
+
+	private final Balancing balancing;
+
+	private final long stickyNanos;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * Time of the last commit of a write transaction,
+	 * from {@link System#nanoTime()}.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private volatile long lastWrite;
+
+	private volatile boolean written;
+
+
+	/**
+	 * Constructor
+	 * @param primary data source of the writes
+	 * @param replicas data sources of the read-only transactions
+	 * @param balancing how a replica is chosen
+	 * @param stickyMillis milliseconds after a write during which the reads stay on the primary
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Balancing balancing,
+			long stickyMillis) {
+		this.primary = primary;
+		this.balancing = balancing;
+		this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMillis);
+		List<Replica> list = new ArrayList<>(replicas.size());
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			list.add(new Replica("replica-" + i, replicas.get(i)));
+			targets.put("replica-" + i, replicas.get(i));
+		}
+		this.replicas = Collections.unmodifiableList(list);
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		Replica replica = route();
+		if (replica == null)
+			return primary.getConnection();
+		try {
+			return replica.getConnection();
+		} catch (SQLException e) {
+			replica.down(e);
+			return primary.getConnection();
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		Replica replica = route();
+		if (replica == null)
+			return primary.getConnection(username, password);
+		try {
+			return replica.getConnection(username, password);
+		} catch (SQLException e) {
+			replica.down(e);
+			return primary.getConnection(username, password);
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		Replica replica = route();
+		return replica == null ? PRIMARY : replica.key;
+	}
+
+
+	/**
+	 * Choose where the current work goes.
+	 * @return the replica, null for the primary
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private Replica route() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (TransactionSynchronizationManager.isActualTransactionActive()
+					&& TransactionSynchronizationManager.isSynchronizationActive())
+				TransactionSynchronizationManager.registerSynchronization(new WriteSynchronization());
+			return null;
+		}
+		if (written && System.nanoTime() - lastWrite < stickyNanos)
+			return null;
+		return balancing == Balancing.LEAST_CONNECTIONS ? leastConnections() : roundRobin();
+	}
+
+	private Replica roundRobin() {
+		int size = replicas.size();
+		int start = next.getAndIncrement();
+		for (int i = 0; i < size; i++) {
+			Replica replica = replicas.get(Math.floorMod(start + i, size));
+			if (replica.healthy)
+				return replica;
+		}
+		return null;
+	}
+
+	private Replica leastConnections() {
+		Replica best = null;
+		for (Replica replica : replicas) {
+			if (replica.healthy && (best == null || replica.active.get() < best.active.get()))
+				best = replica;
+		}
+		return best;
+	}
+
+
+	/**
+	 * Check each replica with a connection, marking it as
+	 * healthy or down, every <i>datasource.routing.health-check-delay</i>
+	 * milliseconds: the replicas that were down get the reads
+	 * again when they are back.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Scheduled(fixedDelayString = "${datasource.routing.health-check-delay:5000}")
+	public void checkReplicas() {
+		for (Replica replica : replicas) {
+			try (Connection connection = replica.dataSource.getConnection()) {
+				if (connection.isValid(1))
+					replica.up();
+				else
+					replica.down(null);
+			} catch (SQLException e) {
+				replica.down(e);
+			}
+		}
+	}
+
+
+	/**
+	 * Health of each replica, by lookup key.
+	 * @return true for the healthy replicas
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Map<String, Boolean> getReplicaHealth() {
+		Map<String, Boolean> health = new HashMap<>();
+		for (Replica replica : replicas) {
+			health.put(replica.key, replica.healthy);
+		}
+		return health;
+	}
+
+
+	/**
+	 * Close the replicas that can be closed.
+	 * The primary is left open, as it is a bean of its own.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Override
+	public void close() {
+		for (Replica replica : replicas) {
+			if (replica.dataSource instanceof Closeable) {
+				try {
+					((Closeable) replica.dataSource).close();
+				} catch (Exception e) {
+					logger.warn("Cannot close {}", replica.key, e);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Remember the commit of a write transaction.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private class WriteSynchronization implements TransactionSynchronization {
+
+		@Override
+		public void afterCompletion(int status) {
+			if (status == STATUS_COMMITTED) {
+				lastWrite = System.nanoTime();
+				written = true;
+			}
+		}
+	}
+
+
+	/**
+	 * A replica, with its health and the number of
+	 * its connections in use.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final class Replica {
+
+		final String key;
+
+		final DataSource dataSource;
+
+		final AtomicInteger active = new AtomicInteger();
+
+		volatile boolean healthy = true;
+
+		Replica(String key, DataSource dataSource) {
+			this.key = key;
+			this.dataSource = dataSource;
+		}
+
+		Connection getConnection() throws SQLException {
+			return counted(dataSource.getConnection());
+		}
+
+		Connection getConnection(String username, String password) throws SQLException {
+			return counted(dataSource.getConnection(username, password));
+		}
+
+		void up() {
+			if (!healthy)
+				logger.info("Replica {} is back", key);
+			healthy = true;
+		}
+
+		void down(SQLException e) {
+			if (healthy)
+				logger.warn("Replica {} is down, its reads go to the primary", key, e);
+			healthy = false;
+		}
+
+		/**
+		 * Wrap the connection so that its close
+		 * decrements the connections in use.
+		 **/
+		private Connection counted(Connection connection) {
+			active.incrementAndGet();
+			AtomicBoolean closed = new AtomicBoolean();
+			InvocationHandler handler = (proxy, method, args) -> {
+				if (method.getName().equals("close") && closed.compareAndSet(false, true))
+					active.decrementAndGet();
+				return invoke(connection, method, args);
+			};
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] {Connection.class}, handler);
+		}
+
+		private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+}
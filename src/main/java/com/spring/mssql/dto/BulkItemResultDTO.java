@@ -0,0 +1,104 @@
+package com.spring.mssql.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+
+/**
+ * DTO with the result of one item of a bulk creation.
+ * <br>
+ * The results are returned in the same order of the
+ * items of the request, and the index is the position
+ * of the item inside the request.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResultDTO {
+
+	/**
+	 * Outcome of a single item.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public enum Status {
+		CREATED,
+		REJECTED
+	}
+
+	/**
+	 * Position of the item inside the request.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int index;
+
+	/**
+	 * Outcome of the item.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Status status;
+
+	/**
+	 * Identifier of the created row, null if the item was rejected.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Long id;
+
+	/**
+	 * Reason of the rejection, null if the item was created.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String error;
+
+
+	private BulkItemResultDTO(int index, Status status, Long id, String error) {
+		this.index = index;
+		this.status = status;
+		this.id = id;
+		this.error = error;
+	}
+
+	/**
+	 * Result of an item that has been inserted.
+	 * @param index position of the item inside the request
+	 * @param id identifier of the created row
+	 * @return the result
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static BulkItemResultDTO created(int index, long id) {
+		return new BulkItemResultDTO(index, Status.CREATED, id, null);
+	}
+
+	/**
+	 * Result of an item that has not been inserted.
+	 * @param index position of the item inside the request
+	 * @param error reason of the rejection
+	 * @return the result
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static BulkItemResultDTO rejected(int index, String error) {
+		return new BulkItemResultDTO(index, Status.REJECTED, null, error);
+	}
+
+	// Getter
+	public int getIndex() {
+		return index;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getError() {
+		return error;
+	}
+}
@@ -0,0 +1,112 @@
+package com.spring.mssql.dto;
+
+
+/**
+ * DTO for one talk of a bulk creation.
+ * <br>
+ * Unlike the single creation endpoint, where the speaker
+ * and the room are part of the path, each talk of a bulk
+ * request carries the ids of its speaker and of its room.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class BulkTalkDTO {
+
+	/**
+	 * Identifier of the speaker who held the talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private Long speakerId;
+
+	/**
+	 * Identifier of the room where the talk is taken.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private Long roomId;
+
+	/**
+	 * Title of the talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private String title;
+
+	/**
+	 * Description of the talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private String description;
+
+	/**
+	 * Flag to see if the talk has been published.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private boolean published;
+
+
+	public BulkTalkDTO() {
+	}
+
+	/**
+	 * Constructor
+	 * @param speakerId id of the speaker of the talk
+	 * @param roomId id of the room of the talk
+	 * @param title of the talk
+	 * @param description of the talk
+	 * @param published if the talk is published
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public BulkTalkDTO(Long speakerId, Long roomId, String title, String description, boolean published) {
+		this.speakerId = speakerId;
+		this.roomId = roomId;
+		this.title = title;
+		this.description = description;
+		this.published = published;
+	}
+
+	// Getter and setter
+	public Long getSpeakerId() {
+		return speakerId;
+	}
+
+	public void setSpeakerId(Long speakerId) {
+		this.speakerId = speakerId;
+	}
+
+	public Long getRoomId() {
+		return roomId;
+	}
+
+	public void setRoomId(Long roomId) {
+		this.roomId = roomId;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public boolean isPublished() {
+		return published;
+	}
+
+	public void setPublished(boolean published) {
+		this.published = published;
+	}
+}
@@ -0,0 +1,88 @@
+package com.spring.mssql.dto;
+
+
+/**
+ * DTO with the statistics of a region of the
+ * second-level cache.
+ * <br>
+ * The counters start from the boot of the application
+ * and are collected only if <i>hibernate.generate_statistics</i>
+ * is enabled.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class CacheRegionStatisticsDTO {
+
+	/**
+	 * Name of the region.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String region;
+
+	/**
+	 * Lookups found in the region.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long hits;
+
+	/**
+	 * Lookups not found in the region, that went to the database.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long misses;
+
+	/**
+	 * Entries written in the region.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long puts;
+
+
+	/**
+	 * Constructor
+	 * @param region name of the region
+	 * @param hits lookups found in the region
+	 * @param misses lookups not found in the region
+	 * @param puts entries written in the region
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public CacheRegionStatisticsDTO(String region, long hits, long misses, long puts) {
+		this.region = region;
+		this.hits = hits;
+		this.misses = misses;
+		this.puts = puts;
+	}
+
+	// Getter
+	public String getRegion() {
+		return region;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getPuts() {
+		return puts;
+	}
+
+	/**
+	 * Ratio between the hits and all the lookups.
+	 * @return the ratio, 0 if there was no lookup
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public double getHitRatio() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+}
@@ -0,0 +1,185 @@
+package com.spring.mssql.dto;
+
+import org.hibernate.stat.Statistics;
+
+
+/**
+ * DTO with a summary of the Hibernate
+ * {@link org.hibernate.stat.Statistics Statistics}.
+ * <br>
+ * The counters start from the boot of the application, or
+ * from the last reset, and are collected only if
+ * <i>hibernate.generate_statistics</i> is enabled.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class HibernateStatisticsDTO {
+
+	/**
+	 * Queries executed.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long queryExecutionCount;
+
+	/**
+	 * Time, in milliseconds, of the slowest query.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long queryExecutionMaxTime;
+
+	/**
+	 * Text of the slowest query.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String queryExecutionMaxTimeQueryString;
+
+	/**
+	 * Entities built from the database or from the cache.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long entityLoadCount;
+
+	/**
+	 * Entities read with a statement of their own,
+	 * like the lazy proxies that have been initialized.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long entityFetchCount;
+
+	/**
+	 * Collections loaded.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long collectionLoadCount;
+
+	/**
+	 * Collections read with a statement of their own.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long collectionFetchCount;
+
+	/**
+	 * Lookups found in the second-level cache.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long secondLevelCacheHitCount;
+
+	/**
+	 * Lookups not found in the second-level cache.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long secondLevelCacheMissCount;
+
+	/**
+	 * Flushes of the persistence contexts.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long flushCount;
+
+	/**
+	 * JDBC statements prepared.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long prepareStatementCount;
+
+	/**
+	 * Transactions completed.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long transactionCount;
+
+
+	/**
+	 * Constructor
+	 * @param statistics of the session factory
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public HibernateStatisticsDTO(Statistics statistics) {
+		this.queryExecutionCount = statistics.getQueryExecutionCount();
+		this.queryExecutionMaxTime = statistics.getQueryExecutionMaxTime();
+		this.queryExecutionMaxTimeQueryString = statistics.getQueryExecutionMaxTimeQueryString();
+		this.entityLoadCount = statistics.getEntityLoadCount();
+		this.entityFetchCount = statistics.getEntityFetchCount();
+		this.collectionLoadCount = statistics.getCollectionLoadCount();
+		this.collectionFetchCount = statistics.getCollectionFetchCount();
+		this.secondLevelCacheHitCount = statistics.getSecondLevelCacheHitCount();
+		this.secondLevelCacheMissCount = statistics.getSecondLevelCacheMissCount();
+		this.flushCount = statistics.getFlushCount();
+		this.prepareStatementCount = statistics.getPrepareStatementCount();
+		this.transactionCount = statistics.getTransactionCount();
+	}
+
+	// Getter
+	public long getQueryExecutionCount() {
+		return queryExecutionCount;
+	}
+
+	public long getQueryExecutionMaxTime() {
+		return queryExecutionMaxTime;
+	}
+
+	public String getQueryExecutionMaxTimeQueryString() {
+		return queryExecutionMaxTimeQueryString;
+	}
+
+	public long getEntityLoadCount() {
+		return entityLoadCount;
+	}
+
+	public long getEntityFetchCount() {
+		return entityFetchCount;
+	}
+
+	public long getCollectionLoadCount() {
+		return collectionLoadCount;
+	}
+
+	public long getCollectionFetchCount() {
+		return collectionFetchCount;
+	}
+
+	public long getSecondLevelCacheHitCount() {
+		return secondLevelCacheHitCount;
+	}
+
+	public long getSecondLevelCacheMissCount() {
+		return secondLevelCacheMissCount;
+	}
+
+	public long getFlushCount() {
+		return flushCount;
+	}
+
+	public long getPrepareStatementCount() {
+		return prepareStatementCount;
+	}
+
+	public long getTransactionCount() {
+		return transactionCount;
+	}
+
+	/**
+	 * Ratio between the hits and all the lookups
+	 * of the second-level cache.
+	 * @return the ratio, 0 if there was no lookup
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public double getSecondLevelCacheHitRatio() {
+		long lookups = secondLevelCacheHitCount + secondLevelCacheMissCount;
+		return lookups == 0 ? 0 : (double) secondLevelCacheHitCount / lookups;
+	}
+}
@@ -0,0 +1,159 @@
+package com.spring.mssql.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+
+/**
+ * DTO with the progress of a purge of a table, see
+ * {@link com.spring.mssql.services.PurgeService PurgeService}.
+ * <br>
+ * It is a snapshot: the purge goes on after it is taken.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PurgeStatusDTO {
+
+	/**
+	 * State of a purge.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public enum State {
+		RUNNING,
+		COMPLETED,
+		CANCELLED,
+		FAILED
+	}
+
+	/**
+	 * Identifier of the purge.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String id;
+
+	/**
+	 * Table being purged.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String table;
+
+	/**
+	 * State of the purge.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final State state;
+
+	/**
+	 * Rows deleted so far.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long deletedRows;
+
+	/**
+	 * Chunks committed so far.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long chunks;
+
+	/**
+	 * Highest id of the committed chunks: the rows up to
+	 * this id are gone, the others are still there.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long lastId;
+
+	/**
+	 * When the purge has started.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Instant startedAt;
+
+	/**
+	 * When the purge has ended, null while it is running.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Instant endedAt;
+
+	/**
+	 * Reason of the failure, null if the purge has not failed.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String error;
+
+
+	/**
+	 * Constructor
+	 * @param id identifier of the purge
+	 * @param table table being purged
+	 * @param state state of the purge
+	 * @param deletedRows rows deleted so far
+	 * @param chunks chunks committed so far
+	 * @param lastId highest id of the committed chunks
+	 * @param startedAt when the purge has started
+	 * @param endedAt when the purge has ended, null while it is running
+	 * @param error reason of the failure, null if the purge has not failed
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public PurgeStatusDTO(String id, String table, State state, long deletedRows, long chunks, long lastId,
+			Instant startedAt, Instant endedAt, String error) {
+		this.id = id;
+		this.table = table;
+		this.state = state;
+		this.deletedRows = deletedRows;
+		this.chunks = chunks;
+		this.lastId = lastId;
+		this.startedAt = startedAt;
+		this.endedAt = endedAt;
+		this.error = error;
+	}
+
+	// Getter
+	public String getId() {
+		return id;
+	}
+
+	public String getTable() {
+		return table;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public long getDeletedRows() {
+		return deletedRows;
+	}
+
+	public long getChunks() {
+		return chunks;
+	}
+
+	public long getLastId() {
+		return lastId;
+	}
+
+	public Instant getStartedAt() {
+		return startedAt;
+	}
+
+	public Instant getEndedAt() {
+		return endedAt;
+	}
+
+	public String getError() {
+		return error;
+	}
+}
@@ -0,0 +1,130 @@
+package com.spring.mssql.dto;
+
+import java.time.Instant;
+
+
+/**
+ * DTO with the result of the comparison between the read model of
+ * {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+ * and the database.
+ * <br>
+ * The rows written while the check runs can be
+ * counted as different even if the model follows them.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class ReadModelCheckDTO {
+
+	/**
+	 * Speakers inside the database.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int speakers;
+
+	/**
+	 * Talks inside the database.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int talks;
+
+	/**
+	 * Speakers missing from the model, no longer inside
+	 * the database or with another last name.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int differentSpeakers;
+
+	/**
+	 * Talks of the database missing from the model.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int missingTalks;
+
+	/**
+	 * Talks of the model no longer inside the database.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int extraTalks;
+
+	/**
+	 * Talks of the model with another speaker, room,
+	 * title or description.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int staleTalks;
+
+	/**
+	 * When the check has run.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Instant checkedAt;
+
+
+	/**
+	 * Constructor
+	 * @param speakers speakers inside the database
+	 * @param talks talks inside the database
+	 * @param differentSpeakers speakers missing, extra or with another last name
+	 * @param missingTalks talks missing from the model
+	 * @param extraTalks talks of the model no longer inside the database
+	 * @param staleTalks talks of the model with other values
+	 * @param checkedAt when the check has run
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public ReadModelCheckDTO(int speakers, int talks, int differentSpeakers, int missingTalks, int extraTalks,
+			int staleTalks, Instant checkedAt) {
+		this.speakers = speakers;
+		this.talks = talks;
+		this.differentSpeakers = differentSpeakers;
+		this.missingTalks = missingTalks;
+		this.extraTalks = extraTalks;
+		this.staleTalks = staleTalks;
+		this.checkedAt = checkedAt;
+	}
+
+	/**
+	 * @return true if the model has the same speakers and talks of the database.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public boolean isConsistent() {
+		return differentSpeakers == 0 && missingTalks == 0 && extraTalks == 0 && staleTalks == 0;
+	}
+
+	// Getter
+	public int getSpeakers() {
+		return speakers;
+	}
+
+	public int getTalks() {
+		return talks;
+	}
+
+	public int getDifferentSpeakers() {
+		return differentSpeakers;
+	}
+
+	public int getMissingTalks() {
+		return missingTalks;
+	}
+
+	public int getExtraTalks() {
+		return extraTalks;
+	}
+
+	public int getStaleTalks() {
+		return staleTalks;
+	}
+
+	public Instant getCheckedAt() {
+		return checkedAt;
+	}
+}
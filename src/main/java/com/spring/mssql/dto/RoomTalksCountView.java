@@ -0,0 +1,15 @@
+package com.spring.mssql.dto;
+
+
+/**
+ * Interface projection of a room with the number of
+ * the talks taken in it, counted by the database.
+ * The alias of each selected column must match the
+ * name of the getter (without the <i>get</i> prefix).
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public interface RoomTalksCountView extends RoomView {
+
+	long getTalksCount();
+}
@@ -0,0 +1,89 @@
+package com.spring.mssql.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * DTO with a room and the summaries of the talks taken in it.
+ * <br>
+ * It is built by
+ * {@link com.spring.mssql.services.RoomService#findAllWithTalks() findAllWithTalks}
+ * from the projection of the room and the summaries of
+ * all the talks, so the rooms and their talks are read
+ * with two queries, whatever the number of the rooms.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class RoomTalksDTO {
+
+	/**
+	 * Identifier of the room.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long id;
+
+	/**
+	 * Name of the room.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String roomName;
+
+	/**
+	 * Capacity of the room.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long roomCapacity;
+
+	/**
+	 * Floor of the room.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int roomFloor;
+
+	/**
+	 * Talks taken in the room, sorted by id.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final List<TalkSummaryDTO> talks = new ArrayList<>();
+
+
+	/**
+	 * Constructor, the list of talks is left empty.
+	 * @param room projection of the room
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public RoomTalksDTO(RoomView room) {
+		this.id = room.getId();
+		this.roomName = room.getRoomName();
+		this.roomCapacity = room.getRoomCapacity();
+		this.roomFloor = room.getRoomFloor();
+	}
+
+
+	public long getId() {
+		return id;
+	}
+
+	public String getRoomName() {
+		return roomName;
+	}
+
+	public long getRoomCapacity() {
+		return roomCapacity;
+	}
+
+	public int getRoomFloor() {
+		return roomFloor;
+	}
+
+	public List<TalkSummaryDTO> getTalks() {
+		return talks;
+	}
+}
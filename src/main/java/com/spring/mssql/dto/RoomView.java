@@ -0,0 +1,22 @@
+package com.spring.mssql.dto;
+
+
+/**
+ * Interface projection of a room, without its talks.
+ * <br>
+ * Spring Data selects only the columns of the getters,
+ * so the rooms are read with a single query and the lazy
+ * list of talks of the entity is never touched.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public interface RoomView {
+
+	long getId();
+
+	String getRoomName();
+
+	long getRoomCapacity();
+
+	int getRoomFloor();
+}
@@ -0,0 +1,172 @@
+package com.spring.mssql.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.spring.mssql.models.Room;
+
+
+/**
+ * DTO with the profile of a speaker: its data, its talks,
+ * the counters of its talks and the rooms where it spoke.
+ * <br>
+ * Each part is read by a separate branch of
+ * {@link com.spring.mssql.services.SpeakerProfileService SpeakerProfileService}:
+ * the parts whose branch failed, or did not end in time,
+ * are left null and the reason is put in <i>errors</i>.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SpeakerProfileDTO {
+
+	/**
+	 * Identifier of the speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long speakerId;
+
+	/**
+	 * First name of the speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private String firstName;
+
+	/**
+	 * Last name of the speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private String lastName;
+
+	/**
+	 * Age of the speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private Integer age;
+
+	/**
+	 * Talks of the speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private List<SpeakerTalksDTO> talks;
+
+	/**
+	 * Number of talks and of published talks of the speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private SpeakerTalksDTO talksCount;
+
+	/**
+	 * Rooms where the speaker held its talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private List<Room> rooms;
+
+	/**
+	 * Reason of the failure of each branch that failed.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Map<String, String> errors = new TreeMap<>();
+
+
+	/**
+	 * Constructor
+	 * @param speakerId identifier of the speaker
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerProfileDTO(long speakerId) {
+		this.speakerId = speakerId;
+	}
+
+	// Getter and setter
+	public long getSpeakerId() {
+		return speakerId;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public void setFirstName(String firstName) {
+		this.firstName = firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public void setLastName(String lastName) {
+		this.lastName = lastName;
+	}
+
+	public Integer getAge() {
+		return age;
+	}
+
+	public void setAge(Integer age) {
+		this.age = age;
+	}
+
+	public List<SpeakerTalksDTO> getTalks() {
+		return talks;
+	}
+
+	public void setTalks(List<SpeakerTalksDTO> talks) {
+		this.talks = talks;
+	}
+
+	public SpeakerTalksDTO getTalksCount() {
+		return talksCount;
+	}
+
+	public void setTalksCount(SpeakerTalksDTO talksCount) {
+		this.talksCount = talksCount;
+	}
+
+	public List<Room> getRooms() {
+		return rooms;
+	}
+
+	public void setRooms(List<Room> rooms) {
+		this.rooms = rooms;
+	}
+
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	public Map<String, String> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Record the failure of a branch.
+	 * @param branch name of the branch
+	 * @param reason of the failure
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void addError(String branch, String reason) {
+		errors.put(branch, reason);
+	}
+
+	/**
+	 * Check if all the branches ended in time.
+	 * @return true if no branch failed
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@JsonIgnore
+	public boolean isComplete() {
+		return errors.isEmpty();
+	}
+}
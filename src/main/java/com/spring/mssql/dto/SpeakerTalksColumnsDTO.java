@@ -0,0 +1,241 @@
+package com.spring.mssql.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+
+/**
+ * DTO for join between Speaker and Talk, with the rows
+ * stored by column instead of one
+ * {@link com.spring.mssql.dto.SpeakerTalksDTO SpeakerTalksDTO}
+ * for each row.
+ * <br>
+ * The ids are kept inside primitive arrays, and the strings
+ * are dictionary-encoded: each column has the list of its
+ * distinct values, and an array with the position of the
+ * value of each row, -1 for null. A row added to the DTO
+ * allocates nothing but the growth of the arrays, and the
+ * strings repeated on many rows, like the last name of a
+ * speaker, are stored and written once.
+ * <br>
+ * It is written by
+ * {@link com.spring.mssql.dto.SpeakerTalksColumnsDTOSerializer SpeakerTalksColumnsDTOSerializer}
+ * as one JSON array for each column.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@JsonSerialize(using = SpeakerTalksColumnsDTOSerializer.class)
+public class SpeakerTalksColumnsDTO {
+
+	/**
+	 * Number of rows.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private int size;
+
+	/**
+	 * Identifier of the speaker of each row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private long[] speakerId;
+
+	/**
+	 * Identifier of the talk of each row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private long[] talkId;
+
+	/**
+	 * Last name of the speaker of each row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Column speakerLastName;
+
+	/**
+	 * Title of the talk of each row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Column talkTitle;
+
+	/**
+	 * Description of the talk of each row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Column talkDescription;
+
+
+	/**
+	 * Constructor
+	 * @param capacity number of rows expected; the
+	 * columns grow when more rows are added
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerTalksColumnsDTO(int capacity) {
+		int length = Math.max(capacity, 16);
+		this.speakerId = new long[length];
+		this.talkId = new long[length];
+		this.speakerLastName = new Column(length);
+		this.talkTitle = new Column(length);
+		this.talkDescription = new Column(length);
+	}
+
+	/**
+	 * Add a row at the end of the columns.
+	 * @param speakerId id of the speaker
+	 * @param speakerLastName last name of the speaker
+	 * @param talkId id of the talk
+	 * @param talkTitle title of the talk
+	 * @param talkDescription description of the talk
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void add(long speakerId, String speakerLastName, long talkId, String talkTitle, String talkDescription) {
+		if (size == this.speakerId.length) {
+			int length = size + (size >> 1);
+			this.speakerId = Arrays.copyOf(this.speakerId, length);
+			this.talkId = Arrays.copyOf(this.talkId, length);
+		}
+		this.speakerId[size] = speakerId;
+		this.talkId[size] = talkId;
+		this.speakerLastName.add(size, speakerLastName);
+		this.talkTitle.add(size, talkTitle);
+		this.talkDescription.add(size, talkDescription);
+		size++;
+	}
+
+	/**
+	 * @return true if the DTO has no rows.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+
+	/**
+	 * Dictionary-encoded column of strings.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final class Column {
+
+		/**
+		 * Distinct values, in the order they are found.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		private final List<String> values = new ArrayList<>();
+
+		/**
+		 * Position of each value inside {@link #values}.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		private final Map<String, Integer> positions = new HashMap<>();
+
+		/**
+		 * Position of the value of each row, -1 for null.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		private int[] codes;
+
+		Column(int capacity) {
+			this.codes = new int[capacity];
+		}
+
+		void add(int row, String value) {
+			if (row == codes.length) {
+				codes = Arrays.copyOf(codes, row + (row >> 1));
+			}
+			codes[row] = value == null ? -1 : code(value);
+		}
+
+		// Without computeIfAbsent, whose lambda would be allocated for each row
+		private int code(String value) {
+			Integer code = positions.get(value);
+			if (code == null) {
+				code = values.size();
+				values.add(value);
+				positions.put(value, code);
+			}
+			return code;
+		}
+
+		// Getter
+		public List<String> getValues() {
+			return values;
+		}
+
+		/**
+		 * @return the array of the codes, longer than the
+		 * number of rows: only the first ones are used.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		public int[] getCodes() {
+			return codes;
+		}
+
+		/**
+		 * @param row index of the row
+		 * @return the value of the row, null if it has no value
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		public String get(int row) {
+			int code = codes[row];
+			return code < 0 ? null : values.get(code);
+		}
+	}
+
+	// Getter
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the array of the speaker ids, longer than the
+	 * number of rows: only the first ones are used.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public long[] getSpeakerId() {
+		return speakerId;
+	}
+
+	/**
+	 * @return the array of the talk ids, longer than the
+	 * number of rows: only the first ones are used.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public long[] getTalkId() {
+		return talkId;
+	}
+
+	public Column getSpeakerLastName() {
+		return speakerLastName;
+	}
+
+	public Column getTalkTitle() {
+		return talkTitle;
+	}
+
+	public Column getTalkDescription() {
+		return talkDescription;
+	}
+}
@@ -0,0 +1,87 @@
+package com.spring.mssql.dto;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+
+/**
+ * Hand-written serializer of
+ * {@link com.spring.mssql.dto.SpeakerTalksColumnsDTO SpeakerTalksColumnsDTO}.
+ * <br>
+ * The columns are written in the order of the properties of
+ * {@link com.spring.mssql.dto.SpeakerTalksDTO SpeakerTalksDTO}:
+ * each id column as one JSON array, straight from its
+ * primitive array, and each string column as the distinct
+ * values followed by the code of each row:
+ * <pre>
+ * {"size":2,"speakerId":[1,1],
+ *  "speakerLastName":{"values":["Rossi"],"codes":[0,0]},
+ *  "talkId":[3,4],
+ *  "talkTitle":{"values":["Java","JPA"],"codes":[0,1]},
+ *  "talkDescription":{"values":[],"codes":[-1,-1]}}
+ * </pre>
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class SpeakerTalksColumnsDTOSerializer extends StdSerializer<SpeakerTalksColumnsDTO> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final SerializableString SIZE = new SerializedString("size");
+
+	private static final SerializableString SPEAKER_ID = new SerializedString("speakerId");
+
+	private static final SerializableString SPEAKER_LAST_NAME = new SerializedString("speakerLastName");
+
+	private static final SerializableString TALK_ID = new SerializedString("talkId");
+
+	private static final SerializableString TALK_TITLE = new SerializedString("talkTitle");
+
+	private static final SerializableString TALK_DESCRIPTION = new SerializedString("talkDescription");
+
+	private static final SerializableString VALUES = new SerializedString("values");
+
+	private static final SerializableString CODES = new SerializedString("codes");
+
+
+	public SpeakerTalksColumnsDTOSerializer() {
+		super(SpeakerTalksColumnsDTO.class);
+	}
+
+
+	@Override
+	public void serialize(SpeakerTalksColumnsDTO columns, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		int size = columns.getSize();
+		gen.writeStartObject(columns);
+		gen.writeFieldName(SIZE);
+		gen.writeNumber(size);
+		gen.writeFieldName(SPEAKER_ID);
+		gen.writeArray(columns.getSpeakerId(), 0, size);
+		writeColumn(gen, SPEAKER_LAST_NAME, columns.getSpeakerLastName(), size);
+		gen.writeFieldName(TALK_ID);
+		gen.writeArray(columns.getTalkId(), 0, size);
+		writeColumn(gen, TALK_TITLE, columns.getTalkTitle(), size);
+		writeColumn(gen, TALK_DESCRIPTION, columns.getTalkDescription(), size);
+		gen.writeEndObject();
+	}
+
+	private static void writeColumn(JsonGenerator gen, SerializableString name, SpeakerTalksColumnsDTO.Column column,
+			int size) throws IOException {
+		gen.writeFieldName(name);
+		gen.writeStartObject();
+		gen.writeFieldName(VALUES);
+		gen.writeStartArray();
+		for (String value : column.getValues()) {
+			gen.writeString(value);
+		}
+		gen.writeEndArray();
+		gen.writeFieldName(CODES);
+		gen.writeArray(column.getCodes(), 0, size);
+		gen.writeEndObject();
+	}
+}
@@ -1,7 +1,7 @@
 package com.spring.mssql.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 
 /**
@@ -9,16 +9,42 @@ import com.fasterxml.jackson.annotation.JsonInclude;
  * The {@link com.fasterxml.jackson.annotation.JsonIgnoreProperties @JsonIgnoreProperties}
  * annotation, as write on this class, ignore 
  * the specified properties.
- * The {@link com.fasterxml.jackson.annotation.JsonInclude @JsonInclude}
- * annotation, as write on this class, avoid the 
- * insertion of some properties in the returned JSON.
+ * <br>
+ * The same class holds two shapes of rows: the join rows,
+ * with speaker and talk, and the count rows, with the
+ * counters of a speaker. Each constructor sets the
+ * {@link Shape shape} of its row, and
+ * {@link com.spring.mssql.dto.SpeakerTalksDTOSerializer SpeakerTalksDTOSerializer}
+ * writes only the properties of that shape, leaving out
+ * the null, empty and zero values as
+ * {@code @JsonInclude(NON_DEFAULT)} did, without comparing
+ * each row with a default instance.
  * @since 1.0.0
  * @author fforfabio 
  **/
 @JsonIgnoreProperties(ignoreUnknown = true)
-@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+@JsonSerialize(using = SpeakerTalksDTOSerializer.class)
 public class SpeakerTalksDTO {
 	
+	/**
+	 * Shape of a row, that is the properties it has.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public enum Shape {
+		/** speakerId, speakerLastName, talkId, talkTitle and talkDescription. */
+		JOIN,
+		/** speakerId, speakerLastName, numTalks and publishedTalks. */
+		COUNT
+	}
+	
+	/**
+	 * Shape of the row, set by the constructor.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Shape shape;
+	
 	/**
 	 * Identifier of the speaker.
 	 * @since 1.0.0
@@ -81,6 +107,7 @@ public class SpeakerTalksDTO {
 	 * @author fforfabio
 	 **/
 	public SpeakerTalksDTO(String speakerLastName, String talkTitle, String talkDescription, long speakerId, long talkId) {
+		this.shape = Shape.JOIN;
 		this.speakerLastName = speakerLastName;
 		this.talkTitle = talkTitle;
 		this.talkDescription = talkDescription;
@@ -99,6 +126,7 @@ public class SpeakerTalksDTO {
 	 * @author fforfabio
 	 **/
 	public SpeakerTalksDTO(String speakerLastName, long speakerId, int numTalks, int publishedTalks) {
+		this.shape = Shape.COUNT;
 		this.speakerLastName = speakerLastName;
 		this.speakerId = speakerId;
 		this.numTalks = numTalks;
@@ -106,6 +134,16 @@ public class SpeakerTalksDTO {
 	}
 	
 	// Getter and setter
+	/**
+	 * Shape of the row, not serialized.
+	 * @return the shape set by the constructor
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	Shape shape() {
+		return shape;
+	}
+	
 	public String getSpeakerLastName() {
 		return speakerLastName;
 	}
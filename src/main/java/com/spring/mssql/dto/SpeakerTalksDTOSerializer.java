@@ -0,0 +1,79 @@
+package com.spring.mssql.dto;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+
+/**
+ * Hand-written serializer of
+ * {@link com.spring.mssql.dto.SpeakerTalksDTO SpeakerTalksDTO}.
+ * <br>
+ * It writes the properties of the shape of each row, in the
+ * order of the fields of the DTO, leaving out the null, empty
+ * and zero values: the JSON is the same written by the bean
+ * serializer with {@code @JsonInclude(NON_DEFAULT)}, but
+ * without the reflection and the comparison with a default
+ * instance for each property of each row. The names of the
+ * properties are encoded once, when the class is loaded.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class SpeakerTalksDTOSerializer extends StdSerializer<SpeakerTalksDTO> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final SerializableString SPEAKER_ID = new SerializedString("speakerId");
+
+	private static final SerializableString SPEAKER_LAST_NAME = new SerializedString("speakerLastName");
+
+	private static final SerializableString TALK_ID = new SerializedString("talkId");
+
+	private static final SerializableString TALK_TITLE = new SerializedString("talkTitle");
+
+	private static final SerializableString TALK_DESCRIPTION = new SerializedString("talkDescription");
+
+	private static final SerializableString NUM_TALKS = new SerializedString("numTalks");
+
+	private static final SerializableString PUBLISHED_TALKS = new SerializedString("publishedTalks");
+
+
+	public SpeakerTalksDTOSerializer() {
+		super(SpeakerTalksDTO.class);
+	}
+
+
+	@Override
+	public void serialize(SpeakerTalksDTO row, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		gen.writeStartObject(row);
+		writeNumber(gen, SPEAKER_ID, row.getSpeakerId());
+		writeString(gen, SPEAKER_LAST_NAME, row.getSpeakerLastName());
+		if (row.shape() == SpeakerTalksDTO.Shape.JOIN) {
+			writeNumber(gen, TALK_ID, row.getTalkId());
+			writeString(gen, TALK_TITLE, row.getTalkTitle());
+			writeString(gen, TALK_DESCRIPTION, row.getTalkDescription());
+		} else {
+			writeNumber(gen, NUM_TALKS, row.getNumTalks());
+			writeNumber(gen, PUBLISHED_TALKS, row.getPublishedTalks());
+		}
+		gen.writeEndObject();
+	}
+
+	private static void writeNumber(JsonGenerator gen, SerializableString name, long value) throws IOException {
+		if (value != 0) {
+			gen.writeFieldName(name);
+			gen.writeNumber(value);
+		}
+	}
+
+	private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+		if (value != null && !value.isEmpty()) {
+			gen.writeFieldName(name);
+			gen.writeString(value);
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.spring.mssql.dto;
+
+
+/**
+ * Interface projection for the join between Speaker and Talk.
+ * <br>
+ * It exposes the same columns of the join constructor of
+ * {@link com.spring.mssql.dto.SpeakerTalksDTO SpeakerTalksDTO},
+ * but Spring Data will back it with a proxy over the
+ * query result instead of calling a constructor.
+ * The alias of each selected column must match the
+ * name of the getter (without the <i>get</i> prefix).
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public interface SpeakerTalksView {
+
+	String getSpeakerLastName();
+
+	String getTalkTitle();
+
+	String getTalkDescription();
+
+	long getSpeakerId();
+
+	long getTalkId();
+}
@@ -0,0 +1,24 @@
+package com.spring.mssql.dto;
+
+
+/**
+ * Interface projection of a speaker, without its talks.
+ * <br>
+ * Spring Data selects only the columns of the getters,
+ * so the speakers are read with a single query and the lazy
+ * list of talks of the entity is never touched.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public interface SpeakerView {
+
+	long getId();
+
+	long getVersion();
+
+	String getFirstName();
+
+	String getLastName();
+
+	int getAge();
+}
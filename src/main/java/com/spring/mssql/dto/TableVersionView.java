@@ -0,0 +1,23 @@
+package com.spring.mssql.dto;
+
+
+/**
+ * Interface projection of the state of a whole table,
+ * read by a single aggregate query on the primary key
+ * and on the version column.
+ * <br>
+ * Any write of the table changes at least one of the
+ * three values: an insert the number of rows and the max
+ * id, as the ids are never reused; a delete the number
+ * of rows; an update the sum of the versions.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public interface TableVersionView {
+
+	long getRowCount();
+
+	long getMaxId();
+
+	long getVersionSum();
+}
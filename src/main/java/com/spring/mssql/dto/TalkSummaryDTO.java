@@ -0,0 +1,81 @@
+package com.spring.mssql.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+
+/**
+ * DTO with the summary of a talk: its identifier,
+ * its title and if it is published.
+ * <br>
+ * It keeps the id of the room of the talk, not
+ * serialized, to put it inside its
+ * {@link com.spring.mssql.dto.RoomTalksDTO RoomTalksDTO}.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class TalkSummaryDTO {
+
+	/**
+	 * Identifier of the room of the talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@JsonIgnore
+	private final long roomId;
+
+	/**
+	 * Identifier of the talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long id;
+
+	/**
+	 * Title of the talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String title;
+
+	/**
+	 * If the talk is published.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final boolean published;
+
+
+	/**
+	 * Constructor for the query
+	 * {@link com.spring.mssql.repositories.RoomRepository#findTalkSummaries() findTalkSummaries}.
+	 * @param roomId id of the room of the talk
+	 * @param id of the talk
+	 * @param title of the talk
+	 * @param published if the talk is published
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public TalkSummaryDTO(long roomId, long id, String title, boolean published) {
+		this.roomId = roomId;
+		this.id = id;
+		this.title = title;
+		this.published = published;
+	}
+
+
+	public long getRoomId() {
+		return roomId;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public boolean isPublished() {
+		return published;
+	}
+}
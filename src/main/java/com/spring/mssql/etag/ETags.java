@@ -0,0 +1,119 @@
+package com.spring.mssql.etag;
+
+import java.util.OptionalLong;
+
+import com.spring.mssql.dto.TableVersionView;
+
+
+/**
+ * ETags of the resources, built from the version columns
+ * of the entities, so they can be compared with the
+ * If-None-Match and If-Match headers without loading the
+ * entities.
+ * <ul>
+ * <li>a single resource has the tag
+ * <i>"type-id-version"</i>, followed by
+ * <i>"-rows-maxId-versionSum"</i> of its children when
+ * they are returned with it;</li>
+ * <li>a collection has the tag
+ * <i>"type-rows-maxId-versionSum"</i> of its whole table,
+ * see {@link com.spring.mssql.dto.TableVersionView TableVersionView},
+ * followed by the one of each other table it returns.</li>
+ * </ul>
+ * The collection tag is the one of the table, so it is
+ * valid for its filtered listings too: they are sent again
+ * after any write of the table.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public final class ETags {
+
+	private ETags() {
+	}
+
+
+	/**
+	 * ETag of a single resource.
+	 * @param type of the resource, ex: <i>room</i>
+	 * @param id of the resource
+	 * @param version of the resource
+	 * @return the quoted tag
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static String of(String type, long id, long version) {
+		return "\"" + type + "-" + id + "-" + version + "\"";
+	}
+
+
+	/**
+	 * ETag of a single resource returned with its children,
+	 * ex: a speaker with its talks.
+	 * @param type of the resource, ex: <i>speaker</i>
+	 * @param id of the resource
+	 * @param version of the resource
+	 * @param children state of the rows of the children of the resource
+	 * @return the quoted tag
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static String of(String type, long id, long version, TableVersionView children) {
+		return "\"" + type + "-" + id + "-" + version + state(children) + "\"";
+	}
+
+
+	/**
+	 * ETag of a collection.
+	 * @param type of the collection, ex: <i>rooms</i>
+	 * @param tables state of the table of the collection, then of
+	 * the other tables whose rows are returned with it
+	 * @return the quoted tag
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static String of(String type, TableVersionView... tables) {
+		StringBuilder tag = new StringBuilder("\"").append(type);
+		for (TableVersionView table : tables) {
+			tag.append(state(table));
+		}
+		return tag.append('"').toString();
+	}
+
+
+	/**
+	 * Version asked by the If-Match header of an update.
+	 * @param ifMatch value of the header, null if missing
+	 * @param type of the resource
+	 * @param id of the resource
+	 * @return empty when the header is missing or <i>*</i>,
+	 * the version of the tag of this resource inside the header,
+	 * whatever the state of its children,
+	 * -1 when the header has no tag of this resource.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static OptionalLong version(String ifMatch, String type, long id) {
+		if (ifMatch == null || ifMatch.trim().equals("*"))
+			return OptionalLong.empty();
+		String prefix = "\"" + type + "-" + id + "-";
+		for (String tag : ifMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith(prefix) && tag.endsWith("\"")) {
+				String version = tag.substring(prefix.length(), tag.length() - 1);
+				if (version.indexOf('-') >= 0)
+					version = version.substring(0, version.indexOf('-'));
+				try {
+					return OptionalLong.of(Long.parseLong(version));
+				} catch (NumberFormatException e) {
+					// Not a tag of ours, go on with the next one
+				}
+			}
+		}
+		return OptionalLong.of(-1);
+	}
+
+
+	private static String state(TableVersionView table) {
+		return "-" + table.getRowCount() + "-" + table.getMaxId() + "-" + table.getVersionSum();
+	}
+}
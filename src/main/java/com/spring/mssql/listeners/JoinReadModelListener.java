@@ -0,0 +1,160 @@
+package com.spring.mssql.listeners;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.services.JoinReadModelService;
+
+
+/**
+ * Hibernate listener that keeps the read model of
+ * {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+ * up to date when talks and speakers are written through
+ * the persistence context.
+ * <br>
+ * It is called only after the commit of the transaction,
+ * so a rollback never changes the model, and it reads the
+ * values from the state of the event, without touching
+ * the entities.
+ * <br>
+ * The bulk statements, and the talks moved between the lists
+ * of two speakers, do not raise entity events: the services
+ * that run them update the model by themselves.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Component
+public class JoinReadModelListener implements PostCommitInsertEventListener,
+		PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Factory where the listener is registered.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	transient EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Service that holds the read model.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	transient JoinReadModelService joinReadModelService;
+
+
+	/**
+	 * Constructor
+	 * @param entityManagerFactory the factory of the persistence unit
+	 * @param joinReadModelService an instance of {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public JoinReadModelListener(EntityManagerFactory entityManagerFactory, JoinReadModelService joinReadModelService) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.joinReadModelService = joinReadModelService;
+	}
+
+
+	/**
+	 * Register the listener on the Hibernate session factory.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PostConstruct
+	void register() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+	}
+
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		Class<?> type = persister.getMappedClass();
+		return type == Talk.class || type == Speaker.class;
+	}
+
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		saved(event.getEntity(), event.getPersister(), (Long) event.getId(), event.getState());
+	}
+
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		saved(event.getEntity(), event.getPersister(), (Long) event.getId(), event.getState());
+	}
+
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof Talk) {
+			joinReadModelService.talkRemoved((Long) event.getId());
+		} else if (event.getEntity() instanceof Speaker) {
+			joinReadModelService.speakerRemoved((Long) event.getId(), null);
+		}
+	}
+
+
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+		// Nothing was changed before the commit
+	}
+
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+		// Nothing was changed before the commit
+	}
+
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+		// Nothing was changed before the commit
+	}
+
+
+	private void saved(Object entity, EntityPersister persister, long id, Object[] state) {
+		if (entity instanceof Talk) {
+			joinReadModelService.talkSaved(id, (Long) value(persister, state, "speakerId"),
+					roomId(value(persister, state, "room")), (String) value(persister, state, "title"),
+					(String) value(persister, state, "description"));
+		} else if (entity instanceof Speaker) {
+			joinReadModelService.speakerSaved(id, (String) value(persister, state, "lastName"));
+		}
+	}
+
+
+	private static Object value(EntityPersister persister, Object[] state, String property) {
+		return state[persister.getEntityMetamodel().getPropertyIndex(property)];
+	}
+
+
+	// The room is often a proxy, whose id is read without loading it after the commit
+	private static long roomId(Object room) {
+		if (room instanceof HibernateProxy)
+			return (Long) ((HibernateProxy) room).getHibernateLazyInitializer().getIdentifier();
+		return ((Room) room).getId();
+	}
+}
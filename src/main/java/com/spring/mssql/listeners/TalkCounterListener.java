@@ -0,0 +1,154 @@
+package com.spring.mssql.listeners;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.services.TalkCounterService;
+
+
+/**
+ * Hibernate listener that keeps the counters of
+ * {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+ * up to date when talks and speakers are written through
+ * the persistence context.
+ * <br>
+ * It is called only after the commit of the transaction,
+ * so a rollback never changes the counters, and it receives
+ * the old state of the updated and deleted talks, that the
+ * JPA callbacks of the entity can not see.
+ * <br>
+ * The bulk statements, and the talks moved between the lists
+ * of two speakers, do not raise entity events: the services
+ * that run them update the counters by themselves.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Component
+public class TalkCounterListener implements PostCommitInsertEventListener,
+		PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Factory where the listener is registered.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	transient EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Service that holds the counters.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	transient TalkCounterService talkCounterService;
+
+
+	/**
+	 * Constructor
+	 * @param entityManagerFactory the factory of the persistence unit
+	 * @param talkCounterService an instance of {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public TalkCounterListener(EntityManagerFactory entityManagerFactory, TalkCounterService talkCounterService) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.talkCounterService = talkCounterService;
+	}
+
+
+	/**
+	 * Register the listener on the Hibernate session factory.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PostConstruct
+	void register() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+	}
+
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		Class<?> type = persister.getMappedClass();
+		return type == Talk.class || type == Speaker.class;
+	}
+
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof Talk) {
+			EntityPersister persister = event.getPersister();
+			talkCounterService.talkAdded(speakerId(persister, event.getState()), published(persister, event.getState()));
+		}
+	}
+
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (event.getEntity() instanceof Talk && event.getOldState() != null) {
+			EntityPersister persister = event.getPersister();
+			boolean published = published(persister, event.getState());
+			if (published != published(persister, event.getOldState()))
+				talkCounterService.publishedChanged(speakerId(persister, event.getOldState()), published);
+		}
+	}
+
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof Talk) {
+			EntityPersister persister = event.getPersister();
+			talkCounterService.talkRemoved(speakerId(persister, event.getDeletedState()),
+					published(persister, event.getDeletedState()));
+		} else if (event.getEntity() instanceof Speaker) {
+			talkCounterService.speakerRemoved((Long) event.getId(), null);
+		}
+	}
+
+
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+		// Nothing was counted before the commit
+	}
+
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+		// Nothing was counted before the commit
+	}
+
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+		// Nothing was counted before the commit
+	}
+
+
+	private static Long speakerId(EntityPersister persister, Object[] state) {
+		return (Long) state[persister.getEntityMetamodel().getPropertyIndex("speakerId")];
+	}
+
+
+	private static boolean published(EntityPersister persister, Object[] state) {
+		return Boolean.TRUE.equals(state[persister.getEntityMetamodel().getPropertyIndex("published")]);
+	}
+}
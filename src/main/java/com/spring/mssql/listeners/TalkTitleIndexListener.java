@@ -0,0 +1,72 @@
+package com.spring.mssql.listeners;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.services.TalkTitleIndexService;
+
+
+/**
+ * JPA listener of the {@link com.spring.mssql.models.Talk Talk}
+ * entity that keeps the index of
+ * {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService}
+ * up to date.
+ * <br>
+ * It is created by Spring, through the bean container of
+ * Hibernate, while the entity manager factory is being built:
+ * the service, which needs the repositories, is looked up
+ * only at the first callback.
+ * The callbacks run when the statements are executed, while
+ * the service applies the change only after the commit.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class TalkTitleIndexListener {
+
+	/**
+	 * Service that holds the index.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	ObjectProvider<TalkTitleIndexService> talkTitleIndexService;
+
+
+	/**
+	 * Constructor
+	 * @param talkTitleIndexService provider of {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public TalkTitleIndexListener(ObjectProvider<TalkTitleIndexService> talkTitleIndexService) {
+		this.talkTitleIndexService = talkTitleIndexService;
+	}
+
+
+	/**
+	 * Index the title of a new or updated talk.
+	 * @param talk inserted or updated
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PostPersist
+	@PostUpdate
+	void index(Talk talk) {
+		talkTitleIndexService.getObject().put(talk.getId(), talk.getTitle());
+	}
+
+
+	/**
+	 * Remove a deleted talk from the index.
+	 * @param talk deleted
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PostRemove
+	void remove(Talk talk) {
+		talkTitleIndexService.getObject().remove(talk.getId());
+	}
+}
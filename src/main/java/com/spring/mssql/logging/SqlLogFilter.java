@@ -0,0 +1,152 @@
+package com.spring.mssql.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+import org.apache.logging.log4j.message.Message;
+
+
+/**
+ * Log4j2 filter that turns on the SQL and bind logging of
+ * Hibernate only for the requests chosen by
+ * {@link com.spring.mssql.logging.SqlLogRequestFilter SqlLogRequestFilter}.
+ * <br>
+ * It must be declared at the top of the configuration,
+ * where it is checked before the level of the logger:
+ * for the loggers <i>org.hibernate.SQL</i> and
+ * <i>org.hibernate.type.descriptor.sql.BasicBinder</i> it accepts every
+ * level when the thread is serving a chosen request, while
+ * in all the other cases it leaves the decision to the level.
+ * So Hibernate does not even build the messages of the
+ * statements and of their parameters for the other requests.
+ * <br>
+ * All the methods are allocation-free, as they are called
+ * for each log statement of the application.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Plugin(name = "SqlLogFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE)
+public final class SqlLogFilter extends AbstractFilter {
+
+	/**
+	 * Key of the thread context set for the chosen requests.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final String KEY = "sqlLog";
+
+	private static final String SQL_LOGGER = "org.hibernate.SQL";
+
+	private static final String BIND_LOGGER = "org.hibernate.type.descriptor.sql.BasicBinder";
+
+
+	private SqlLogFilter() {
+		super(Result.ACCEPT, Result.NEUTRAL);
+	}
+
+
+	/**
+	 * Factory used by Log4j2 to create the filter.
+	 * @return the filter
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PluginFactory
+	public static SqlLogFilter createFilter() {
+		return new SqlLogFilter();
+	}
+
+
+	private Result filter(Logger logger, Level level) {
+		if (level.isMoreSpecificThan(Level.INFO) || !ThreadContext.containsKey(KEY))
+			return onMismatch;
+		String name = logger.getName();
+		return name.equals(SQL_LOGGER) || name.equals(BIND_LOGGER) ? onMatch : onMismatch;
+	}
+
+
+	@Override
+	public Result filter(LogEvent event) {
+		// Already accepted, or not, when the event was created
+		return Result.NEUTRAL;
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, Message msg, Throwable t) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, Object msg, Throwable t) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object... params) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5, Object p6) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5, Object p6, Object p7) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5, Object p6, Object p7, Object p8) {
+		return filter(logger, level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5, Object p6, Object p7, Object p8, Object p9) {
+		return filter(logger, level);
+	}
+}
@@ -0,0 +1,78 @@
+package com.spring.mssql.logging;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+
+/**
+ * Servlet filter that chooses the requests whose SQL
+ * statements and parameters are logged.
+ * <br>
+ * A request is chosen when it has the header
+ * <i>X-Log-Sql: true</i>, or at random with the probability
+ * of the property <i>logging.sql.sample-rate</i> (0 by default).
+ * For the chosen requests the key
+ * {@link com.spring.mssql.logging.SqlLogFilter#KEY sqlLog}
+ * is put in the Log4j2 thread context, where it is read by
+ * {@link com.spring.mssql.logging.SqlLogFilter SqlLogFilter},
+ * and removed at the end of the request.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Component
+public class SqlLogRequestFilter extends OncePerRequestFilter {
+
+	/**
+	 * Header that turns on the SQL logging of a request.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final String HEADER = "X-Log-Sql";
+
+	/**
+	 * Share of the requests, between 0 and 1, whose
+	 * SQL is logged even without the header.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	double sampleRate;
+
+
+	/**
+	 * Constructor
+	 * @param sampleRate share of the requests whose SQL is logged, from
+	 * the property <i>logging.sql.sample-rate</i>
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SqlLogRequestFilter(@Value("${logging.sql.sample-rate:0}") double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (!"true".equalsIgnoreCase(request.getHeader(HEADER))
+				&& (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		ThreadContext.put(SqlLogFilter.KEY, "true");
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ThreadContext.remove(SqlLogFilter.KEY);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.spring.mssql.metrics;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.spring.mssql.dto.HibernateStatisticsDTO;
+
+
+/**
+ * Actuator endpoint, <i>/actuator/hibernate</i>, with
+ * a summary of the Hibernate statistics.
+ * <br>
+ * The same counters are also published as meters, under
+ * the <i>hibernate.*</i> names of <i>/actuator/metrics</i>.
+ * This endpoint adds the text of the slowest query and
+ * lets the counters be reset, for example before a load test.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+	/**
+	 * Statistics of the session factory.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Statistics statistics;
+
+
+	/**
+	 * Constructor
+	 * @param entityManagerFactory the factory of the persistence unit
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory) {
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+
+	/**
+	 * Read the statistics.
+	 * @return the summary of the statistics
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@ReadOperation
+	public HibernateStatisticsDTO statistics() {
+		return new HibernateStatisticsDTO(statistics);
+	}
+
+
+	/**
+	 * Reset all the statistics, also the ones of the
+	 * regions of the second-level cache.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@DeleteOperation
+	public void clear() {
+		statistics.clear();
+	}
+}
@@ -0,0 +1,167 @@
+package com.spring.mssql.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+
+/**
+ * Count the rows returned, or changed, by each method
+ * of the Spring Data repositories.
+ * <br>
+ * Spring Boot already times each invocation, in the
+ * <i>spring.data.repository.invocations</i> timer tagged by
+ * repository, method, state (SUCCESS or ERROR) and exception;
+ * this class adds the <i>spring.data.repository.rows</i>
+ * summary, with the same repository and method tags, so a
+ * slow method can be told apart from a method that reads
+ * too many rows.
+ * <br>
+ * The rows are:
+ * <ul>
+ * <li>the size of the returned collection, slice or page;</li>
+ * <li>0 or 1 for a single entity or an Optional;</li>
+ * <li>the returned number of a
+ * {@link org.springframework.data.jpa.repository.Modifying @Modifying} query.</li>
+ * </ul>
+ * Streams, reactive publishers, counters and flags are not recorded. The summary of
+ * each method is created once, so an invocation only adds
+ * an interceptor call and a sample.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Component
+public class RepositoryRowsMetrics implements BeanPostProcessor {
+
+	/**
+	 * Name of the summary.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final String METRIC_NAME = "spring.data.repository.rows";
+
+	/**
+	 * Registry of the meters, looked up at the first
+	 * invocation, as this post processor is created
+	 * before the other beans.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	ObjectProvider<MeterRegistry> meterRegistry;
+
+
+	/**
+	 * Constructor
+	 * @param meterRegistry provider of the registry of the meters
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public RepositoryRowsMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+
+	/**
+	 * Add the interceptor to the proxy of each repository.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) {
+		if (bean instanceof RepositoryFactoryBeanSupport) {
+			((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+					factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+						String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+						proxyFactory.addAdvice(new RowsInterceptor(repository));
+					}));
+		}
+		return bean;
+	}
+
+
+	/**
+	 * Number of rows of a result.
+	 * @param method invoked
+	 * @param result returned by the method
+	 * @return the rows, -1 if the result is not recorded
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static long rows(Method method, Object result) {
+		Class<?> type = method.getReturnType();
+		if (type == void.class || result instanceof BaseStream || result instanceof Publisher
+				|| result instanceof Boolean)
+			return -1;
+		if (result instanceof Number)
+			return method.isAnnotationPresent(Modifying.class) ? ((Number) result).longValue() : -1;
+		if (result == null)
+			return 0;
+		if (result instanceof Collection)
+			return ((Collection<?>) result).size();
+		if (result instanceof Slice)
+			return ((Slice<?>) result).getNumberOfElements();
+		if (result instanceof Optional)
+			return ((Optional<?>) result).isPresent() ? 1 : 0;
+		if (result instanceof Iterable || result instanceof CharSequence)
+			return -1;
+		return 1;
+	}
+
+
+	/**
+	 * Interceptor that records the rows of the
+	 * methods of a repository.
+	 * <br>
+	 * The summaries are kept by each interceptor: the methods
+	 * inherited from the Spring Data interfaces, like findAll,
+	 * are the same Method for all the repositories.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private class RowsInterceptor implements MethodInterceptor {
+
+		private final String repository;
+
+		/**
+		 * Summary of each method of the repository.
+		 **/
+		private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+		RowsInterceptor(String repository) {
+			this.repository = repository;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object result = invocation.proceed();
+			Method method = invocation.getMethod();
+			long rows = rows(method, result);
+			if (rows >= 0) {
+				summaries.computeIfAbsent(method, m -> DistributionSummary.builder(METRIC_NAME)
+						.description("Rows returned or changed by a repository method")
+						.baseUnit("rows")
+						.tag("repository", repository)
+						.tag("method", m.getName())
+						.register(meterRegistry.getObject()))
+						.record(rows);
+			}
+			return result;
+		}
+	}
+}
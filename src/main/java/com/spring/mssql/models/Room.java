@@ -2,6 +2,8 @@ package com.spring.mssql.models;
 
 import java.util.List;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
@@ -9,6 +11,12 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 
 /**
@@ -23,11 +31,17 @@ import javax.persistence.Table;
  * {@link Room#talks talks} attribute inside 
  * this class, which will store all the Talks held
  * in this Room.
+ * <br><br>
+ * Rooms are read far more often than they are written,
+ * so they are kept in the second-level cache, in the
+ * region configured inside <i>ehcache.xml</i>.
  * @since 1.0.0
  * @author fforfabio
  **/
 @Entity
 @Table(name = "rooms")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Room {
 
 	// Columns of the model Room
@@ -41,6 +55,20 @@ public class Room {
 	private long id;
 	
 	
+	/**
+	 * Version of the room, incremented by each update.
+	 * It is the optimistic lock of the updates and the
+	 * ETag of the room; the rows written before it existed
+	 * start from 0.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Version
+	@Column(nullable = false, columnDefinition = "bigint default 0")
+	@JsonIgnore
+	private long version;
+	
+	
 	/**
 	 * Name of the room.
 	 * @since 1.0.0
@@ -69,10 +97,17 @@ public class Room {
 	 * attribute on the owning side, so in the Talk class because
 	 * it own the foreign key. It is necessary for bidirectional 
 	 * relationships.
+	 * <br>
+	 * It is not serialized: it would be loaded by a query
+	 * for each room, outside the transaction. The rooms with
+	 * their talks are returned by
+	 * {@link com.spring.mssql.services.RoomService#findAllWithTalks() findAllWithTalks}.
 	 * @since 1.0.0
  	 * @author fforfabio
 	 **/
 	@OneToMany(fetch = FetchType.LAZY, mappedBy = "room")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+	@JsonIgnore
 	private List<Talk> talks;
 
 	
@@ -91,6 +126,21 @@ public class Room {
 		this.roomCapacity = roomCapacity;
 		this.roomFloor = roomFloor;
 	}
+	
+	/**
+	 * Constructor used by the JPQL constructor expressions,
+	 * the list of talks is left null.
+	 * @param id the identifier of the room
+	 * @param roomName the name of the room
+	 * @param roomCapacity the capacity of the room
+	 * @param roomFloor the floor of the room
+	 * @since 1.0.3
+ 	 * @author fforfabio
+	 **/
+	public Room(long id, String roomName, long roomCapacity, int roomFloor) {
+		this(roomName, roomCapacity, roomFloor);
+		this.id = id;
+	}
 
 	
 	// Getter and setter
@@ -102,6 +152,10 @@ public class Room {
 		this.id = id;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
 	public String getRoomName() {
 		return roomName;
 	}
@@ -194,6 +248,6 @@ public class Room {
 	@Override
 	public String toString() {
 		return "Room [id=" + id + ", roomName=" + roomName + ", roomCapacity=" + roomCapacity + ", roomFloor="
-				+ roomFloor + ", talks=" + talks + "]";
+				+ roomFloor + "]";
 	}
 }
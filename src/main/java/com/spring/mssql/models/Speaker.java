@@ -3,8 +3,13 @@ package com.spring.mssql.models;
 import java.util.*;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import com.spring.mssql.dto.SpeakerTalksDTO;
 
@@ -21,24 +26,28 @@ import com.spring.mssql.dto.SpeakerTalksDTO;
  * {@link Speaker#speakerTalks speakerTalks} attribute inside 
  * this class, which will store all the
  * talks held by a Speaker.
+ * <br><br>
+ * Speakers, and their lists of talks, are kept in the
+ * second-level cache, in the regions configured inside
+ * <i>ehcache.xml</i>.
  * @since 1.0.0
  * @author fforfabio
  **/
 @NamedNativeQueries(value = {
 	@NamedNativeQuery(name = "Speaker.getSpeakerTalksWithJoinDTONativeQuery",
-		query = "SELECT s.lastName AS last, t.title AS title, t.description AS descr, s.id AS sID, t.id AS tID "
+		query = "SELECT s.last_name AS last, t.title AS title, t.description AS descr, s.id AS sID, t.id AS tID "
 				+ "FROM speakers s JOIN talks t ON s.id = t.speaker_id "
 				+ "WHERE t.speaker_id = ?1",
 		resultSetMapping = "speakerTalksDTO"),
 	
 	@NamedNativeQuery(name = "Speaker.getAllJoinDTONativeQuery",
-	query = "SELECT s.lastName AS last, t.title AS title, t.description AS descr, s.id AS sID, t.id AS tID "
+	query = "SELECT s.last_name AS last, t.title AS title, t.description AS descr, s.id AS sID, t.id AS tID "
 			+ "FROM speakers s, talks t "
 			+ "WHERE s.id = t.speaker_id",
 	resultSetMapping = "speakerTalksDTO"),
 
 	@NamedNativeQuery(name = "Speaker.getSpeakersByFirstName",
-	query = "SELECT s.lastName AS last, s.id AS sID "
+	query = "SELECT s.last_name AS last, s.id AS sID "
 			+ "FROM speakers s "
 			+ "WHERE s.first_name = ?1",
 	resultSetMapping = "speaker"),
@@ -50,15 +59,34 @@ import com.spring.mssql.dto.SpeakerTalksDTO;
 	resultSetMapping = "speaker"),*/
 	
 	@NamedNativeQuery(name = "Speaker.getTalksCount",
-	query = "SELECT s.lastName AS last, s.id AS sID, COUNT(t.id) AS numTalks, COUNT(NULLIF(t.published, 0)) AS publishedTalks "
+	query = "SELECT s.last_name AS last, s.id AS sID, COUNT(t.id) AS numTalks, COUNT(CASE WHEN t.published = 1 THEN t.id END) AS publishedTalks "
 			+ "FROM speakers s, talks t "
 			+ "WHERE s.id = t.speaker_id AND t.id IN( "
 				+ "SELECT t1.id "
 				+ "FROM talks t1 "
 				+ "WHERE t1.title LIKE CONCAT(?1, '%')) "
 				//+ "WHERE t1.title LIKE '[:titleLike]%') "
-			+ "GROUP BY s.id, s.lastName "
+			+ "GROUP BY s.id, s.last_name "
 			+ "HAVING COUNT(t.id) >= 1",
+	resultSetMapping = "speakerTalksDTOMapping"),
+	
+	@NamedNativeQuery(name = "Speaker.getAllJoinDTONativeQueryAfter",
+	query = "SELECT s.last_name AS last, t.title AS title, t.description AS descr, s.id AS sID, t.id AS tID "
+			+ "FROM speakers s, talks t "
+			+ "WHERE s.id = t.speaker_id AND t.id > ?1 "
+			+ "ORDER BY t.id",
+	resultSetMapping = "speakerTalksDTO"),
+	
+	@NamedNativeQuery(name = "Speaker.getTalksCountAfter",
+	query = "SELECT s.last_name AS last, s.id AS sID, COUNT(t.id) AS numTalks, COUNT(CASE WHEN t.published = 1 THEN t.id END) AS publishedTalks "
+			+ "FROM speakers s, talks t "
+			+ "WHERE s.id = t.speaker_id AND s.id > ?2 AND t.id IN( "
+				+ "SELECT t1.id "
+				+ "FROM talks t1 "
+				+ "WHERE t1.title LIKE CONCAT(?1, '%')) "
+			+ "GROUP BY s.id, s.last_name "
+			+ "HAVING COUNT(t.id) >= 1 "
+			+ "ORDER BY s.id",
 	resultSetMapping = "speakerTalksDTOMapping")})
 
 @SqlResultSetMappings(value = {
@@ -89,6 +117,8 @@ import com.spring.mssql.dto.SpeakerTalksDTO;
                                @ColumnResult(name = "publishedTalks", type = int.class)}))})
 @Entity
 @Table(name = "speakers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Speaker {
 	
 	// Columns of the model Speaker
@@ -101,6 +131,19 @@ public class Speaker {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private long id;
 	
+	/**
+	 * Version of the speaker, incremented by each update.
+	 * It is the optimistic lock of the updates and the
+	 * ETag of the speaker; the rows written before it existed
+	 * start from 0.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Version
+	@Column(nullable = false, columnDefinition = "bigint default 0")
+	@JsonIgnore
+	private long version;
+	
 	/**
 	 * First name of the speaker.
 	 * @since 1.0.0
@@ -134,17 +177,31 @@ public class Speaker {
 	 * Each speaker has the list of talks taken by him.
 	 * FetchType.LAZY means that the list of talks will be 
 	 * retrieve only on request.
+	 * <br>
+	 * The list is kept in the second-level cache. Being
+	 * unidirectional, Hibernate does not evict it when a
+	 * talk is written without passing from this list, see
+	 * {@link com.spring.mssql.services.CacheService CacheService}.
+	 * <br>
+	 * The list is extra lazy: size() and isEmpty() run a
+	 * COUNT query instead of loading all the talks.
+	 * <br>
+	 * The open session in view is turned off, so the
+	 * endpoints that return the speakers load their lists
+	 * inside a read-only transaction, see
+	 * {@link com.spring.mssql.services.SpeakerService SpeakerService}:
+	 * the lists of up to 50 speakers are read by a single query.
 	 * @since 1.0.0
 	 * @author fforfabio
 	 **/
 	@OneToMany(fetch = FetchType.LAZY)
 	@JoinColumn(name = "speaker_id", referencedColumnName = "id")
+	@LazyCollection(LazyCollectionOption.EXTRA)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+	@BatchSize(size = 50)
 	private List<Talk> speakerTalk;
 
 	
-	/* With standard JPA, static fields are not persisted, and final fields are not persisted too. */
-	private static final Logger logger = LogManager.getLogger(Speaker.class.getName());
-	
 	
 	public Speaker() {
 	}
@@ -189,8 +246,11 @@ public class Speaker {
 		this.id = id;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
 	public String getFirstName() {
-		logger.info("Method getFirstName()\tFirstName " + this.firstName);
 		return firstName;
 	}
 
@@ -3,10 +3,13 @@ package com.spring.mssql.models;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.spring.mssql.listeners.TalkTitleIndexListener;
 
 
 /**
@@ -21,11 +24,22 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  * {@link Talk#room room} attribute inside 
  * this class, which will store the Room where
  * the Talk has been taken.
+ * <br><br>
+ * Talks are kept in the second-level cache, so that the
+ * cached lists of talks of speakers and rooms, which only
+ * hold the ids, do not read each talk from the database.
+ * <br>
+ * The titles are also kept in the in-memory index of
+ * {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService},
+ * updated by {@link com.spring.mssql.listeners.TalkTitleIndexListener TalkTitleIndexListener}.
  * @since 1.0.0
  * @author fforfabio
  **/
 @Entity
 @Table(name = "talks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(TalkTitleIndexListener.class)
 public class Talk {
 
 	// Columns of the model Talk
@@ -38,6 +52,19 @@ public class Talk {
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private long id;
 
+	/**
+	 * Version of the talk, incremented by each update.
+	 * It is the optimistic lock of the updates and the
+	 * ETag of the talk; the rows written before it existed
+	 * start from 0.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Version
+	@Column(nullable = false, columnDefinition = "bigint default 0")
+	@JsonIgnore
+	private long version;
+
 	/**
 	 * Title of the talk.
 	 * @since 1.0.0
@@ -73,6 +100,28 @@ public class Talk {
 	@OnDelete(action = OnDeleteAction.CASCADE)
 	@JsonIgnore
 	private Room room;
+	
+	
+	/**
+	 * Foreign key speaker_id, owned by the 
+	 * {@link com.spring.mssql.models.Speaker#speakerTalk speakerTalk}
+	 * relationship of the Speaker entity.
+	 * <br>
+	 * It is mapped here too so a Talk can be inserted with
+	 * its speaker without loading the list of talks of the
+	 * speaker. It is not written by the updates of the entity,
+	 * which would write back the speaker read before a move:
+	 * the talks are moved to another speaker only by the bulk
+	 * statements of
+	 * {@link com.spring.mssql.repositories.TalkRepository TalkRepository},
+	 * like {@link com.spring.mssql.repositories.TalkRepository#reassignTalks(long, long) reassignTalks},
+	 * which set the column whatever this mapping says.
+	 * @since 1.0.3
+ 	 * @author fforfabio
+	 **/
+	@Column(name = "speaker_id", updatable = false)
+	@JsonIgnore
+	private Long speakerId;
 
 	
 	public Talk() {	
@@ -104,6 +153,10 @@ public class Talk {
 		this.id = id;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
 	public String getTitle() {
 	  	return title;
 	}
@@ -136,6 +189,14 @@ public class Talk {
 		this.room = room;
 	}
 
+	public Long getSpeakerId() {
+		return speakerId;
+	}
+
+	public void setSpeakerId(Long speakerId) {
+		this.speakerId = speakerId;
+	}
+
 	@Override
 	public String toString() {
 		String textPublished = (published) ? " is already available." : " is not available.";
@@ -0,0 +1,124 @@
+package com.spring.mssql.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+
+/**
+ * Position of the last row returned by a keyset (seek)
+ * pagination query.
+ * <br>
+ * It is made by the value of the sort key and by the
+ * id of the row, which breaks the ties between rows with
+ * the same sort key. When a query is sorted only by id
+ * the sort key is null.
+ * <br>
+ * The client receives the cursor as an opaque token and
+ * sends it back, as it is, to read the next slice.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public final class KeysetCursor {
+
+	/**
+	 * Cursor placed before the first row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final KeysetCursor START = new KeysetCursor("", 0);
+
+	private static final char SEPARATOR = ':';
+
+	/**
+	 * Value of the sort key of the last row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final String key;
+
+	/**
+	 * Identifier of the last row.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long id;
+
+
+	/**
+	 * Constructor
+	 * @param key value of the sort key of the last row
+	 * @param id identifier of the last row
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public KeysetCursor(String key, long id) {
+		this.key = key == null ? "" : key;
+		this.id = id;
+	}
+
+
+	/**
+	 * Constructor for the queries sorted only by id.
+	 * @param id identifier of the last row
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public KeysetCursor(long id) {
+		this("", id);
+	}
+
+
+	/**
+	 * Read a cursor from the token sent by the client.
+	 * @param token the token, or null for the first slice
+	 * @return the cursor
+	 * @throws IllegalArgumentException if the token is not valid
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static KeysetCursor decode(String token) {
+		if (token == null || token.isEmpty()) {
+			return START;
+		}
+		String value;
+		try {
+			value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor " + token, e);
+		}
+		int separator = value.indexOf(SEPARATOR);
+		if (separator < 0) {
+			throw new IllegalArgumentException("Invalid cursor " + token);
+		}
+		try {
+			return new KeysetCursor(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid cursor " + token, e);
+		}
+	}
+
+
+	/**
+	 * Write the cursor as an opaque, url safe, token.
+	 * @return the token
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public String encode() {
+		String value = id + String.valueOf(SEPARATOR) + key;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return "KeysetCursor [key=" + key + ", id=" + id + "]";
+	}
+}
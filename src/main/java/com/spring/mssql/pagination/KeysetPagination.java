@@ -0,0 +1,91 @@
+package com.spring.mssql.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Helper used by the controllers for the keyset (seek)
+ * pagination.
+ * <br>
+ * The repositories filter the rows after the
+ * {@link com.spring.mssql.pagination.KeysetCursor KeysetCursor}
+ * and always read the first page of the result, so the
+ * database never has to skip rows with an OFFSET.
+ * Returning a {@link org.springframework.data.domain.Slice Slice}
+ * Spring Data reads one more row to know if there is a next
+ * slice, without running a COUNT query.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Component
+public class KeysetPagination {
+
+	/**
+	 * Size of a slice when the client does not ask for one.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int defaultSize;
+
+	/**
+	 * Max size of a slice, whatever the client asks for.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int maxSize;
+
+
+	/**
+	 * Constructor
+	 * @param defaultSize size of a slice when the client does not ask for one
+	 * @param maxSize max size of a slice
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public KeysetPagination(@Value("${pagination.keyset.default-size:50}") int defaultSize,
+			@Value("${pagination.keyset.max-size:500}") int maxSize) {
+		this.defaultSize = defaultSize;
+		this.maxSize = maxSize;
+	}
+
+
+	/**
+	 * Build the request for the first page of the rows after
+	 * the cursor, capping the size asked by the client.
+	 * @param size asked by the client, it can be null
+	 * @return the request to pass to the repository
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Pageable limit(Integer size) {
+		int s = (size == null || size < 1) ? defaultSize : Math.min(size, maxSize);
+		return PageRequest.of(0, s);
+	}
+
+
+	/**
+	 * Convert the slice read by the repository in the one
+	 * returned to the client.
+	 * @param <T> type of the rows
+	 * @param slice read by the repository
+	 * @param cursorOf function that build the cursor of a row
+	 * @return the slice with the token to read the next one
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public <T> KeysetSlice<T> toKeysetSlice(Slice<T> slice, Function<T, KeysetCursor> cursorOf) {
+		List<T> content = slice.getContent();
+		String next = null;
+		if (slice.hasNext() && !content.isEmpty()) {
+			next = cursorOf.apply(content.get(content.size() - 1)).encode();
+		}
+		return new KeysetSlice<>(content, slice.hasNext(), next);
+	}
+}
@@ -0,0 +1,75 @@
+package com.spring.mssql.pagination;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+
+/**
+ * One slice of a keyset (seek) pagination.
+ * <br>
+ * Unlike a {@link org.springframework.data.domain.Page Page}
+ * it does not know the total number of rows, so no COUNT
+ * query is needed. It only knows if there is another slice
+ * and the cursor to read it.
+ * @param <T> type of the rows
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class KeysetSlice<T> {
+
+	/**
+	 * Rows of this slice.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final List<T> content;
+
+	/**
+	 * Flag to see if there are other rows after this slice.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final boolean hasNext;
+
+	/**
+	 * Token to pass as cursor parameter to read the next
+	 * slice. It is null when this is the last slice.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private final String nextCursor;
+
+
+	/**
+	 * Constructor
+	 * @param content rows of this slice
+	 * @param hasNext if there are other rows after this slice
+	 * @param nextCursor token to read the next slice
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public KeysetSlice(List<T> content, boolean hasNext, String nextCursor) {
+		this.content = content;
+		this.hasNext = hasNext;
+		this.nextCursor = nextCursor;
+	}
+
+	// Getter
+	public List<T> getContent() {
+		return content;
+	}
+
+	public int getSize() {
+		return content.size();
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+}
@@ -1,11 +1,24 @@
 package com.spring.mssql.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.spring.mssql.dto.RoomTalksCountView;
+import com.spring.mssql.dto.RoomView;
+import com.spring.mssql.dto.TableVersionView;
+import com.spring.mssql.dto.TalkSummaryDTO;
 import com.spring.mssql.models.Room;
 
 
@@ -45,22 +58,139 @@ public interface RoomRepository extends JpaRepository<Room, Long>{
 	
 	/**
 	 * This query is called by the 
-	 * {@link com.spring.mssql.controllers.RoomController#updateRoom(long, Room) updateRoom}
+	 * {@link com.spring.mssql.controllers.RoomController#updateRoom(long, Room, String) updateRoom}
 	 * method inside the {@link com.spring.mssql.controllers.RoomController RoomController}.
 	 * <br>
 	 * It's purpose is to update a room.
+	 * <br>
+	 * The UPDATE bypasses the persistence context, so the
+	 * hint declares the table it changes: after the commit
+	 * Hibernate evicts only the regions of the second-level
+	 * cache mapped on the rooms table, instead of the whole
+	 * cache, and the next read of the room goes to the database.
+	 * <br>
+	 * The room is updated only if it still has the version
+	 * read by the caller, which is then incremented as
+	 * Hibernate does for the updates of the entities.
 	 * @param roomId id of the room to update
 	 * @param roomName the new name of the room
 	 * @param roomCapacity the new capacity of the room
 	 * @param roomFloor the new floor of the room
+	 * @param version the version of the room read by the caller
+	 * @return the number of updated rooms, 0 if the room has been changed in the meantime
 	 * @since 1.0.1
 	 * @author fforfabio
 	 **/
 	@Modifying
 	@Transactional
+	@QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "rooms"))
 	@Query(value = "UPDATE rooms "
-			+ "SET roomName = ?2, roomCapacity = ?3, roomFloor = ?4 "
-			+ "WHERE id = ?1", nativeQuery = true)
-	public void updateRoom(long roomId, String roomName, long roomCapacity,int roomFloor);
+			+ "SET room_name = ?2, room_capacity = ?3, room_floor = ?4, version = version + 1 "
+			+ "WHERE id = ?1 AND version = ?5", nativeQuery = true)
+	public int updateRoom(long roomId, String roomName, long roomCapacity,int roomFloor, long version);
+	
+	
+	/**
+	 * Keyset pagination on the rooms sorted by id.
+	 * @param id of the last room of the previous slice
+	 * @param pageable size of the slice, always on the first page
+	 * @return the rooms with an id greater than the parameter.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Slice<Room> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+	
+	
+	/**
+	 * Query used to check, with a single statement, which
+	 * rooms of a list exist.
+	 * @param ids of the rooms to check
+	 * @return the ids, between the ones of the parameter, that exist.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT r.id FROM Room r WHERE r.id IN ?1")
+	public List<Long> findExistingIds(Collection<Long> ids);
+	
+	
+	/**
+	 * Rooms where a speaker has held at least a talk.
+	 * <br>
+	 * The rooms are built with a constructor expression,
+	 * without their list of talks, so they can be returned
+	 * outside of the persistence context that read them.
+	 * @param speakerId id of the speaker
+	 * @return the rooms of the talks of the speaker, sorted by id.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT DISTINCT new com.spring.mssql.models.Room(r.id, r.roomName, r.roomCapacity, r.roomFloor) "
+			+ "FROM Talk t JOIN t.room r "
+			+ "WHERE t.speakerId = ?1 "
+			+ "ORDER BY r.id")
+	public List<Room> findRoomsOfSpeaker(long speakerId);
+	
+	
+	/**
+	 * All the rooms, without their talks, read with a
+	 * single query on the columns of the projection.
+	 * @return the rooms, sorted by id.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<RoomView> findAllProjectedByOrderByIdAsc();
+	
+	
+	/**
+	 * All the rooms with the number of the talks taken
+	 * in each one, rooms without talks included.
+	 * @return the rooms with their number of talks, sorted by id.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT r.id AS id, r.roomName AS roomName, r.roomCapacity AS roomCapacity, "
+			+ "r.roomFloor AS roomFloor, COUNT(t.id) AS talksCount "
+			+ "FROM Room r "
+			+ "LEFT JOIN r.talks t "
+			+ "GROUP BY r.id, r.roomName, r.roomCapacity, r.roomFloor "
+			+ "ORDER BY r.id")
+	public List<RoomTalksCountView> findAllWithTalksCount();
+	
+	
+	/**
+	 * Summaries of all the talks, with the id of their room.
+	 * The id is read from the foreign key, without joining
+	 * the rooms table.
+	 * @return the summaries of the talks, sorted by id.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT new com.spring.mssql.dto.TalkSummaryDTO(t.room.id, t.id, t.title, t.published) "
+			+ "FROM Talk t "
+			+ "ORDER BY t.id")
+	public List<TalkSummaryDTO> findTalkSummaries();
+	
+	
+	/**
+	 * Version of a room, read without loading the room.
+	 * @param id of the room
+	 * @return the version, empty if the room does not exist.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT r.version FROM Room r WHERE r.id = ?1")
+	public Optional<Long> findVersionById(long id);
+	
+	
+	/**
+	 * State of the rooms table, for the ETag of the
+	 * listings of the rooms.
+	 * @return rows, max id and sum of the versions of the rooms.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT COUNT(r) AS rowCount, COALESCE(MAX(r.id), 0) AS maxId, "
+			+ "COALESCE(SUM(r.version), 0) AS versionSum FROM Room r")
+	public TableVersionView getTableVersion();
 	
 }
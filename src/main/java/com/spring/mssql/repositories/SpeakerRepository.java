@@ -1,12 +1,22 @@
 package com.spring.mssql.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import javax.persistence.Tuple;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.dto.SpeakerTalksView;
+import com.spring.mssql.dto.SpeakerView;
+import com.spring.mssql.dto.TableVersionView;
 import com.spring.mssql.models.Speaker;
 
 
@@ -41,7 +51,7 @@ import com.spring.mssql.models.Speaker;
  * @author fforfabio
  **/
 @Repository
-public interface SpeakerRepository extends JpaRepository<Speaker, Long>{
+public interface SpeakerRepository extends JpaRepository<Speaker, Long>, SpeakerRepositoryCustom {
 	
 //	Query examples
 	
@@ -88,9 +98,9 @@ public interface SpeakerRepository extends JpaRepository<Speaker, Long>{
 	 * @since 1.0.0
 	 * @author fforfabio
 	 **/ 
-	@Query("SELECT new com.spring.mssql.dto.speakerTalksDTO(s.lastName, t.title, t.description, s.id, t.id) "
+	@Query("SELECT new com.spring.mssql.dto.SpeakerTalksDTO(s.lastName, t.title, t.description, s.id, t.id) "
 			+ "FROM Speaker s "
-			+ "JOIN s.speakerTalks t "
+			+ "JOIN s.speakerTalk t "
 			+ "WHERE s.id = ?1")
 	public List<SpeakerTalksDTO> getSpeakerTalksWithJoinDTOJPQL(long id);
 	
@@ -138,5 +148,257 @@ public interface SpeakerRepository extends JpaRepository<Speaker, Long>{
 	 **/ 
 	@Query(nativeQuery = true)
 	public List<SpeakerTalksDTO> getTalksCount(String titleLike);
+
+
+	/**
+	 * JOIN on an interface projection with JPQL.
+	 * <br>
+	 * Same join of {@link #getSpeakerTalksWithJoinDTOJPQL(long) getSpeakerTalksWithJoinDTOJPQL},
+	 * but the rows are exposed through the
+	 * {@link com.spring.mssql.dto.SpeakerTalksView SpeakerTalksView} interface.
+	 * @param id of the speaker
+	 * @return The query will return all the talks for the requested speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.lastName AS speakerLastName, t.title AS talkTitle, t.description AS talkDescription, "
+			+ "s.id AS speakerId, t.id AS talkId "
+			+ "FROM Speaker s "
+			+ "JOIN s.speakerTalk t "
+			+ "WHERE s.id = ?1")
+	public List<SpeakerTalksView> getSpeakerTalksWithJoinProjection(long id);
+
+
+	/**
+	 * JOIN on {@link javax.persistence.Tuple Tuple} with JPQL.
+	 * <br>
+	 * Same join of {@link #getSpeakerTalksWithJoinDTOJPQL(long) getSpeakerTalksWithJoinDTOJPQL},
+	 * but each row is returned as a raw Tuple whose elements
+	 * can be read by alias.
+	 * @param id of the speaker
+	 * @return The query will return all the talks for the requested speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.lastName AS speakerLastName, t.title AS talkTitle, t.description AS talkDescription, "
+			+ "s.id AS speakerId, t.id AS talkId "
+			+ "FROM Speaker s "
+			+ "JOIN s.speakerTalk t "
+			+ "WHERE s.id = ?1")
+	public List<Tuple> getSpeakerTalksWithJoinTuple(long id);
+
+
+	/**
+	 * JOIN on an interface projection with JPQL.
+	 * <br>
+	 * Same join of {@link #getAllJoinDTONativeQuery() getAllJoinDTONativeQuery},
+	 * but the rows are exposed through the
+	 * {@link com.spring.mssql.dto.SpeakerTalksView SpeakerTalksView} interface.
+	 * @return The query will return all the speakers with all their talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.lastName AS speakerLastName, t.title AS talkTitle, t.description AS talkDescription, "
+			+ "s.id AS speakerId, t.id AS talkId "
+			+ "FROM Speaker s "
+			+ "JOIN s.speakerTalk t")
+	public List<SpeakerTalksView> getAllJoinProjection();
+
+
+	/**
+	 * JOIN on {@link javax.persistence.Tuple Tuple} with JPQL.
+	 * <br>
+	 * Same join of {@link #getAllJoinDTONativeQuery() getAllJoinDTONativeQuery},
+	 * but each row is returned as a raw Tuple.
+	 * @return The query will return all the speakers with all their talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.lastName AS speakerLastName, t.title AS talkTitle, t.description AS talkDescription, "
+			+ "s.id AS speakerId, t.id AS talkId "
+			+ "FROM Speaker s "
+			+ "JOIN s.speakerTalk t")
+	public List<Tuple> getAllJoinTuple();
+
+
+	/**
+	 * Keyset pagination on the speakers sorted by id.
+	 * @param id of the last speaker of the previous slice
+	 * @param pageable size of the slice, always on the first page
+	 * @return the speakers with an id greater than the parameter,
+	 * without their talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Slice<SpeakerView> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+
+	/**
+	 * Keyset pagination on the speakers sorted by last name.
+	 * The id breaks the ties between speakers with the same last name.
+	 * @param lastName of the last speaker of the previous slice
+	 * @param id of the last speaker of the previous slice
+	 * @param pageable size of the slice, always on the first page
+	 * @return the speakers after the one of the parameters,
+	 * without their talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.id AS id, s.version AS version, s.firstName AS firstName, s.lastName AS lastName, s.age AS age "
+			+ "FROM Speaker s "
+			+ "WHERE s.lastName > ?1 OR (s.lastName = ?1 AND s.id > ?2) "
+			+ "ORDER BY s.lastName, s.id")
+	public Slice<SpeakerView> findByLastNameAfter(String lastName, long id, Pageable pageable);
+
+
+	/**
+	 * Keyset pagination of
+	 * {@link #getSpeakersByFirstName(String) getSpeakersByFirstName}.
+	 * @param firstName of the speakers
+	 * @param id of the last speaker of the previous slice
+	 * @param pageable size of the slice, always on the first page
+	 * @return the speakers with first name as firstName and an id greater than the parameter.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT new com.spring.mssql.models.Speaker(s.lastName, s.id) "
+			+ "FROM Speaker s "
+			+ "WHERE s.firstName = ?1 AND s.id > ?2 "
+			+ "ORDER BY s.id")
+	public Slice<Speaker> getSpeakersByFirstNameAfter(String firstName, long id, Pageable pageable);
+
+
+	/**
+	 * Keyset pagination of
+	 * {@link #getSpeakerTalksWithJoinDTOJPQL(long) getSpeakerTalksWithJoinDTOJPQL}.
+	 * @param speakerId id of the speaker
+	 * @param talkId id of the last talk of the previous slice
+	 * @param pageable size of the slice, always on the first page
+	 * @return the talks of the speaker with an id greater than talkId.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT new com.spring.mssql.dto.SpeakerTalksDTO(s.lastName, t.title, t.description, s.id, t.id) "
+			+ "FROM Speaker s "
+			+ "JOIN s.speakerTalk t "
+			+ "WHERE s.id = ?1 AND t.id > ?2 "
+			+ "ORDER BY t.id")
+	public Slice<SpeakerTalksDTO> getSpeakerTalksWithJoinDTOJPQLAfter(long speakerId, long talkId, Pageable pageable);
+
+
+	/**
+	 * Query used to check, with a single statement, which
+	 * speakers of a list exist.
+	 * @param ids of the speakers to check
+	 * @return the ids, between the ones of the parameter, that exist.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.id FROM Speaker s WHERE s.id IN ?1")
+	public List<Long> findExistingIds(Collection<Long> ids);
+	
+	
+	/**
+	 * Delete a speaker with a single DELETE, without
+	 * loading it and its list of talks.
+	 * <br>
+	 * The talks of the speaker must have been detached or
+	 * moved to another speaker before, see
+	 * {@link com.spring.mssql.services.SpeakerService#deleteSpeaker(long, Long) deleteSpeaker}.
+	 * @param id of the speaker to delete
+	 * @return the number of speakers deleted, 0 if it did not exist.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Modifying
+	@Query("DELETE FROM Speaker s WHERE s.id = ?1")
+	public int deleteSpeaker(long id);
+	
+	
+	/**
+	 * Read last name and id of all the speakers, without
+	 * touching the talks table.
+	 * <br>
+	 * The counters of the talks are left to 0, and are filled by
+	 * {@link com.spring.mssql.services.TalkCounterService#getTalksCount() TalkCounterService}.
+	 * @return a counter for each speaker, sorted by id.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT new com.spring.mssql.dto.SpeakerTalksDTO(s.lastName, s.id, 0, 0) "
+			+ "FROM Speaker s "
+			+ "ORDER BY s.id")
+	public List<SpeakerTalksDTO> findAllForTalksCount();
+	
 	
-}
\ No newline at end of file
+	/**
+	 * Version of a speaker, read without loading the speaker.
+	 * @param id of the speaker
+	 * @return the version, empty if the speaker does not exist.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.version FROM Speaker s WHERE s.id = ?1")
+	public Optional<Long> findVersionById(long id);
+	
+	
+	/**
+	 * State of the speakers table, for the ETag of the
+	 * listings of the speakers.
+	 * @return rows, max id and sum of the versions of the speakers.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT COUNT(s) AS rowCount, COALESCE(MAX(s.id), 0) AS maxId, "
+			+ "COALESCE(SUM(s.version), 0) AS versionSum FROM Speaker s")
+	public TableVersionView getTableVersion();
+	
+	
+	/**
+	 * Ids of the speakers after an id, sorted, read from the
+	 * primary key without loading the speakers.
+	 * <br>
+	 * With a page of one row it is the check that the table
+	 * is not empty, and the upper bound of each chunk of
+	 * {@link com.spring.mssql.services.PurgeService PurgeService}.
+	 * @param id the ids returned are greater than this one
+	 * @param pageable the rows to skip and to return
+	 * @return the ids of the page.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.id FROM Speaker s WHERE s.id > ?1 ORDER BY s.id")
+	public List<Long> findIdsAfter(long id, Pageable pageable);
+	
+	
+	/**
+	 * Delete, with a single DELETE, the speakers inside
+	 * a range of ids.
+	 * <br>
+	 * Their talks must have been detached before, see
+	 * {@link com.spring.mssql.repositories.TalkRepository#detachTalksOfSpeakers(long, long) detachTalksOfSpeakers}.
+	 * @param fromId the deleted ids are greater than this one
+	 * @param toId the deleted ids are lower than or equal to this one
+	 * @return the number of speakers deleted.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Modifying
+	@Query("DELETE FROM Speaker s WHERE s.id > ?1 AND s.id <= ?2")
+	public int deleteIdRange(long fromId, long toId);
+	
+	
+	/**
+	 * Read id and last name of all the speakers, without
+	 * building the entities.
+	 * <br>
+	 * It is used to build the read model of
+	 * {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}.
+	 * @return for each speaker, an array with id and last name.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT s.id, s.lastName FROM Speaker s")
+	public List<Object[]> findAllLastNames();
+
+}
@@ -0,0 +1,101 @@
+package com.spring.mssql.repositories;
+
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import com.spring.mssql.dto.SpeakerTalksColumnsDTO;
+import com.spring.mssql.dto.SpeakerTalksDTO;
+
+
+/**
+ * Custom fragment of the
+ * {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}.
+ * <br>
+ * Spring Data will merge the methods declared here with the
+ * ones of the repository, using the implementation inside
+ * {@link com.spring.mssql.repositories.SpeakerRepositoryImpl SpeakerRepositoryImpl}.
+ * It is used for the queries that need something the
+ * {@link org.springframework.data.jpa.repository.Query @Query}
+ * annotation can not express, like a fetch size read from
+ * the application.properties, or a slice of a named
+ * native query.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public interface SpeakerRepositoryCustom {
+
+	/**
+	 * Same join of
+	 * {@link com.spring.mssql.repositories.SpeakerRepository#getAllJoinDTONativeQuery() getAllJoinDTONativeQuery},
+	 * but the rows are read one by one from a forward-only
+	 * cursor instead of being collected into a list.
+	 * <br>
+	 * The stream must be consumed inside a transaction and
+	 * closed at the end, to release the cursor and the connection.
+	 * @return a stream over all the speakers with all their talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Stream<SpeakerTalksDTO> streamAllJoinDTONativeQuery();
+
+
+	/**
+	 * Same join of
+	 * {@link com.spring.mssql.repositories.SpeakerRepository#getAllJoinDTONativeQuery() getAllJoinDTONativeQuery},
+	 * but the JDBC result set is read straight into the
+	 * columns of a
+	 * {@link com.spring.mssql.dto.SpeakerTalksColumnsDTO SpeakerTalksColumnsDTO},
+	 * without an object for each row.
+	 * @return all the speakers with all their talks, by column.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerTalksColumnsDTO getAllJoinColumns();
+
+
+	/**
+	 * Same join of
+	 * {@link com.spring.mssql.repositories.SpeakerRepository#getSpeakerTalksWithJoinDTONativeQuery(long) getSpeakerTalksWithJoinDTONativeQuery},
+	 * sorted by talk, but the JDBC result set is read straight
+	 * into the columns of a
+	 * {@link com.spring.mssql.dto.SpeakerTalksColumnsDTO SpeakerTalksColumnsDTO}.
+	 * @param id of the speaker
+	 * @return all the talks of the speaker, by column.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerTalksColumnsDTO getSpeakerTalksColumns(long id);
+
+
+	/**
+	 * Keyset pagination of
+	 * {@link com.spring.mssql.repositories.SpeakerRepository#getAllJoinDTONativeQuery() getAllJoinDTONativeQuery}.
+	 * The definition of the query is available on the
+	 * head of the {@link com.spring.mssql.models.Speaker Speaker}
+	 * entity.
+	 * @param talkId id of the last talk of the previous slice
+	 * @param pageable size of the slice, always on the first page
+	 * @return the speakers with their talks with an id greater than talkId.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Slice<SpeakerTalksDTO> getAllJoinDTONativeQueryAfter(long talkId, Pageable pageable);
+
+
+	/**
+	 * Keyset pagination of
+	 * {@link com.spring.mssql.repositories.SpeakerRepository#getTalksCount(String) getTalksCount}.
+	 * The definition of the query is available on the
+	 * head of the {@link com.spring.mssql.models.Speaker Speaker}
+	 * entity.
+	 * @param titleLike initial part of the title of the talk
+	 * @param speakerId id of the last speaker of the previous slice
+	 * @param pageable size of the slice, always on the first page
+	 * @return the counters of the speakers with an id greater than speakerId.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Slice<SpeakerTalksDTO> getTalksCountAfter(String titleLike, long speakerId, Pageable pageable);
+}
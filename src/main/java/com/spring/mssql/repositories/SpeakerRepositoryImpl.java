@@ -0,0 +1,152 @@
+package com.spring.mssql.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.spring.mssql.dto.SpeakerTalksColumnsDTO;
+import com.spring.mssql.dto.SpeakerTalksDTO;
+
+
+/**
+ * Implementation of the
+ * {@link com.spring.mssql.repositories.SpeakerRepositoryCustom SpeakerRepositoryCustom}
+ * fragment.
+ * <br>
+ * The name must be the one of the repository plus the
+ * <i>Impl</i> postfix, otherwise Spring Data will not find it.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public class SpeakerRepositoryImpl implements SpeakerRepositoryCustom {
+
+	/**
+	 * Join of the Speaker.getAllJoinDTONativeQuery named query,
+	 * with the columns in the order read by {@link #readColumns readColumns}.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final String ALL_JOIN_COLUMNS = "SELECT s.id, s.last_name, t.id, t.title, t.description "
+			+ "FROM speakers s, talks t "
+			+ "WHERE s.id = t.speaker_id";
+
+	/**
+	 * Join of the Speaker.getSpeakerTalksWithJoinDTONativeQuery
+	 * named query, sorted by talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final String SPEAKER_TALKS_COLUMNS = "SELECT s.id, s.last_name, t.id, t.title, t.description "
+			+ "FROM speakers s JOIN talks t ON s.id = t.speaker_id "
+			+ "WHERE t.speaker_id = ? "
+			+ "ORDER BY t.id";
+
+	/**
+	 * Entity manager bound to the current transaction.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Number of rows the JDBC driver will fetch from the
+	 * database at each round trip while the stream is read.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Value("${speakers.join.stream.fetch-size:1000}")
+	private int fetchSize;
+
+
+	@Override
+	public Stream<SpeakerTalksDTO> streamAllJoinDTONativeQuery() {
+		// Hibernate backs getResultStream() with a forward-only ScrollableResults
+		return entityManager.createNamedQuery("Speaker.getAllJoinDTONativeQuery", SpeakerTalksDTO.class)
+				.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(QueryHints.HINT_READONLY, true)
+				.getResultStream();
+	}
+
+
+	// The shared entity manager can be unwrapped only inside a transaction
+	@Override
+	@Transactional(readOnly = true)
+	public SpeakerTalksColumnsDTO getAllJoinColumns() {
+		return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(ALL_JOIN_COLUMNS)) {
+				return readColumns(statement, 0);
+			}
+		});
+	}
+
+
+	@Override
+	@Transactional(readOnly = true)
+	public SpeakerTalksColumnsDTO getSpeakerTalksColumns(long id) {
+		return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(SPEAKER_TALKS_COLUMNS)) {
+				statement.setLong(1, id);
+				return readColumns(statement, 0);
+			}
+		});
+	}
+
+
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<SpeakerTalksDTO> getAllJoinDTONativeQueryAfter(long talkId, Pageable pageable) {
+		return slice(entityManager.createNamedQuery("Speaker.getAllJoinDTONativeQueryAfter", SpeakerTalksDTO.class)
+				.setParameter(1, talkId), pageable);
+	}
+
+
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<SpeakerTalksDTO> getTalksCountAfter(String titleLike, long speakerId, Pageable pageable) {
+		return slice(entityManager.createNamedQuery("Speaker.getTalksCountAfter", SpeakerTalksDTO.class)
+				.setParameter(1, titleLike)
+				.setParameter(2, speakerId), pageable);
+	}
+
+
+	/**
+	 * Read the page of a query, plus one row to know if
+	 * there is a next slice: Hibernate writes the limit in
+	 * the syntax of the database.
+	 **/
+	private static <T> Slice<T> slice(TypedQuery<T> query, Pageable pageable) {
+		int size = pageable.getPageSize();
+		List<T> rows = query.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(size + 1)
+				.getResultList();
+		boolean hasNext = rows.size() > size;
+		return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+	}
+
+
+	private SpeakerTalksColumnsDTO readColumns(PreparedStatement statement, int capacity) throws SQLException {
+		statement.setFetchSize(fetchSize);
+		SpeakerTalksColumnsDTO columns = new SpeakerTalksColumnsDTO(capacity);
+		try (ResultSet rs = statement.executeQuery()) {
+			while (rs.next()) {
+				columns.add(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4), rs.getString(5));
+			}
+		}
+		return columns;
+	}
+}
@@ -0,0 +1,64 @@
+package com.spring.mssql.repositories;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+import com.spring.mssql.models.Talk;
+
+import reactor.core.publisher.Flux;
+
+
+/**
+ * Non-blocking read-only repository for the
+ * {@link com.spring.mssql.models.Talk Talk} entity, on R2DBC.
+ * <br>
+ * It extends {@link org.springframework.data.r2dbc.repository.R2dbcRepository R2dbcRepository},
+ * so Spring Data assigns it to R2DBC while the
+ * {@link org.springframework.data.jpa.repository.JpaRepository JpaRepository}
+ * ones stay on JPA. All the writes go through
+ * {@link com.spring.mssql.repositories.TalkRepository TalkRepository}.
+ * <br>
+ * The queries select only the columns of the talk: the room is
+ * left null, as it is a JPA association that R2DBC does not map.
+ * The rows are read as the subscriber asks for them, so a slow
+ * client slows down the reads instead of filling the memory.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Repository
+public interface TalkReactiveRepository extends R2dbcRepository<Talk, Long> {
+
+	/**
+	 * Reactive version of
+	 * {@link com.spring.mssql.repositories.TalkRepository#findAll() findAll}.
+	 * @return all the talks, sorted by id
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT id, title, description, published, speaker_id FROM talks ORDER BY id")
+	Flux<Talk> findAllTalks();
+
+
+	/**
+	 * Reactive version of
+	 * {@link com.spring.mssql.repositories.TalkRepository#findByPublished(boolean) findByPublished}.
+	 * @param published a boolean value use to search for Talk published or not.
+	 * @return all the Talks, published or not, sorted by id
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT id, title, description, published, speaker_id FROM talks WHERE published = :published ORDER BY id")
+	Flux<Talk> findByPublished(boolean published);
+
+
+	/**
+	 * Reactive version of
+	 * {@link com.spring.mssql.repositories.TalkRepository#getAllTalksWithFunction() getAllTalksWithFunction}.
+	 * @return all the talks inside the talks table.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Query("SELECT id, title, description, published, speaker_id FROM dbo.getTalksWithFunction()")
+	Flux<Talk> getAllTalksWithFunction();
+}
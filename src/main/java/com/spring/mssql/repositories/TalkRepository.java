@@ -1,10 +1,19 @@
 package com.spring.mssql.repositories;
 
 import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.spring.mssql.dto.TableVersionView;
 import com.spring.mssql.models.Talk;
 
 
@@ -45,11 +54,14 @@ public interface TalkRepository extends JpaRepository<Talk, Long> {
   	 * Method that perform a query which search for 
   	 * all the Talks, in base if they are been published
   	 * or not.
+  	 * The talks are loaded read-only, without the snapshot
+  	 * for the dirty checking, even inside a read-write transaction.
   	 * @param published a boolean value use to search for Talk published or not.
   	 * @return all the Talks, published or not, depending on the parameter.
 	 * @since 1.0.0
 	 * @author fforfabio
   	 **/
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
 	List<Talk> findByPublished(boolean published);
 	
 	
@@ -57,11 +69,14 @@ public interface TalkRepository extends JpaRepository<Talk, Long> {
   	 * Method that perform a query which search for 
   	 * Talks which title contain the parameter
   	 * title in the database.
+  	 * The talks are loaded read-only, as by
+  	 * {@link #findByPublished(boolean) findByPublished}.
   	 * @param title substring to search in the Talk title.
   	 * @return all the Talks that contain title inside their title.
 	 * @since 1.0.0
 	 * @author fforfabio
   	 **/
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
   	List<Talk> findByTitleContaining(String title);
   	
   	
@@ -85,10 +100,259 @@ public interface TalkRepository extends JpaRepository<Talk, Long> {
   	 * {@link com.spring.mssql.controllers.TalkController#updateTalk updateTalk}
   	 * method inside the {@link com.spring.mssql.controllers.TalkController TalkController}.
   	 * @param talkId the id of the talk to update.
-  	 * @return the id of the speaker who held the talk.
+  	 * @return the id of the speaker who held the talk, null if the talk has no speaker.
 	 * @since 1.0.1
 	 * @author fforfabio
   	 **/
  	@Query(value = "SELECT t.speaker_id from talks t where t.id = ?1", nativeQuery = true)
- 	public long retrieveSpeakerId(long talkId);
+ 	public Long retrieveSpeakerId(long talkId);
+ 	
+ 	
+ 	/**
+  	 * Keyset pagination on the talks sorted by id.
+  	 * @param id of the last talk of the previous slice
+  	 * @param pageable size of the slice, always on the first page
+  	 * @return the talks with an id greater than the parameter.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	public Slice<Talk> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+ 	
+ 	
+ 	/**
+  	 * Keyset pagination of
+  	 * {@link #findByTitleContaining(String) findByTitleContaining}.
+  	 * @param title substring to search in the Talk title.
+  	 * @param id of the last talk of the previous slice
+  	 * @param pageable size of the slice, always on the first page
+  	 * @return the talks that contain title and with an id greater than the parameter.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	public Slice<Talk> findByTitleContainingAndIdGreaterThanOrderByIdAsc(String title, long id, Pageable pageable);
+ 	
+ 	
+ 	/**
+  	 * Keyset pagination of
+  	 * {@link #findByPublished(boolean) findByPublished}.
+  	 * @param published a boolean value use to search for Talk published or not.
+  	 * @param id of the last talk of the previous slice
+  	 * @param pageable size of the slice, always on the first page
+  	 * @return the talks, published or not, with an id greater than the parameter.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	public Slice<Talk> findByPublishedAndIdGreaterThanOrderByIdAsc(boolean published, long id, Pageable pageable);
+ 	
+ 	
+ 	/**
+  	 * Keyset pagination of
+  	 * {@link #getAllTalksWithFunction() getAllTalksWithFunction}.
+  	 * @param id of the last talk of the previous slice
+  	 * @param pageable size of the slice, always on the first page
+  	 * @return the talks with an id greater than the parameter.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query(value = "SELECT * from dbo.getTalksWithFunction() t WHERE t.id > ?1 ORDER BY t.id", nativeQuery = true)
+ 	public Slice<Talk> getAllTalksWithFunctionAfter(long id, Pageable pageable);
+ 	
+ 	
+ 	/**
+  	 * Detach, with a single UPDATE, all the talks of
+  	 * a speaker, setting their speaker_id to null.
+  	 * <br>
+  	 * It is called before the deletion of the speaker.
+  	 * The update is versioned, so it increments the
+  	 * version of each talk as an entity update does.
+  	 * @param speakerId id of the speaker
+  	 * @return the number of talks detached.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Modifying
+ 	@Query("UPDATE VERSIONED Talk t SET t.speakerId = NULL WHERE t.speakerId = ?1")
+ 	public int detachTalks(long speakerId);
+ 	
+ 	
+ 	/**
+  	 * Move, with a single UPDATE, all the talks of
+  	 * a speaker to another one.
+  	 * <br>
+  	 * It is called before the deletion of the speaker.
+  	 * The update is versioned, so it increments the
+  	 * version of each talk as an entity update does.
+  	 * @param speakerId id of the speaker that has the talks
+  	 * @param newSpeakerId id of the speaker that will have the talks
+  	 * @return the number of talks moved.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Modifying
+ 	@Query("UPDATE VERSIONED Talk t SET t.speakerId = ?2 WHERE t.speakerId = ?1")
+ 	public int reassignTalks(long speakerId, long newSpeakerId);
+ 	
+ 	
+ 	/**
+  	 * Move, with a single UPDATE, a talk to another
+  	 * speaker, without loading the lists of talks of
+  	 * the speakers.
+  	 * <br>
+  	 * The talk is moved only if it still has the version
+  	 * read by the caller, and the update is versioned,
+  	 * so it increments the version of the talk as an
+  	 * entity update does.
+  	 * @param id id of the talk
+  	 * @param newSpeakerId id of the speaker that will have the talk
+  	 * @param version the version of the talk read by the caller
+  	 * @return 1 if the talk has been moved, 0 if it has another version.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Modifying
+ 	@Query("UPDATE VERSIONED Talk t SET t.speakerId = ?2 WHERE t.id = ?1 AND t.version = ?3")
+ 	public int moveTalk(long id, long newSpeakerId, long version);
+ 	
+ 	
+ 	/**
+  	 * Count, with a single GROUP BY, the talks and the
+  	 * published talks of each speaker.
+  	 * <br>
+  	 * It is used to rebuild the counters of
+  	 * {@link com.spring.mssql.services.TalkCounterService TalkCounterService}.
+  	 * @return for each speaker with at least a talk, an array with
+  	 * speaker id, number of talks and number of published talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query("SELECT t.speakerId, COUNT(t), SUM(CASE WHEN t.published = true THEN 1 ELSE 0 END) "
+ 			+ "FROM Talk t "
+ 			+ "WHERE t.speakerId IS NOT NULL "
+ 			+ "GROUP BY t.speakerId")
+ 	public List<Object[]> countTalksBySpeaker();
+ 	
+ 	
+ 	/**
+  	 * Read id and title of all the talks, without
+  	 * building the entities.
+  	 * <br>
+  	 * It is used to build the index of
+  	 * {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService}.
+  	 * @return for each talk, an array with id and title.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query("SELECT t.id, t.title FROM Talk t")
+ 	public List<Object[]> findAllTitles();
+ 	
+ 	
+ 	/**
+  	 * Count the talks and the published talks of a speaker.
+  	 * @param speakerId id of the speaker
+  	 * @return a single array with number of talks and number of
+  	 * published talks, the second one null if the speaker has no talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query("SELECT COUNT(t), SUM(CASE WHEN t.published = true THEN 1 ELSE 0 END) "
+ 			+ "FROM Talk t "
+ 			+ "WHERE t.speakerId = ?1")
+ 	public List<Object[]> countTalksOfSpeaker(long speakerId);
+ 	
+ 	
+ 	/**
+  	 * Version of a talk, read without loading the talk.
+  	 * @param id of the talk
+  	 * @return the version, empty if the talk does not exist.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query("SELECT t.version FROM Talk t WHERE t.id = ?1")
+ 	public Optional<Long> findVersionById(long id);
+ 	
+ 	
+ 	/**
+  	 * State of the talks table, for the ETag of the
+  	 * listings of the talks.
+  	 * @return rows, max id and sum of the versions of the talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query("SELECT COUNT(t) AS rowCount, COALESCE(MAX(t.id), 0) AS maxId, "
+ 			+ "COALESCE(SUM(t.version), 0) AS versionSum FROM Talk t")
+ 	public TableVersionView getTableVersion();
+ 	
+ 	
+ 	/**
+  	 * State of the talks of a speaker, for the ETag of the
+  	 * speaker returned with its talks. It reads the index
+  	 * on speaker_id, without loading the talks.
+  	 * @param speakerId id of the speaker
+  	 * @return rows, max id and sum of the versions of the talks of the speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query("SELECT COUNT(t) AS rowCount, COALESCE(MAX(t.id), 0) AS maxId, "
+ 			+ "COALESCE(SUM(t.version), 0) AS versionSum FROM Talk t WHERE t.speakerId = ?1")
+ 	public TableVersionView getSpeakerTalksVersion(long speakerId);
+ 	
+ 	
+ 	/**
+  	 * Ids of the talks after an id, sorted, read from the
+  	 * primary key without loading the talks.
+  	 * <br>
+  	 * With a page of one row it is the check that the table
+  	 * is not empty, and the upper bound of each chunk of
+  	 * {@link com.spring.mssql.services.PurgeService PurgeService}.
+  	 * @param id the ids returned are greater than this one
+  	 * @param pageable the rows to skip and to return
+  	 * @return the ids of the page.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query("SELECT t.id FROM Talk t WHERE t.id > ?1 ORDER BY t.id")
+ 	public List<Long> findIdsAfter(long id, Pageable pageable);
+ 	
+ 	
+ 	/**
+  	 * Delete, with a single DELETE, the talks inside
+  	 * a range of ids.
+  	 * @param fromId the deleted ids are greater than this one
+  	 * @param toId the deleted ids are lower than or equal to this one
+  	 * @return the number of talks deleted.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Modifying
+ 	@Query("DELETE FROM Talk t WHERE t.id > ?1 AND t.id <= ?2")
+ 	public int deleteIdRange(long fromId, long toId);
+ 	
+ 	
+ 	/**
+  	 * Detach, with a single UPDATE, the talks of the
+  	 * speakers inside a range of ids, as
+  	 * {@link #detachTalks(long) detachTalks} does for one speaker.
+  	 * @param fromSpeakerId the speaker ids are greater than this one
+  	 * @param toSpeakerId the speaker ids are lower than or equal to this one
+  	 * @return the number of talks detached.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Modifying
+ 	@Query("UPDATE VERSIONED Talk t SET t.speakerId = NULL WHERE t.speakerId > ?1 AND t.speakerId <= ?2")
+ 	public int detachTalksOfSpeakers(long fromSpeakerId, long toSpeakerId);
+ 	
+ 	
+ 	/**
+  	 * Read the columns of the join rows of all the talks,
+  	 * without building the entities.
+  	 * <br>
+  	 * It is used to build the read model of
+  	 * {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}.
+  	 * @return for each talk, an array with id, speaker id, room id, title and description.
+	 * @since 1.0.3
+	 * @author fforfabio
+  	 **/
+ 	@Query("SELECT t.id, t.speakerId, t.room.id, t.title, t.description FROM Talk t")
+ 	public List<Object[]> findAllJoinRows();
 }
@@ -0,0 +1,43 @@
+package com.spring.mssql.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Run an action only once the current transaction has
+ * been committed.
+ * <br>
+ * It is used for the changes kept outside the database,
+ * like the evictions of the cache or the counters of the
+ * talks, that must not be applied if the transaction is
+ * rolled back, nor before the new rows are visible to
+ * the other transactions.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+final class AfterCommit {
+
+	private AfterCommit() {
+	}
+
+	/**
+	 * Run the action after the commit of the current
+	 * transaction, or immediately if there is none.
+	 * @param action to run
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static void run(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,375 @@
+package com.spring.mssql.services;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.spring.mssql.dto.BulkItemResultDTO;
+import com.spring.mssql.dto.BulkTalkDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+/**
+ * Service for the bulk creation of speakers, talks and rooms.
+ * <br>
+ * All the items of a request are inserted in one transaction,
+ * on one connection, with JDBC batches of
+ * <i>hibernate.jdbc.batch_size</i> rows. The ids are
+ * generated by identity columns, so Hibernate would send
+ * one INSERT for each entity: the rows are written with
+ * plain JDBC instead, and the ids of each batch are read
+ * back from its generated keys. A driver that does not
+ * return the keys of a whole batch makes the request fail.
+ * <br>
+ * Each item is checked before the insert: the invalid ones are
+ * rejected and reported in the result, while the others are
+ * inserted. An error of the database, instead, rolls back the
+ * whole request.
+ * <br>
+ * The rows do not pass through Hibernate, so the counters,
+ * the title index and the join read model, which listen to
+ * its events, are updated here after the commit.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class BulkInsertService {
+
+	/**
+	 * Max number of ids bound to a single IN query,
+	 * under the 2100 parameters allowed by SQL Server.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final int IN_CHUNK = 1000;
+
+	private static final String INSERT_SPEAKER =
+			"INSERT INTO speakers (first_name, last_name, age, version) VALUES (?, ?, ?, 0)";
+
+	private static final String INSERT_ROOM =
+			"INSERT INTO rooms (room_name, room_capacity, room_floor, version) VALUES (?, ?, ?, 0)";
+
+	private static final String INSERT_TALK =
+			"INSERT INTO talks (title, description, published, room_id, speaker_id, version) VALUES (?, ?, ?, ?, ?, 0)";
+
+	/**
+	 * Template bound to the connection of the current transaction.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerRepository speakerRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Room Room} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	RoomRepository roomRepository;
+
+	/**
+	 * Service used to evict the cached lists of talks
+	 * of the speakers that got new talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	CacheService cacheService;
+
+	/**
+	 * Service that counts the talks of each speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkCounterService talkCounterService;
+
+	/**
+	 * Service that indexes the titles of the talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkTitleIndexService talkTitleIndexService;
+
+	/**
+	 * Service that keeps the join of speakers and talks in memory.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	JoinReadModelService joinReadModelService;
+
+	/**
+	 * Number of rows sent in a single JDBC batch.
+	 * It is the same size used by Hibernate for its batches.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int batchSize;
+
+	/**
+	 * Max number of items accepted by a single request.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int maxItems;
+
+
+	/**
+	 * Constructor
+	 * @param jdbcTemplate an instance of {@link org.springframework.jdbc.core.JdbcTemplate JdbcTemplate}
+	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @param roomRepository an instance of {@link com.spring.mssql.repositories.RoomRepository RoomRepository}
+	 * @param cacheService an instance of {@link com.spring.mssql.services.CacheService CacheService}
+	 * @param talkCounterService an instance of {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+	 * @param talkTitleIndexService an instance of {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService}
+	 * @param joinReadModelService an instance of {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * @param batchSize rows sent in a single JDBC batch
+	 * @param maxItems max number of items of a request
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public BulkInsertService(JdbcTemplate jdbcTemplate, SpeakerRepository speakerRepository,
+			RoomRepository roomRepository, CacheService cacheService, TalkCounterService talkCounterService,
+			TalkTitleIndexService talkTitleIndexService, JoinReadModelService joinReadModelService,
+			@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+			@Value("${bulk.max-items:10000}") int maxItems) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.cacheService = cacheService;
+		this.talkCounterService = talkCounterService;
+		this.talkTitleIndexService = talkTitleIndexService;
+		this.joinReadModelService = joinReadModelService;
+		this.batchSize = batchSize;
+		this.maxItems = maxItems;
+	}
+
+
+	/**
+	 * Insert a list of speakers.
+	 * @param speakers to insert, first name and last name are mandatory
+	 * @return the result of each speaker, in the same order of the parameter
+	 * @throws IllegalArgumentException if there are more speakers than the max allowed
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public List<BulkItemResultDTO> createSpeakers(List<Speaker> speakers) {
+		checkSize(speakers);
+		List<Speaker> valid = new ArrayList<>(speakers.size());
+		for (Speaker speaker : speakers) {
+			if (speaker != null && speaker.getFirstName() != null && speaker.getLastName() != null)
+				valid.add(speaker);
+		}
+		List<Long> ids = insert(INSERT_SPEAKER, valid, (ps, speaker) -> {
+			ps.setString(1, speaker.getFirstName());
+			ps.setString(2, speaker.getLastName());
+			ps.setInt(3, speaker.getAge());
+		});
+
+		List<BulkItemResultDTO> results = new ArrayList<>(speakers.size());
+		int next = 0;
+		for (int i = 0; i < speakers.size(); i++) {
+			Speaker speaker = speakers.get(i);
+			if (speaker == null || speaker.getFirstName() == null || speaker.getLastName() == null) {
+				results.add(BulkItemResultDTO.rejected(i, "First name and last name are mandatory."));
+				continue;
+			}
+			results.add(BulkItemResultDTO.created(i, ids.get(next++)));
+		}
+		AfterCommit.run(() -> {
+			for (int i = 0; i < valid.size(); i++) {
+				joinReadModelService.speakerSaved(ids.get(i), valid.get(i).getLastName());
+			}
+		});
+		return results;
+	}
+
+
+	/**
+	 * Insert a list of rooms.
+	 * @param rooms to insert
+	 * @return the result of each room, in the same order of the parameter
+	 * @throws IllegalArgumentException if there are more rooms than the max allowed
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public List<BulkItemResultDTO> createRooms(List<Room> rooms) {
+		checkSize(rooms);
+		List<Room> valid = new ArrayList<>(rooms.size());
+		for (Room room : rooms) {
+			if (room != null)
+				valid.add(room);
+		}
+		List<Long> ids = insert(INSERT_ROOM, valid, (ps, room) -> {
+			ps.setString(1, room.getRoomName());
+			ps.setLong(2, room.getRoomCapacity());
+			ps.setInt(3, room.getRoomFloor());
+		});
+
+		List<BulkItemResultDTO> results = new ArrayList<>(rooms.size());
+		int next = 0;
+		for (int i = 0; i < rooms.size(); i++) {
+			if (rooms.get(i) == null) {
+				results.add(BulkItemResultDTO.rejected(i, "Empty room."));
+				continue;
+			}
+			results.add(BulkItemResultDTO.created(i, ids.get(next++)));
+		}
+		return results;
+	}
+
+
+	/**
+	 * Insert a list of talks.
+	 * <br>
+	 * The speakers and the rooms of all the talks are checked
+	 * with one query for each table, then the talks are written
+	 * with their speaker_id and room_id columns, without loading
+	 * the rooms nor the lists of talks of the speakers. For this
+	 * reason the cached lists of talks of those speakers
+	 * are evicted after the commit.
+	 * @param talks to insert, title, speaker and room are mandatory
+	 * @return the result of each talk, in the same order of the parameter
+	 * @throws IllegalArgumentException if there are more talks than the max allowed
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public List<BulkItemResultDTO> createTalks(List<BulkTalkDTO> talks) {
+		checkSize(talks);
+		Set<Long> speakerIds = new HashSet<>();
+		Set<Long> roomIds = new HashSet<>();
+		for (BulkTalkDTO talk : talks) {
+			if (talk != null && talk.getSpeakerId() != null)
+				speakerIds.add(talk.getSpeakerId());
+			if (talk != null && talk.getRoomId() != null)
+				roomIds.add(talk.getRoomId());
+		}
+		Set<Long> existingSpeakers = existingIds(speakerIds, speakerRepository::findExistingIds);
+		Set<Long> existingRooms = existingIds(roomIds, roomRepository::findExistingIds);
+
+		List<BulkItemResultDTO> results = new ArrayList<>(talks.size());
+		List<BulkTalkDTO> valid = new ArrayList<>(talks.size());
+		for (int i = 0; i < talks.size(); i++) {
+			BulkTalkDTO talk = talks.get(i);
+			if (talk == null || talk.getTitle() == null) {
+				results.add(BulkItemResultDTO.rejected(i, "Title is mandatory."));
+			} else if (!existingSpeakers.contains(talk.getSpeakerId())) {
+				results.add(BulkItemResultDTO.rejected(i, "Not found Speaker with id = " + talk.getSpeakerId()));
+			} else if (!existingRooms.contains(talk.getRoomId())) {
+				results.add(BulkItemResultDTO.rejected(i, "Not found Room with id = " + talk.getRoomId()));
+			} else {
+				// Replaced by the result with the id once the talk is inserted
+				results.add(null);
+				valid.add(talk);
+			}
+		}
+		List<Long> ids = insert(INSERT_TALK, valid, (ps, talk) -> {
+			ps.setString(1, talk.getTitle());
+			ps.setString(2, talk.getDescription());
+			ps.setBoolean(3, talk.isPublished());
+			ps.setLong(4, talk.getRoomId());
+			ps.setLong(5, talk.getSpeakerId());
+		});
+
+		int next = 0;
+		Set<Long> updatedSpeakers = new HashSet<>();
+		for (int i = 0; i < results.size(); i++) {
+			if (results.get(i) == null) {
+				BulkTalkDTO talk = valid.get(next);
+				long id = ids.get(next++);
+				results.set(i, BulkItemResultDTO.created(i, id));
+				updatedSpeakers.add(talk.getSpeakerId());
+				talkTitleIndexService.put(id, talk.getTitle());
+			}
+		}
+		cacheService.evictSpeakerTalks(updatedSpeakers);
+		AfterCommit.run(() -> {
+			for (int i = 0; i < valid.size(); i++) {
+				BulkTalkDTO talk = valid.get(i);
+				talkCounterService.talkAdded(talk.getSpeakerId(), talk.isPublished());
+				joinReadModelService.talkSaved(ids.get(i), talk.getSpeakerId(), talk.getRoomId(), talk.getTitle(),
+						talk.getDescription());
+			}
+		});
+		return results;
+	}
+
+
+	/**
+	 * Insert the rows in JDBC batches and read back their ids.
+	 * @param <T> type of the rows
+	 * @param sql the INSERT of a single row
+	 * @param rows to insert
+	 * @param setter binds a row to the parameters of the INSERT
+	 * @return the generated ids, in the same order of the rows
+	 * @throws IncorrectResultSizeDataAccessException if the driver
+	 * does not return the id of each row of a batch
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private <T> List<Long> insert(String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+		if (rows.isEmpty())
+			return new ArrayList<>();
+		return jdbcTemplate.execute(connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+				(PreparedStatement ps) -> {
+					List<Long> ids = new ArrayList<>(rows.size());
+					for (int from = 0; from < rows.size(); from += batchSize) {
+						int to = Math.min(from + batchSize, rows.size());
+						for (T row : rows.subList(from, to)) {
+							setter.setValues(ps, row);
+							ps.addBatch();
+						}
+						ps.executeBatch();
+						try (ResultSet keys = ps.getGeneratedKeys()) {
+							while (keys.next())
+								ids.add(keys.getLong(1));
+						}
+						if (ids.size() != to)
+							throw new IncorrectResultSizeDataAccessException("Generated ids of the batch", to, ids.size());
+					}
+					return ids;
+				});
+	}
+
+
+	private void checkSize(Collection<?> items) {
+		if (items.size() > maxItems) {
+			throw new IllegalArgumentException("Too many items: " + items.size() + ", the max is " + maxItems + ".");
+		}
+	}
+
+
+	private static Set<Long> existingIds(Set<Long> ids, Function<List<Long>, List<Long>> finder) {
+		Set<Long> existing = new HashSet<>();
+		List<Long> all = new ArrayList<>(ids);
+		for (int from = 0; from < all.size(); from += IN_CHUNK) {
+			existing.addAll(finder.apply(all.subList(from, Math.min(from + IN_CHUNK, all.size()))));
+		}
+		return existing;
+	}
+}
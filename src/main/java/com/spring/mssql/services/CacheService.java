@@ -0,0 +1,97 @@
+package com.spring.mssql.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import com.spring.mssql.dto.CacheRegionStatisticsDTO;
+import com.spring.mssql.models.Speaker;
+
+
+/**
+ * Service for the Hibernate second-level cache.
+ * <br>
+ * Hibernate keeps the regions up to date by itself when the
+ * entities are written through the persistence context, and
+ * the native queries declare the tables they change.
+ * The only case it can not see is the unidirectional
+ * {@link com.spring.mssql.models.Speaker#speakerTalk speakerTalk}
+ * collection, when a talk is written or deleted without
+ * passing from the list of its speaker: in this case the
+ * cached list must be evicted here.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class CacheService {
+
+	/**
+	 * Region of the talks of each speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final String SPEAKER_TALKS_REGION = Speaker.class.getName() + ".speakerTalk";
+
+	/**
+	 * Session factory that owns the cache and its statistics.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final SessionFactory sessionFactory;
+
+
+	/**
+	 * Constructor
+	 * @param entityManagerFactory the factory of the persistence unit
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public CacheService(EntityManagerFactory entityManagerFactory) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+	}
+
+
+	/**
+	 * Return hits, misses and puts of each region of the
+	 * second-level cache.
+	 * @return the statistics of the regions, sorted by name
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<CacheRegionStatisticsDTO> getRegionStatistics() {
+		Statistics statistics = sessionFactory.getStatistics();
+		String[] regions = statistics.getSecondLevelCacheRegionNames();
+		Arrays.sort(regions);
+		List<CacheRegionStatisticsDTO> result = new ArrayList<>(regions.length);
+		for (String region : regions) {
+			CacheRegionStatistics r = statistics.getDomainDataRegionStatistics(region);
+			result.add(new CacheRegionStatisticsDTO(region, r.getHitCount(), r.getMissCount(), r.getPutCount()));
+		}
+		return result;
+	}
+
+
+	/**
+	 * Evict the cached list of talks of some speakers.
+	 * <br>
+	 * Inside a transaction the lists are evicted after the
+	 * commit, otherwise a concurrent read could cache
+	 * them again before the new talks are visible.
+	 * @param speakerIds ids of the speakers
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void evictSpeakerTalks(Collection<Long> speakerIds) {
+		Cache cache = sessionFactory.getCache();
+		AfterCommit.run(() -> speakerIds.forEach(id -> cache.evictCollectionData(SPEAKER_TALKS_REGION, id)));
+	}
+}
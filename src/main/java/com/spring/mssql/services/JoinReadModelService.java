@@ -0,0 +1,630 @@
+package com.spring.mssql.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.spring.mssql.dto.ReadModelCheckDTO;
+import com.spring.mssql.dto.SpeakerTalksColumnsDTO;
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+/**
+ * Service that answers the joins between speakers and
+ * talks from an in-memory read model, instead of running
+ * the join on the database for data that changes rarely.
+ * <br>
+ * The model has, for each speaker, its last name and its
+ * talks with title, description and room:
+ * <ul>
+ * <li>it is loaded, and periodically rebuilt, by
+ * {@link #rebuild() rebuild}, with one query on the speakers
+ * and one on the talks;</li>
+ * <li>between two rebuilds it is updated after each commit by
+ * {@link com.spring.mssql.listeners.JoinReadModelListener JoinReadModelListener},
+ * when a talk or a speaker is created, updated or deleted, and
+ * by the services, for the changes that Hibernate does not see
+ * as an entity event (talks moved between speakers, bulk statements).</li>
+ * </ul>
+ * The entry of a speaker is never changed: each change
+ * replaces it with a copy, so the reads take no lock and
+ * always see all the talks of a speaker at the same moment.
+ * A listing of all the speakers is not a single snapshot:
+ * a change committed while it is built can be seen only
+ * by the speakers read after it.
+ * <br>
+ * The changes committed while a rebuild is running are
+ * applied to the new model too, before it replaces the old
+ * one. Changes made outside the application are fixed by the
+ * next rebuild; {@link #check() check} compares the model
+ * with the database.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class JoinReadModelService {
+
+	private static final Logger logger = LogManager.getLogger(JoinReadModelService.class.getName());
+
+	/**
+	 * Read model, null until the first build.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private volatile Model model;
+
+	/**
+	 * Changes applied since the start of the running rebuild,
+	 * in order, null if none is running. It is guarded by
+	 * {@link #changes changes}.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private List<Consumer<Model>> pending;
+
+	/**
+	 * Lock of the changes of the model and of its replacement.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Object changes = new Object();
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Talk Talk} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkRepository talkRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerRepository speakerRepository;
+
+
+	/**
+	 * Constructor
+	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
+	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public JoinReadModelService(TalkRepository talkRepository, SpeakerRepository speakerRepository) {
+		this.talkRepository = talkRepository;
+		this.speakerRepository = speakerRepository;
+	}
+
+
+	/**
+	 * Return the join rows of all the speakers with
+	 * their talks, sorted by speaker and talk.
+	 * <br>
+	 * Until the model is loaded it falls back on
+	 * {@link com.spring.mssql.repositories.SpeakerRepository#getAllJoinDTONativeQuery() getAllJoinDTONativeQuery}.
+	 * @return a row for each talk with a speaker
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<SpeakerTalksDTO> getAllJoin() {
+		Model current = model;
+		if (current == null) {
+			return speakerRepository.getAllJoinDTONativeQuery();
+		}
+		List<SpeakerTalksDTO> rows = new ArrayList<>(current.talks.size());
+		for (SpeakerTalks speaker : current.speakers.values()) {
+			speaker.addRows(rows);
+		}
+		return rows;
+	}
+
+
+	/**
+	 * Return the join rows of the talks of a speaker,
+	 * sorted by talk.
+	 * <br>
+	 * Until the model is loaded it falls back on
+	 * {@link com.spring.mssql.repositories.SpeakerRepository#getSpeakerTalksWithJoinDTOJPQL(long) getSpeakerTalksWithJoinDTOJPQL}.
+	 * @param speakerId id of the speaker
+	 * @return a row for each talk of the speaker, empty if the speaker does not exist
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<SpeakerTalksDTO> getSpeakerTalks(long speakerId) {
+		Model current = model;
+		if (current == null) {
+			return speakerRepository.getSpeakerTalksWithJoinDTOJPQL(speakerId);
+		}
+		SpeakerTalks speaker = current.speakers.get(speakerId);
+		List<SpeakerTalksDTO> rows = new ArrayList<>(speaker == null ? 0 : speaker.talks.length);
+		if (speaker != null) {
+			speaker.addRows(rows);
+		}
+		return rows;
+	}
+
+
+	/**
+	 * Columnar version of {@link #getAllJoin() getAllJoin}:
+	 * the rows are copied from the model into the columns
+	 * without an object for each row.
+	 * <br>
+	 * Until the model is loaded it falls back on
+	 * {@link com.spring.mssql.repositories.SpeakerRepositoryCustom#getAllJoinColumns() getAllJoinColumns}.
+	 * @return the columns of all the speakers with their talks
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerTalksColumnsDTO getAllJoinColumns() {
+		Model current = model;
+		if (current == null) {
+			return speakerRepository.getAllJoinColumns();
+		}
+		SpeakerTalksColumnsDTO columns = new SpeakerTalksColumnsDTO(current.talks.size());
+		for (SpeakerTalks speaker : current.speakers.values()) {
+			speaker.addColumns(columns);
+		}
+		return columns;
+	}
+
+
+	/**
+	 * Columnar version of {@link #getSpeakerTalks(long) getSpeakerTalks}.
+	 * <br>
+	 * Until the model is loaded it falls back on
+	 * {@link com.spring.mssql.repositories.SpeakerRepositoryCustom#getSpeakerTalksColumns(long) getSpeakerTalksColumns}.
+	 * @param speakerId id of the speaker
+	 * @return the columns of the talks of the speaker, empty if the speaker does not exist
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerTalksColumnsDTO getSpeakerTalksColumns(long speakerId) {
+		Model current = model;
+		if (current == null) {
+			return speakerRepository.getSpeakerTalksColumns(speakerId);
+		}
+		SpeakerTalks speaker = current.speakers.get(speakerId);
+		SpeakerTalksColumnsDTO columns = new SpeakerTalksColumnsDTO(speaker == null ? 0 : speaker.talks.length);
+		if (speaker != null) {
+			speaker.addColumns(columns);
+		}
+		return columns;
+	}
+
+
+	/**
+	 * A talk has been created or updated.
+	 * <br>
+	 * The speaker of an updated talk is the one of the
+	 * model, as it is changed only by
+	 * {@link #talkMoved(long, long) talkMoved}.
+	 * @param id of the talk
+	 * @param speakerId id of the speaker, null if the talk has no speaker
+	 * @param roomId id of the room
+	 * @param title of the talk
+	 * @param description of the talk
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void talkSaved(long id, Long speakerId, long roomId, String title, String description) {
+		apply(m -> m.saveTalk(id, speakerId, roomId, title, description));
+	}
+
+
+	/**
+	 * Some attributes of a talk have been changed by a
+	 * bulk statement.
+	 * @param id of the talk
+	 * @param values the new values of the changed attributes;
+	 * only title and description are read, the others are ignored
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void talkChanged(long id, Map<String, Object> values) {
+		apply(m -> m.changeTalk(id, values));
+	}
+
+
+	/**
+	 * A talk has been moved to another speaker.
+	 * @param id of the talk
+	 * @param speakerId id of the new speaker
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void talkMoved(long id, long speakerId) {
+		apply(m -> m.moveTalk(id, speakerId));
+	}
+
+
+	/**
+	 * A talk has been deleted.
+	 * @param id of the talk
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void talkRemoved(long id) {
+		apply(m -> m.removeTalk(id));
+	}
+
+
+	/**
+	 * A speaker has been created, or its last name
+	 * may have been changed.
+	 * @param id of the speaker
+	 * @param lastName of the speaker
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void speakerSaved(long id, String lastName) {
+		apply(m -> m.saveSpeaker(id, lastName));
+	}
+
+
+	/**
+	 * A speaker has been deleted, and its talks have been
+	 * left without a speaker or moved to another one.
+	 * @param id of the deleted speaker
+	 * @param newSpeakerId id of the speaker that got the talks, null if none
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void speakerRemoved(long id, Long newSpeakerId) {
+		apply(m -> m.removeSpeaker(id, newSpeakerId));
+	}
+
+
+	/**
+	 * Build again the whole model from the speakers
+	 * and talks tables.
+	 * <br>
+	 * It runs at the boot and then every
+	 * <i>speakers.join-model.rebuild-delay</i> milliseconds.
+	 * <br>
+	 * The tables may be read before or after a change that
+	 * commits meanwhile, so the changes applied while they
+	 * are read are recorded, and applied again to the new
+	 * model right before it is published. Each change sets
+	 * the state of a talk or of a speaker, so applying it
+	 * twice gives the same model.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Scheduled(fixedDelayString = "${speakers.join-model.rebuild-delay:600000}")
+	public synchronized void rebuild() {
+		synchronized (changes) {
+			pending = new ArrayList<>();
+		}
+		try {
+			Model fresh = load();
+			synchronized (changes) {
+				pending.forEach(change -> change.accept(fresh));
+				model = fresh;
+			}
+		} finally {
+			synchronized (changes) {
+				pending = null;
+			}
+		}
+	}
+
+
+	/**
+	 * Compare the model with the speakers and talks
+	 * tables, without changing it.
+	 * @return the number of speakers and talks that differ
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public ReadModelCheckDTO check() {
+		Model current = model;
+		if (current == null) {
+			current = new Model();
+		}
+		Model database = load();
+
+		int differentSpeakers = 0;
+		for (SpeakerTalks speaker : database.speakers.values()) {
+			SpeakerTalks other = current.speakers.get(speaker.id);
+			if (other == null || !Objects.equals(speaker.lastName, other.lastName))
+				differentSpeakers++;
+		}
+		for (Long id : current.speakers.keySet()) {
+			if (!database.speakers.containsKey(id))
+				differentSpeakers++;
+		}
+
+		int missingTalks = 0;
+		int staleTalks = 0;
+		for (TalkRow talk : database.talks.values()) {
+			TalkRow other = current.talks.get(talk.id);
+			if (other == null)
+				missingTalks++;
+			else if (!talk.sameAs(other))
+				staleTalks++;
+		}
+		int extraTalks = 0;
+		for (Long id : current.talks.keySet()) {
+			if (!database.talks.containsKey(id))
+				extraTalks++;
+		}
+
+		ReadModelCheckDTO result = new ReadModelCheckDTO(database.speakers.size(), database.talks.size(),
+				differentSpeakers, missingTalks, extraTalks, staleTalks, Instant.now());
+		if (!result.isConsistent()) {
+			logger.warn("Join read model out of date: {} speakers, {} missing, {} extra and {} stale talks.",
+					differentSpeakers, missingTalks, extraTalks, staleTalks);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Apply a change to the model, and record it
+	 * if a rebuild is running.
+	 * @param change to apply
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private void apply(Consumer<Model> change) {
+		synchronized (changes) {
+			Model current = model;
+			if (current != null)
+				change.accept(current);
+			if (pending != null)
+				pending.add(change);
+		}
+	}
+
+
+	private Model load() {
+		Model fresh = new Model();
+		for (Object[] row : speakerRepository.findAllLastNames()) {
+			long id = ((Number) row[0]).longValue();
+			fresh.speakers.put(id, new SpeakerTalks(id, (String) row[1], SpeakerTalks.NO_TALKS));
+		}
+		Map<Long, List<TalkRow>> bySpeaker = new HashMap<>();
+		for (Object[] row : talkRepository.findAllJoinRows()) {
+			Long speakerId = row[1] == null ? null : ((Number) row[1]).longValue();
+			TalkRow talk = new TalkRow(((Number) row[0]).longValue(), speakerId, ((Number) row[2]).longValue(),
+					(String) row[3], (String) row[4]);
+			fresh.talks.put(talk.id, talk);
+			if (speakerId != null)
+				bySpeaker.computeIfAbsent(speakerId, id -> new ArrayList<>()).add(talk);
+		}
+		// A speaker deleted between the two queries leaves its talks out of the join
+		bySpeaker.forEach((speakerId, talks) -> fresh.speakers.computeIfPresent(speakerId, (id, s) -> s.withAll(talks)));
+		return fresh;
+	}
+
+
+	/**
+	 * Read model of the speakers and of their talks.
+	 * <br>
+	 * The writes are serialized, while the reads go
+	 * through the concurrent maps without locks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final class Model {
+
+		/**
+		 * Each talk, with or without a speaker, so that a
+		 * talk moved to a speaker is found.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		final Map<Long, TalkRow> talks = new ConcurrentHashMap<>();
+
+		/**
+		 * Each speaker with its talks, sorted by id.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		final ConcurrentSkipListMap<Long, SpeakerTalks> speakers = new ConcurrentSkipListMap<>();
+
+		synchronized void saveTalk(long id, Long speakerId, long roomId, String title, String description) {
+			TalkRow old = talks.get(id);
+			put(new TalkRow(id, old == null ? speakerId : old.speakerId, roomId, title, description));
+		}
+
+		synchronized void changeTalk(long id, Map<String, Object> values) {
+			TalkRow old = talks.get(id);
+			if (old == null)
+				return;
+			String title = values.containsKey("title") ? (String) values.get("title") : old.title;
+			String description = values.containsKey("description") ? (String) values.get("description") : old.description;
+			put(new TalkRow(id, old.speakerId, old.roomId, title, description));
+		}
+
+		synchronized void moveTalk(long id, long speakerId) {
+			TalkRow old = talks.get(id);
+			if (old != null)
+				put(new TalkRow(id, speakerId, old.roomId, old.title, old.description));
+		}
+
+		synchronized void removeTalk(long id) {
+			TalkRow old = talks.remove(id);
+			if (old != null && old.speakerId != null)
+				speakers.computeIfPresent(old.speakerId, (k, s) -> s.without(id));
+		}
+
+		synchronized void saveSpeaker(long id, String lastName) {
+			SpeakerTalks old = speakers.get(id);
+			speakers.put(id, new SpeakerTalks(id, lastName, old == null ? SpeakerTalks.NO_TALKS : old.talks));
+		}
+
+		synchronized void removeSpeaker(long id, Long newSpeakerId) {
+			SpeakerTalks old = speakers.remove(id);
+			if (old == null)
+				return;
+			List<TalkRow> moved = new ArrayList<>(old.talks.length);
+			for (TalkRow talk : old.talks) {
+				TalkRow row = new TalkRow(talk.id, newSpeakerId, talk.roomId, talk.title, talk.description);
+				talks.put(row.id, row);
+				moved.add(row);
+			}
+			if (newSpeakerId != null)
+				speakers.put(newSpeakerId, speaker(newSpeakerId).withAll(moved));
+		}
+
+		/**
+		 * Replace a talk, inside the talks and inside
+		 * the entries of its old and new speaker.
+		 **/
+		private void put(TalkRow talk) {
+			TalkRow old = talks.put(talk.id, talk);
+			if (old != null && old.speakerId != null && !old.speakerId.equals(talk.speakerId))
+				speakers.computeIfPresent(old.speakerId, (k, s) -> s.without(talk.id));
+			if (talk.speakerId != null)
+				speakers.put(talk.speakerId, speaker(talk.speakerId).with(talk));
+		}
+
+		/**
+		 * Entry of a speaker; a speaker not seen yet gets an
+		 * entry without last name, filled by the event of
+		 * the speaker or by the next rebuild.
+		 **/
+		private SpeakerTalks speaker(long id) {
+			SpeakerTalks speaker = speakers.get(id);
+			return speaker != null ? speaker : new SpeakerTalks(id, null, SpeakerTalks.NO_TALKS);
+		}
+	}
+
+
+	/**
+	 * Immutable entry of a speaker, with its talks sorted by id.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final class SpeakerTalks {
+
+		static final TalkRow[] NO_TALKS = new TalkRow[0];
+
+		private static final Comparator<TalkRow> BY_ID = Comparator.comparingLong(t -> t.id);
+
+		final long id;
+
+		final String lastName;
+
+		final TalkRow[] talks;
+
+		SpeakerTalks(long id, String lastName, TalkRow[] talks) {
+			this.id = id;
+			this.lastName = lastName;
+			this.talks = talks;
+		}
+
+		void addRows(List<SpeakerTalksDTO> rows) {
+			for (TalkRow talk : talks) {
+				rows.add(new SpeakerTalksDTO(lastName, talk.title, talk.description, id, talk.id));
+			}
+		}
+
+		void addColumns(SpeakerTalksColumnsDTO columns) {
+			for (TalkRow talk : talks) {
+				columns.add(id, lastName, talk.id, talk.title, talk.description);
+			}
+		}
+
+		SpeakerTalks with(TalkRow talk) {
+			int i = indexOf(talk.id);
+			TalkRow[] copy;
+			if (i >= 0) {
+				copy = talks.clone();
+				copy[i] = talk;
+			} else {
+				int at = -i - 1;
+				copy = new TalkRow[talks.length + 1];
+				System.arraycopy(talks, 0, copy, 0, at);
+				copy[at] = talk;
+				System.arraycopy(talks, at, copy, at + 1, talks.length - at);
+			}
+			return new SpeakerTalks(id, lastName, copy);
+		}
+
+		SpeakerTalks without(long talkId) {
+			int i = indexOf(talkId);
+			if (i < 0)
+				return this;
+			TalkRow[] copy = new TalkRow[talks.length - 1];
+			System.arraycopy(talks, 0, copy, 0, i);
+			System.arraycopy(talks, i + 1, copy, i, talks.length - i - 1);
+			return new SpeakerTalks(id, lastName, copy);
+		}
+
+		SpeakerTalks withAll(List<TalkRow> added) {
+			TalkRow[] copy = Arrays.copyOf(talks, talks.length + added.size());
+			for (int i = 0; i < added.size(); i++) {
+				copy[talks.length + i] = added.get(i);
+			}
+			Arrays.sort(copy, BY_ID);
+			return new SpeakerTalks(id, lastName, copy);
+		}
+
+		private int indexOf(long talkId) {
+			int low = 0;
+			int high = talks.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (talks[mid].id < talkId)
+					low = mid + 1;
+				else if (talks[mid].id > talkId)
+					high = mid - 1;
+				else
+					return mid;
+			}
+			return -(low + 1);
+		}
+	}
+
+
+	/**
+	 * Immutable row of a talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final class TalkRow {
+
+		final long id;
+
+		final Long speakerId;
+
+		final long roomId;
+
+		final String title;
+
+		final String description;
+
+		TalkRow(long id, Long speakerId, long roomId, String title, String description) {
+			this.id = id;
+			this.speakerId = speakerId;
+			this.roomId = roomId;
+			this.title = title;
+			this.description = description;
+		}
+
+		boolean sameAs(TalkRow other) {
+			return Objects.equals(speakerId, other.speakerId) && roomId == other.roomId
+					&& Objects.equals(title, other.title) && Objects.equals(description, other.description);
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package com.spring.mssql.services;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+/**
+ * Service for the partial updates of talks and speakers.
+ * <br>
+ * The changes arrive as a sparse JSON object, with only
+ * the attributes to change, and are written by a single
+ * UPDATE that sets only those columns, without reading
+ * the entity first. The UPDATE is versioned, so it
+ * increments the version as an entity update does and,
+ * when the version read by the client is given, it
+ * changes the row only if it still has that version.
+ * <br>
+ * Only the row counts tell what happened: one row is the
+ * update, no row is a missing entity or another version,
+ * told apart by reading the version only in that case.
+ * Being bulk statements, Hibernate evicts the region of the
+ * entity from the second-level cache by itself, while the
+ * title index and the counters of the talks, that see only
+ * the entity events, are updated here.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class PartialUpdateService {
+
+	/**
+	 * Attributes of a talk that can be changed, with
+	 * their type; the room and the speaker are changed by
+	 * {@link com.spring.mssql.services.TalkService#updateTalk(long, java.util.Optional, java.util.Optional, Talk) updateTalk}.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static final Map<String, Attribute> TALK_ATTRIBUTES = attributes(
+			new Attribute("title", String.class, false),
+			new Attribute("description", String.class, true),
+			new Attribute("published", boolean.class, false));
+
+	/**
+	 * Attributes of a speaker that can be changed, with their type.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static final Map<String, Attribute> SPEAKER_ATTRIBUTES = attributes(
+			new Attribute("firstName", String.class, false),
+			new Attribute("lastName", String.class, false),
+			new Attribute("age", int.class, false));
+
+	/**
+	 * Entity manager bound to the current transaction.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Talk Talk} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkRepository talkRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerRepository speakerRepository;
+
+	/**
+	 * Service with the counters of the talks of each speaker,
+	 * that does not see the bulk statements.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkCounterService talkCounterService;
+
+	/**
+	 * Service with the index of the titles of the talks,
+	 * that does not see the bulk statements.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkTitleIndexService talkTitleIndexService;
+
+	/**
+	 * Service with the read model of the joins between
+	 * speakers and talks, that does not see the bulk statements.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	JoinReadModelService joinReadModelService;
+
+	/**
+	 * Mapper used to convert the JSON values to the
+	 * types of the attributes.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	ObjectMapper objectMapper;
+
+
+	/**
+	 * Constructor
+	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
+	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @param talkCounterService an instance of {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+	 * @param talkTitleIndexService an instance of {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService}
+	 * @param joinReadModelService an instance of {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * @param objectMapper the JSON mapper of the application
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public PartialUpdateService(TalkRepository talkRepository, SpeakerRepository speakerRepository,
+			TalkCounterService talkCounterService, TalkTitleIndexService talkTitleIndexService,
+			JoinReadModelService joinReadModelService, ObjectMapper objectMapper) {
+		this.talkRepository = talkRepository;
+		this.speakerRepository = speakerRepository;
+		this.talkCounterService = talkCounterService;
+		this.talkTitleIndexService = talkTitleIndexService;
+		this.joinReadModelService = joinReadModelService;
+		this.objectMapper = objectMapper;
+	}
+
+
+	/**
+	 * Change some attributes of a talk with one UPDATE.
+	 * <br>
+	 * A new title is put in the title index after the commit,
+	 * a new title or description in the join read model.
+	 * When the published flag is changed, the talks of the
+	 * speaker are counted again inside the transaction, and
+	 * the counters are replaced after the commit.
+	 * @param talkId id of the talk to update
+	 * @param changes the attributes to change, among title, description and published
+	 * @param version the version read by the client, empty to skip the check
+	 * @return the new version of the talk, empty if the version was not given
+	 * @throws IllegalArgumentException if an attribute can not be changed or has a wrong value
+	 * @throws ResourceNotFoundException if the talk is not found
+	 * @throws ObjectOptimisticLockingFailureException if the talk has another version
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public OptionalLong patchTalk(long talkId, Map<String, Object> changes, OptionalLong version) {
+		Map<String, Object> values = update(Talk.class, TALK_ATTRIBUTES, talkId, changes, version);
+
+		if (values.containsKey("title"))
+			talkTitleIndexService.put(talkId, (String) values.get("title"));
+		if (values.containsKey("title") || values.containsKey("description"))
+			AfterCommit.run(() -> joinReadModelService.talkChanged(talkId, values));
+		if (values.containsKey("published")) {
+			Long speakerId = talkRepository.retrieveSpeakerId(talkId);
+			if (speakerId != null) {
+				Object[] row = talkRepository.countTalksOfSpeaker(speakerId).get(0);
+				int talks = ((Number) row[0]).intValue();
+				int published = row[1] == null ? 0 : ((Number) row[1]).intValue();
+				AfterCommit.run(() -> talkCounterService.speakerRecounted(speakerId, talks, published));
+			}
+		}
+		return next(version);
+	}
+
+
+	/**
+	 * Change some attributes of a speaker with one UPDATE.
+	 * <br>
+	 * A new last name is put in the join read model after the commit.
+	 * @param speakerId id of the speaker to update
+	 * @param changes the attributes to change, among firstName, lastName and age
+	 * @param version the version read by the client, empty to skip the check
+	 * @return the new version of the speaker, empty if the version was not given
+	 * @throws IllegalArgumentException if an attribute can not be changed or has a wrong value
+	 * @throws ResourceNotFoundException if the speaker is not found
+	 * @throws ObjectOptimisticLockingFailureException if the speaker has another version
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public OptionalLong patchSpeaker(long speakerId, Map<String, Object> changes, OptionalLong version) {
+		Map<String, Object> values = update(Speaker.class, SPEAKER_ATTRIBUTES, speakerId, changes, version);
+		if (values.containsKey("lastName"))
+			AfterCommit.run(() -> joinReadModelService.speakerSaved(speakerId, (String) values.get("lastName")));
+		return next(version);
+	}
+
+
+	/**
+	 * Build and run the UPDATE of the changed attributes.
+	 * <br>
+	 * The attributes are always set in the order of the
+	 * allowed ones, so each combination gives the same
+	 * statement and it is found in the query plan cache.
+	 * @param type of the entity
+	 * @param allowed the attributes that can be changed
+	 * @param id of the entity
+	 * @param changes the attributes to change, with their JSON values
+	 * @param version the version read by the client, empty to skip the check
+	 * @return the changes converted to the types of the attributes
+	 **/
+	private Map<String, Object> update(Class<?> type, Map<String, Attribute> allowed, long id,
+			Map<String, Object> changes, OptionalLong version) {
+		if (changes == null || changes.isEmpty())
+			throw new IllegalArgumentException("Nothing to update.");
+		for (String name : changes.keySet()) {
+			if (!allowed.containsKey(name))
+				throw new IllegalArgumentException("The attribute " + name + " can not be updated.");
+		}
+
+		Map<String, Object> values = new LinkedHashMap<>();
+		StringBuilder jpql = new StringBuilder("UPDATE VERSIONED ").append(type.getSimpleName()).append(" e SET ");
+		for (Attribute attribute : allowed.values()) {
+			if (!changes.containsKey(attribute.name))
+				continue;
+			Object value = attribute.convert(changes.get(attribute.name), objectMapper);
+			if (!values.isEmpty())
+				jpql.append(", ");
+			jpql.append("e.").append(attribute.name).append(" = :").append(attribute.name);
+			values.put(attribute.name, value);
+		}
+		jpql.append(" WHERE e.id = :id");
+		if (version.isPresent())
+			jpql.append(" AND e.version = :version");
+
+		Query query = entityManager.createQuery(jpql.toString());
+		values.forEach(query::setParameter);
+		query.setParameter("id", id);
+		if (version.isPresent())
+			query.setParameter("version", version.getAsLong());
+
+		if (query.executeUpdate() == 0) {
+			boolean exists = type == Talk.class ? talkRepository.findVersionById(id).isPresent()
+					: speakerRepository.findVersionById(id).isPresent();
+			if (!exists)
+				throw new ResourceNotFoundException("Not found " + type.getSimpleName() + " with id = " + id);
+			throw new ObjectOptimisticLockingFailureException(type, id);
+		}
+		return values;
+	}
+
+
+	private static OptionalLong next(OptionalLong version) {
+		return version.isPresent() ? OptionalLong.of(version.getAsLong() + 1) : OptionalLong.empty();
+	}
+
+
+	private static Map<String, Attribute> attributes(Attribute... attributes) {
+		Map<String, Attribute> map = new LinkedHashMap<>();
+		for (Attribute attribute : attributes) {
+			map.put(attribute.name, attribute);
+		}
+		return Collections.unmodifiableMap(map);
+	}
+
+
+	/**
+	 * An attribute that can be changed, with its type
+	 * and if it accepts null.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static final class Attribute {
+
+		final String name;
+
+		final Class<?> type;
+
+		final boolean nullable;
+
+		Attribute(String name, Class<?> type, boolean nullable) {
+			this.name = name;
+			this.type = type;
+			this.nullable = nullable;
+		}
+
+		Object convert(Object value, ObjectMapper objectMapper) {
+			if (value == null) {
+				if (!nullable)
+					throw new IllegalArgumentException("The attribute " + name + " can not be null.");
+				return null;
+			}
+			return objectMapper.convertValue(value, type);
+		}
+	}
+}
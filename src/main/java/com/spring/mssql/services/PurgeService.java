@@ -0,0 +1,427 @@
+package com.spring.mssql.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.spring.mssql.dto.PurgeStatusDTO;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+/**
+ * Service that empties the talks or the speakers table
+ * without loading its rows.
+ * <br>
+ * The rows are deleted in chunks of
+ * <i>purge.chunk-size</i> consecutive ids, each with a
+ * set-based DELETE inside its own short transaction, so
+ * the memory used and the locks held do not grow with the
+ * table: the ids of a chunk are read from the primary key,
+ * then deleted by range. Before the speakers of a chunk are
+ * deleted, their talks are detached with one UPDATE, as
+ * {@link com.spring.mssql.services.SpeakerService#deleteSpeaker(long, Long) deleteSpeaker}
+ * does for one speaker.
+ * <br>
+ * Each purge has a status, with the rows deleted so far,
+ * and can be cancelled: the chunk being deleted is committed
+ * and the next ones are not started. A purge can run on the
+ * calling thread or in the background, but only one at a
+ * time for each table. At the end, even if cancelled or
+ * failed, the counters and the title index of the talks and
+ * the join read model, that do not see the bulk statements,
+ * are rebuilt.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class PurgeService {
+
+	private static final Logger logger = LogManager.getLogger(PurgeService.class);
+
+	/**
+	 * Number of ended purges whose status is kept.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	static final int ENDED_KEPT = 20;
+
+	/**
+	 * Tables that can be purged.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public enum Table {
+		TALKS,
+		SPEAKERS
+	}
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Talk Talk} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkRepository talkRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerRepository speakerRepository;
+
+	/**
+	 * Service with the counters of the talks of each speaker,
+	 * that does not see the bulk statements.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkCounterService talkCounterService;
+
+	/**
+	 * Service with the index of the titles of the talks,
+	 * that does not see the bulk statements.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkTitleIndexService talkTitleIndexService;
+
+	/**
+	 * Service with the read model of the joins between
+	 * speakers and talks, that does not see the bulk statements.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	JoinReadModelService joinReadModelService;
+
+	/**
+	 * Transaction of each chunk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Rows deleted by each chunk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int chunkSize;
+
+	/**
+	 * Pool of the background purges, one thread for each table.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Purges by id, running and recently ended,
+	 * in the order they have been started.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Map<String, Purge> purges = new LinkedHashMap<>();
+
+
+	/**
+	 * Constructor
+	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
+	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @param talkCounterService an instance of {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+	 * @param talkTitleIndexService an instance of {@link com.spring.mssql.services.TalkTitleIndexService TalkTitleIndexService}
+	 * @param joinReadModelService an instance of {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * @param transactionManager manager of the transactions of the chunks
+	 * @param chunkSize rows deleted by each chunk
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public PurgeService(TalkRepository talkRepository, SpeakerRepository speakerRepository,
+			TalkCounterService talkCounterService, TalkTitleIndexService talkTitleIndexService,
+			JoinReadModelService joinReadModelService, PlatformTransactionManager transactionManager,
+			@Value("${purge.chunk-size:1000}") int chunkSize) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("purge.chunk-size must be positive");
+		this.talkRepository = talkRepository;
+		this.speakerRepository = speakerRepository;
+		this.talkCounterService = talkCounterService;
+		this.talkTitleIndexService = talkTitleIndexService;
+		this.joinReadModelService = joinReadModelService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.chunkSize = chunkSize;
+		this.executor = new ThreadPoolExecutor(Table.values().length, Table.values().length, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), new CustomizableThreadFactory("purge-"));
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+
+	/**
+	 * Check if a table is empty reading at most one id,
+	 * instead of loading or counting all the rows.
+	 * @param table to check
+	 * @return true if the table has no row
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public boolean isEmpty(Table table) {
+		return ids(table, 0, 1).isEmpty();
+	}
+
+
+	/**
+	 * Purge a table on the calling thread.
+	 * <br>
+	 * While it runs its status can be read, and it can be
+	 * cancelled, as for a background purge.
+	 * @param table to purge
+	 * @return the status of the ended purge
+	 * @throws IllegalStateException if the table is already being purged
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public PurgeStatusDTO purge(Table table) {
+		Purge purge = register(table);
+		run(purge);
+		return purge.status();
+	}
+
+
+	/**
+	 * Start the purge of a table in the background.
+	 * @param table to purge
+	 * @return the status of the purge just started
+	 * @throws IllegalStateException if the table is already being purged
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public PurgeStatusDTO start(Table table) {
+		Purge purge = register(table);
+		executor.execute(() -> run(purge));
+		return purge.status();
+	}
+
+
+	/**
+	 * Status of a purge.
+	 * @param id of the purge
+	 * @return the status, empty if the purge is unknown or too old
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Optional<PurgeStatusDTO> getStatus(String id) {
+		synchronized (purges) {
+			return Optional.ofNullable(purges.get(id)).map(Purge::status);
+		}
+	}
+
+
+	/**
+	 * Status of the running and of the recently ended purges.
+	 * @return the statuses, in the order the purges have been started
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<PurgeStatusDTO> getStatuses() {
+		synchronized (purges) {
+			List<PurgeStatusDTO> statuses = new ArrayList<>(purges.size());
+			purges.values().forEach(p -> statuses.add(p.status()));
+			return statuses;
+		}
+	}
+
+
+	/**
+	 * Cancel a purge: the chunk being deleted is committed,
+	 * the next ones are not started.
+	 * @param id of the purge
+	 * @return the status of the purge, empty if it is unknown
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Optional<PurgeStatusDTO> cancel(String id) {
+		synchronized (purges) {
+			Purge purge = purges.get(id);
+			if (purge == null)
+				return Optional.empty();
+			purge.cancelled = true;
+			return Optional.of(purge.status());
+		}
+	}
+
+
+	/**
+	 * Cancel the running purges and stop their threads.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PreDestroy
+	void shutdown() {
+		synchronized (purges) {
+			purges.values().forEach(p -> p.cancelled = true);
+		}
+		executor.shutdown();
+	}
+
+
+	/**
+	 * Add a purge, forgetting the oldest ended ones.
+	 * @param table to purge
+	 * @return the purge
+	 * @throws IllegalStateException if the table is already being purged
+	 **/
+	private Purge register(Table table) {
+		synchronized (purges) {
+			int ended = 0;
+			for (Purge purge : purges.values()) {
+				if (purge.table == table && purge.state == PurgeStatusDTO.State.RUNNING)
+					throw new IllegalStateException("The " + table.name().toLowerCase() + " are already being purged by " + purge.id);
+				if (purge.state != PurgeStatusDTO.State.RUNNING)
+					ended++;
+			}
+			for (Iterator<Purge> it = purges.values().iterator(); it.hasNext() && ended >= ENDED_KEPT;) {
+				if (it.next().state != PurgeStatusDTO.State.RUNNING) {
+					it.remove();
+					ended--;
+				}
+			}
+			Purge purge = new Purge(UUID.randomUUID().toString(), table);
+			purges.put(purge.id, purge);
+			return purge;
+		}
+	}
+
+
+	/**
+	 * Delete the chunks until the table is empty or
+	 * the purge is cancelled.
+	 * <br>
+	 * The purge is marked as ended only after the counters,
+	 * the index and the join read model have been rebuilt.
+	 * @param purge to run
+	 **/
+	private void run(Purge purge) {
+		PurgeStatusDTO.State state = PurgeStatusDTO.State.FAILED;
+		String error = null;
+		try {
+			while (!purge.cancelled) {
+				long from = purge.lastId;
+				long[] chunk = transactionTemplate.execute(status -> deleteChunk(purge.table, from));
+				if (chunk == null)
+					break;
+				purge.lastId = chunk[0];
+				purge.deletedRows += chunk[1];
+				purge.chunks++;
+			}
+			state = purge.cancelled ? PurgeStatusDTO.State.CANCELLED : PurgeStatusDTO.State.COMPLETED;
+			logger.info("Purge {} of the {} {}: {} rows deleted in {} chunks", purge.id,
+					purge.table.name().toLowerCase(), state.name().toLowerCase(), purge.deletedRows, purge.chunks);
+		} catch (RuntimeException e) {
+			error = e.getMessage();
+			logger.error("Purge {} of the {} failed", purge.id, purge.table.name().toLowerCase(), e);
+		} finally {
+			try {
+				talkCounterService.reconcile();
+				if (purge.table == Table.TALKS)
+					talkTitleIndexService.rebuild();
+				joinReadModelService.rebuild();
+			} finally {
+				purge.end(state, error);
+			}
+		}
+	}
+
+
+	/**
+	 * Delete the next chunk of rows.
+	 * @param table to purge
+	 * @param from the rows deleted have an id greater than this one
+	 * @return the highest id deleted and the rows deleted, null if there are no more rows
+	 **/
+	private long[] deleteChunk(Table table, long from) {
+		List<Long> ids = ids(table, from, chunkSize);
+		if (ids.isEmpty())
+			return null;
+		long to = ids.get(ids.size() - 1);
+		int deleted;
+		if (table == Table.TALKS) {
+			deleted = talkRepository.deleteIdRange(from, to);
+		} else {
+			talkRepository.detachTalksOfSpeakers(from, to);
+			deleted = speakerRepository.deleteIdRange(from, to);
+		}
+		return new long[] {to, deleted};
+	}
+
+
+	private List<Long> ids(Table table, long from, int size) {
+		PageRequest page = PageRequest.of(0, size);
+		return table == Table.TALKS ? talkRepository.findIdsAfter(from, page) : speakerRepository.findIdsAfter(from, page);
+	}
+
+
+	/**
+	 * A purge, changed only by the thread that runs it,
+	 * apart from the cancellation.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final class Purge {
+
+		final String id;
+
+		final Table table;
+
+		final Instant startedAt = Instant.now();
+
+		volatile boolean cancelled;
+
+		volatile PurgeStatusDTO.State state = PurgeStatusDTO.State.RUNNING;
+
+		volatile long lastId;
+
+		volatile long deletedRows;
+
+		volatile long chunks;
+
+		volatile Instant endedAt;
+
+		volatile String error;
+
+		Purge(String id, Table table) {
+			this.id = id;
+			this.table = table;
+		}
+
+		void end(PurgeStatusDTO.State state, String error) {
+			this.error = error;
+			this.endedAt = Instant.now();
+			this.state = state;
+		}
+
+		PurgeStatusDTO status() {
+			return new PurgeStatusDTO(id, table.name().toLowerCase(), state, deletedRows, chunks, lastId,
+					startedAt, endedAt, error);
+		}
+	}
+}
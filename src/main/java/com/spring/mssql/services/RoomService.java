@@ -0,0 +1,78 @@
+package com.spring.mssql.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.spring.mssql.dto.RoomTalksDTO;
+import com.spring.mssql.dto.RoomView;
+import com.spring.mssql.dto.TalkSummaryDTO;
+import com.spring.mssql.repositories.RoomRepository;
+
+
+/**
+ * Service for the
+ * {@link com.spring.mssql.models.Room Room} entity.
+ * <br>
+ * It builds the rooms with their talks from projections,
+ * so that nothing is left to the lazy loading of the
+ * list of talks of the entity.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class RoomService {
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Room Room} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	RoomRepository roomRepository;
+
+
+	/**
+	 * Constructor
+	 * @param roomRepository an instance of {@link com.spring.mssql.repositories.RoomRepository RoomRepository}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public RoomService(RoomRepository roomRepository) {
+		this.roomRepository = roomRepository;
+	}
+
+
+	/**
+	 * All the rooms with the summaries of their talks.
+	 * <br>
+	 * The rooms and the talks are read by two queries,
+	 * inside the same read-only transaction, and the talks
+	 * are put in their room in memory.
+	 * @return the rooms with their talks, both sorted by id.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional(readOnly = true)
+	public List<RoomTalksDTO> findAllWithTalks() {
+		List<RoomView> views = roomRepository.findAllProjectedByOrderByIdAsc();
+		List<RoomTalksDTO> rooms = new ArrayList<>(views.size());
+		Map<Long, RoomTalksDTO> byId = new HashMap<>();
+		for (RoomView view : views) {
+			RoomTalksDTO room = new RoomTalksDTO(view);
+			rooms.add(room);
+			byId.put(room.getId(), room);
+		}
+		for (TalkSummaryDTO talk : roomRepository.findTalkSummaries()) {
+			RoomTalksDTO room = byId.get(talk.getRoomId());
+			// A room created after the first query
+			if (room != null)
+				room.getTalks().add(talk);
+		}
+		return rooms;
+	}
+}
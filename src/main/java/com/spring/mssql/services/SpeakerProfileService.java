@@ -0,0 +1,198 @@
+package com.spring.mssql.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.spring.mssql.dto.SpeakerProfileDTO;
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+/**
+ * Service that builds the profile of a speaker running
+ * its independent reads at the same time.
+ * <br>
+ * The speaker, its talks, the counters of its talks and
+ * its rooms are read by four branches on a dedicated pool
+ * of <i>speakers.profile.threads</i> threads. As each branch
+ * holds a connection only while it runs, the pool size is
+ * also the max number of connections used by the profiles,
+ * whatever the number of requests: the other requests keep
+ * their share of the connection pool.
+ * <br>
+ * Each branch has <i>speakers.profile.timeout-ms</i> to end,
+ * counted from the start of the request, so the latency is
+ * the one of the slowest branch. A branch that fails, that
+ * does not end in time or that does not find room in the
+ * queue of the pool is reported in the profile, which keeps
+ * the parts of the other branches.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class SpeakerProfileService {
+
+	private static final Logger logger = LogManager.getLogger(SpeakerProfileService.class);
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerRepository speakerRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Room Room} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	RoomRepository roomRepository;
+
+	/**
+	 * Service with the counters of the talks of each speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkCounterService talkCounterService;
+
+	/**
+	 * Pool that runs the branches.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Time, in nanoseconds, given to the branches.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final long timeoutNanos;
+
+
+	/**
+	 * Constructor
+	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @param roomRepository an instance of {@link com.spring.mssql.repositories.RoomRepository RoomRepository}
+	 * @param talkCounterService an instance of {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+	 * @param threads size of the pool, and so max number of connections used at once
+	 * @param queueCapacity branches that can wait for a thread
+	 * @param timeoutMillis time given to the branches of a profile
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerProfileService(SpeakerRepository speakerRepository, RoomRepository roomRepository,
+			TalkCounterService talkCounterService,
+			@Value("${speakers.profile.threads:4}") int threads,
+			@Value("${speakers.profile.queue-capacity:100}") int queueCapacity,
+			@Value("${speakers.profile.timeout-ms:2000}") long timeoutMillis) {
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.talkCounterService = talkCounterService;
+		this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("speaker-profile-"),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+
+	/**
+	 * Build the profile of a speaker.
+	 * @param speakerId id of the speaker
+	 * @return the profile, with the failed branches inside its errors,
+	 * empty if the speaker does not exist
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Optional<SpeakerProfileDTO> getProfile(long speakerId) {
+		long deadline = System.nanoTime() + timeoutNanos;
+		SpeakerProfileDTO profile = new SpeakerProfileDTO(speakerId);
+
+		Future<Optional<Speaker>> speaker = submit("speaker", () -> speakerRepository.findById(speakerId), profile);
+		Future<List<SpeakerTalksDTO>> talks = submit("talks",
+				() -> speakerRepository.getSpeakerTalksWithJoinDTONativeQuery(speakerId), profile);
+		Future<SpeakerTalksDTO> talksCount = submit("talksCount", () -> talkCounterService.getTalksCount(speakerId), profile);
+		Future<List<Room>> rooms = submit("rooms", () -> roomRepository.findRoomsOfSpeaker(speakerId), profile);
+
+		Optional<Speaker> s = await("speaker", speaker, deadline, profile);
+		if (s != null && !s.isPresent()) {
+			cancel(talks, talksCount, rooms);
+			return Optional.empty();
+		}
+		if (s != null) {
+			profile.setFirstName(s.get().getFirstName());
+			profile.setLastName(s.get().getLastName());
+			profile.setAge(s.get().getAge());
+		}
+		profile.setTalks(await("talks", talks, deadline, profile));
+		profile.setTalksCount(await("talksCount", talksCount, deadline, profile));
+		profile.setRooms(await("rooms", rooms, deadline, profile));
+		return Optional.of(profile);
+	}
+
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+
+	private <T> Future<T> submit(String branch, Callable<T> read, SpeakerProfileDTO profile) {
+		try {
+			return executor.submit(read);
+		} catch (RejectedExecutionException e) {
+			profile.addError(branch, "busy");
+			return null;
+		}
+	}
+
+
+	private <T> T await(String branch, Future<T> future, long deadline, SpeakerProfileDTO profile) {
+		if (future == null)
+			return null;
+		try {
+			return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			profile.addError(branch, "timeout");
+		} catch (ExecutionException e) {
+			logger.warn("Branch {} of the profile of speaker {} failed", branch, profile.getSpeakerId(), e.getCause());
+			profile.addError(branch, "failed");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			profile.addError(branch, "interrupted");
+		}
+		return null;
+	}
+
+
+	private static void cancel(Future<?>... futures) {
+		for (Future<?> future : futures) {
+			if (future != null)
+				future.cancel(true);
+		}
+	}
+}
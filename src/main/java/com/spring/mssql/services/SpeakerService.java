@@ -0,0 +1,232 @@
+package com.spring.mssql.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+/**
+ * Service for the
+ * {@link com.spring.mssql.models.Speaker Speaker} entity.
+ * <br>
+ * It contains the operations that need a transaction
+ * around more than one call to the repositories, or
+ * around a result that is read lazily.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class SpeakerService {
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerRepository speakerRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Talk Talk} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkRepository talkRepository;
+
+	/**
+	 * Service with the counters of the talks of each speaker,
+	 * that does not see the bulk statements.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkCounterService talkCounterService;
+
+	/**
+	 * Service with the read model of the joins between
+	 * speakers and talks, that does not see the bulk statements.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	JoinReadModelService joinReadModelService;
+
+
+	/**
+	 * Constructor
+	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
+	 * @param talkCounterService an instance of {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+	 * @param joinReadModelService an instance of {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerService(SpeakerRepository speakerRepository, TalkRepository talkRepository,
+			TalkCounterService talkCounterService, JoinReadModelService joinReadModelService) {
+		this.speakerRepository = speakerRepository;
+		this.talkRepository = talkRepository;
+		this.talkCounterService = talkCounterService;
+		this.joinReadModelService = joinReadModelService;
+	}
+
+
+	/**
+	 * Delete a speaker without loading it or its talks.
+	 * <br>
+	 * The talks of the speaker are detached, or moved to
+	 * another speaker, with one UPDATE, then the speaker is
+	 * deleted with one DELETE, in the same transaction.
+	 * Being bulk statements, Hibernate evicts the speaker
+	 * and talk regions of the second-level cache by itself,
+	 * while the counters of the talks are moved after the commit.
+	 * @param id of the speaker to delete
+	 * @param newSpeakerId id of the speaker that will have the
+	 * talks, null to leave them without a speaker
+	 * @return true if the speaker has been deleted, false if it did not exist
+	 * @throws IllegalArgumentException if the new speaker does not exist or is the deleted one
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public boolean deleteSpeaker(long id, Long newSpeakerId) {
+		if (newSpeakerId == null) {
+			talkRepository.detachTalks(id);
+		} else {
+			if (newSpeakerId == id || !speakerRepository.existsById(newSpeakerId)) {
+				throw new IllegalArgumentException("Cannot move the talks to the speaker with id = " + newSpeakerId);
+			}
+			talkRepository.reassignTalks(id, newSpeakerId);
+		}
+		if (speakerRepository.deleteSpeaker(id) == 0)
+			return false;
+		AfterCommit.run(() -> talkCounterService.speakerRemoved(id, newSpeakerId));
+		AfterCommit.run(() -> joinReadModelService.speakerRemoved(id, newSpeakerId));
+		return true;
+	}
+
+
+	/**
+	 * Retrieve all the speakers, with their talks.
+	 * <br>
+	 * The lists of talks are loaded inside the read-only
+	 * transaction, as the open session in view is turned off,
+	 * and they are read in batches, see
+	 * {@link com.spring.mssql.models.Speaker#getSpeakerTalks() getSpeakerTalks}.
+	 * @return the speakers
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional(readOnly = true)
+	public List<Speaker> findAllWithTalks() {
+		return withTalks(speakerRepository.findAll());
+	}
+
+
+	/**
+	 * Retrieve all the speakers, sorted, with their talks.
+	 * @param sort of the speakers
+	 * @return the sorted speakers
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional(readOnly = true)
+	public List<Speaker> findAllWithTalks(Sort sort) {
+		return withTalks(speakerRepository.findAll(sort));
+	}
+
+
+	/**
+	 * Retrieve a page of speakers, with their talks.
+	 * @param pageable page to retrieve
+	 * @return the page of speakers
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional(readOnly = true)
+	public Page<Speaker> findAllWithTalks(Pageable pageable) {
+		Page<Speaker> page = speakerRepository.findAll(pageable);
+		withTalks(page.getContent());
+		return page;
+	}
+
+
+	/**
+	 * Retrieve a speaker, with its talks.
+	 * @param id of the speaker
+	 * @return the speaker, empty if it does not exist
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional(readOnly = true)
+	public Optional<Speaker> findByIdWithTalks(long id) {
+		Optional<Speaker> speaker = speakerRepository.findById(id);
+		speaker.ifPresent(s -> Hibernate.initialize(s.getSpeakerTalks()));
+		return speaker;
+	}
+
+
+	/**
+	 * Update the first name, the last name and the age of a
+	 * speaker, and return it with its talks.
+	 * @param id of the speaker to update
+	 * @param speaker with the new values
+	 * @return the updated speaker, empty if it does not exist
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public Optional<Speaker> updateSpeaker(long id, Speaker speaker) {
+		return speakerRepository.findById(id)
+				.map(s -> {
+					s.setFirstName(speaker.getFirstName());
+					s.setLastName(speaker.getLastName());
+					s.setAge(speaker.getAge());
+					Hibernate.initialize(s.getSpeakerTalks());
+					return s;
+				});
+	}
+
+
+	/**
+	 * Pass each row of the join between speakers and talks
+	 * to the action, while it is read from the database.
+	 * <br>
+	 * The cursor stays open, inside a read-only transaction,
+	 * until the last row has been consumed, so no list
+	 * of all the rows is ever built.
+	 * @param action to execute on each row
+	 * @return the number of rows read
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional(readOnly = true)
+	public long forEachJoinRow(Consumer<? super SpeakerTalksDTO> action) {
+		long rows = 0;
+		try (Stream<SpeakerTalksDTO> stream = speakerRepository.streamAllJoinDTONativeQuery()) {
+			for (SpeakerTalksDTO dto : (Iterable<SpeakerTalksDTO>) stream::iterator) {
+				action.accept(dto);
+				rows++;
+			}
+		}
+		return rows;
+	}
+
+
+	private List<Speaker> withTalks(List<Speaker> speakers) {
+		// The first list read brings the ones of the next speakers, see @BatchSize
+		speakers.forEach(s -> Hibernate.initialize(s.getSpeakerTalks()));
+		return speakers;
+	}
+}
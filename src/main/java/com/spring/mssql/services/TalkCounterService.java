@@ -0,0 +1,369 @@
+package com.spring.mssql.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+/**
+ * Service that keeps, for each speaker, the number of
+ * talks and of published talks, so that the unfiltered
+ * {@link com.spring.mssql.repositories.SpeakerRepository#getTalksCount getTalksCount}
+ * does not have to scan the whole talks table.
+ * <br>
+ * The counters are kept in memory:
+ * <ul>
+ * <li>they are loaded, and periodically rebuilt, by
+ * {@link #reconcile() reconcile}, with one GROUP BY on the talks table;</li>
+ * <li>between two rebuilds they are updated after each commit by
+ * {@link com.spring.mssql.listeners.TalkCounterListener TalkCounterListener},
+ * when a talk is created, deleted or (un)published, and by the
+ * services, for the changes that Hibernate does not see as an
+ * entity event (talks moved between speakers, bulk statements).</li>
+ * </ul>
+ * The speakers whose counters change while a rebuild is
+ * running keep their live counters, as the rebuild may have
+ * read their talks before or after the change. Changes made
+ * outside the application are fixed by the next rebuild.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class TalkCounterService {
+
+	private static final Logger logger = LogManager.getLogger(TalkCounterService.class.getName());
+
+	/**
+	 * Counters of a single speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final class Counters {
+		final AtomicInteger numTalks = new AtomicInteger();
+		final AtomicInteger publishedTalks = new AtomicInteger();
+
+		boolean matches(Counters other) {
+			return other != null && numTalks.get() == other.numTalks.get()
+					&& publishedTalks.get() == other.publishedTalks.get();
+		}
+	}
+
+	/**
+	 * Counters of each speaker with at least a talk,
+	 * null until the first reconciliation.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private volatile ConcurrentHashMap<Long, Counters> counters;
+
+	/**
+	 * Ids of the speakers whose counters have changed since
+	 * the start of the running rebuild, null if none is running.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private volatile Set<Long> touched;
+
+	/**
+	 * Held, shared, by the changes of the counters and,
+	 * exclusive, by the rebuild while it publishes the new
+	 * counters, so no change is applied to the old ones.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Talk Talk} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkRepository talkRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerRepository speakerRepository;
+
+
+	/**
+	 * Constructor
+	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
+	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public TalkCounterService(TalkRepository talkRepository, SpeakerRepository speakerRepository) {
+		this.talkRepository = talkRepository;
+		this.speakerRepository = speakerRepository;
+	}
+
+
+	/**
+	 * Return, for each speaker with at least one talk, the
+	 * number of talks and of published talks.
+	 * <br>
+	 * It reads only the speakers table, and takes the numbers
+	 * from the counters. Until the counters are loaded it
+	 * falls back on the query on the talks.
+	 * @return the counters of the speakers, sorted by id
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<SpeakerTalksDTO> getTalksCount() {
+		Map<Long, Counters> map = counters;
+		if (map == null) {
+			return speakerRepository.getTalksCount("");
+		}
+		List<SpeakerTalksDTO> result = new ArrayList<>(map.size());
+		for (SpeakerTalksDTO speaker : speakerRepository.findAllForTalksCount()) {
+			Counters c = map.get(speaker.getSpeakerId());
+			if (c != null && c.numTalks.get() >= 1) {
+				speaker.setNumTalks(c.numTalks.get());
+				speaker.setPublishedTalks(c.publishedTalks.get());
+				result.add(speaker);
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Return the number of talks and of published talks
+	 * of a single speaker.
+	 * <br>
+	 * It reads the counters, or the talks of the speaker
+	 * until the counters are loaded.
+	 * @param speakerId id of the speaker
+	 * @return the counters of the speaker, without the last name
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public SpeakerTalksDTO getTalksCount(long speakerId) {
+		Map<Long, Counters> map = counters;
+		if (map == null) {
+			Object[] row = talkRepository.countTalksOfSpeaker(speakerId).get(0);
+			int published = row[1] == null ? 0 : ((Number) row[1]).intValue();
+			return new SpeakerTalksDTO(null, speakerId, ((Number) row[0]).intValue(), published);
+		}
+		Counters c = map.get(speakerId);
+		return c == null ? new SpeakerTalksDTO(null, speakerId, 0, 0)
+				: new SpeakerTalksDTO(null, speakerId, c.numTalks.get(), c.publishedTalks.get());
+	}
+
+
+	/**
+	 * A talk of the speaker has been created.
+	 * @param speakerId id of the speaker, null if the talk has no speaker
+	 * @param published if the talk is published
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void talkAdded(Long speakerId, boolean published) {
+		add(speakerId, 1, published ? 1 : 0);
+	}
+
+
+	/**
+	 * A talk of the speaker has been deleted.
+	 * @param speakerId id of the speaker, null if the talk had no speaker
+	 * @param published if the talk was published
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void talkRemoved(Long speakerId, boolean published) {
+		add(speakerId, -1, published ? -1 : 0);
+	}
+
+
+	/**
+	 * A talk of the speaker has been published or unpublished.
+	 * @param speakerId id of the speaker, null if the talk has no speaker
+	 * @param published the new value of the flag
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void publishedChanged(Long speakerId, boolean published) {
+		add(speakerId, 0, published ? 1 : -1);
+	}
+
+
+	/**
+	 * A talk has been moved from a speaker to another one.
+	 * @param oldSpeakerId id of the old speaker, null if the talk had no speaker
+	 * @param newSpeakerId id of the new speaker
+	 * @param published if the talk was published before the move
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void talkMoved(Long oldSpeakerId, Long newSpeakerId, boolean published) {
+		talkRemoved(oldSpeakerId, published);
+		talkAdded(newSpeakerId, published);
+	}
+
+
+	/**
+	 * The talks of the speaker have been counted again,
+	 * after a change the service could not follow, like the
+	 * published flag set by a bulk statement.
+	 * @param speakerId id of the speaker
+	 * @param numTalks number of talks of the speaker
+	 * @param publishedTalks number of published talks of the speaker
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void speakerRecounted(long speakerId, int numTalks, int publishedTalks) {
+		lock.readLock().lock();
+		try {
+			touch(speakerId);
+			Map<Long, Counters> map = counters;
+			if (map == null) {
+				return;
+			}
+			Counters c = new Counters();
+			c.numTalks.set(numTalks);
+			c.publishedTalks.set(publishedTalks);
+			map.put(speakerId, c);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * A speaker has been deleted, and its talks have been
+	 * left without a speaker or moved to another one.
+	 * @param speakerId id of the deleted speaker
+	 * @param newSpeakerId id of the speaker that got the talks, null if none
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void speakerRemoved(long speakerId, Long newSpeakerId) {
+		lock.readLock().lock();
+		try {
+			touch(speakerId);
+			touch(newSpeakerId);
+			Map<Long, Counters> map = counters;
+			if (map == null) {
+				return;
+			}
+			Counters c = map.remove(speakerId);
+			if (c != null && newSpeakerId != null) {
+				add(newSpeakerId, c.numTalks.get(), c.publishedTalks.get());
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Rebuild all the counters from the talks table.
+	 * <br>
+	 * It runs at the boot and then every
+	 * <i>speakers.talks-count.reconcile-delay</i> milliseconds,
+	 * logging the speakers whose counters had drifted.
+	 * <br>
+	 * The counters of the speakers changed while the talks
+	 * are counted are not taken from the count: they are
+	 * copied from the live counters, which have seen all the
+	 * changes, or, at the first rebuild, counted again one
+	 * speaker at a time.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Scheduled(fixedDelayString = "${speakers.talks-count.reconcile-delay:600000}")
+	public synchronized void reconcile() {
+		Set<Long> changed = ConcurrentHashMap.newKeySet();
+		touched = changed;
+		ConcurrentHashMap<Long, Counters> fresh = new ConcurrentHashMap<>();
+		Map<Long, Counters> old;
+		try {
+			for (Object[] row : talkRepository.countTalksBySpeaker()) {
+				Counters c = new Counters();
+				c.numTalks.set(((Number) row[1]).intValue());
+				c.publishedTalks.set(((Number) row[2]).intValue());
+				fresh.put(((Number) row[0]).longValue(), c);
+			}
+			lock.writeLock().lock();
+			try {
+				old = counters;
+				if (old != null) {
+					long drifted = fresh.entrySet().stream()
+							.filter(e -> !changed.contains(e.getKey()) && !e.getValue().matches(old.get(e.getKey()))).count()
+							+ old.keySet().stream().filter(id -> !changed.contains(id) && !fresh.containsKey(id)
+									&& old.get(id).numTalks.get() != 0).count();
+					if (drifted > 0) {
+						logger.warn("Talk counters of {} speakers were out of date, rebuilt.", drifted);
+					}
+					for (Long id : changed) {
+						Counters live = old.get(id);
+						if (live == null)
+							fresh.remove(id);
+						else
+							fresh.put(id, live);
+					}
+				}
+				counters = fresh;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		} finally {
+			touched = null;
+		}
+		if (old == null) {
+			// No live counters yet: the speakers changed meanwhile are counted again
+			for (Long id : changed) {
+				Object[] row = talkRepository.countTalksOfSpeaker(id).get(0);
+				int published = row[1] == null ? 0 : ((Number) row[1]).intValue();
+				speakerRecounted(id, ((Number) row[0]).intValue(), published);
+			}
+		}
+	}
+
+
+	private void add(Long speakerId, int talks, int published) {
+		if (speakerId == null) {
+			return;
+		}
+		lock.readLock().lock();
+		try {
+			touch(speakerId);
+			Map<Long, Counters> map = counters;
+			if (map == null) {
+				return;
+			}
+			Counters c = map.computeIfAbsent(speakerId, id -> new Counters());
+			c.numTalks.addAndGet(talks);
+			c.publishedTalks.addAndGet(published);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+
+	private void touch(Long speakerId) {
+		Set<Long> changed = touched;
+		if (changed != null && speakerId != null) {
+			changed.add(speakerId);
+		}
+	}
+}
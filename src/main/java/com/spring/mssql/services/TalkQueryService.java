@@ -0,0 +1,111 @@
+package com.spring.mssql.services;
+
+import java.util.List;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.spring.mssql.models.Talk;
+
+
+/**
+ * Read-only service for the bulk reads of the talks.
+ * <br>
+ * The talks returned by the listings are never changed, but
+ * a session keeps, for each entity it loads, an entry in the
+ * persistence context with the snapshot of its state for the
+ * dirty checking, and puts its state in the second-level cache.
+ * Here the rows are read by a
+ * {@link org.hibernate.StatelessSession StatelessSession},
+ * which builds the detached talks and nothing else: no
+ * persistence context, no snapshots, no flush and no cache.
+ * <br>
+ * The stateless session runs on the connection of the
+ * read-only transaction, so it does not take a second one and,
+ * with the read replicas, it reads from a replica.
+ * As the talks are detached, their room can not be loaded;
+ * it is not serialized anyway.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+@Transactional(readOnly = true)
+public class TalkQueryService {
+
+	/**
+	 * Entity manager bound to the current transaction.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PersistenceContext
+	private EntityManager entityManager;
+
+
+	/**
+	 * Read-only version of
+	 * {@link com.spring.mssql.repositories.TalkRepository#findAll() findAll}.
+	 * @return all the talks, sorted by id
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<Talk> findAll() {
+		return inStatelessSession(session -> session
+				.createQuery("FROM Talk t ORDER BY t.id", Talk.class)
+				.list());
+	}
+
+
+	/**
+	 * Read-only version of
+	 * {@link com.spring.mssql.repositories.TalkRepository#findByPublished(boolean) findByPublished}.
+	 * @param published a boolean value use to search for Talk published or not.
+	 * @return all the Talks, published or not, sorted by id
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<Talk> findByPublished(boolean published) {
+		return inStatelessSession(session -> session
+				.createQuery("FROM Talk t WHERE t.published = :published ORDER BY t.id", Talk.class)
+				.setParameter("published", published)
+				.list());
+	}
+
+
+	/**
+	 * Read-only version of
+	 * {@link com.spring.mssql.repositories.TalkRepository#getAllTalksWithFunction() getAllTalksWithFunction}.
+	 * @return all the talks inside the talks table.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public List<Talk> getAllTalksWithFunction() {
+		return inStatelessSession(session -> session
+				.createNativeQuery("SELECT * from dbo.getTalksWithFunction()", Talk.class)
+				.list());
+	}
+
+
+	/**
+	 * Run a query inside a stateless session opened on the
+	 * connection of the current transaction.
+	 * @param <T> type of the result
+	 * @param query to run
+	 * @return the result of the query
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private <T> T inStatelessSession(Function<StatelessSession, T> query) {
+		Session session = entityManager.unwrap(Session.class);
+		return session.doReturningWork(connection -> {
+			try (StatelessSession stateless = session.getSessionFactory().openStatelessSession(connection)) {
+				return query.apply(stateless);
+			}
+		});
+	}
+}
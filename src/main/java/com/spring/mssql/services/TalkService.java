@@ -0,0 +1,256 @@
+package com.spring.mssql.services;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+/**
+ * Service for the writes of the
+ * {@link com.spring.mssql.models.Talk Talk} entity.
+ * <br>
+ * Each method runs in one transaction, so all its
+ * statements use the same connection, and each entity
+ * is looked up only once. When only the foreign key
+ * is needed, the entity is referenced through a proxy,
+ * without reading it.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class TalkService {
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Talk Talk} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkRepository talkRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Speaker Speaker} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	SpeakerRepository speakerRepository;
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Room Room} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	RoomRepository roomRepository;
+
+	/**
+	 * Service used to evict the cached lists of talks
+	 * of the speakers of a new or moved talk.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	CacheService cacheService;
+
+	/**
+	 * Entity manager bound to the current transaction.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Service with the counters of the talks of each speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkCounterService talkCounterService;
+
+	/**
+	 * Service with the read model of the joins between
+	 * speakers and talks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	JoinReadModelService joinReadModelService;
+
+
+	/**
+	 * Constructor
+	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
+	 * @param speakerRepository an instance of {@link com.spring.mssql.repositories.SpeakerRepository SpeakerRepository}
+	 * @param roomRepository an instance of {@link com.spring.mssql.repositories.RoomRepository RoomRepository}
+	 * @param cacheService an instance of {@link com.spring.mssql.services.CacheService CacheService}
+	 * @param talkCounterService an instance of {@link com.spring.mssql.services.TalkCounterService TalkCounterService}
+	 * @param joinReadModelService an instance of {@link com.spring.mssql.services.JoinReadModelService JoinReadModelService}
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public TalkService(TalkRepository talkRepository, SpeakerRepository speakerRepository,
+			RoomRepository roomRepository, CacheService cacheService, TalkCounterService talkCounterService,
+			JoinReadModelService joinReadModelService) {
+		this.talkRepository = talkRepository;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.cacheService = cacheService;
+		this.talkCounterService = talkCounterService;
+		this.joinReadModelService = joinReadModelService;
+	}
+
+
+	/**
+	 * Create a talk of a speaker in a room.
+	 * <br>
+	 * Speaker and room are checked with one query each,
+	 * then the talk is inserted with the speaker_id and
+	 * a reference to the room, without loading them or
+	 * the list of talks of the speaker: three statements,
+	 * whatever the number of talks of the speaker.
+	 * @param speakerId id of the speaker who held the talk
+	 * @param roomId id of the room where the talk has been taken
+	 * @param talk to insert
+	 * @return the inserted talk
+	 * @throws ResourceNotFoundException if the speaker or the room are not found
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public Talk createTalk(long speakerId, long roomId, Talk talk) {
+		if (!speakerRepository.existsById(speakerId))
+			throw new ResourceNotFoundException("Not found Speaker with id = " + speakerId);
+		if (!roomRepository.existsById(roomId))
+			throw new ResourceNotFoundException("Not found Room with id = " + roomId);
+
+		talk.setRoom(roomRepository.getReferenceById(roomId));
+		talk.setSpeakerId(speakerId);
+		Talk saved = talkRepository.save(talk);
+		cacheService.evictSpeakerTalks(Collections.singleton(speakerId));
+		return saved;
+	}
+
+
+	/**
+	 * Update title, description and published flag of
+	 * a talk and, optionally, move it to another room or
+	 * to another speaker.
+	 * <br>
+	 * A room or a speaker that does not exist is ignored.
+	 * The room is set through a reference, while the speaker
+	 * is changed with a single UPDATE of the speaker_id column,
+	 * see {@link com.spring.mssql.repositories.TalkRepository#moveTalk(long, long, long) moveTalk},
+	 * without loading the lists of talks of the speakers:
+	 * this is not an entity update, so the counters of the
+	 * talks are moved here, after the commit, and the cached
+	 * lists of talks of the two speakers are evicted.
+	 * @param talkId id of the talk to update
+	 * @param roomId id of the new room, optional
+	 * @param speakerId id of the new speaker, optional
+	 * @param talk with the new values
+	 * @return the updated talk
+	 * @throws ResourceNotFoundException if the talk is not found
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public Talk updateTalk(long talkId, Optional<Long> roomId, Optional<Long> speakerId, Talk talk) {
+		return updateTalk(talkId, roomId, speakerId, talk, OptionalLong.empty());
+	}
+
+
+	/**
+	 * Version of
+	 * {@link #updateTalk(long, Optional, Optional, Talk) updateTalk}
+	 * that updates the talk only if it still has the
+	 * version read by the client.
+	 * <br>
+	 * The version of the talk is checked again by the move
+	 * to another speaker and by Hibernate when the update
+	 * is flushed, so an update committed by
+	 * another transaction in the meantime makes this one fail.
+	 * @param talkId id of the talk to update
+	 * @param roomId id of the new room, optional
+	 * @param speakerId id of the new speaker, optional
+	 * @param talk with the new values
+	 * @param version the version read by the client, empty to skip the check
+	 * @return the updated talk
+	 * @throws ResourceNotFoundException if the talk is not found
+	 * @throws ObjectOptimisticLockingFailureException if the talk has another version
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public Talk updateTalk(long talkId, Optional<Long> roomId, Optional<Long> speakerId, Talk talk, OptionalLong version) {
+		Talk _talk = talkRepository.findById(talkId)
+				.orElseThrow(() -> new ResourceNotFoundException("Not found Talk with id = " + talkId));
+		if (version.isPresent() && version.getAsLong() != _talk.getVersion())
+			throw new ObjectOptimisticLockingFailureException(Talk.class, talkId);
+
+		if (speakerId.isPresent()) {
+			Long oldSpeakerId = _talk.getSpeakerId();
+			long newSpeakerId = speakerId.get();
+			if (!speakerId.get().equals(oldSpeakerId) && speakerRepository.existsById(newSpeakerId)) {
+				if (talkRepository.moveTalk(talkId, newSpeakerId, _talk.getVersion()) == 0)
+					throw new ObjectOptimisticLockingFailureException(Talk.class, talkId);
+				// The move has incremented the version, so the talk is read again before it is updated
+				entityManager.refresh(_talk);
+				cacheService.evictSpeakerTalks(oldSpeakerId == null ? Collections.singleton(newSpeakerId)
+						: Arrays.asList(oldSpeakerId, newSpeakerId));
+				// The talk is moved with its current flag, a change of the flag is counted by the listener of the update
+				boolean published = _talk.isPublished();
+				AfterCommit.run(() -> talkCounterService.talkMoved(oldSpeakerId, newSpeakerId, published));
+				AfterCommit.run(() -> joinReadModelService.talkMoved(talkId, newSpeakerId));
+			}
+		}
+
+		_talk.setTitle(talk.getTitle());
+		_talk.setDescription(talk.getDescription());
+		_talk.setPublished(talk.isPublished());
+
+		if (roomId.isPresent() && roomRepository.existsById(roomId.get()))
+			_talk.setRoom(roomRepository.getReferenceById(roomId.get()));
+		return _talk;
+	}
+
+
+	/**
+	 * Delete a talk.
+	 * <br>
+	 * The talk is not removed from the list of its speaker,
+	 * so only the cached list of that speaker is evicted,
+	 * after the commit. The speaker is the one read with the
+	 * talk, in the same transaction: the delete is versioned,
+	 * so if the talk is moved to another speaker meanwhile
+	 * the delete fails instead of evicting the wrong list.
+	 * @param id of the talk to delete
+	 * @return true if the talk has been deleted, false if it did not exist
+	 * @throws ObjectOptimisticLockingFailureException if the talk has been changed meanwhile
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional
+	public boolean deleteTalk(long id) {
+		Optional<Talk> talk = talkRepository.findById(id);
+		if (!talk.isPresent())
+			return false;
+		Long speakerId = talk.get().getSpeakerId();
+		talkRepository.delete(talk.get());
+		if (speakerId != null)
+			cacheService.evictSpeakerTalks(Collections.singleton(speakerId));
+		return true;
+	}
+}
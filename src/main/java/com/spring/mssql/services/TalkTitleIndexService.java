@@ -0,0 +1,339 @@
+package com.spring.mssql.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+/**
+ * Service that searches the talks by a substring of
+ * their title through an in-memory trigram index,
+ * instead of a <i>LIKE '%title%'</i> that scans the
+ * whole talks table.
+ * <br>
+ * Each title is split in all its sequences of three
+ * characters, and the index maps each sequence to the
+ * ids of the talks whose title contains it. A search
+ * intersects the ids of the sequences of the substring,
+ * checks the candidates against their titles and reads
+ * them with a single IN query: its cost depends on the
+ * number of matches, not on the size of the table.
+ * <br>
+ * The index is built by {@link #rebuild() rebuild}, at the
+ * boot and then periodically, and is kept up to date after
+ * each commit by
+ * {@link com.spring.mssql.listeners.TalkTitleIndexListener TalkTitleIndexListener}.
+ * The changes committed while a rebuild is running are
+ * applied to the new index too, before it replaces the old
+ * one. The titles written outside the application are
+ * indexed by the next rebuild.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Service
+public class TalkTitleIndexService {
+
+	/**
+	 * Length of the sequences of characters of the index.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final int GRAM = 3;
+
+	/**
+	 * Index of the titles, null until the first build.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private volatile Index index;
+
+	/**
+	 * Changes applied since the start of the running rebuild,
+	 * in order, null if none is running. It is guarded by
+	 * {@link #changes changes}.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private List<Consumer<Index>> pending;
+
+	/**
+	 * Lock of the changes of the index and of its replacement.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Object changes = new Object();
+
+	/**
+	 * Repository of the
+	 * {@link com.spring.mssql.models.Talk Talk} entity.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	TalkRepository talkRepository;
+
+	/**
+	 * Max number of ids of a single IN query.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	int maxInSize;
+
+
+	/**
+	 * Constructor
+	 * @param talkRepository an instance of {@link com.spring.mssql.repositories.TalkRepository TalkRepository}
+	 * @param maxInSize max number of ids of a single IN query, from
+	 * the property <i>talks.title-index.max-in-size</i>
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public TalkTitleIndexService(TalkRepository talkRepository,
+			@Value("${talks.title-index.max-in-size:1000}") int maxInSize) {
+		this.talkRepository = talkRepository;
+		this.maxInSize = maxInSize;
+	}
+
+
+	/**
+	 * Return the talks whose title contains a substring,
+	 * ignoring the case, sorted by id.
+	 * <br>
+	 * Until the index is built it falls back on
+	 * {@link com.spring.mssql.repositories.TalkRepository#findByTitleContaining(String) findByTitleContaining}.
+	 * <br>
+	 * All the chunks are read inside a single read-only
+	 * transaction: one connection, no flush and no snapshots
+	 * of the loaded talks.
+	 * @param title substring to search in the Talk title.
+	 * @return all the Talks that contain title inside their title.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Transactional(readOnly = true)
+	public List<Talk> findByTitleContaining(String title) {
+		Index current = index;
+		if (current == null) {
+			return talkRepository.findByTitleContaining(title);
+		}
+		String needle = normalize(title);
+		List<Long> ids = new ArrayList<>(current.candidates(needle));
+		Collections.sort(ids);
+
+		List<Talk> talks = new ArrayList<>(ids.size());
+		for (int from = 0; from < ids.size(); from += maxInSize) {
+			for (Talk talk : talkRepository.findAllById(ids.subList(from, Math.min(from + maxInSize, ids.size())))) {
+				// The index could be older than the row
+				if (talk.getTitle() != null && normalize(talk.getTitle()).contains(needle))
+					talks.add(talk);
+			}
+		}
+		talks.sort(Comparator.comparingLong(Talk::getId));
+		return talks;
+	}
+
+
+	/**
+	 * Add or replace the title of a talk inside the index.
+	 * <br>
+	 * Inside a transaction the index is changed after the
+	 * commit, so a rollback leaves it untouched.
+	 * @param id of the talk
+	 * @param title of the talk
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void put(long id, String title) {
+		AfterCommit.run(() -> apply(i -> i.put(id, title)));
+	}
+
+
+	/**
+	 * Remove a talk from the index, after the commit.
+	 * @param id of the talk
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public void remove(long id) {
+		AfterCommit.run(() -> apply(i -> i.remove(id)));
+	}
+
+
+	/**
+	 * Build again the whole index from the talks table.
+	 * <br>
+	 * It runs at the boot and then every
+	 * <i>talks.title-index.rebuild-delay</i> milliseconds.
+	 * <br>
+	 * The titles may be read before or after a change that
+	 * commits meanwhile, so the changes applied while the
+	 * titles are read are recorded, and applied again to the
+	 * new index right before it is published. A change is
+	 * the new title, or the absence, of a talk, so applying
+	 * it twice gives the same index.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Scheduled(fixedDelayString = "${talks.title-index.rebuild-delay:600000}")
+	public synchronized void rebuild() {
+		synchronized (changes) {
+			pending = new ArrayList<>();
+		}
+		try {
+			Index fresh = new Index();
+			for (Object[] row : talkRepository.findAllTitles()) {
+				fresh.put(((Number) row[0]).longValue(), (String) row[1]);
+			}
+			synchronized (changes) {
+				pending.forEach(change -> change.accept(fresh));
+				index = fresh;
+			}
+		} finally {
+			synchronized (changes) {
+				pending = null;
+			}
+		}
+	}
+
+
+	/**
+	 * Apply a change to the index, and record it
+	 * if a rebuild is running.
+	 * @param change to apply
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private void apply(Consumer<Index> change) {
+		synchronized (changes) {
+			Index current = index;
+			if (current != null)
+				change.accept(current);
+			if (pending != null)
+				pending.add(change);
+		}
+	}
+
+
+	private static String normalize(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+
+	private static Set<String> grams(String text) {
+		Set<String> grams = new HashSet<>();
+		for (int i = 0; i + GRAM <= text.length(); i++) {
+			grams.add(text.substring(i, i + GRAM));
+		}
+		return grams;
+	}
+
+
+	/**
+	 * Trigram index of the titles.
+	 * <br>
+	 * The writes are serialized, while the searches
+	 * read the concurrent maps without locks.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final class Index {
+
+		/**
+		 * Normalized title of each talk.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		final Map<Long, String> titles = new ConcurrentHashMap<>();
+
+		/**
+		 * Ids of the talks that contain each trigram.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+		synchronized void put(long id, String title) {
+			remove(id);
+			if (title == null)
+				return;
+			String text = normalize(title);
+			titles.put(id, text);
+			for (String gram : grams(text)) {
+				postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+			}
+		}
+
+		synchronized void remove(long id) {
+			String text = titles.remove(id);
+			if (text == null)
+				return;
+			for (String gram : grams(text)) {
+				Set<Long> ids = postings.get(gram);
+				if (ids != null) {
+					ids.remove(id);
+					if (ids.isEmpty())
+						postings.remove(gram);
+				}
+			}
+		}
+
+		/**
+		 * Ids of the talks whose title contains the
+		 * normalized substring.
+		 * <br>
+		 * A substring shorter than a trigram can not use
+		 * the postings, so the titles are scanned in memory.
+		 **/
+		Set<Long> candidates(String needle) {
+			Set<Long> result = new HashSet<>();
+			if (needle.length() < GRAM) {
+				titles.forEach((id, text) -> {
+					if (text.contains(needle))
+						result.add(id);
+				});
+				return result;
+			}
+			List<Set<Long>> lists = new ArrayList<>();
+			for (String gram : grams(needle)) {
+				Set<Long> ids = postings.get(gram);
+				if (ids == null)
+					return result;
+				lists.add(ids);
+			}
+			// Start from the rarest trigram, so the intersection is as small as possible
+			lists.sort(Comparator.comparingInt(Set::size));
+			for (Long id : lists.get(0)) {
+				if (contained(id, lists) && titleContains(id, needle))
+					result.add(id);
+			}
+			return result;
+		}
+
+		private static boolean contained(Long id, List<Set<Long>> lists) {
+			for (int i = 1; i < lists.size(); i++) {
+				if (!lists.get(i).contains(id))
+					return false;
+			}
+			return true;
+		}
+
+		private boolean titleContains(Long id, String needle) {
+			String text = titles.get(id);
+			return text != null && text.contains(needle);
+		}
+	}
+}
@@ -0,0 +1,30 @@
+-- Tables of the entities, as created by ddl-auto=update before the migrations.
+-- The databases created that way are baselined at this version, so this script runs only on an empty database.
+CREATE TABLE rooms (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	room_capacity BIGINT NOT NULL,
+	room_floor INTEGER NOT NULL,
+	room_name VARCHAR(255),
+	PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE speakers (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	age INTEGER,
+	first_name VARCHAR(255),
+	last_name VARCHAR(255),
+	PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE talks (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	description VARCHAR(255),
+	published BIT NOT NULL,
+	speaker_id BIGINT,
+	title VARCHAR(255),
+	room_id BIGINT NOT NULL,
+	PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+ALTER TABLE talks ADD CONSTRAINT FKgdebhjqyea3dwlpbw47m5ge1g FOREIGN KEY (room_id) REFERENCES rooms (id) ON DELETE CASCADE;
+ALTER TABLE talks ADD CONSTRAINT FKj0ou8i571g56h698vw2ixyysn FOREIGN KEY (speaker_id) REFERENCES speakers (id);
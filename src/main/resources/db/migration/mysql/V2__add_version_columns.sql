@@ -0,0 +1,5 @@
+-- Version columns of the optimistic locking (@Version) and of the ETags.
+-- The existing rows, those of the databases baselined at V1 too, get version 0.
+ALTER TABLE rooms ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE speakers ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE talks ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
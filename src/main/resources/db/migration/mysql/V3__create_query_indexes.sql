@@ -0,0 +1,26 @@
+-- Indexes of the repository queries.
+-- InnoDB has no INCLUDE: the short columns read by the counts are part of the key, and each secondary
+-- index carries the primary key (id), so after the equality on the key the rows are in id order,
+-- as the keyset pages ask. The indexes on speaker_id and room_id take the place of the ones
+-- created for the foreign keys, which MySQL drops by itself.
+
+-- Talks of a speaker: the join queries, countTalksOfSpeaker, countTalksBySpeaker, findRoomsOfSpeaker,
+-- and the detach/reassign of the talks when a speaker is deleted
+CREATE INDEX ix_talks_speaker_id ON talks (speaker_id, published, room_id);
+
+-- Talks of a room: the talks count of the rooms and the delete cascade of a room
+CREATE INDEX ix_talks_room_id ON talks (room_id, published);
+
+-- findByPublished and its keyset page. They read the whole talk: the index gives the rows
+-- in id order, title and description are read from the table
+CREATE INDEX ix_talks_published ON talks (published);
+
+-- Prefix search of getTalksCount. A search on any part of the title (findByTitleContaining)
+-- can not seek an index: it is answered by the in-memory title index
+CREATE INDEX ix_talks_title ON talks (title, speaker_id, published);
+
+-- getSpeakersByFirstName and its keyset page
+CREATE INDEX ix_speakers_first_name ON speakers (first_name, last_name);
+
+-- Keyset page of the speakers by last name
+CREATE INDEX ix_speakers_last_name ON speakers (last_name);
@@ -0,0 +1,24 @@
+-- Indexes of the repository queries.
+-- A nonclustered index carries the clustered key (id): after the equality on its first columns
+-- the rows are already in id order, as the keyset pages ask. The INCLUDE columns make it covering,
+-- so the query does not go back to the table.
+
+-- Talks of a speaker: the join queries, countTalksOfSpeaker, countTalksBySpeaker, findRoomsOfSpeaker,
+-- and the detach/reassign of the talks when a speaker is deleted
+CREATE INDEX ix_talks_speaker_id ON talks (speaker_id, published) INCLUDE (room_id, title, description);
+
+-- Talks of a room: the talks count of the rooms and the delete cascade of a room
+CREATE INDEX ix_talks_room_id ON talks (room_id) INCLUDE (published);
+
+-- findByPublished and its keyset page, which read the whole talk
+CREATE INDEX ix_talks_published ON talks (published) INCLUDE (title, description, speaker_id, room_id, version);
+
+-- Prefix search of getTalksCount. A search on any part of the title (findByTitleContaining)
+-- can not seek an index: it is answered by the in-memory title index
+CREATE INDEX ix_talks_title ON talks (title) INCLUDE (speaker_id, published);
+
+-- getSpeakersByFirstName and its keyset page
+CREATE INDEX ix_speakers_first_name ON speakers (first_name) INCLUDE (last_name);
+
+-- Keyset page of the speakers by last name
+CREATE INDEX ix_speakers_last_name ON speakers (last_name) INCLUDE (first_name, age, version);
@@ -0,0 +1,40 @@
+package com.spring.mssql.perf;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+
+/**
+ * Java functions registered on the embedded H2 database
+ * of the <i>perf</i> profile, in place of the user defined
+ * functions of SQL Server.
+ * <br>
+ * They are bound by the <i>db/migration/perf</i> migration
+ * with CREATE ALIAS.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public final class H2Functions {
+
+	private H2Functions() {
+	}
+
+
+	/**
+	 * Stand-in of the <i>dbo.getTalksWithFunction()</i> table-valued
+	 * function, read by
+	 * {@link com.spring.mssql.repositories.TalkRepository#getAllTalksWithFunction() getAllTalksWithFunction}.
+	 * <br>
+	 * H2 calls it with the connection of the query, and reads
+	 * the returned rows as the ones of a table.
+	 * @param connection the connection of the calling query
+	 * @return all the talks inside the talks table
+	 * @throws SQLException if the talks can not be read
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static ResultSet getTalksWithFunction(Connection connection) throws SQLException {
+		return connection.createStatement().executeQuery("SELECT * FROM talks");
+	}
+}
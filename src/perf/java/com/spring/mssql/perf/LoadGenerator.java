@@ -0,0 +1,295 @@
+package com.spring.mssql.perf;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.spring.SpringBootJpaConnectionApplication;
+
+
+/**
+ * Load generator of the REST API, built on the JDK HTTP client.
+ * <br>
+ * The requests are sent at a constant rate (open model): the
+ * n-th request is due at <i>start + n / rate</i>, whatever the
+ * time taken by the previous ones. The latency of a request is
+ * measured from the time it was due, not from the time it was
+ * sent, so when the application stalls, or all the connections
+ * are busy, the requests that would have been sent meanwhile
+ * are counted with all the time they waited: this is the
+ * correction of the coordinated omission. The latency from the
+ * time the request was sent is reported too, as service time.
+ * <br>
+ * Without <i>--url</i> the application is started inside the
+ * same JVM with the <i>perf</i> profile, on a random port, and
+ * the embedded database is seeded with <i>--talks</i> talks;
+ * the generator and the application then share the CPU.
+ * <br>
+ * Options, as <i>--name=value</i>:
+ * <ul>
+ * <li><i>url</i> base URL of an application already running,
+ * seeded with the same dataset options;</li>
+ * <li><i>mix</i> {@link Mix#READ read} or {@link Mix#MIXED mixed}, default mixed;</li>
+ * <li><i>rate</i> requests per second, default 500;</li>
+ * <li><i>duration</i> seconds measured, default 60;</li>
+ * <li><i>warmup</i> seconds of load before the measure, default 10;</li>
+ * <li><i>connections</i> maximum number of requests in flight, default 64;</li>
+ * <li><i>talks</i>, <i>talks-per-speaker</i>, <i>rooms</i> the dataset,
+ * default 100000, 10 and 50;</li>
+ * <li><i>histogram</i> file where the full percentile distribution
+ * is written, default target/perf/latency.hgrm.</li>
+ * </ul>
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public final class LoadGenerator {
+
+	private static final String ALL = "all";
+
+	private final URI base;
+
+	private final Mix mix;
+
+	private final Mix.Dataset dataset;
+
+	private final double rate;
+
+	private final long durationNanos;
+
+	private final long warmupNanos;
+
+	private final Semaphore connections;
+
+	private final int maxConnections;
+
+	private final HttpClient client;
+
+	private final ExecutorService executor;
+
+	/**
+	 * Latency from the time each request was due, by call and for all the calls.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+	/**
+	 * Latency from the time each request was sent, for all the calls.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final Histogram serviceTime = new ConcurrentHistogram(3);
+
+	/**
+	 * Start of the measure: the requests due before it are the warmup.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private volatile long measureStart;
+
+
+	private LoadGenerator(URI base, Mix mix, Mix.Dataset dataset, double rate, long durationSeconds,
+			long warmupSeconds, int connections) {
+		this.base = base;
+		this.mix = mix;
+		this.dataset = dataset;
+		this.rate = rate;
+		this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+		this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+		this.maxConnections = connections;
+		this.connections = new Semaphore(connections);
+		this.executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+			Thread thread = new Thread(r, "load-generator");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.executor(executor)
+				.build();
+		stats.put(ALL, new Stats());
+		for (Mix.Operation operation : mix.getOperations()) {
+			stats.put(operation.getName(), new Stats());
+		}
+	}
+
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parse(args);
+		Mix mix = Mix.valueOf(options.getOrDefault("mix", "mixed").toUpperCase(Locale.ROOT));
+		int talks = Integer.parseInt(options.getOrDefault("talks", "100000"));
+		int talksPerSpeaker = Integer.parseInt(options.getOrDefault("talks-per-speaker", "10"));
+		int rooms = Integer.parseInt(options.getOrDefault("rooms", "50"));
+		Path histogram = Paths.get(options.getOrDefault("histogram", "target/perf/latency.hgrm"));
+
+		ConfigurableApplicationContext context = null;
+		String url = options.get("url");
+		if (url == null) {
+			context = new SpringApplicationBuilder(SpringBootJpaConnectionApplication.class)
+					.profiles("perf")
+					.properties("server.port=0", "perf.dataset.talks=" + talks,
+							"perf.dataset.talks-per-speaker=" + talksPerSpeaker, "perf.dataset.rooms=" + rooms)
+					.run();
+			url = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+		}
+
+		try {
+			LoadGenerator generator = new LoadGenerator(URI.create(url), mix,
+					new Mix.Dataset(talks, talksPerSpeaker, rooms),
+					Double.parseDouble(options.getOrDefault("rate", "500")),
+					Long.parseLong(options.getOrDefault("duration", "60")),
+					Long.parseLong(options.getOrDefault("warmup", "10")),
+					Integer.parseInt(options.getOrDefault("connections", "64")));
+			generator.run();
+			generator.report(System.out, histogram);
+		} finally {
+			if (context != null) {
+				context.close();
+			}
+		}
+	}
+
+
+	/**
+	 * Send the requests of the warmup and of the measure,
+	 * then wait for the ones still in flight.
+	 * @throws InterruptedException if the thread is interrupted
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	void run() throws InterruptedException {
+		System.out.printf(Locale.ROOT, "Load test of %s: %s mix at %.0f requests/s, %d s of warmup and %d s measured, on %s.%n",
+				base, mix, rate, TimeUnit.NANOSECONDS.toSeconds(warmupNanos),
+				TimeUnit.NANOSECONDS.toSeconds(durationNanos), dataset);
+		SplittableRandom random = new SplittableRandom(7);
+		double interval = 1_000_000_000d / rate;
+		long start = System.nanoTime();
+		measureStart = start + warmupNanos;
+		long end = measureStart + durationNanos;
+
+		for (long n = 0; ; n++) {
+			long due = start + (long) (n * interval);
+			if (due >= end)
+				break;
+			long wait = due - System.nanoTime();
+			if (wait > 0)
+				LockSupport.parkNanos(wait);
+			Mix.Operation operation = mix.next(random);
+			HttpRequest request = operation.request(base, dataset, random);
+			// When all the connections are busy the request is late, and its latency grows from the time it was due
+			connections.acquire();
+			long sent = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, error) -> {
+						long now = System.nanoTime();
+						connections.release();
+						if (due >= measureStart) {
+							boolean failed = error != null || response.statusCode() >= 400;
+							stats.get(ALL).record(now - due, failed);
+							stats.get(operation.getName()).record(now - due, failed);
+							serviceTime.recordValue(now - sent);
+						}
+					});
+		}
+
+		if (!connections.tryAcquire(maxConnections, 60, TimeUnit.SECONDS))
+			System.out.println("Some requests have not completed within 60 s.");
+		executor.shutdown();
+	}
+
+
+	/**
+	 * Print the throughput and the latency percentiles of each
+	 * call, and write the whole distribution of all the calls.
+	 * @param out where the report is printed
+	 * @param histogram file of the percentile distribution
+	 * @throws IOException if the distribution can not be written
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	void report(PrintStream out, Path histogram) throws IOException {
+		double seconds = durationNanos / 1e9;
+		Stats all = stats.get(ALL);
+		out.printf(Locale.ROOT, "%nThroughput: %.1f requests/s (target %.0f), %d errors.%n",
+				all.histogram.getTotalCount() / seconds, rate, all.errors.sum());
+		out.printf(Locale.ROOT, "Latency in ms, from the time each request was due (corrected for coordinated omission):%n");
+		out.printf(Locale.ROOT, "%-32s %9s %7s %9s %9s %9s %9s %9s%n",
+				"call", "requests", "errors", "p50", "p90", "p99", "p99.9", "max");
+		stats.forEach((name, s) -> line(out, name, s.histogram, s.errors.sum()));
+		out.printf(Locale.ROOT, "Service time in ms, from the time each request was sent:%n");
+		line(out, ALL, serviceTime, all.errors.sum());
+
+		if (histogram.getParent() != null)
+			Files.createDirectories(histogram.getParent());
+		try (PrintStream file = new PrintStream(Files.newOutputStream(histogram))) {
+			all.histogram.outputPercentileDistribution(file, 1_000_000d);
+		}
+		out.printf("Percentile distribution written to %s.%n", histogram);
+	}
+
+	private static void line(PrintStream out, String name, Histogram h, long errors) {
+		out.printf(Locale.ROOT, "%-32s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, h.getTotalCount(), errors,
+				ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+				ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+	}
+
+	private static double ms(long nanos) {
+		return nanos / 1_000_000d;
+	}
+
+	private static Map<String, String> parse(String[] args) {
+		Map<String, String> options = new LinkedHashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--") || arg.indexOf('=') < 0)
+				throw new IllegalArgumentException("Options must be written as --name=value: " + arg);
+			options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		}
+		return options;
+	}
+
+
+	/**
+	 * Latencies and errors of a call.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private static final class Stats {
+
+		/**
+		 * Latency in nanoseconds; it grows as needed.
+		 **/
+		final Histogram histogram = new ConcurrentHistogram(3);
+
+		/**
+		 * Failed requests and responses with a 4xx or 5xx status.
+		 **/
+		final LongAdder errors = new LongAdder();
+
+		void record(long nanos, boolean failed) {
+			histogram.recordValue(nanos);
+			if (failed)
+				errors.increment();
+		}
+	}
+}
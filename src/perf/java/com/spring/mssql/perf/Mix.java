@@ -0,0 +1,260 @@
+package com.spring.mssql.perf;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+
+/**
+ * Mixes of calls to the SpeakersApi, TalksApi and RoomsApi
+ * endpoints driven by the {@link LoadGenerator LoadGenerator}.
+ * <br>
+ * Each call of a mix has a weight: at each request the
+ * generator picks a call with a probability proportional
+ * to its weight, and builds it with random ids taken
+ * inside the {@link Dataset dataset} seeded by
+ * {@link PerfDataSeeder PerfDataSeeder}.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+public enum Mix {
+
+	/**
+	 * Only reads, as a client browsing the conference:
+	 * single resources, pages, joins and aggregates.
+	 **/
+	READ(reads()),
+
+	/**
+	 * The reads of {@link #READ READ}, plus about one write
+	 * every eight calls: partial updates of talks and speakers,
+	 * new talks and updates of rooms.
+	 **/
+	MIXED(mixed());
+
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	/**
+	 * Calls of the mix.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final List<Operation> operations;
+
+	/**
+	 * Sum of the weights of the calls.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	private final int totalWeight;
+
+	Mix(List<Operation> operations) {
+		this.operations = Collections.unmodifiableList(operations);
+		this.totalWeight = operations.stream().mapToInt(o -> o.weight).sum();
+	}
+
+
+	/**
+	 * Pick a call, with a probability proportional to its weight.
+	 * @param random source of the choice
+	 * @return the chosen call
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public Operation next(SplittableRandom random) {
+		int n = random.nextInt(totalWeight);
+		for (Operation operation : operations) {
+			n -= operation.weight;
+			if (n < 0)
+				return operation;
+		}
+		throw new IllegalStateException("Weights of " + this + " changed.");
+	}
+
+	public List<Operation> getOperations() {
+		return operations;
+	}
+
+
+	private static List<Operation> reads() {
+		return new ArrayList<>(Arrays.asList(
+				new Operation("speakers/{id}", 15,
+						(base, data, r) -> get(base, "/SpeakersApi/speakers/" + data.speaker(r))),
+				new Operation("speakers/{id}/profile", 10,
+						(base, data, r) -> get(base, "/SpeakersApi/speakers/" + data.speaker(r) + "/profile")),
+				// The speaker id is read from the body, as the endpoint expects
+				new Operation("speakerTalksJoinExampleDTOJPQL", 15,
+						(base, data, r) -> request(base, "/SpeakersApi/speakerTalksJoinExampleDTOJPQL")
+								.header("Content-Type", "text/plain")
+								.method("GET", BodyPublishers.ofString(Long.toString(data.speaker(r)))).build()),
+				new Operation("speakersKeyset", 5,
+						(base, data, r) -> get(base, "/SpeakersApi/speakersKeyset?size=50")),
+				new Operation("getTalksCountKeyset", 3,
+						(base, data, r) -> get(base, "/SpeakersApi/getTalksCountKeyset?size=50")),
+				new Operation("talks/{id}", 20,
+						(base, data, r) -> get(base, "/TalksApi/talks/" + data.talk(r))),
+				new Operation("talksKeyset", 8,
+						(base, data, r) -> get(base, "/TalksApi/talksKeyset?size=50")),
+				new Operation("talks?title", 5,
+						(base, data, r) -> get(base, "/TalksApi/talks?title=topic%20" + r.nextInt(1_000))),
+				new Operation("talkFunctionKeyset", 1,
+						(base, data, r) -> get(base, "/TalksApi/talkFunctionKeyset?size=50")),
+				new Operation("rooms", 3,
+						(base, data, r) -> get(base, "/RoomsApi/rooms")),
+				new Operation("room/{id}", 10,
+						(base, data, r) -> get(base, "/RoomsApi/room/" + data.room(r))),
+				new Operation("roomsWithTalksCount", 5,
+						(base, data, r) -> get(base, "/RoomsApi/roomsWithTalksCount"))));
+	}
+
+	private static List<Operation> mixed() {
+		List<Operation> operations = reads();
+		operations.add(new Operation("PATCH talks/{id}", 8,
+				(base, data, r) -> json(base, "/TalksApi/talks/" + data.talk(r), "PATCH",
+						"{\"title\":\"Talk updated about topic " + r.nextInt(1_000) + "\"}")));
+		operations.add(new Operation("PATCH speakers/{id}", 4,
+				(base, data, r) -> json(base, "/SpeakersApi/speakers/" + data.speaker(r), "PATCH",
+						"{\"age\":" + (20 + r.nextInt(50)) + "}")));
+		operations.add(new Operation("talk/{speakerId}/{roomId}", 2,
+				(base, data, r) -> json(base, "/TalksApi/talk/" + data.speaker(r) + "/" + data.room(r), "POST",
+						"{\"title\":\"New talk about topic " + r.nextInt(1_000) + "\","
+								+ "\"description\":\"Created by the load test\",\"published\":false}")));
+		operations.add(new Operation("updateRoom/{id}", 1,
+				(base, data, r) -> json(base, "/RoomsApi/updateRoom/" + data.room(r), "PUT",
+						"{\"roomName\":\"Room " + r.nextInt(1_000) + "\",\"roomCapacity\":" + (50 + r.nextInt(450))
+								+ ",\"roomFloor\":" + r.nextInt(5) + "}")));
+		return operations;
+	}
+
+	private static HttpRequest.Builder request(URI base, String path) {
+		return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT);
+	}
+
+	private static HttpRequest get(URI base, String path) {
+		return request(base, path).GET().build();
+	}
+
+	private static HttpRequest json(URI base, String path, String method, String body) {
+		return request(base, path)
+				.header("Content-Type", "application/json")
+				.method(method, BodyPublishers.ofString(body)).build();
+	}
+
+
+	/**
+	 * Builder of the request of a call.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@FunctionalInterface
+	public interface RequestFactory {
+
+		/**
+		 * @param base URL of the application
+		 * @param dataset ids that can be used
+		 * @param random source of the ids and of the values
+		 * @return the request to send
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		HttpRequest create(URI base, Dataset dataset, SplittableRandom random);
+	}
+
+
+	/**
+	 * A call of a mix.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final class Operation {
+
+		/**
+		 * Name used inside the report.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		final String name;
+
+		/**
+		 * Weight of the call inside the mix.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		final int weight;
+
+		/**
+		 * Builder of the requests of the call.
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		final RequestFactory factory;
+
+		Operation(String name, int weight, RequestFactory factory) {
+			this.name = name;
+			this.weight = weight;
+			this.factory = factory;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public HttpRequest request(URI base, Dataset dataset, SplittableRandom random) {
+			return factory.create(base, dataset, random);
+		}
+	}
+
+
+	/**
+	 * Ids of the rows seeded by {@link PerfDataSeeder PerfDataSeeder},
+	 * from 1 to the number of rows of each table.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static final class Dataset {
+
+		final int talks;
+
+		final int speakers;
+
+		final int rooms;
+
+		/**
+		 * Constructor
+		 * @param talks number of talks seeded
+		 * @param talksPerSpeaker number of talks of each speaker, on average
+		 * @param rooms number of rooms seeded
+		 * @since 1.0.3
+		 * @author fforfabio
+		 **/
+		public Dataset(int talks, int talksPerSpeaker, int rooms) {
+			this.talks = talks;
+			this.speakers = PerfDataSeeder.speakers(talks, talksPerSpeaker);
+			this.rooms = rooms;
+		}
+
+		long talk(SplittableRandom random) {
+			return 1L + random.nextInt(talks);
+		}
+
+		long speaker(SplittableRandom random) {
+			return 1L + random.nextInt(speakers);
+		}
+
+		long room(SplittableRandom random) {
+			return 1L + random.nextInt(rooms);
+		}
+
+		@Override
+		public String toString() {
+			return talks + " talks, " + speakers + " speakers and " + rooms + " rooms";
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package com.spring.mssql.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Fill the embedded database of the <i>perf</i> profile
+ * with a synthetic dataset of rooms, speakers and talks.
+ * <br>
+ * It is a Flyway callback, run right after the migrations:
+ * the rows are already there when the in-memory counters,
+ * title index and join read model are loaded, so the load
+ * test starts on the same state of a running application.
+ * The rows are written with plain JDBC batches, and only
+ * when the talks table is empty.
+ * <br>
+ * The dataset is deterministic: the same sizes always
+ * produce the same rows, with ids from 1.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+@Component
+@Profile("perf")
+public class PerfDataSeeder implements Callback {
+
+	private static final Logger logger = LogManager.getLogger(PerfDataSeeder.class);
+
+	private static final int BATCH_SIZE = 5_000;
+
+	/**
+	 * Number of talks to insert.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Value("${perf.dataset.talks:100000}")
+	int talks;
+
+	/**
+	 * Number of talks held, on average, by each speaker.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Value("${perf.dataset.talks-per-speaker:10}")
+	int talksPerSpeaker;
+
+	/**
+	 * Number of rooms of the synthetic conference.
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	@Value("${perf.dataset.rooms:50}")
+	int rooms;
+
+
+	@Override
+	public boolean supports(Event event, Context context) {
+		return event == Event.AFTER_MIGRATE;
+	}
+
+	@Override
+	public boolean canHandleInTransaction(Event event, Context context) {
+		return true;
+	}
+
+	@Override
+	public void handle(Event event, Context context) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+		Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM talks", Long.class);
+		if (existing != null && existing > 0) {
+			logger.info("The talks table has {} rows, the dataset is not seeded.", existing);
+			return;
+		}
+		long start = System.nanoTime();
+		int speakers = seed(jdbcTemplate, talks, talksPerSpeaker, rooms);
+		logger.info("Seeded {} rooms, {} speakers and {} talks in {} ms.", rooms, speakers, talks,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	@Override
+	public String getCallbackName() {
+		return "perf-dataset";
+	}
+
+
+	/**
+	 * Insert a new dataset into empty tables.
+	 * @param jdbcTemplate used to write the rows
+	 * @param talks number of talks to insert
+	 * @param talksPerSpeaker number of talks of each speaker, on average
+	 * @param rooms number of rooms to insert
+	 * @return the number of speakers inserted
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static int seed(JdbcTemplate jdbcTemplate, int talks, int talksPerSpeaker, int rooms) {
+		int speakers = speakers(talks, talksPerSpeaker);
+		SplittableRandom random = new SplittableRandom(42);
+
+		List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+		for (int i = 1; i <= rooms; i++) {
+			rows.add(new Object[] {(long) i, "Room " + i, 50L + random.nextInt(450), i % 5});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO rooms (id, room_name, room_capacity, room_floor) VALUES (?, ?, ?, ?)", rows);
+		rows.clear();
+
+		for (int i = 1; i <= speakers; i++) {
+			rows.add(new Object[] {(long) i, "First" + (i % 500), "Last" + i, 20 + random.nextInt(50)});
+			if (rows.size() == BATCH_SIZE) {
+				jdbcTemplate.batchUpdate("INSERT INTO speakers (id, first_name, last_name, age) VALUES (?, ?, ?, ?)", rows);
+				rows.clear();
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO speakers (id, first_name, last_name, age) VALUES (?, ?, ?, ?)", rows);
+		rows.clear();
+
+		for (int i = 1; i <= talks; i++) {
+			rows.add(new Object[] {(long) i, "Talk " + i + " about topic " + random.nextInt(1_000),
+					"Description of the talk number " + i, random.nextInt(4) != 0,
+					1L + random.nextInt(rooms), 1L + random.nextInt(speakers)});
+			if (rows.size() == BATCH_SIZE) {
+				jdbcTemplate.batchUpdate("INSERT INTO talks (id, title, description, published, room_id, speaker_id) "
+						+ "VALUES (?, ?, ?, ?, ?, ?)", rows);
+				rows.clear();
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO talks (id, title, description, published, room_id, speaker_id) "
+				+ "VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+		// The ids have been written explicitly, so move the identity columns after them.
+		jdbcTemplate.execute("ALTER TABLE rooms ALTER COLUMN id RESTART WITH " + (rooms + 1));
+		jdbcTemplate.execute("ALTER TABLE speakers ALTER COLUMN id RESTART WITH " + (speakers + 1));
+		jdbcTemplate.execute("ALTER TABLE talks ALTER COLUMN id RESTART WITH " + (talks + 1));
+
+		return speakers;
+	}
+
+	/**
+	 * @param talks number of talks of the dataset
+	 * @param talksPerSpeaker number of talks of each speaker, on average
+	 * @return the number of speakers of the dataset
+	 * @since 1.0.3
+	 * @author fforfabio
+	 **/
+	public static int speakers(int talks, int talksPerSpeaker) {
+		return Math.max(1, talks / Math.max(1, talksPerSpeaker));
+	}
+}
@@ -0,0 +1,7 @@
+-- Stand-in of the dbo.getTalksWithFunction() table-valued function of SQL Server:
+-- H2 has no SQL table functions, so it is a Java method that returns all the talks
+CREATE SCHEMA IF NOT EXISTS dbo;
+
+DROP ALIAS IF EXISTS dbo.getTalksWithFunction;
+
+CREATE ALIAS dbo.getTalksWithFunction FOR 'com.spring.mssql.perf.H2Functions.getTalksWithFunction';
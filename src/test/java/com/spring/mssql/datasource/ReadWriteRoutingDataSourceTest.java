@@ -0,0 +1,159 @@
+package com.spring.mssql.datasource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+// Two embedded databases: the one of the test profile is the primary, "replica" is the read replica
+@SpringBootTest(properties = {
+		"datasource.replicas[0].jdbc-url=" + ReadWriteRoutingDataSourceTest.REPLICA_URL,
+		"datasource.routing.sticky-ms=" + ReadWriteRoutingDataSourceTest.STICKY_MS})
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class ReadWriteRoutingDataSourceTest {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MSSQLServer;DB_CLOSE_DELAY=-1;"
+			+ "INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'";
+
+	static final long STICKY_MS = 300;
+
+	SpeakerRepository speakerRepository;
+
+	JdbcTemplate primary;
+
+	JdbcTemplate replica;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public ReadWriteRoutingDataSourceTest(SpeakerRepository speakerRepository, JdbcTemplate jdbcTemplate) {
+		this.speakerRepository = speakerRepository;
+		this.primary = jdbcTemplate;
+		this.replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+	}
+
+	@BeforeEach
+	public void replicaDiffersFromPrimary() throws InterruptedException {
+		replica.update("DELETE FROM speakers");
+		for (int i = 0; i < 3; i++) {
+			replica.update("INSERT INTO speakers (first_name, last_name, age) VALUES ('Replica', 'Speaker', 30)");
+		}
+		assertNotEquals(count(primary), count(replica));
+		// Let the writes of the previous tests leave the primary
+		Thread.sleep(STICKY_MS + 100);
+	}
+
+	@Test
+	public void readOnlyTransactionsGoToTheReplica() {
+		assertEquals(count(replica), speakerRepository.count(), "The read-only count must be read on the replica.");
+	}
+
+	@Test
+	public void writesGoToThePrimaryAndTheNextReadsStickToIt() throws InterruptedException {
+		long replicaSpeakers = count(replica);
+		long primarySpeakers = count(primary);
+
+		speakerRepository.save(new Speaker("fforfabio", "Routing", 27));
+
+		assertEquals(primarySpeakers + 1, count(primary), "The speaker must be written on the primary.");
+		assertEquals(replicaSpeakers, count(replica), "The replica must not be written.");
+		assertEquals(primarySpeakers + 1, speakerRepository.count(), "Right after a write the reads must see it.");
+
+		Thread.sleep(STICKY_MS + 100);
+		assertEquals(replicaSpeakers, speakerRepository.count(), "After the sticky time the reads must go back to the replica.");
+	}
+
+	@Test
+	public void roundRobinSkipsTheReplicasThatAreDown() throws SQLException {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(embedded("rw-primary"),
+				Arrays.asList(embedded("rw-a"), missing("rw-down"), embedded("rw-b")),
+				ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, STICKY_MS);
+
+		List<String> targets = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			targets.add(readOnly(routing));
+		}
+
+		assertEquals(Arrays.asList("rw-a", "rw-primary", "rw-b", "rw-a", "rw-b"), targets,
+				"The replica that is down must be skipped after its first failure.");
+		assertFalse(routing.getReplicaHealth().get("replica-1"));
+		assertEquals("rw-primary", target(routing), "The work outside a read-only transaction must go to the primary.");
+	}
+
+	@Test
+	public void leastConnectionsPicksTheIdleReplica() throws SQLException {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(embedded("lc-primary"),
+				Arrays.asList(embedded("lc-a"), embedded("lc-b")),
+				ReadWriteRoutingDataSource.Balancing.LEAST_CONNECTIONS, STICKY_MS);
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try (Connection first = routing.getConnection()) {
+			assertTrue(first.getMetaData().getURL().contains("lc-a"));
+			try (Connection second = routing.getConnection()) {
+				assertTrue(second.getMetaData().getURL().contains("lc-b"), "The busy replica must be avoided.");
+			}
+		} finally {
+			TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		}
+		assertEquals("lc-a", readOnly(routing), "The closed connections must not be counted.");
+	}
+
+	@Test
+	public void healthCheckBringsBackTheReplica() throws SQLException {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(embedded("hc-primary"),
+				Arrays.asList(missing("hc-late")), ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, STICKY_MS);
+		assertEquals("hc-primary", readOnly(routing));
+
+		try (Connection keepAlive = DriverManager.getConnection("jdbc:h2:mem:hc-late;DB_CLOSE_DELAY=-1", "sa", "")) {
+			routing.checkReplicas();
+			assertTrue(routing.getReplicaHealth().get("replica-0"));
+			assertEquals("hc-late", readOnly(routing));
+		}
+	}
+
+	private static long count(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM speakers", Long.class);
+	}
+
+	private static DataSource embedded(String name) {
+		return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+	}
+
+	// A replica that refuses the connections until its database is created
+	private static DataSource missing(String name) {
+		return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";IFEXISTS=TRUE", "sa", "");
+	}
+
+	// Database of the connection given inside a read-only transaction
+	private static String readOnly(DataSource dataSource) throws SQLException {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try {
+			return target(dataSource);
+		} finally {
+			TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		}
+	}
+
+	private static String target(DataSource dataSource) throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			String url = connection.getMetaData().getURL();
+			return url.substring("jdbc:h2:mem:".length()).split(";")[0];
+		}
+	}
+}
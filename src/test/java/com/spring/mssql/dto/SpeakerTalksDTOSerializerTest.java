@@ -0,0 +1,59 @@
+package com.spring.mssql.dto;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class SpeakerTalksDTOSerializerTest {
+
+	ObjectMapper objectMapper;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public SpeakerTalksDTOSerializerTest(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	@Test
+	public void jsonIsTheSameWrittenByTheAnnotations() throws Exception {
+		List<SpeakerTalksDTO> rows = Arrays.asList(
+				new SpeakerTalksDTO("Rossi", "Title", "Description", 1, 2),
+				new SpeakerTalksDTO("Rossi", "Title", null, 1, 2),
+				new SpeakerTalksDTO("Rossi", "Title", "", 1, 2),
+				new SpeakerTalksDTO("", "", "", 0, 0),
+				new SpeakerTalksDTO(null, null, null, 0, 0),
+				new SpeakerTalksDTO("d'Àlba \"quoted\"", "Tab\tand\nnew line", " ", 3, 4),
+				new SpeakerTalksDTO("Rossi", 1, 5, 2),
+				new SpeakerTalksDTO("Rossi", 1, 0, 0),
+				new SpeakerTalksDTO("", 0, 0, 0),
+				new SpeakerTalksDTO(null, 0, 0, 0));
+		ObjectMapper annotations = objectMapper.copy().addMixIn(SpeakerTalksDTO.class, NonDefaultBean.class);
+
+		for (SpeakerTalksDTO row : rows) {
+			assertEquals(annotations.writeValueAsString(row), objectMapper.writeValueAsString(row));
+		}
+		assertEquals(annotations.writeValueAsString(rows), objectMapper.writeValueAsString(rows));
+	}
+
+	/**
+	 * Annotations of SpeakerTalksDTO before its serializer.
+	 **/
+	@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+	@JsonSerialize(using = JsonSerializer.None.class)
+	abstract static class NonDefaultBean {
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.spring.mssql.metrics;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class RepositoryRowsMetricsTest {
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	MeterRegistry meterRegistry;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public RepositoryRowsMetricsTest(SpeakerRepository speakerRepository, RoomRepository roomRepository,
+			MeterRegistry meterRegistry) {
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Test
+	public void inheritedMethodsAreRecordedForEachRepository() {
+		speakerRepository.save(new Speaker("fforfabio", "RowsMetrics", 27));
+		roomRepository.save(new Room("Room M", 100, 1));
+		long speakerCalls = count("SpeakerRepository");
+		double speakerRows = total("SpeakerRepository");
+		long roomCalls = count("RoomRepository");
+		double roomRows = total("RoomRepository");
+
+		int speakers = speakerRepository.findAll().size();
+		int rooms = roomRepository.findAll().size();
+		roomRepository.findAll();
+
+		assertEquals(speakerCalls + 1, count("SpeakerRepository"), "findAll of the speakers must be recorded once.");
+		assertEquals(speakerRows + speakers, total("SpeakerRepository"), "The rows must be the speakers.");
+		assertEquals(roomCalls + 2, count("RoomRepository"), "findAll of the rooms must be recorded with its own tag.");
+		assertEquals(roomRows + 2 * rooms, total("RoomRepository"), "The rows must be the rooms.");
+	}
+
+	private long count(String repository) {
+		DistributionSummary summary = summary(repository);
+		return summary == null ? 0 : summary.count();
+	}
+
+	private double total(String repository) {
+		DistributionSummary summary = summary(repository);
+		return summary == null ? 0 : summary.totalAmount();
+	}
+
+	private DistributionSummary summary(String repository) {
+		return meterRegistry.find(RepositoryRowsMetrics.METRIC_NAME)
+				.tags("repository", repository, "method", "findAll").summary();
+	}
+
+}
@@ -0,0 +1,135 @@
+package com.spring.mssql.pagination;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class KeysetPaginationTest {
+
+	static final String LAST_NAME = "KeysetTie";
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	MockMvc mockMvc;
+
+	ObjectMapper objectMapper;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public KeysetPaginationTest(SpeakerRepository speakerRepository, RoomRepository roomRepository,
+			JdbcTemplate jdbcTemplate, MockMvc mockMvc, ObjectMapper objectMapper) {
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.mockMvc = mockMvc;
+		this.objectMapper = objectMapper;
+	}
+
+	@Test
+	public void cursorIsDecodedAsItWasEncoded() {
+		KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor("Rossi: d'Àlba", 42).encode());
+		assertEquals("Rossi: d'Àlba", cursor.getKey(), "The separator inside the key must be kept.");
+		assertEquals(42, cursor.getId());
+		assertSame(KeysetCursor.START, KeysetCursor.decode(null));
+		assertSame(KeysetCursor.START, KeysetCursor.decode(""));
+	}
+
+	@Test
+	public void speakersWithTheSameLastNameAreReadOnce() throws Exception {
+		List<Long> expected = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			expected.add(speakerRepository.save(new Speaker("fforfabio", LAST_NAME, 30)).getId());
+		}
+
+		// Start right before the equal last names, then follow the cursors two speakers at a time
+		List<Long> read = new ArrayList<>();
+		String cursor = new KeysetCursor(LAST_NAME, 0).encode();
+		while (read.size() < expected.size() && cursor != null) {
+			JsonNode slice = slice("/SpeakersApi/speakersKeysetSorting?size=2&cursor=" + cursor);
+			for (JsonNode speaker : slice.get("content")) {
+				if (LAST_NAME.equals(speaker.get("lastName").asText()))
+					read.add(speaker.get("id").asLong());
+			}
+			cursor = slice.has("nextCursor") ? slice.get("nextCursor").asText() : null;
+		}
+		assertEquals(expected, read, "Each speaker must be read once, sorted by id.");
+	}
+
+	@Test
+	public void namedNativeQueriesAreReadBySlices() throws Exception {
+		long roomId = roomRepository.save(new Room("Keyset room", 100, 1)).getId();
+		List<Long> speakers = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			long speakerId = speakerRepository.save(new Speaker("fforfabio", "KeysetNative", 30)).getId();
+			jdbcTemplate.update("INSERT INTO talks (title, published, room_id, speaker_id) VALUES ('KeysetNative talk', 1, ?, ?)",
+					roomId, speakerId);
+			speakers.add(speakerId);
+		}
+
+		// The counters of the three speakers, two at a time
+		List<Long> read = new ArrayList<>();
+		String cursor = new KeysetCursor(speakers.get(0) - 1).encode();
+		JsonNode first = slice("/SpeakersApi/getTalksCountKeyset?titleLike=KeysetNative&size=2&cursor=" + cursor);
+		first.get("content").forEach(row -> read.add(row.get("speakerId").asLong()));
+		assertEquals(2, read.size());
+		assertTrue(first.get("hasNext").asBoolean());
+		JsonNode second = slice("/SpeakersApi/getTalksCountKeyset?titleLike=KeysetNative&size=2&cursor="
+				+ first.get("nextCursor").asText());
+		second.get("content").forEach(row -> read.add(row.get("speakerId").asLong()));
+		assertFalse(second.get("hasNext").asBoolean());
+		assertEquals(speakers, read, "Each speaker must be read once, sorted by id.");
+
+		long firstTalk = jdbcTemplate.queryForObject("SELECT MIN(id) FROM talks WHERE speaker_id = ?", Long.class, speakers.get(0));
+		JsonNode join = slice("/SpeakersApi/getAllJoinDTONativeQueryKeyset?size=2&cursor=" + new KeysetCursor(firstTalk - 1).encode());
+		assertEquals(2, join.get("content").size());
+		assertEquals(firstTalk, join.get("content").get(0).get("talkId").asLong());
+		assertTrue(join.get("hasNext").asBoolean());
+	}
+
+	@Test
+	public void invalidCursorIsRejected() throws Exception {
+		String noSeparator = Base64.getUrlEncoder().encodeToString("42".getBytes(StandardCharsets.UTF_8));
+		String notANumber = Base64.getUrlEncoder().encodeToString("id:key".getBytes(StandardCharsets.UTF_8));
+		for (String cursor : new String[] {"not base64!", noSeparator, notANumber}) {
+			mockMvc.perform(get("/SpeakersApi/speakersKeyset").param("cursor", cursor)).andExpect(status().isBadRequest());
+			mockMvc.perform(get("/TalksApi/talksKeyset").param("cursor", cursor)).andExpect(status().isBadRequest());
+			mockMvc.perform(get("/RoomsApi/roomsKeyset").param("cursor", cursor)).andExpect(status().isBadRequest());
+		}
+		mockMvc.perform(get("/RoomsApi/roomsKeyset")).andExpect(status().isOk());
+	}
+
+	private JsonNode slice(String url) throws Exception {
+		String body = mockMvc.perform(get(url)).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		return objectMapper.readTree(body);
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.spring.mssql.repositories;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+
+
+// The SQL written by Hibernate for each query is recorded and explained on the embedded database
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.spring.mssql.repositories.QueryIndexTest$RecordingStatementInspector")
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class QueryIndexTest {
+
+	static final int SPEAKERS = 50;
+
+	static final int TALKS = 1000;
+
+	TalkRepository talkRepository;
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	long speakerId;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public QueryIndexTest(TalkRepository talkRepository, SpeakerRepository speakerRepository,
+			RoomRepository roomRepository, JdbcTemplate jdbcTemplate) {
+		this.talkRepository = talkRepository;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	// Enough rows, with statistics, that a scan costs more than the index
+	@BeforeEach
+	public void manyTalks() {
+		jdbcTemplate.update("INSERT INTO rooms (room_name, room_capacity, room_floor) VALUES ('Room Index', 100, 1)");
+		long roomId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM rooms", Long.class);
+		List<Object[]> speakers = new ArrayList<>(SPEAKERS);
+		for (int i = 0; i < SPEAKERS; i++) {
+			speakers.add(new Object[] {"First " + i, "Last " + i, 30});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO speakers (first_name, last_name, age) VALUES (?, ?, ?)", speakers);
+		speakerId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM speakers", Long.class);
+		List<Object[]> talks = new ArrayList<>(TALKS);
+		for (int i = 0; i < TALKS; i++) {
+			talks.add(new Object[] {"Talk " + i, i % 10 == 0, roomId, speakerId - i % SPEAKERS});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO talks (title, published, room_id, speaker_id) VALUES (?, ?, ?, ?)", talks);
+		jdbcTemplate.execute("ANALYZE");
+		RecordingStatementInspector.STATEMENTS.clear();
+	}
+
+	@Test
+	public void publishedTalksUseTheIndexOnPublished() {
+		talkRepository.findByPublished(true);
+		assertIndex("IX_TALKS_PUBLISHED", true);
+
+		talkRepository.findByPublishedAndIdGreaterThanOrderByIdAsc(true, 0, PageRequest.of(0, 10));
+		assertIndex("IX_TALKS_PUBLISHED", true, 0L);
+	}
+
+	@Test
+	public void talksOfASpeakerUseTheIndexOnSpeakerId() {
+		speakerRepository.getSpeakerTalksWithJoinDTOJPQL(speakerId);
+		assertIndex("IX_TALKS_SPEAKER_ID", speakerId);
+
+		speakerRepository.getSpeakerTalksWithJoinDTONativeQuery(speakerId);
+		assertIndex("IX_TALKS_SPEAKER_ID", speakerId);
+
+		talkRepository.countTalksOfSpeaker(speakerId);
+		assertIndex("IX_TALKS_SPEAKER_ID", speakerId);
+
+		roomRepository.findRoomsOfSpeaker(speakerId);
+		assertIndex("IX_TALKS_SPEAKER_ID", speakerId);
+	}
+
+	@Test
+	public void talksCountUsesTheIndexOnTitle() {
+		speakerRepository.getTalksCount("Talk 99");
+		assertIndex("IX_TALKS_TITLE", "Talk 99");
+	}
+
+	@Test
+	public void speakersByFirstNameUseTheIndexOnFirstName() {
+		speakerRepository.getSpeakersByFirstName("First 1");
+		assertIndex("IX_SPEAKERS_FIRST_NAME", "First 1");
+
+		speakerRepository.getSpeakersByFirstNameAfter("First 1", 0, PageRequest.of(0, 10));
+		assertIndex("IX_SPEAKERS_FIRST_NAME", "First 1", 0L);
+	}
+
+	// Explains the last statement recorded; the parameters not given are the size of the page
+	private void assertIndex(String index, Object... parameters) {
+		List<String> statements = RecordingStatementInspector.STATEMENTS;
+		assertFalse(statements.isEmpty(), "The query must run a statement.");
+		String sql = statements.get(statements.size() - 1);
+		statements.clear();
+		Object[] values = Arrays.copyOf(parameters, sql.length() - sql.replace("?", "").length());
+		for (int i = parameters.length; i < values.length; i++) {
+			values[i] = 10;
+		}
+		String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, values);
+		// A seek shows the condition on the index, a scan only its name
+		assertTrue(plan.contains("PUBLIC." + index + ":"), "The plan must seek " + index + ":\n" + plan);
+	}
+
+
+	public static class RecordingStatementInspector implements StatementInspector {
+
+		static final List<String> STATEMENTS = new ArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+
+}
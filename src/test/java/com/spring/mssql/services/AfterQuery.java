@@ -0,0 +1,33 @@
+package com.spring.mssql.services;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+
+/**
+ * Wrap a repository so that an action runs each time one of
+ * its methods returns: the rows have been read, but the
+ * in-memory structure that asked for them is not published
+ * yet. It is used to make a write while a rebuild is running.
+ * @since 1.0.3
+ * @author fforfabio
+ **/
+final class AfterQuery {
+
+	private AfterQuery() {
+	}
+
+	static <T> T wrap(Class<T> type, T repository, String method, Runnable action) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, m, args) -> {
+			Object result;
+			try {
+				result = m.invoke(repository, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (m.getName().equals(method))
+				action.run();
+			return result;
+		}));
+	}
+}
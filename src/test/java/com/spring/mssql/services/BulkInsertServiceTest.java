@@ -0,0 +1,134 @@
+package com.spring.mssql.services;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.spring.mssql.dto.BulkItemResultDTO;
+import com.spring.mssql.dto.BulkTalkDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class BulkInsertServiceTest {
+
+	BulkInsertService bulkInsertService;
+
+	TalkCounterService talkCounterService;
+
+	TalkTitleIndexService talkTitleIndexService;
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	MockMvc mockMvc;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public BulkInsertServiceTest(BulkInsertService bulkInsertService, TalkCounterService talkCounterService,
+			TalkTitleIndexService talkTitleIndexService, SpeakerRepository speakerRepository,
+			RoomRepository roomRepository, JdbcTemplate jdbcTemplate, MockMvc mockMvc) {
+		this.bulkInsertService = bulkInsertService;
+		this.talkCounterService = talkCounterService;
+		this.talkTitleIndexService = talkTitleIndexService;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.mockMvc = mockMvc;
+	}
+
+	@Test
+	public void eachTalkIsInsertedWithItsIdOrRejected() {
+		long speakerId = speakerRepository.save(new Speaker("fforfabio", "BulkInsert", 27)).getId();
+		long roomId = roomRepository.save(new Room("Bulk room", 100, 1)).getId();
+		// More talks than a JDBC batch, with the invalid ones in between
+		List<BulkTalkDTO> talks = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			talks.add(new BulkTalkDTO(speakerId, roomId, "Bulk talk " + i, "Description " + i, i % 2 == 0));
+		}
+		talks.set(3, new BulkTalkDTO(speakerId, roomId, null, "No title", false));
+		talks.set(60, new BulkTalkDTO(-1L, roomId, "Unknown speaker", null, false));
+		talks.set(61, new BulkTalkDTO(speakerId, -1L, "Unknown room", null, false));
+		talks.set(100, null);
+
+		List<BulkItemResultDTO> results = bulkInsertService.createTalks(talks);
+
+		assertEquals(talks.size(), results.size());
+		for (int i = 0; i < results.size(); i++) {
+			BulkItemResultDTO result = results.get(i);
+			assertEquals(i, result.getIndex(), "The results must keep the order of the items.");
+			if (Arrays.asList(3, 60, 61, 100).contains(i)) {
+				assertEquals(BulkItemResultDTO.Status.REJECTED, result.getStatus());
+				assertNull(result.getId());
+				assertNotNull(result.getError());
+			} else {
+				assertEquals(BulkItemResultDTO.Status.CREATED, result.getStatus());
+				assertEquals(talks.get(i).getTitle(),
+						jdbcTemplate.queryForObject("SELECT title FROM talks WHERE id = ?", String.class, result.getId()),
+						"Each id must be the one of its talk.");
+			}
+		}
+		assertEquals("Not found Speaker with id = -1", results.get(60).getError());
+		assertEquals("Not found Room with id = -1", results.get(61).getError());
+
+		// The rows do not pass through Hibernate, the in-memory structures must be updated anyway
+		assertEquals(116, talkCounterService.getTalksCount(speakerId).getNumTalks());
+		assertEquals(58, talkCounterService.getTalksCount(speakerId).getPublishedTalks());
+		assertEquals(1, talkTitleIndexService.findByTitleContaining("Bulk talk 119").size());
+	}
+
+	@Test
+	public void statusIsCreatedOnlyWhenAllTheItemsAreCreated() throws Exception {
+		mockMvc.perform(post("/SpeakersApi/createSpeakers").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"firstName\":\"fforfabio\",\"lastName\":\"Bulk 1\",\"age\":30},"
+						+ "{\"firstName\":\"fforfabio\",\"lastName\":\"Bulk 2\",\"age\":31}]"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$[0].status").value("CREATED"))
+				.andExpect(jsonPath("$[1].status").value("CREATED"))
+				.andExpect(jsonPath("$[1].id").isNumber());
+
+		mockMvc.perform(post("/SpeakersApi/createSpeakers").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"firstName\":\"fforfabio\",\"lastName\":\"Bulk 3\",\"age\":30},{\"firstName\":\"fforfabio\"}]"))
+				.andExpect(status().isMultiStatus())
+				.andExpect(jsonPath("$[0].status").value("CREATED"))
+				.andExpect(jsonPath("$[1].status").value("REJECTED"))
+				.andExpect(jsonPath("$[1].id").doesNotExist());
+
+		mockMvc.perform(post("/RoomsApi/createRooms").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"roomName\":\"Bulk room\",\"roomCapacity\":10,\"roomFloor\":0}]"))
+				.andExpect(status().isCreated());
+
+		mockMvc.perform(post("/RoomsApi/createRooms").contentType(MediaType.APPLICATION_JSON)
+				.content("[null,{\"roomName\":\"Bulk room\",\"roomCapacity\":10,\"roomFloor\":0}]"))
+				.andExpect(status().isMultiStatus())
+				.andExpect(jsonPath("$[0].status").value("REJECTED"))
+				.andExpect(jsonPath("$[1].status").value("CREATED"));
+
+		mockMvc.perform(post("/TalksApi/createTalks").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"speakerId\":-1,\"roomId\":-1,\"title\":\"Bulk talk\"}]"))
+				.andExpect(status().isMultiStatus())
+				.andExpect(jsonPath("$[0].status").value("REJECTED"));
+	}
+
+}
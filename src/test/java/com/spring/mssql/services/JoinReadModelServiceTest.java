@@ -0,0 +1,236 @@
+package com.spring.mssql.services;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.mssql.dto.SpeakerTalksColumnsDTO;
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class JoinReadModelServiceTest {
+
+	JoinReadModelService joinReadModelService;
+
+	TalkService talkService;
+
+	SpeakerService speakerService;
+
+	PartialUpdateService partialUpdateService;
+
+	TalkRepository talkRepository;
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	ObjectMapper objectMapper;
+
+	Statistics statistics;
+
+	Speaker speaker;
+
+	Room room;
+
+	Talk talk;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public JoinReadModelServiceTest(JoinReadModelService joinReadModelService, TalkService talkService,
+			SpeakerService speakerService, PartialUpdateService partialUpdateService, TalkRepository talkRepository,
+			SpeakerRepository speakerRepository, RoomRepository roomRepository, JdbcTemplate jdbcTemplate,
+			ObjectMapper objectMapper, EntityManagerFactory entityManagerFactory) {
+		this.joinReadModelService = joinReadModelService;
+		this.talkService = talkService;
+		this.speakerService = speakerService;
+		this.partialUpdateService = partialUpdateService;
+		this.talkRepository = talkRepository;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.objectMapper = objectMapper;
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	// The other tests write the tables with JDBC too, so the model starts from the database
+	@BeforeEach
+	public void talkOfASpeaker() {
+		speaker = speakerRepository.save(new Speaker("fforfabio", "ReadModel", 27));
+		room = roomRepository.save(new Room("Room RM", 100, 1));
+		talk = talkService.createTalk(speaker.getId(), room.getId(), new Talk("Talk", "Description", false, null));
+		joinReadModelService.rebuild();
+		statistics.clear();
+	}
+
+	@Test
+	public void joinsAreAnsweredWithoutQueries() {
+		List<SpeakerTalksDTO> talks = joinReadModelService.getSpeakerTalks(speaker.getId());
+		List<SpeakerTalksDTO> all = joinReadModelService.getAllJoin();
+
+		assertEquals(0, statistics.getPrepareStatementCount(), "No query is expected.");
+		assertEquals(talkIds(speakerRepository.getSpeakerTalksWithJoinDTOJPQL(speaker.getId())), talkIds(talks));
+		assertEquals("ReadModel", talks.get(0).getSpeakerLastName());
+		assertEquals(speakerRepository.getAllJoinDTONativeQuery().size(), all.size(),
+				"All the join rows must be returned.");
+	}
+
+	@Test
+	public void entityWritesAreApplied() {
+		Talk second = talkService.createTalk(speaker.getId(), room.getId(), new Talk("Second", null, true, null));
+		talkService.updateTalk(talk.getId(), Optional.empty(), Optional.empty(), new Talk("Renamed", "New", false, null));
+		// As the update endpoint, the speaker is read again so its talks are not merged
+		Speaker renamed = speakerRepository.findById(speaker.getId()).get();
+		renamed.setLastName("Renamed speaker");
+		speakerRepository.save(renamed);
+
+		List<SpeakerTalksDTO> talks = joinReadModelService.getSpeakerTalks(speaker.getId());
+		assertEquals(Arrays.asList(talk.getId(), second.getId()), talkIds(talks));
+		assertEquals("Renamed", talks.get(0).getTalkTitle());
+		assertEquals("Renamed speaker", talks.get(1).getSpeakerLastName());
+
+		talkRepository.deleteById(second.getId());
+		assertEquals(1, joinReadModelService.getSpeakerTalks(speaker.getId()).size(), "The deleted talk must be removed.");
+		assertTrue(joinReadModelService.check().isConsistent());
+	}
+
+	@Test
+	public void bulkWritesAreApplied() {
+		Speaker other = speakerRepository.save(new Speaker("fforfabio", "Other", 30));
+		partialUpdateService.patchTalk(talk.getId(), Collections.singletonMap("description", "Patched"), OptionalLong.empty());
+		partialUpdateService.patchSpeaker(speaker.getId(), Collections.singletonMap("lastName", "Patched"), OptionalLong.empty());
+		assertEquals("Patched", joinReadModelService.getSpeakerTalks(speaker.getId()).get(0).getTalkDescription());
+		assertEquals("Patched", joinReadModelService.getSpeakerTalks(speaker.getId()).get(0).getSpeakerLastName());
+
+		talkService.updateTalk(talk.getId(), Optional.empty(), Optional.of(other.getId()), new Talk("Moved", null, false, null));
+		assertTrue(joinReadModelService.getSpeakerTalks(speaker.getId()).isEmpty(), "The talk must leave the old speaker.");
+		assertEquals("Moved", joinReadModelService.getSpeakerTalks(other.getId()).get(0).getTalkTitle());
+
+		speakerService.deleteSpeaker(other.getId(), speaker.getId());
+		assertEquals(Collections.singletonList(talk.getId()), talkIds(joinReadModelService.getSpeakerTalks(speaker.getId())),
+				"The talks of the deleted speaker must be moved.");
+		assertTrue(joinReadModelService.check().isConsistent());
+	}
+
+	@Test
+	public void checkFindsTheChangesMadeOutsideTheApplication() {
+		jdbcTemplate.update("UPDATE talks SET title = 'Outside' WHERE id = ?", talk.getId());
+		jdbcTemplate.update("INSERT INTO talks (title, published, room_id, speaker_id) VALUES ('Outside', 0, ?, ?)",
+				room.getId(), speaker.getId());
+
+		assertEquals(1, joinReadModelService.check().getStaleTalks());
+		assertEquals(1, joinReadModelService.check().getMissingTalks());
+
+		joinReadModelService.rebuild();
+		assertTrue(joinReadModelService.check().isConsistent(), "The rebuild must fix the model.");
+	}
+
+	@Test
+	public void writesDuringARebuildAreKept() {
+		JoinReadModelService[] service = new JoinReadModelService[1];
+		List<Long> inserted = new ArrayList<>();
+		// Once the talks have been read a talk is inserted, another one and the speaker renamed, as the listeners do
+		TalkRepository repository = AfterQuery.wrap(TalkRepository.class, talkRepository, "findAllJoinRows", () -> {
+			long id = insertTalk("During the rebuild");
+			inserted.add(id);
+			service[0].talkSaved(id, speaker.getId(), room.getId(), "During the rebuild", null);
+			jdbcTemplate.update("UPDATE talks SET title = 'Renamed during the rebuild' WHERE id = ?", talk.getId());
+			service[0].talkChanged(talk.getId(), Collections.singletonMap("title", "Renamed during the rebuild"));
+			jdbcTemplate.update("UPDATE speakers SET last_name = 'Renamed' WHERE id = ?", speaker.getId());
+			service[0].speakerSaved(speaker.getId(), "Renamed");
+		});
+		service[0] = new JoinReadModelService(repository, speakerRepository);
+
+		// The first build has no model to change, the second one has
+		for (int i = 1; i <= 2; i++) {
+			service[0].rebuild();
+			List<SpeakerTalksDTO> talks = service[0].getSpeakerTalks(speaker.getId());
+			List<Long> expected = new ArrayList<>(inserted);
+			expected.add(0, talk.getId());
+			assertEquals(expected, talkIds(talks), "The inserted talks must be found.");
+			assertEquals("Renamed during the rebuild", talks.get(0).getTalkTitle(), "The renamed talk must have its new title.");
+			assertEquals("Renamed", talks.get(0).getSpeakerLastName(), "The renamed speaker must have its new last name.");
+		}
+	}
+
+	@Test
+	public void columnsHaveTheRowsOfTheJoin() throws Exception {
+		talkService.createTalk(speaker.getId(), room.getId(), new Talk("Second", null, true, null));
+		List<SpeakerTalksDTO> rows = joinReadModelService.getSpeakerTalks(speaker.getId());
+		statistics.clear();
+
+		SpeakerTalksColumnsDTO model = joinReadModelService.getSpeakerTalksColumns(speaker.getId());
+		assertEquals(0, statistics.getPrepareStatementCount(), "No query is expected.");
+		assertSameRows(rows, model);
+		assertSameRows(rows, speakerRepository.getSpeakerTalksColumns(speaker.getId()));
+		assertEquals(joinReadModelService.getAllJoin().size(), joinReadModelService.getAllJoinColumns().getSize());
+		assertEquals(speakerRepository.getAllJoinDTONativeQuery().size(),
+				speakerRepository.getAllJoinColumns().getSize());
+
+		JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(model));
+		assertEquals(2, json.get("size").asInt());
+		assertEquals(2, json.get("talkId").size(), "Only the used part of the arrays must be written.");
+		assertEquals(1, json.get("speakerLastName").get("values").size(), "The last name must be written once.");
+		assertEquals(-1, json.get("talkDescription").get("codes").get(1).asInt(), "A null must be written as -1.");
+	}
+
+	private long insertTalk(String title) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(
+					"INSERT INTO talks (title, published, room_id, speaker_id) VALUES (?, ?, ?, ?)", new String[] {"id"});
+			statement.setString(1, title);
+			statement.setBoolean(2, false);
+			statement.setLong(3, room.getId());
+			statement.setLong(4, speaker.getId());
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private static void assertSameRows(List<SpeakerTalksDTO> rows, SpeakerTalksColumnsDTO columns) {
+		assertEquals(rows.size(), columns.getSize());
+		for (int i = 0; i < rows.size(); i++) {
+			SpeakerTalksDTO row = rows.get(i);
+			assertEquals(row.getSpeakerId(), columns.getSpeakerId()[i]);
+			assertEquals(row.getSpeakerLastName(), columns.getSpeakerLastName().get(i));
+			assertEquals(row.getTalkId(), columns.getTalkId()[i]);
+			assertEquals(row.getTalkTitle(), columns.getTalkTitle().get(i));
+			assertEquals(row.getTalkDescription(), columns.getTalkDescription().get(i));
+		}
+	}
+
+	private static List<Long> talkIds(List<SpeakerTalksDTO> rows) {
+		return rows.stream().map(SpeakerTalksDTO::getTalkId).sorted().collect(Collectors.toList());
+	}
+
+}
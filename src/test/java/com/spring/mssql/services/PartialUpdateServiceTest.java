@@ -0,0 +1,133 @@
+package com.spring.mssql.services;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class PartialUpdateServiceTest {
+
+	PartialUpdateService partialUpdateService;
+
+	TalkService talkService;
+
+	TalkCounterService talkCounterService;
+
+	TalkTitleIndexService talkTitleIndexService;
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	Statistics statistics;
+
+	Speaker speaker;
+
+	Talk talk;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public PartialUpdateServiceTest(PartialUpdateService partialUpdateService, TalkService talkService,
+			TalkCounterService talkCounterService, TalkTitleIndexService talkTitleIndexService,
+			SpeakerRepository speakerRepository, RoomRepository roomRepository, JdbcTemplate jdbcTemplate,
+			EntityManagerFactory entityManagerFactory) {
+		this.partialUpdateService = partialUpdateService;
+		this.talkService = talkService;
+		this.talkCounterService = talkCounterService;
+		this.talkTitleIndexService = talkTitleIndexService;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@BeforeEach
+	public void talkOfASpeaker() {
+		speaker = speakerRepository.save(new Speaker("fforfabio", "PartialUpdate", 27));
+		Room room = roomRepository.save(new Room("Room P", 100, 1));
+		talk = talkService.createTalk(speaker.getId(), room.getId(), new Talk("Talk", "Description", false, null));
+		talkCounterService.reconcile();
+		talkTitleIndexService.rebuild();
+		statistics.clear();
+	}
+
+	@Test
+	public void patchIsASingleUpdateOfTheChangedColumns() {
+		OptionalLong version = partialUpdateService.patchTalk(talk.getId(),
+				Collections.singletonMap("description", "New description"), OptionalLong.of(0));
+
+		assertEquals(1, statistics.getPrepareStatementCount(), "Only the UPDATE is expected.");
+		assertEquals(0, statistics.getEntityLoadCount(), "The talk must not be loaded.");
+		assertEquals(OptionalLong.of(1), version, "The version must be incremented.");
+		assertEquals("New description", column("description"));
+		assertEquals("Talk", column("title"), "The other columns must not change.");
+		assertEquals(1L, ((Number) column("version")).longValue());
+	}
+
+	@Test
+	public void patchWithAnotherVersionFails() {
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> partialUpdateService.patchTalk(talk.getId(),
+				Collections.singletonMap("title", "Stale"), OptionalLong.of(5)));
+		assertEquals("Talk", column("title"), "The talk must not change.");
+	}
+
+	@Test
+	public void patchOfAMissingTalkFails() {
+		assertThrows(ResourceNotFoundException.class, () -> partialUpdateService.patchTalk(-1,
+				Collections.singletonMap("title", "Missing"), OptionalLong.empty()));
+	}
+
+	@Test
+	public void patchRejectsTheAttributesThatCanNotBeChanged() {
+		assertThrows(IllegalArgumentException.class, () -> partialUpdateService.patchTalk(talk.getId(),
+				Collections.singletonMap("speakerId", 1), OptionalLong.empty()));
+		assertThrows(IllegalArgumentException.class, () -> partialUpdateService.patchTalk(talk.getId(),
+				Collections.singletonMap("title", null), OptionalLong.empty()));
+		assertThrows(IllegalArgumentException.class, () -> partialUpdateService.patchSpeaker(speaker.getId(),
+				Collections.singletonMap("age", "old"), OptionalLong.empty()));
+		assertEquals(0, statistics.getPrepareStatementCount(), "Nothing must be written.");
+	}
+
+	@Test
+	public void patchKeepsCountersAndTitleIndexUpToDate() {
+		Map<String, Object> changes = new HashMap<>();
+		changes.put("title", "Patched title");
+		changes.put("published", true);
+
+		partialUpdateService.patchTalk(talk.getId(), changes, OptionalLong.empty());
+
+		assertEquals(1, talkCounterService.getTalksCount(speaker.getId()).getPublishedTalks(),
+				"The talk must be counted as published.");
+		assertTrue(talkTitleIndexService.findByTitleContaining("patched title").stream()
+				.anyMatch(t -> t.getId() == talk.getId()), "The new title must be indexed.");
+	}
+
+	private Object column(String name) {
+		return jdbcTemplate.queryForObject("SELECT " + name + " FROM talks WHERE id = ?", Object.class, talk.getId());
+	}
+
+}
@@ -0,0 +1,148 @@
+package com.spring.mssql.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.spring.mssql.dto.PurgeStatusDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class PurgeServiceTest {
+
+	static final int CHUNK_SIZE = 7;
+
+	// Small chunks, so that a few rows are split in many transactions
+	PurgeService purgeService;
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	Statistics statistics;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public PurgeServiceTest(TalkRepository talkRepository, SpeakerRepository speakerRepository,
+			RoomRepository roomRepository, TalkCounterService talkCounterService,
+			TalkTitleIndexService talkTitleIndexService, JoinReadModelService joinReadModelService,
+			PlatformTransactionManager transactionManager, JdbcTemplate jdbcTemplate,
+			EntityManagerFactory entityManagerFactory) {
+		this.purgeService = new PurgeService(talkRepository, speakerRepository, talkCounterService,
+				talkTitleIndexService, joinReadModelService, transactionManager, CHUNK_SIZE);
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterEach
+	public void stopThePurges() {
+		purgeService.shutdown();
+	}
+
+	@Test
+	public void talksArePurgedInChunksWithoutLoadingThem() {
+		insertTalks(50);
+		long talks = count("talks");
+		statistics.clear();
+
+		PurgeStatusDTO status = purgeService.purge(PurgeService.Table.TALKS);
+
+		assertEquals(PurgeStatusDTO.State.COMPLETED, status.getState());
+		assertEquals(talks, status.getDeletedRows(), "All the talks must be deleted.");
+		assertEquals((talks + CHUNK_SIZE - 1) / CHUNK_SIZE, status.getChunks(), "Each chunk must delete up to the chunk size.");
+		assertEquals(0, count("talks"));
+		assertEquals(0, statistics.getEntityLoadCount(), "No talk must be loaded.");
+		assertTrue(purgeService.isEmpty(PurgeService.Table.TALKS));
+	}
+
+	@Test
+	public void speakersArePurgedAndTheirTalksDetached() {
+		insertTalks(20);
+		long talks = count("talks");
+
+		PurgeStatusDTO status = purgeService.purge(PurgeService.Table.SPEAKERS);
+
+		assertEquals(PurgeStatusDTO.State.COMPLETED, status.getState());
+		assertEquals(0, count("speakers"));
+		assertTrue(purgeService.isEmpty(PurgeService.Table.SPEAKERS));
+		assertEquals(talks, count("talks"), "The talks must not be deleted.");
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM talks WHERE speaker_id IS NOT NULL", Long.class),
+				"The talks must be left without a speaker.");
+	}
+
+	@Test
+	public void cancelledPurgeKeepsTheRowsOfTheNextChunks() throws InterruptedException {
+		insertTalks(500);
+		long talks = count("talks");
+
+		String id = purgeService.start(PurgeService.Table.TALKS).getId();
+		while (purgeService.getStatus(id).get().getChunks() == 0) {
+			Thread.sleep(1);
+		}
+		purgeService.cancel(id);
+		PurgeStatusDTO status = awaitEnd(id);
+
+		assertEquals(PurgeStatusDTO.State.CANCELLED, status.getState());
+		assertTrue(status.getDeletedRows() > 0 && status.getDeletedRows() < talks, "Only some chunks must be deleted.");
+		assertEquals(talks - status.getDeletedRows(), count("talks"), "The other talks must be kept.");
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM talks WHERE id <= ?", Long.class,
+				status.getLastId()), "The talks up to the last id must be deleted.");
+	}
+
+	@Test
+	public void onlyOnePurgeAtATimeForEachTable() throws InterruptedException {
+		insertTalks(2000);
+
+		String id = purgeService.start(PurgeService.Table.TALKS).getId();
+		assertThrows(IllegalStateException.class, () -> purgeService.purge(PurgeService.Table.TALKS));
+		purgeService.cancel(id);
+		awaitEnd(id);
+		assertEquals(PurgeStatusDTO.State.COMPLETED, purgeService.purge(PurgeService.Table.TALKS).getState(),
+				"Once the first purge has ended, another one can start.");
+	}
+
+	private PurgeStatusDTO awaitEnd(String id) throws InterruptedException {
+		PurgeStatusDTO status = purgeService.getStatus(id).get();
+		while (status.getState() == PurgeStatusDTO.State.RUNNING) {
+			Thread.sleep(10);
+			status = purgeService.getStatus(id).get();
+		}
+		return status;
+	}
+
+	private void insertTalks(int talks) {
+		Speaker speaker = speakerRepository.save(new Speaker("fforfabio", "Purge", 27));
+		Room room = roomRepository.save(new Room("Room Purge", 100, 1));
+		List<Object[]> rows = new ArrayList<>(talks);
+		for (int i = 0; i < talks; i++) {
+			rows.add(new Object[] {"Talk " + i, i % 2 == 0, room.getId(), speaker.getId()});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO talks (title, published, room_id, speaker_id) VALUES (?, ?, ?, ?)", rows);
+	}
+
+	private long count(String table) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+	}
+
+}
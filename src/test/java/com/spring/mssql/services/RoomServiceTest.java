@@ -0,0 +1,152 @@
+package com.spring.mssql.services;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.LazyInitializationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.spring.mssql.dto.RoomTalksCountView;
+import com.spring.mssql.dto.RoomTalksDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class RoomServiceTest {
+
+	static final int ROOMS = 5;
+
+	static final int TALKS_PER_ROOM = 3;
+
+	RoomService roomService;
+
+	TalkService talkService;
+
+	RoomRepository roomRepository;
+
+	SpeakerRepository speakerRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	MockMvc mockMvc;
+
+	Statistics statistics;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public RoomServiceTest(RoomService roomService, TalkService talkService, RoomRepository roomRepository,
+			SpeakerRepository speakerRepository, JdbcTemplate jdbcTemplate, MockMvc mockMvc,
+			EntityManagerFactory entityManagerFactory) {
+		this.roomService = roomService;
+		this.talkService = talkService;
+		this.roomRepository = roomRepository;
+		this.speakerRepository = speakerRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.mockMvc = mockMvc;
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@BeforeEach
+	public void roomsWithTalks() {
+		Speaker speaker = speakerRepository.save(new Speaker("fforfabio", "RoomService", 27));
+		for (int i = 0; i < ROOMS; i++) {
+			Room room = roomRepository.save(new Room("Room " + i, 100, i));
+			for (int j = 0; j < TALKS_PER_ROOM; j++) {
+				talkService.createTalk(speaker.getId(), room.getId(), new Talk("Talk " + j, "Description", j % 2 == 0, null));
+			}
+		}
+		roomRepository.save(new Room("Empty room", 10, 0));
+		statistics.clear();
+	}
+
+	@Test
+	public void roomsWithTalksAreReadWithTwoQueries() {
+		List<RoomTalksDTO> rooms = roomService.findAllWithTalks();
+
+		assertEquals(2, statistics.getPrepareStatementCount(), "The rooms and the talks must be read with a query each.");
+		assertEquals(0, statistics.getEntityLoadCount(), "No entity must be loaded.");
+		assertEquals(countRooms(), rooms.size(), "All the rooms must be returned, the ones without talks too.");
+		assertEquals(countTalks(), rooms.stream().mapToInt(r -> r.getTalks().size()).sum(),
+				"Each talk must be inside its room.");
+		for (RoomTalksDTO room : rooms) {
+			assertEquals(countTalks(room.getId()), room.getTalks().size(), "The talks of room " + room.getId());
+		}
+	}
+
+	@Test
+	public void roomsWithTalksCountAreReadWithOneQuery() {
+		List<RoomTalksCountView> rooms = roomRepository.findAllWithTalksCount();
+
+		assertEquals(1, statistics.getPrepareStatementCount(), "The rooms must be counted by a single query.");
+		assertEquals(countRooms(), rooms.size(), "All the rooms must be returned, the ones without talks too.");
+		for (RoomTalksCountView room : rooms) {
+			assertEquals(countTalks(room.getId()), room.getTalksCount(), "The talks of room " + room.getId());
+		}
+	}
+
+	@Test
+	public void talksOfTheEntityAreNotLoadedOutsideTheTransaction() {
+		Room room = roomRepository.findAllProjectedByOrderByIdAsc().stream()
+				.map(r -> roomRepository.findById(r.getId()).get())
+				.findFirst().get();
+
+		assertThrows(LazyInitializationException.class, () -> room.getTalks().size(),
+				"Without a transaction the lazy talks must not be loaded.");
+	}
+
+	@Test
+	public void endpointsRunAFixedNumberOfQueries() throws Exception {
+		mockMvc.perform(get("/RoomsApi/rooms")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(countRooms()))
+				.andExpect(jsonPath("$[0].talks").doesNotExist());
+		mockMvc.perform(get("/RoomsApi/roomsWithTalksCount")).andExpect(status().isOk());
+		mockMvc.perform(get("/RoomsApi/roomsWithTalks")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].talks[0].title").exists());
+
+		assertEquals(5, statistics.getPrepareStatementCount(),
+				"One query for the ETag and one for the rooms, one for the counts and two for the talks.");
+		assertEquals(0, statistics.getCollectionFetchCount(), "No list of talks must be loaded.");
+	}
+
+	@Test
+	public void roomEntityIsSerializedWithoutItsTalks() throws Exception {
+		long id = roomRepository.findAllProjectedByOrderByIdAsc().get(0).getId();
+
+		mockMvc.perform(get("/RoomsApi/room/" + id)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(id))
+				.andExpect(jsonPath("$.talks").doesNotExist());
+		assertEquals(0, statistics.getCollectionFetchCount(), "The list of talks must not be loaded.");
+	}
+
+	private int countRooms() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rooms", Integer.class);
+	}
+
+	private int countTalks() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM talks", Integer.class);
+	}
+
+	private int countTalks(long roomId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM talks WHERE room_id = ?", Integer.class, roomId);
+	}
+
+}
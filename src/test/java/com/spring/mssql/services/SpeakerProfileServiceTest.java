@@ -0,0 +1,156 @@
+package com.spring.mssql.services;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.spring.mssql.dto.SpeakerProfileDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class SpeakerProfileServiceTest {
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	TalkCounterService talkCounterService;
+
+	TalkService talkService;
+
+	MockMvc mockMvc;
+
+	long speakerId;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public SpeakerProfileServiceTest(SpeakerRepository speakerRepository, RoomRepository roomRepository,
+			TalkCounterService talkCounterService, TalkService talkService, MockMvc mockMvc) {
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.talkCounterService = talkCounterService;
+		this.talkService = talkService;
+		this.mockMvc = mockMvc;
+	}
+
+	@BeforeEach
+	public void speakerWithATalk() {
+		speakerId = speakerRepository.save(new Speaker("fforfabio", "Profile", 27)).getId();
+		long roomId = roomRepository.save(new Room("Room R", 100, 1)).getId();
+		talkService.createTalk(speakerId, roomId, new Talk("Profile talk", "Description", true, null));
+	}
+
+	@Test
+	public void completeProfileIsOk() throws Exception {
+		mockMvc.perform(get("/SpeakersApi/speakers/" + speakerId + "/profile"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.lastName").value("Profile"))
+				.andExpect(jsonPath("$.talks[0].talkTitle").value("Profile talk"))
+				.andExpect(jsonPath("$.talksCount.numTalks").value(1))
+				.andExpect(jsonPath("$.rooms[0].roomName").value("Room R"));
+	}
+
+	@Test
+	public void unknownSpeakerIsNotFound() throws Exception {
+		mockMvc.perform(get("/SpeakersApi/speakers/-1/profile")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void failedBranchLeavesAPartialProfile() {
+		RoomRepository rooms = replace(RoomRepository.class, roomRepository, "findRoomsOfSpeaker", () -> {
+			throw new IllegalStateException("Rooms not available");
+		});
+		SpeakerProfileService service = new SpeakerProfileService(speakerRepository, rooms, talkCounterService, 4, 100, 2000);
+
+		SpeakerProfileDTO profile = profile(service);
+
+		assertFalse(profile.isComplete(), "The profile must be partial, answered with a 207.");
+		assertEquals("failed", profile.getErrors().get("rooms"));
+		assertNull(profile.getRooms());
+		assertEquals("Profile", profile.getLastName(), "The other branches must be kept.");
+		assertEquals(1, profile.getTalks().size());
+		assertEquals(1, profile.getTalksCount().getNumTalks());
+		service.shutdown();
+	}
+
+	@Test
+	public void slowBranchesShareTheDeadline() {
+		Callable<Object> slow = () -> {
+			Thread.sleep(5_000);
+			return null;
+		};
+		SpeakerRepository speakers = replace(SpeakerRepository.class, speakerRepository,
+				"getSpeakerTalksWithJoinDTONativeQuery", slow);
+		RoomRepository rooms = replace(RoomRepository.class, roomRepository, "findRoomsOfSpeaker", slow);
+		SpeakerProfileService service = new SpeakerProfileService(speakers, rooms, talkCounterService, 4, 100, 500);
+
+		long start = System.nanoTime();
+		SpeakerProfileDTO profile = profile(service);
+		long millis = (System.nanoTime() - start) / 1_000_000;
+
+		assertEquals("timeout", profile.getErrors().get("talks"));
+		assertEquals("timeout", profile.getErrors().get("rooms"));
+		assertEquals("Profile", profile.getLastName());
+		// Each slow branch would add its own 500 ms with a timeout for each branch
+		assertTrue(millis >= 500 && millis < 1_000, "The branches must share a single deadline, it took " + millis + " ms.");
+		service.shutdown();
+	}
+
+	@Test
+	public void branchesWithoutRoomInThePoolAreBusy() {
+		// The speaker keeps the only thread, the talks fill the queue and the other branches are rejected
+		SpeakerRepository speakers = replace(SpeakerRepository.class, speakerRepository, "findById", () -> {
+			Thread.sleep(300);
+			return speakerRepository.findById(speakerId);
+		});
+		SpeakerProfileService service = new SpeakerProfileService(speakers, roomRepository, talkCounterService, 1, 1, 2000);
+
+		SpeakerProfileDTO profile = profile(service);
+
+		assertEquals("busy", profile.getErrors().get("talksCount"));
+		assertEquals("busy", profile.getErrors().get("rooms"));
+		assertEquals(2, profile.getErrors().size());
+		assertEquals("Profile", profile.getLastName());
+		assertEquals(1, profile.getTalks().size(), "The queued branch must run.");
+		service.shutdown();
+	}
+
+	private SpeakerProfileDTO profile(SpeakerProfileService service) {
+		Optional<SpeakerProfileDTO> profile = service.getProfile(speakerId);
+		assertTrue(profile.isPresent());
+		return profile.get();
+	}
+
+	// Wrap a repository, answering one of its methods with the replacement
+	private static <T> T replace(Class<T> type, T repository, String method, Callable<Object> replacement) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, m, args) -> {
+			if (m.getName().equals(method))
+				return replacement.call();
+			try {
+				return m.invoke(repository, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}));
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.spring.mssql.services;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.pagination.KeysetCursor;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class SpeakerServiceTest {
+
+	static final int TALKS = 3;
+
+	SpeakerService speakerService;
+
+	TalkService talkService;
+
+	TalkCounterService talkCounterService;
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	Statistics statistics;
+
+	MockMvc mockMvc;
+
+	long speakerId;
+
+	long otherSpeakerId;
+
+	List<Long> talkIds;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public SpeakerServiceTest(SpeakerService speakerService, TalkService talkService,
+			TalkCounterService talkCounterService, SpeakerRepository speakerRepository,
+			RoomRepository roomRepository, JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+			MockMvc mockMvc) {
+		this.speakerService = speakerService;
+		this.talkService = talkService;
+		this.talkCounterService = talkCounterService;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.mockMvc = mockMvc;
+	}
+
+	@BeforeEach
+	public void speakersWithTalks() {
+		speakerId = speakerRepository.save(new Speaker("fforfabio", "SpeakerService", 27)).getId();
+		otherSpeakerId = speakerRepository.save(new Speaker("fforfabio", "SpeakerServiceOther", 28)).getId();
+		long roomId = roomRepository.save(new Room("Room S", 100, 1)).getId();
+		talkIds = new ArrayList<>();
+		for (int i = 0; i < TALKS; i++) {
+			talkIds.add(talkService.createTalk(speakerId, roomId, new Talk("Talk " + i, "Description", i == 0, null)).getId());
+		}
+		talkService.createTalk(otherSpeakerId, roomId, new Talk("Other talk", "Description", true, null));
+		statistics.clear();
+	}
+
+	@Test
+	public void deleteSpeakerDetachesItsTalks() {
+		assertTrue(speakerService.deleteSpeaker(speakerId, null));
+
+		assertEquals(2, statistics.getPrepareStatementCount(), "One UPDATE of the talks and one DELETE are expected.");
+		assertEquals(0, statistics.getEntityLoadCount(), "Neither the speaker nor its talks must be loaded.");
+		assertFalse(speakerRepository.existsById(speakerId));
+		for (long talkId : talkIds) {
+			assertNull(speakerIdOf(talkId), "The talks must be left without a speaker.");
+			assertEquals(1, versionOf(talkId), "The update must increment the version of the talks.");
+		}
+		assertEquals(1, talkCounterService.getTalksCount(otherSpeakerId).getNumTalks());
+	}
+
+	@Test
+	public void deleteSpeakerMovesItsTalksToAnotherSpeaker() {
+		assertTrue(speakerService.deleteSpeaker(speakerId, otherSpeakerId));
+
+		assertEquals(3, statistics.getPrepareStatementCount(),
+				"One check of the new speaker, one UPDATE of the talks and one DELETE are expected.");
+		assertEquals(0, statistics.getEntityLoadCount(), "Neither the speakers nor the talks must be loaded.");
+		assertFalse(speakerRepository.existsById(speakerId));
+		for (long talkId : talkIds) {
+			assertEquals(otherSpeakerId, speakerIdOf(talkId), "The talks must be moved to the other speaker.");
+		}
+		assertEquals(TALKS + 1, talkCounterService.getTalksCount(otherSpeakerId).getNumTalks());
+		assertEquals(2, talkCounterService.getTalksCount(otherSpeakerId).getPublishedTalks());
+		assertEquals(0, talkCounterService.getTalksCount(speakerId).getNumTalks());
+	}
+
+	@Test
+	public void deleteSpeakerRejectsAnInvalidNewSpeaker() {
+		assertThrows(IllegalArgumentException.class, () -> speakerService.deleteSpeaker(speakerId, -1L));
+		assertThrows(IllegalArgumentException.class, () -> speakerService.deleteSpeaker(speakerId, speakerId));
+
+		assertTrue(speakerRepository.existsById(speakerId), "The speaker must not be deleted.");
+		for (long talkId : talkIds) {
+			assertEquals(speakerId, speakerIdOf(talkId), "The talks must not be moved.");
+		}
+		assertFalse(speakerService.deleteSpeaker(-1, null), "A speaker that does not exist is not deleted.");
+	}
+
+	@Test
+	public void speakersAreReturnedWithTheirTalks() throws Exception {
+		mockMvc.perform(get("/SpeakersApi/speakers/" + speakerId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.speakerTalks.length()").value(TALKS));
+		mockMvc.perform(get("/SpeakersApi/speakersPagination").param("page", "0").param("size", "1000"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[*].speakerTalks").isArray());
+		mockMvc.perform(get("/SpeakersApi/speakersSorting"))
+				.andExpect(status().isOk());
+
+		// The keyset slices do not touch the lists of talks
+		mockMvc.perform(get("/SpeakersApi/speakersKeyset").param("size", "1")
+				.param("cursor", new KeysetCursor(speakerId - 1).encode()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].id").value(speakerId))
+				.andExpect(jsonPath("$.content[0].lastName").value("SpeakerService"))
+				.andExpect(jsonPath("$.content[0].speakerTalks").doesNotExist());
+	}
+
+	@Test
+	public void etagsChangeWithTheTalksOfTheSpeakers() throws Exception {
+		String speakerTag = mockMvc.perform(get("/SpeakersApi/speakers/" + speakerId))
+				.andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String speakersTag = mockMvc.perform(get("/SpeakersApi/speakers"))
+				.andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get("/SpeakersApi/speakers/" + speakerId).header(HttpHeaders.IF_NONE_MATCH, speakerTag))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/SpeakersApi/speakers").header(HttpHeaders.IF_NONE_MATCH, speakersTag))
+				.andExpect(status().isNotModified());
+
+		long roomId = roomRepository.save(new Room("Room E", 100, 1)).getId();
+		talkService.createTalk(speakerId, roomId, new Talk("New talk", "Description", false, null));
+
+		mockMvc.perform(get("/SpeakersApi/speakers/" + speakerId).header(HttpHeaders.IF_NONE_MATCH, speakerTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.speakerTalks.length()").value(TALKS + 1));
+		mockMvc.perform(get("/SpeakersApi/speakers").header(HttpHeaders.IF_NONE_MATCH, speakersTag))
+				.andExpect(status().isOk());
+
+		// The tag of the speaker with its talks is still accepted by If-Match
+		mockMvc.perform(patch("/SpeakersApi/speakers/" + speakerId).header(HttpHeaders.IF_MATCH, speakerTag)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"age\":28}"))
+				.andExpect(status().isNoContent());
+	}
+
+	private Long speakerIdOf(long talkId) {
+		return jdbcTemplate.queryForObject("SELECT speaker_id FROM talks WHERE id = ?", Long.class, talkId);
+	}
+
+	private long versionOf(long talkId) {
+		return jdbcTemplate.queryForObject("SELECT version FROM talks WHERE id = ?", Long.class, talkId);
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.spring.mssql.services;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+
+import com.spring.mssql.dto.SpeakerTalksDTO;
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class TalkCounterServiceTest {
+
+	TalkCounterService talkCounterService;
+
+	TalkService talkService;
+
+	TalkRepository talkRepository;
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	long speakerId;
+
+	long otherSpeakerId;
+
+	long roomId;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public TalkCounterServiceTest(TalkCounterService talkCounterService, TalkService talkService,
+			TalkRepository talkRepository, SpeakerRepository speakerRepository, RoomRepository roomRepository,
+			JdbcTemplate jdbcTemplate) {
+		this.talkCounterService = talkCounterService;
+		this.talkService = talkService;
+		this.talkRepository = talkRepository;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@BeforeEach
+	public void twoSpeakers() {
+		speakerId = speakerRepository.save(new Speaker("fforfabio", "TalkCounter", 27)).getId();
+		otherSpeakerId = speakerRepository.save(new Speaker("fforfabio", "TalkCounterOther", 28)).getId();
+		roomId = roomRepository.save(new Room("Room T", 100, 1)).getId();
+		talkCounterService.reconcile();
+	}
+
+	@Test
+	public void countersFollowTheInsertsDeletesAndMoves() {
+		Talk published = talkService.createTalk(speakerId, roomId, new Talk("Published", "Description", true, null));
+		Talk draft = talkService.createTalk(speakerId, roomId, new Talk("Draft", "Description", false, null));
+		assertCounted(speakerId, 2, 1);
+
+		talkRepository.deleteById(draft.getId());
+		assertCounted(speakerId, 1, 1);
+
+		talkService.updateTalk(published.getId(), Optional.empty(), Optional.of(otherSpeakerId),
+				new Talk("Published", "Description", true, null));
+		assertCounted(speakerId, 0, 0);
+		assertCounted(otherSpeakerId, 1, 1);
+
+		// A move that also unpublishes the talk
+		talkService.updateTalk(published.getId(), Optional.empty(), Optional.of(speakerId),
+				new Talk("Draft again", "Description", false, null));
+		assertCounted(speakerId, 1, 0);
+		assertCounted(otherSpeakerId, 0, 0);
+	}
+
+	@Test
+	public void writesDuringAReconcileAreKept() {
+		// The talk is inserted, and counted by the service as the listener does, once the talks have been counted
+		TalkCounterService[] service = new TalkCounterService[1];
+		TalkRepository repository = AfterQuery.wrap(TalkRepository.class, talkRepository, "countTalksBySpeaker", () -> {
+			jdbcTemplate.update("INSERT INTO talks (title, description, published, room_id, speaker_id) VALUES (?, ?, ?, ?, ?)",
+					"During the reconcile", "Description", true, roomId, speakerId);
+			service[0].talkAdded(speakerId, true);
+		});
+		service[0] = new TalkCounterService(repository, speakerRepository);
+
+		// The first reconcile has no live counters to keep, the second one has
+		service[0].reconcile();
+		assertEquals(1, service[0].getTalksCount(speakerId).getNumTalks(), "The talk inserted by the first reconcile must be counted.");
+		service[0].reconcile();
+		assertEquals(2, service[0].getTalksCount(speakerId).getNumTalks(), "The talk inserted by the second reconcile must be counted.");
+		assertEquals(2, service[0].getTalksCount(speakerId).getPublishedTalks());
+	}
+
+	// The counters must be the ones of the talks table
+	private void assertCounted(long id, int talks, int published) {
+		SpeakerTalksDTO counters = talkCounterService.getTalksCount(id);
+		assertEquals(talks, counters.getNumTalks());
+		assertEquals(published, counters.getPublishedTalks());
+		assertEquals(talks, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM talks WHERE speaker_id = ?", Integer.class, id));
+	}
+
+}
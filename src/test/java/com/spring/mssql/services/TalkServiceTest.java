@@ -0,0 +1,144 @@
+package com.spring.mssql.services;
+
+import java.util.Optional;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class TalkServiceTest {
+
+	TalkService talkService;
+
+	SpeakerRepository speakerRepository;
+
+	RoomRepository roomRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	TransactionTemplate transactionTemplate;
+
+	Statistics statistics;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public TalkServiceTest(TalkService talkService, SpeakerRepository speakerRepository, RoomRepository roomRepository,
+			JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			EntityManagerFactory entityManagerFactory) {
+		this.talkService = talkService;
+		this.speakerRepository = speakerRepository;
+		this.roomRepository = roomRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	public void createTalkUsesOneConnectionAndThreeStatements() {
+		Speaker speaker = speakerRepository.save(new Speaker("fforfabio", "TalkService", 27));
+		Room room = roomRepository.save(new Room("Room A", 100, 1));
+		// The count must not depend on the talks the speaker already has
+		for (int i = 0; i < 20; i++) {
+			talkService.createTalk(speaker.getId(), room.getId(), new Talk("Talk " + i, "Description", false, null));
+		}
+
+		statistics.clear();
+		Talk talk = talkService.createTalk(speaker.getId(), room.getId(), new Talk("Last talk", "Description", true, null));
+
+		assertEquals(1, statistics.getConnectCount(), "The talk must be created on a single connection.");
+		assertEquals(3, statistics.getPrepareStatementCount(), "Two existence checks and one INSERT are expected.");
+		assertEquals(speaker.getId(), speakerIdOf(talk.getId()), "The talk must belong to the speaker.");
+		assertEquals(room.getId(), roomIdOf(talk.getId()), "The talk must be taken in the room.");
+		assertEquals(21, talksOf(speaker.getId()), "The new talk must be in the list of the speaker.");
+	}
+
+	@Test
+	public void createTalkWithUnknownSpeakerFails() {
+		Room room = roomRepository.save(new Room("Room B", 100, 1));
+		long talks = countTalks();
+
+		assertThrows(ResourceNotFoundException.class,
+				() -> talkService.createTalk(-1, room.getId(), new Talk("Talk", "Description", false, null)));
+		assertEquals(talks, countTalks(), "No talk must be inserted.");
+	}
+
+	@Test
+	public void updateTalkMovesTalkToNewSpeakerAndRoom() {
+		Speaker oldSpeaker = speakerRepository.save(new Speaker("fforfabio", "Old", 27));
+		Speaker newSpeaker = speakerRepository.save(new Speaker("fforfabio", "New", 27));
+		Room oldRoom = roomRepository.save(new Room("Room C", 100, 1));
+		Room newRoom = roomRepository.save(new Room("Room D", 100, 2));
+		Talk talk = talkService.createTalk(oldSpeaker.getId(), oldRoom.getId(), new Talk("Talk", "Description", false, null));
+		assertEquals(1, talksOf(oldSpeaker.getId()));
+		assertEquals(0, talksOf(newSpeaker.getId()));
+
+		statistics.clear();
+		Talk updated = talkService.updateTalk(talk.getId(), Optional.of(newRoom.getId()), Optional.of(newSpeaker.getId()),
+				new Talk("New title", "New description", true, null));
+
+		assertEquals(0, statistics.getCollectionLoadCount(), "The lists of talks of the speakers must not be loaded.");
+		assertEquals("New title", updated.getTitle(), "The title of the talk must be updated.");
+		assertEquals(versionOf(talk.getId()), updated.getVersion(), "The returned talk must have the version of the row.");
+		assertEquals(newSpeaker.getId(), speakerIdOf(talk.getId()), "The talk must belong to the new speaker.");
+		assertEquals(newRoom.getId(), roomIdOf(talk.getId()), "The talk must be taken in the new room.");
+		assertEquals(0, talksOf(oldSpeaker.getId()), "The talk must be removed from the list of the old speaker.");
+		assertEquals(1, talksOf(newSpeaker.getId()), "The talk must be added to the list of the new speaker.");
+	}
+
+	@Test
+	public void deleteTalkEvictsTheListOfItsSpeaker() {
+		Speaker speaker = speakerRepository.save(new Speaker("fforfabio", "Delete", 27));
+		Room room = roomRepository.save(new Room("Room E", 100, 1));
+		Talk talk = talkService.createTalk(speaker.getId(), room.getId(), new Talk("Talk", "Description", false, null));
+		// Load the list of talks of the speaker in the cache
+		assertEquals(1, talksOf(speaker.getId()));
+
+		assertTrue(talkService.deleteTalk(talk.getId()), "The talk must be deleted.");
+
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM talks WHERE id = ?", Long.class, talk.getId()),
+				"The row of the talk must be deleted.");
+		assertEquals(0, talksOf(speaker.getId()), "The cached list of the speaker must be evicted.");
+		assertFalse(talkService.deleteTalk(talk.getId()), "A talk that does not exist must not be deleted.");
+	}
+
+	private long speakerIdOf(long talkId) {
+		return jdbcTemplate.queryForObject("SELECT speaker_id FROM talks WHERE id = ?", Long.class, talkId);
+	}
+
+	private long versionOf(long talkId) {
+		return jdbcTemplate.queryForObject("SELECT version FROM talks WHERE id = ?", Long.class, talkId);
+	}
+
+	private long roomIdOf(long talkId) {
+		return jdbcTemplate.queryForObject("SELECT room_id FROM talks WHERE id = ?", Long.class, talkId);
+	}
+
+	// Size of the list of talks of the speaker, read through the entity, and so through the cache
+	private int talksOf(long speakerId) {
+		return transactionTemplate.execute(status -> speakerRepository.findById(speakerId).get().getSpeakerTalks().size());
+	}
+
+	private long countTalks() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM talks", Long.class);
+	}
+
+}
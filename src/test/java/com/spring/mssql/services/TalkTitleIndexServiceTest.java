@@ -0,0 +1,110 @@
+package com.spring.mssql.services;
+
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestConstructor;
+
+import com.spring.mssql.models.Room;
+import com.spring.mssql.models.Speaker;
+import com.spring.mssql.models.Talk;
+import com.spring.mssql.repositories.RoomRepository;
+import com.spring.mssql.repositories.SpeakerRepository;
+import com.spring.mssql.repositories.TalkRepository;
+
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestConstructor(autowireMode = TestConstructor.AutowireMode.ALL)
+class TalkTitleIndexServiceTest {
+
+	TalkTitleIndexService talkTitleIndexService;
+
+	TalkService talkService;
+
+	TalkRepository talkRepository;
+
+	JdbcTemplate jdbcTemplate;
+
+	long speakerId;
+
+	long roomId;
+
+	// With this constructor we will avoid the use of the @Autowired annotation
+	public TalkTitleIndexServiceTest(TalkTitleIndexService talkTitleIndexService, TalkService talkService,
+			TalkRepository talkRepository, SpeakerRepository speakerRepository, RoomRepository roomRepository,
+			JdbcTemplate jdbcTemplate) {
+		this.talkTitleIndexService = talkTitleIndexService;
+		this.talkService = talkService;
+		this.talkRepository = talkRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.speakerId = speakerRepository.save(new Speaker("fforfabio", "TitleIndex", 27)).getId();
+		this.roomId = roomRepository.save(new Room("Room I", 100, 1)).getId();
+	}
+
+	@Test
+	public void indexFollowsTheInsertsUpdatesAndDeletes() {
+		talkTitleIndexService.rebuild();
+		Talk talk = talkService.createTalk(speakerId, roomId, new Talk("Quokkas at Scale", "Description", false, null));
+		assertEquals(Collections.singletonList(talk.getId()), ids(talkTitleIndexService.findByTitleContaining("KKAS AT")),
+				"The search must ignore the case.");
+		assertEquals(Collections.singletonList(talk.getId()), ids(talkTitleIndexService.findByTitleContaining("Quokkas at Scale")));
+
+		talkService.updateTalk(talk.getId(), Optional.empty(), Optional.empty(), new Talk("Wombats at Scale", "Description", false, null));
+		assertTrue(talkTitleIndexService.findByTitleContaining("Quokkas").isEmpty(), "The old title must not be found.");
+		assertEquals(Collections.singletonList(talk.getId()), ids(talkTitleIndexService.findByTitleContaining("Wombats")));
+
+		talkRepository.deleteById(talk.getId());
+		assertTrue(talkTitleIndexService.findByTitleContaining("Wombats").isEmpty(), "A deleted talk must not be found.");
+	}
+
+	@Test
+	public void writesDuringARebuildAreKept() {
+		long changed = insertTalk("Platypus before the rebuild");
+		TalkTitleIndexService[] service = new TalkTitleIndexService[1];
+		// Once the titles have been read a talk is inserted and another one renamed, as the listener does
+		TalkRepository repository = AfterQuery.wrap(TalkRepository.class, talkRepository, "findAllTitles", () -> {
+			service[0].put(insertTalk("Echidna during the rebuild"), "Echidna during the rebuild");
+			jdbcTemplate.update("UPDATE talks SET title = ? WHERE id = ?", "Platypus after the rebuild", changed);
+			service[0].put(changed, "Platypus after the rebuild");
+		});
+		service[0] = new TalkTitleIndexService(repository, 1000);
+
+		// The first build has no index to change, the second one has
+		for (int i = 1; i <= 2; i++) {
+			service[0].rebuild();
+			assertEquals(i, service[0].findByTitleContaining("Echidna during").size(), "The inserted talks must be found.");
+			assertEquals(Collections.singletonList(changed), ids(service[0].findByTitleContaining("Platypus after")),
+					"The renamed talk must be found by its new title.");
+		}
+	}
+
+	private long insertTalk(String title) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(
+					"INSERT INTO talks (title, published, room_id, speaker_id) VALUES (?, ?, ?, ?)", new String[] {"id"});
+			statement.setString(1, title);
+			statement.setBoolean(2, false);
+			statement.setLong(3, roomId);
+			statement.setLong(4, speakerId);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private static List<Long> ids(List<Talk> talks) {
+		return talks.stream().map(Talk::getId).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,30 @@
+-- Tables of the entities on the embedded database of the tests and of the benchmarks,
+-- the same of the SQL Server script
+CREATE TABLE rooms (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+	room_capacity BIGINT NOT NULL,
+	room_floor INTEGER NOT NULL,
+	room_name VARCHAR(255),
+	PRIMARY KEY (id)
+);
+
+CREATE TABLE speakers (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+	age INTEGER,
+	first_name VARCHAR(255),
+	last_name VARCHAR(255),
+	PRIMARY KEY (id)
+);
+
+CREATE TABLE talks (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+	description VARCHAR(255),
+	published BIT NOT NULL,
+	speaker_id BIGINT,
+	title VARCHAR(255),
+	room_id BIGINT NOT NULL,
+	PRIMARY KEY (id)
+);
+
+ALTER TABLE talks ADD CONSTRAINT FKgdebhjqyea3dwlpbw47m5ge1g FOREIGN KEY (room_id) REFERENCES rooms (id) ON DELETE CASCADE;
+ALTER TABLE talks ADD CONSTRAINT FKj0ou8i571g56h698vw2ixyysn FOREIGN KEY (speaker_id) REFERENCES speakers (id);
@@ -0,0 +1,5 @@
+-- Version columns on the embedded database, the same of the SQL Server script,
+-- so the tests run the upgrade of a database baselined at V1
+ALTER TABLE rooms ADD version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE speakers ADD version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE talks ADD version BIGINT DEFAULT 0 NOT NULL;
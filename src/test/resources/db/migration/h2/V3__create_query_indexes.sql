@@ -0,0 +1,21 @@
+-- Indexes of the repository queries on the embedded database, the same of the MySQL script
+-- as H2 has no INCLUDE: QueryIndexTest checks that each query uses its index.
+-- A foreign key of H2 has its own index, unless one on exactly its columns exists: the foreign
+-- keys are created again after the indexes on speaker_id and room_id, that have only that column.
+ALTER TABLE talks DROP CONSTRAINT FKgdebhjqyea3dwlpbw47m5ge1g;
+ALTER TABLE talks DROP CONSTRAINT FKj0ou8i571g56h698vw2ixyysn;
+
+CREATE INDEX ix_talks_speaker_id ON talks (speaker_id);
+
+CREATE INDEX ix_talks_room_id ON talks (room_id);
+
+CREATE INDEX ix_talks_published ON talks (published);
+
+CREATE INDEX ix_talks_title ON talks (title, speaker_id, published);
+
+CREATE INDEX ix_speakers_first_name ON speakers (first_name, last_name);
+
+CREATE INDEX ix_speakers_last_name ON speakers (last_name);
+
+ALTER TABLE talks ADD CONSTRAINT FKgdebhjqyea3dwlpbw47m5ge1g FOREIGN KEY (room_id) REFERENCES rooms (id) ON DELETE CASCADE;
+ALTER TABLE talks ADD CONSTRAINT FKj0ou8i571g56h698vw2ixyysn FOREIGN KEY (speaker_id) REFERENCES speakers (id);
@@ -0,0 +1,24 @@
+-- Schema of the embedded read replica used by the tests, as created by the migrations on the primary
+CREATE TABLE IF NOT EXISTS rooms (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	room_capacity BIGINT NOT NULL,
+	room_floor INTEGER NOT NULL,
+	room_name VARCHAR(255),
+	version BIGINT DEFAULT 0 NOT NULL
+);
+CREATE TABLE IF NOT EXISTS speakers (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	age INTEGER,
+	first_name VARCHAR(255),
+	last_name VARCHAR(255),
+	version BIGINT DEFAULT 0 NOT NULL
+);
+CREATE TABLE IF NOT EXISTS talks (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	description VARCHAR(255),
+	published BOOLEAN NOT NULL,
+	speaker_id BIGINT,
+	title VARCHAR(255),
+	version BIGINT DEFAULT 0 NOT NULL,
+	room_id BIGINT NOT NULL
+);